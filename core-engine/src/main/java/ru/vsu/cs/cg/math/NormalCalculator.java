@@ -1,54 +1,93 @@
 package ru.vsu.cs.cg.math;
 
-import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.MeshAdjacency;
 import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.utils.ParallelRanges;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 
 public class NormalCalculator {
+    private static final float EPSILON = 1e-12f;
 
     /**
      * Высчитывает нормали вершин объекта
      * (при необходимости пересчитывает)
      */
     public static List<Vector3f> computeVertexNormals(List<Vector3f> vertices, List<Polygon> polygons) {
+        MeshAdjacency adjacency = MeshAdjacency.build(vertices.size(), polygons);
+        return toVectors(computeVertexNormals(vertices, adjacency, NormalWeighting.AREA), vertices.size());
+    }
 
-        List<Vector3f> normals = new ArrayList<>();
-
-        Vector3f[] sumNormalsArray = new Vector3f[vertices.size()];
-
-        for (int i = 0; i < vertices.size(); i++) {
-            sumNormalsArray[i] = new Vector3f();
-        }
-
-        for (Polygon polygon : polygons) {
-            List<Integer> indices = polygon.getVertexIndices();
-
-            if (indices.size() < 3) continue;
-
-            Vector3f v0 = vertices.get(indices.get(0));
-            Vector3f v1 = vertices.get(indices.get(1));
-            Vector3f v2 = vertices.get(indices.get(2));
-
-            Vector3f edge1 = v1.subtract(v0);
-            Vector3f edge2 = v2.subtract(v0);
-
-            Vector3f polygonNormal = edge1.cross(edge2);
-
-            for (int idx : indices) {
-                sumNormalsArray[idx] = sumNormalsArray[idx].add(polygonNormal);
+    /**
+     * Высчитывает нормали всех вершин в плоский массив {@code [x0, y0, z0, x1, ...]}.
+     * Сначала параллельно по диапазонам полигонов считаются нормали полигонов
+     * (по Ньюэллу, с учетом всех вершин n-угольника), затем параллельно по диапазонам
+     * вершин собираются нормали вершин через индекс смежности. Потоки пишут
+     * в непересекающиеся части массивов, поэтому синхронизация не нужна.
+     *
+     * @param vertices  вершины модели
+     * @param adjacency индекс смежности модели
+     * @param weighting способ взвешивания
+     * @return нормали вершин
+     */
+    public static float[] computeVertexNormals(List<Vector3f> vertices, MeshAdjacency adjacency,
+                                               NormalWeighting weighting) {
+        int faceCount = adjacency.getFaceCount();
+        float[] faceNormals = new float[faceCount * 3];
+        ParallelRanges.forEach(faceCount, (from, to) -> {
+            for (int f = from; f < to; f++) {
+                faceNormal(vertices, adjacency, f, faceNormals, f * 3);
             }
-        }
+        });
+
+        int vertexCount = vertices.size();
+        float[] normals = new float[vertexCount * 3];
+        ParallelRanges.forEach(vertexCount, (from, to) -> {
+            float[] scratch = new float[3];
+            for (int v = from; v < to; v++) {
+                vertexNormal(vertices, adjacency, faceNormals, v, weighting, normals, v * 3, scratch);
+            }
+        });
+        return normals;
+    }
 
-        for (int i = 0; i < vertices.size(); i++) {
-            Vector3f normal = sumNormalsArray[i];
+    /**
+     * Пересчитывает нормали только вокруг правки: для измененных вершин и всех вершин
+     * полигонов, которые их содержат. Время пропорционально размеру окрестности.
+     *
+     * @param vertices         вершины модели
+     * @param adjacency        индекс смежности модели
+     * @param weighting        способ взвешивания
+     * @param touchedVertices  вершины, затронутые правкой
+     * @param normals          нормали вершин по индексам вершин; пересчитанные элементы заменяются
+     * @return маска пересчитанных вершин
+     */
+    public static BitSet updateVertexNormals(List<Vector3f> vertices, MeshAdjacency adjacency,
+                                             NormalWeighting weighting, BitSet touchedVertices,
+                                             List<Vector3f> normals) {
+        BitSet affected = adjacency.growVertices(touchedVertices);
+        affected.clear(vertices.size(), Math.max(vertices.size(), affected.length()));
+
+        float[] scratch = new float[3];
+        float[] normal = new float[3];
+        for (int v = affected.nextSetBit(0); v >= 0; v = affected.nextSetBit(v + 1)) {
+            vertexNormal(vertices, adjacency, null, v, weighting, normal, 0, scratch);
+            normals.set(v, new Vector3f(normal[0], normal[1], normal[2]));
+        }
+        return affected;
+    }
 
-            normals.add(normal.normalizeSafe());
+    /**
+     * Переводит плоский массив нормалей в список векторов.
+     */
+    public static List<Vector3f> toVectors(float[] normals, int count) {
+        List<Vector3f> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new Vector3f(normals[i * 3], normals[i * 3 + 1], normals[i * 3 + 2]));
         }
-        return normals;
+        return result;
     }
 
     /**
@@ -70,5 +109,116 @@ public class NormalCalculator {
 
         return polygonNormal.normalized();
     }
-}
 
+    private static void vertexNormal(List<Vector3f> vertices, MeshAdjacency adjacency, float[] faceNormals,
+                                     int vertex, NormalWeighting weighting, float[] out, int offset,
+                                     float[] scratch) {
+        float x = 0;
+        float y = 0;
+        float z = 0;
+
+        for (int j = adjacency.vertexFaceStart(vertex); j < adjacency.vertexFaceEnd(vertex); j++) {
+            int f = adjacency.vertexFaceAt(j);
+            float nx;
+            float ny;
+            float nz;
+            if (faceNormals != null) {
+                nx = faceNormals[f * 3];
+                ny = faceNormals[f * 3 + 1];
+                nz = faceNormals[f * 3 + 2];
+            } else {
+                faceNormal(vertices, adjacency, f, scratch, 0);
+                nx = scratch[0];
+                ny = scratch[1];
+                nz = scratch[2];
+            }
+
+            if (weighting == NormalWeighting.ANGLE) {
+                float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+                if (length < EPSILON) {
+                    continue;
+                }
+                float weight = cornerAngle(vertices, adjacency, f, vertex) / length;
+                nx *= weight;
+                ny *= weight;
+                nz *= weight;
+            }
+
+            x += nx;
+            y += ny;
+            z += nz;
+        }
+
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        if (length < EPSILON) {
+            out[offset] = 0;
+            out[offset + 1] = 1;
+            out[offset + 2] = 0;
+        } else {
+            out[offset] = x / length;
+            out[offset + 1] = y / length;
+            out[offset + 2] = z / length;
+        }
+    }
+
+    /**
+     * Ненормированная нормаль полигона по Ньюэллу; ее длина равна удвоенной площади.
+     * Полигон со ссылкой на несуществующую вершину дает нулевую нормаль.
+     */
+    private static void faceNormal(List<Vector3f> vertices, MeshAdjacency adjacency, int face,
+                                   float[] out, int offset) {
+        int start = adjacency.faceVertexStart(face);
+        int end = adjacency.faceVertexEnd(face);
+        float x = 0;
+        float y = 0;
+        float z = 0;
+
+        for (int i = start; i < end; i++) {
+            int a = adjacency.faceVertexAt(i);
+            int b = adjacency.faceVertexAt(i + 1 < end ? i + 1 : start);
+            if (a < 0 || b < 0 || a >= vertices.size() || b >= vertices.size()) {
+                x = 0;
+                y = 0;
+                z = 0;
+                break;
+            }
+            Vector3f current = vertices.get(a);
+            Vector3f next = vertices.get(b);
+            x += (current.getY() - next.getY()) * (current.getZ() + next.getZ());
+            y += (current.getZ() - next.getZ()) * (current.getX() + next.getX());
+            z += (current.getX() - next.getX()) * (current.getY() + next.getY());
+        }
+
+        out[offset] = x;
+        out[offset + 1] = y;
+        out[offset + 2] = z;
+    }
+
+    private static float cornerAngle(List<Vector3f> vertices, MeshAdjacency adjacency, int face, int vertex) {
+        int start = adjacency.faceVertexStart(face);
+        int end = adjacency.faceVertexEnd(face);
+
+        for (int i = start; i < end; i++) {
+            if (adjacency.faceVertexAt(i) != vertex) {
+                continue;
+            }
+            Vector3f center = vertices.get(vertex);
+            Vector3f previous = vertices.get(adjacency.faceVertexAt(i > start ? i - 1 : end - 1));
+            Vector3f next = vertices.get(adjacency.faceVertexAt(i + 1 < end ? i + 1 : start));
+
+            float ax = previous.getX() - center.getX();
+            float ay = previous.getY() - center.getY();
+            float az = previous.getZ() - center.getZ();
+            float bx = next.getX() - center.getX();
+            float by = next.getY() - center.getY();
+            float bz = next.getZ() - center.getZ();
+            float lengths = (float) Math.sqrt((ax * ax + ay * ay + az * az) * (bx * bx + by * by + bz * bz));
+            if (lengths < EPSILON) {
+                return 0;
+            }
+            float cos = (ax * bx + ay * by + az * bz) / lengths;
+            return (float) Math.acos(Math.max(-1.0f, Math.min(1.0f, cos)));
+        }
+        return 0;
+    }
+}
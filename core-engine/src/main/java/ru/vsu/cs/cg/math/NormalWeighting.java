@@ -0,0 +1,15 @@
+package ru.vsu.cs.cg.math;
+
+/**
+ * Способ взвешивания нормалей полигонов при расчете нормали вершины.
+ */
+public enum NormalWeighting {
+    /**
+     * Вклад полигона пропорционален его площади.
+     */
+    AREA,
+    /**
+     * Вклад полигона пропорционален углу при вершине; не зависит от плотности разбиения.
+     */
+    ANGLE
+}
@@ -0,0 +1,681 @@
+package ru.vsu.cs.cg.mesh;
+
+import ru.vsu.cs.cg.exceptions.ValidateVertexException;
+import ru.vsu.cs.cg.math.Vector2f;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.utils.MessageConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Полуреберное представление сетки для локального топологического редактирования.
+ * <p>
+ * Каждый полигон хранится как цикл полуребер; полуребро знает начальную вершину,
+ * следующее и предыдущее полуребро своего полигона и парное полуребро соседнего полигона.
+ * На границе парного полуребра нет ({@link #NONE}). Все связи лежат в параллельных
+ * массивах {@code int}, удаленные элементы только помечаются, поэтому операции
+ * удаления и стягивания затрагивают лишь окрестность правки. Сжатие индексов
+ * выполняется один раз при выгрузке в {@link Model}.
+ * <p>
+ * Предполагается согласованно ориентированная сетка, в которой каждое ребро разделяют
+ * не более двух полигонов, обходящих его в противоположных направлениях; ребра,
+ * нарушающие это, считаются границей. Через вершину может проходить несколько вееров
+ * («бабочка» во входных данных или после удаления полигонов): для каждой вершины
+ * хранится число живых исходящих полуребер, и если обход веера находит не все,
+ * инцидентные полуребра собираются просмотром всех полуребер. Удаление такой вершины
+ * убирает все ее полигоны без заполнения дыры, а стягивание ребра при ней отклоняется.
+ */
+public final class HalfEdgeMesh {
+    public static final int NONE = -1;
+
+    private final List<Vector3f> positions;
+    private final List<Vector2f> textureVertices;
+    private final List<Vector3f> normals;
+
+    private final int[] vertexHalfEdge;
+    private final int[] vertexCorners;
+    private final BitSet deletedVertices = new BitSet();
+    private int liveVertexCount;
+
+    private int halfEdgeCount;
+    private int[] origin;
+    private int[] next;
+    private int[] prev;
+    private int[] twin;
+    private int[] face;
+    private int[] texture;
+    private int[] normal;
+    private final BitSet deletedHalfEdges = new BitSet();
+
+    private int faceCount;
+    private int[] faceHalfEdge;
+    private final BitSet deletedFaces = new BitSet();
+    private int liveFaceCount;
+
+    private HalfEdgeMesh(List<Vector3f> positions, List<Vector2f> textureVertices, List<Vector3f> normals,
+                         int halfEdgeCapacity, int faceCapacity) {
+        this.positions = new ArrayList<>(positions);
+        this.textureVertices = new ArrayList<>(textureVertices);
+        this.normals = new ArrayList<>(normals);
+        this.vertexHalfEdge = new int[positions.size()];
+        Arrays.fill(vertexHalfEdge, NONE);
+        this.vertexCorners = new int[positions.size()];
+        this.liveVertexCount = positions.size();
+
+        int capacity = Math.max(4, halfEdgeCapacity);
+        this.origin = new int[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.twin = new int[capacity];
+        this.face = new int[capacity];
+        this.texture = new int[capacity];
+        this.normal = new int[capacity];
+        this.faceHalfEdge = new int[Math.max(4, faceCapacity)];
+    }
+
+    /**
+     * Строит полуреберную сетку по модели. Полигоны меньше чем из трех вершин пропускаются.
+     *
+     * @param model исходная модель
+     * @return сетка, независимая от модели
+     * @throws ValidateVertexException если полигон ссылается на несуществующую вершину
+     */
+    public static HalfEdgeMesh fromModel(Model model) {
+        List<Polygon> polygons = model.getPolygons();
+        int corners = 0;
+        for (Polygon polygon : polygons) {
+            if (polygon != null && polygon.getVertexIndices().size() >= 3) {
+                corners += polygon.getVertexIndices().size();
+            }
+        }
+
+        HalfEdgeMesh mesh = new HalfEdgeMesh(model.getVertices(), model.getTextureVertices(),
+            model.getNormals(), corners, polygons.size() + 1);
+        Map<Long, Integer> openEdges = new HashMap<>(corners * 2);
+
+        for (Polygon polygon : polygons) {
+            if (polygon != null && polygon.getVertexIndices().size() >= 3) {
+                mesh.addFace(polygon, openEdges);
+            }
+        }
+
+        return mesh;
+    }
+
+    private void addFace(Polygon polygon, Map<Long, Integer> openEdges) {
+        List<Integer> vertices = polygon.getVertexIndices();
+        List<Integer> textures = polygon.getTextureVertexIndices();
+        List<Integer> polygonNormals = polygon.getNormalIndices();
+        int n = vertices.size();
+
+        for (Integer vertex : vertices) {
+            if (vertex < 0 || vertex >= vertexHalfEdge.length) {
+                throw new ValidateVertexException(MessageConstants.POLYGON_INVALID_VERTEX_INDEX_MESSAGE);
+            }
+        }
+
+        int f = allocateFace();
+        int first = halfEdgeCount;
+        ensureHalfEdgeCapacity(halfEdgeCount + n);
+
+        for (int i = 0; i < n; i++) {
+            int h = halfEdgeCount++;
+            int vertex = vertices.get(i);
+            origin[h] = vertex;
+            next[h] = first + (i + 1) % n;
+            prev[h] = first + (i + n - 1) % n;
+            twin[h] = NONE;
+            face[h] = f;
+            texture[h] = textures.size() == n ? textures.get(i) : NONE;
+            normal[h] = polygonNormals.size() == n ? polygonNormals.get(i) : NONE;
+            vertexCorners[vertex]++;
+            if (vertexHalfEdge[vertex] == NONE) {
+                vertexHalfEdge[vertex] = h;
+            }
+        }
+        faceHalfEdge[f] = first;
+
+        for (int h = first; h < first + n; h++) {
+            int a = origin[h];
+            int b = origin[next[h]];
+            Integer opposite = openEdges.remove(edgeKey(b, a));
+            if (opposite != null) {
+                twin[h] = opposite;
+                twin[opposite] = h;
+            } else {
+                openEdges.putIfAbsent(edgeKey(a, b), h);
+            }
+        }
+    }
+
+    private static long edgeKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private int allocateFace() {
+        if (faceCount == faceHalfEdge.length) {
+            faceHalfEdge = Arrays.copyOf(faceHalfEdge, faceCount * 2);
+        }
+        liveFaceCount++;
+        return faceCount++;
+    }
+
+    private void ensureHalfEdgeCapacity(int required) {
+        if (required <= origin.length) {
+            return;
+        }
+        int capacity = Math.max(required, origin.length * 2);
+        origin = Arrays.copyOf(origin, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        twin = Arrays.copyOf(twin, capacity);
+        face = Arrays.copyOf(face, capacity);
+        texture = Arrays.copyOf(texture, capacity);
+        normal = Arrays.copyOf(normal, capacity);
+    }
+
+    /**
+     * Удаляет полигон. Его ребра становятся границей соседних полигонов,
+     * вершины остаются в сетке, даже если больше не используются.
+     *
+     * @param faceIndex индекс полигона
+     * @return false если полигон уже удален или индекс некорректен
+     */
+    public boolean deleteFace(int faceIndex) {
+        if (!isFaceAlive(faceIndex)) {
+            return false;
+        }
+
+        IntList loop = faceLoop(faceIndex);
+        int[] replacements = new int[loop.size()];
+        for (int i = 0; i < loop.size(); i++) {
+            int h = loop.get(i);
+            int forward = twin[prev[h]];
+            int backward = twin[h] == NONE ? NONE : next[twin[h]];
+            replacements[i] = forward != NONE ? forward : backward;
+        }
+
+        for (int i = 0; i < loop.size(); i++) {
+            int h = loop.get(i);
+            if (twin[h] != NONE) {
+                twin[twin[h]] = NONE;
+            }
+            deleteHalfEdge(h);
+        }
+        deletedFaces.set(faceIndex);
+        liveFaceCount--;
+
+        for (int i = 0; i < loop.size(); i++) {
+            int h = loop.get(i);
+            if (vertexHalfEdge[origin[h]] == h) {
+                vertexHalfEdge[origin[h]] = replacements[i];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Удаляет вершину вместе со всеми инцидентными полигонами.
+     * Если {@code fillHole} и вершина внутренняя, образовавшаяся дыра закрывается
+     * одним полигоном по кольцу соседних вершин; полуребра этого кольца переиспользуются.
+     *
+     * @param vertexIndex индекс вершины
+     * @param fillHole    закрывать ли дыру новым полигоном
+     * @return false если вершина уже удалена или индекс некорректен
+     */
+    public boolean deleteVertex(int vertexIndex, boolean fillHole) {
+        if (!isVertexAlive(vertexIndex)) {
+            return false;
+        }
+
+        IntList ring = new IntList();
+        boolean closed = collectIncident(vertexIndex, ring);
+
+        if (!(fillHole && closed && fillOneRing(vertexIndex, ring))) {
+            for (int i = 0; i < ring.size(); i++) {
+                deleteFace(face[ring.get(i)]);
+            }
+        }
+
+        deletedVertices.set(vertexIndex);
+        vertexHalfEdge[vertexIndex] = NONE;
+        liveVertexCount--;
+        return true;
+    }
+
+    private boolean fillOneRing(int vertexIndex, IntList ring) {
+        int degree = ring.size();
+        int boundaryLength = 0;
+        IntList faces = new IntList(degree);
+
+        for (int i = 0; i < degree; i++) {
+            int h = ring.get(i);
+            if (faces.contains(face[h])) {
+                return false;
+            }
+            faces.add(face[h]);
+            for (int c = next[h]; c != prev[h]; c = next[c]) {
+                if (origin[c] == vertexIndex) {
+                    return false;
+                }
+                boundaryLength++;
+            }
+        }
+        if (boundaryLength < 3) {
+            return false;
+        }
+
+        int hole = allocateFace();
+        int[] chainFirst = new int[degree];
+        int[] chainLast = new int[degree];
+
+        for (int i = 0; i < degree; i++) {
+            int h = ring.get(i);
+            int spokeIn = prev[h];
+            chainFirst[i] = next[h];
+            chainLast[i] = prev[spokeIn];
+
+            for (int c = chainFirst[i]; ; c = next[c]) {
+                face[c] = hole;
+                vertexHalfEdge[origin[c]] = c;
+                if (c == chainLast[i]) {
+                    break;
+                }
+            }
+
+            deleteHalfEdge(h);
+            deleteHalfEdge(spokeIn);
+            deletedFaces.set(face[h]);
+            liveFaceCount--;
+        }
+
+        for (int i = 0; i < degree; i++) {
+            int following = chainFirst[(i + 1) % degree];
+            next[chainLast[i]] = following;
+            prev[following] = chainLast[i];
+        }
+        faceHalfEdge[hole] = chainFirst[0];
+        return true;
+    }
+
+    /**
+     * Стягивает ребро в его середину: конец ребра сливается с началом,
+     * треугольники при ребре исчезают, а их внешние ребра склеиваются.
+     * Стягивание отклоняется, если нарушает условие связности и сделало бы сетку немногообразной.
+     *
+     * @param halfEdge полуребро стягиваемого ребра
+     * @return true если ребро стянуто
+     */
+    public boolean collapseEdge(int halfEdge) {
+        if (!isHalfEdgeAlive(halfEdge)) {
+            return false;
+        }
+
+        int h = halfEdge;
+        int t = twin[h];
+        int u = origin[h];
+        int w = origin[next[h]];
+        if (u == w) {
+            return false;
+        }
+
+        IntList ringU = new IntList();
+        IntList ringW = new IntList();
+        boolean closedU = collectOutgoing(u, ringU);
+        boolean closedW = collectOutgoing(w, ringW);
+        if (ringU.size() != vertexCorners[u] || ringW.size() != vertexCorners[w]) {
+            return false;
+        }
+        if (t != NONE && !closedU && !closedW) {
+            return false;
+        }
+        if (!satisfiesLinkCondition(h, t, ringU, ringW)) {
+            return false;
+        }
+
+        Vector3f pu = positions.get(u);
+        Vector3f pw = positions.get(w);
+        positions.set(u, pu.add(pw).multiply(0.5f));
+
+        for (int i = 0; i < ringW.size(); i++) {
+            origin[ringW.get(i)] = u;
+        }
+        vertexCorners[u] += vertexCorners[w];
+        vertexCorners[w] = 0;
+
+        removeFromFace(h);
+        if (t != NONE) {
+            removeFromFace(t);
+        }
+
+        deletedVertices.set(w);
+        vertexHalfEdge[w] = NONE;
+        liveVertexCount--;
+
+        vertexHalfEdge[u] = firstAlive(ringU, firstAlive(ringW, NONE));
+        return true;
+    }
+
+    private boolean satisfiesLinkCondition(int h, int t, IntList ringU, IntList ringW) {
+        IntList neighborsU = neighbors(ringU);
+        IntList neighborsW = neighbors(ringW);
+        int apexH = isTriangle(face[h]) ? origin[prev[h]] : NONE;
+        int apexT = t != NONE && isTriangle(face[t]) ? origin[prev[t]] : NONE;
+
+        for (int i = 0; i < neighborsU.size(); i++) {
+            int candidate = neighborsU.get(i);
+            if (neighborsW.contains(candidate) && candidate != apexH && candidate != apexT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private IntList neighbors(IntList ring) {
+        IntList result = new IntList(ring.size() * 2);
+        for (int i = 0; i < ring.size(); i++) {
+            int h = ring.get(i);
+            int target = origin[next[h]];
+            int source = origin[prev[h]];
+            if (!result.contains(target)) {
+                result.add(target);
+            }
+            if (!result.contains(source)) {
+                result.add(source);
+            }
+        }
+        return result;
+    }
+
+    private void removeFromFace(int e) {
+        int f = face[e];
+        int p = prev[e];
+        int n = next[e];
+        deleteHalfEdge(e);
+
+        if (next[n] != p) {
+            next[p] = n;
+            prev[n] = p;
+            if (faceHalfEdge[f] == e) {
+                faceHalfEdge[f] = n;
+            }
+            return;
+        }
+
+        int apex = origin[p];
+        int twinP = twin[p];
+        int twinN = twin[n];
+        if (twinP != NONE) {
+            twin[twinP] = twinN;
+        }
+        if (twinN != NONE) {
+            twin[twinN] = twinP;
+        }
+
+        deleteHalfEdge(p);
+        deleteHalfEdge(n);
+        deletedFaces.set(f);
+        liveFaceCount--;
+
+        if (vertexHalfEdge[apex] == p || vertexHalfEdge[apex] == n) {
+            vertexHalfEdge[apex] = twinN != NONE ? twinN : twinP != NONE ? next[twinP] : NONE;
+        }
+    }
+
+    private void deleteHalfEdge(int h) {
+        deletedHalfEdges.set(h);
+        vertexCorners[origin[h]]--;
+    }
+
+    private int firstAlive(IntList halfEdges, int fallback) {
+        for (int i = 0; i < halfEdges.size(); i++) {
+            if (!deletedHalfEdges.get(halfEdges.get(i))) {
+                return halfEdges.get(i);
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Собирает все живые исходящие из вершины полуребра. Если обход веера от
+     * {@code vertexHalfEdge} нашел не все, вершина немногообразна, и полуребра
+     * собираются просмотром всей сетки.
+     *
+     * @return true если вершина внутренняя с единственным замкнутым веером
+     */
+    private boolean collectIncident(int vertexIndex, IntList out) {
+        boolean closed = collectOutgoing(vertexIndex, out);
+        if (out.size() == vertexCorners[vertexIndex]) {
+            return closed;
+        }
+
+        out.clear();
+        for (int h = 0; h < halfEdgeCount; h++) {
+            if (origin[h] == vertexIndex && !deletedHalfEdges.get(h)) {
+                out.add(h);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Собирает исходящие из вершины полуребра по порядку обхода веера.
+     *
+     * @return true если веер замкнут (вершина внутренняя)
+     */
+    private boolean collectOutgoing(int vertexIndex, IntList out) {
+        int start = vertexHalfEdge[vertexIndex];
+        if (start == NONE) {
+            return false;
+        }
+
+        boolean closed = false;
+        int first = start;
+        for (int steps = 0; steps < halfEdgeCount; steps++) {
+            int back = twin[first] == NONE ? NONE : next[twin[first]];
+            if (back == NONE) {
+                break;
+            }
+            if (back == start) {
+                closed = true;
+                first = start;
+                break;
+            }
+            first = back;
+        }
+
+        int h = first;
+        for (int steps = 0; steps < halfEdgeCount && h != NONE; steps++) {
+            out.add(h);
+            h = twin[prev[h]];
+            if (h == first) {
+                break;
+            }
+        }
+        return closed;
+    }
+
+    private IntList faceLoop(int faceIndex) {
+        IntList loop = new IntList();
+        int start = faceHalfEdge[faceIndex];
+        int h = start;
+        do {
+            loop.add(h);
+            h = next[h];
+        } while (h != start);
+        return loop;
+    }
+
+    private boolean isTriangle(int faceIndex) {
+        int start = faceHalfEdge[faceIndex];
+        return next[next[next[start]]] == start;
+    }
+
+    /**
+     * Ищет полуребро из вершины {@code from} в вершину {@code to} среди исходящих из {@code from}.
+     *
+     * @return индекс полуребра или {@link #NONE}
+     */
+    public int findHalfEdge(int from, int to) {
+        if (!isVertexAlive(from)) {
+            return NONE;
+        }
+        IntList ring = new IntList();
+        collectIncident(from, ring);
+        for (int i = 0; i < ring.size(); i++) {
+            if (origin[next[ring.get(i)]] == to) {
+                return ring.get(i);
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Возвращает вершины полигона в порядке обхода.
+     */
+    public int[] getFaceVertices(int faceIndex) {
+        if (!isFaceAlive(faceIndex)) {
+            return new int[0];
+        }
+        IntList loop = faceLoop(faceIndex);
+        int[] vertices = new int[loop.size()];
+        for (int i = 0; i < loop.size(); i++) {
+            vertices[i] = origin[loop.get(i)];
+        }
+        return vertices;
+    }
+
+    /**
+     * Записывает сетку в новую модель со сжатыми индексами вершин.
+     */
+    public Model toModel() {
+        Model model = new Model();
+        applyTo(model);
+        return model;
+    }
+
+    /**
+     * Заменяет геометрию модели содержимым сетки. Удаленные вершины и полигоны
+     * выбрасываются, индексы вершин уплотняются за один проход. Полигон,
+     * ссылающийся на удаленную вершину, не выгружается.
+     *
+     * @param model модель, геометрия которой заменяется
+     */
+    public void applyTo(Model model) {
+        int[] remap = new int[vertexHalfEdge.length];
+        List<Vector3f> vertices = new ArrayList<>(liveVertexCount);
+        for (int v = 0; v < vertexHalfEdge.length; v++) {
+            if (deletedVertices.get(v)) {
+                remap[v] = NONE;
+            } else {
+                remap[v] = vertices.size();
+                vertices.add(positions.get(v));
+            }
+        }
+
+        List<Polygon> polygons = new ArrayList<>(liveFaceCount);
+        for (int f = 0; f < faceCount; f++) {
+            if (deletedFaces.get(f)) {
+                continue;
+            }
+            Polygon polygon = exportFace(f, remap);
+            if (polygon != null) {
+                polygons.add(polygon);
+            }
+        }
+
+        model.setVertices(vertices);
+        model.setTextureVertices(textureVertices);
+        model.setNormals(normals);
+        model.setPolygons(polygons);
+    }
+
+    private Polygon exportFace(int faceIndex, int[] remap) {
+        IntList loop = faceLoop(faceIndex);
+        ArrayList<Integer> vertexIndices = new ArrayList<>(loop.size());
+        List<Integer> textureIndices = new ArrayList<>(loop.size());
+        List<Integer> normalIndices = new ArrayList<>(loop.size());
+
+        for (int i = 0; i < loop.size(); i++) {
+            int h = loop.get(i);
+            if (remap[origin[h]] == NONE) {
+                return null;
+            }
+            vertexIndices.add(remap[origin[h]]);
+            if (texture[h] != NONE) {
+                textureIndices.add(texture[h]);
+            }
+            if (normal[h] != NONE) {
+                normalIndices.add(normal[h]);
+            }
+        }
+        if (vertexIndices.size() < 3) {
+            return null;
+        }
+
+        Polygon polygon = new Polygon();
+        polygon.setVertexIndices(vertexIndices);
+        polygon.setTextureVertexIndices(textureIndices.size() == loop.size() ? textureIndices : null);
+        polygon.setNormalIndices(normalIndices.size() == loop.size() ? normalIndices : null);
+        return polygon;
+    }
+
+    public boolean isVertexAlive(int vertexIndex) {
+        return vertexIndex >= 0 && vertexIndex < vertexHalfEdge.length && !deletedVertices.get(vertexIndex);
+    }
+
+    public boolean isFaceAlive(int faceIndex) {
+        return faceIndex >= 0 && faceIndex < faceCount && !deletedFaces.get(faceIndex);
+    }
+
+    public boolean isHalfEdgeAlive(int halfEdge) {
+        return halfEdge >= 0 && halfEdge < halfEdgeCount && !deletedHalfEdges.get(halfEdge);
+    }
+
+    public int getVertexCount() {
+        return liveVertexCount;
+    }
+
+    public int getFaceCount() {
+        return liveFaceCount;
+    }
+
+    public Vector3f getPosition(int vertexIndex) {
+        return positions.get(vertexIndex);
+    }
+
+    public int getVertexHalfEdge(int vertexIndex) {
+        return vertexHalfEdge[vertexIndex];
+    }
+
+    public int getOrigin(int halfEdge) {
+        return origin[halfEdge];
+    }
+
+    public int getNext(int halfEdge) {
+        return next[halfEdge];
+    }
+
+    public int getPrev(int halfEdge) {
+        return prev[halfEdge];
+    }
+
+    public int getTwin(int halfEdge) {
+        return twin[halfEdge];
+    }
+
+    public int getFace(int halfEdge) {
+        return face[halfEdge];
+    }
+
+    public int getFaceHalfEdge(int faceIndex) {
+        return faceHalfEdge[faceIndex];
+    }
+}
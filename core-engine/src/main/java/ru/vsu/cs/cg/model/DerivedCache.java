@@ -0,0 +1,59 @@
+package ru.vsu.cs.cg.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш производных данных модели, привязанных к счетчикам версий.
+ * Значение хранится вместе с версиями, при которых оно вычислено,
+ * и выдается, только пока версии, от которых зависит ключ, совпадают с текущими.
+ */
+final class DerivedCache {
+    private record Entry(long geometry, long topology, long attributes, Object value) {
+    }
+
+    private final Map<DerivedKey<?>, Entry> entries = new ConcurrentHashMap<>();
+
+    DerivedCache() {
+    }
+
+    /**
+     * Копия для копии модели: значения неизменяемы и разделяются.
+     */
+    DerivedCache(DerivedCache source) {
+        entries.putAll(source.entries);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Model model, DerivedKey<T> key, long geometry, long topology, long attributes) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (matches(key, entry, geometry, topology, attributes)) {
+                return (T) entry.value();
+            }
+            if (key.getGeometryUpdate() != null && matches(key, entry, entry.geometry(), topology, attributes)) {
+                T updated = key.getGeometryUpdate().apply((T) entry.value(), model);
+                entries.put(key, new Entry(geometry, topology, attributes, updated));
+                return updated;
+            }
+        }
+
+        T value = key.compute(model);
+        entries.put(key, new Entry(geometry, topology, attributes, value));
+        return value;
+    }
+
+    /**
+     * Проверяет, есть ли для ключа значение, вычисленное при указанных версиях.
+     */
+    boolean isCurrent(DerivedKey<?> key, long geometry, long topology, long attributes) {
+        Entry entry = entries.get(key);
+        return entry != null && matches(key, entry, geometry, topology, attributes);
+    }
+
+    private static boolean matches(DerivedKey<?> key, Entry entry, long geometry, long topology, long attributes) {
+        return (!key.dependsOn(DerivedKey.GEOMETRY) || entry.geometry() == geometry)
+            && (!key.dependsOn(DerivedKey.TOPOLOGY) || entry.topology() == topology)
+            && (!key.dependsOn(DerivedKey.POLYGON_ATTRIBUTES) || entry.attributes() == attributes);
+    }
+}
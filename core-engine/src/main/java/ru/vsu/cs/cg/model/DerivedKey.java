@@ -0,0 +1,81 @@
+package ru.vsu.cs.cg.model;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Ключ производных данных модели ({@link Model#getDerived(DerivedKey)}).
+ * <p>
+ * Ключ объявляет, от каких счетчиков версий модели зависит значение, и как его
+ * вычислить. Значение вычисляется один раз на правку: пока версии, от которых оно
+ * зависит, не изменились, модель возвращает сохраненный результат. Для данных,
+ * которые дешевле обновить, чем построить заново (например, границы дерева
+ * треугольников), можно задать обновление при изменении одной геометрии.
+ * Ключи сравниваются по ссылке и должны быть константами.
+ *
+ * @param <T> тип производного значения; значение должно быть неизменяемым,
+ *            потому что разделяется между копиями модели
+ */
+public final class DerivedKey<T> {
+    /**
+     * Позиции вершин.
+     */
+    public static final int GEOMETRY = 1;
+    /**
+     * Количество вершин и индексы вершин полигонов.
+     */
+    public static final int TOPOLOGY = 1 << 1;
+    /**
+     * Индексы текстурных координат и нормалей полигонов.
+     */
+    public static final int POLYGON_ATTRIBUTES = 1 << 2;
+
+    private final String name;
+    private final int dependencies;
+    private final Function<Model, T> compute;
+    private final BiFunction<T, Model, T> geometryUpdate;
+
+    private DerivedKey(String name, int dependencies, Function<Model, T> compute,
+                       BiFunction<T, Model, T> geometryUpdate) {
+        this.name = name;
+        this.dependencies = dependencies;
+        this.compute = compute;
+        this.geometryUpdate = geometryUpdate;
+    }
+
+    /**
+     * Создает ключ.
+     *
+     * @param name         имя для отладки
+     * @param dependencies битовая маска из {@link #GEOMETRY}, {@link #TOPOLOGY}, {@link #POLYGON_ATTRIBUTES}
+     * @param compute      построение значения по модели
+     */
+    public static <T> DerivedKey<T> of(String name, int dependencies, Function<Model, T> compute) {
+        return new DerivedKey<>(name, dependencies, compute, null);
+    }
+
+    /**
+     * Возвращает ключ, который при изменении только геометрии обновляет прежнее значение
+     * вместо полного построения.
+     */
+    public DerivedKey<T> withGeometryUpdate(BiFunction<T, Model, T> update) {
+        return new DerivedKey<>(name, dependencies, compute, update);
+    }
+
+    boolean dependsOn(int version) {
+        return (dependencies & version) != 0;
+    }
+
+    T compute(Model model) {
+        return compute.apply(model);
+    }
+
+    BiFunction<T, Model, T> getGeometryUpdate() {
+        return geometryUpdate;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
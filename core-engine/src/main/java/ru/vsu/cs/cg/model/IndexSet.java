@@ -0,0 +1,341 @@
+package ru.vsu.cs.cg.model;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Компактный набор неотрицательных индексов на битовой маске.
+ * <p>
+ * Занимает один бит на индекс до максимального, диапазоны добавляются и удаляются
+ * целыми словами, поэтому выделение «всего, кроме нескольких» на миллионах
+ * элементов строится мгновенно. Реализует {@code Set<Integer>}, чтобы его можно
+ * было передавать в существующие методы, но основные операции работают с {@code int}
+ * без упаковки. Не потокобезопасен.
+ */
+public final class IndexSet extends AbstractSet<Integer> {
+    private final BitSet bits;
+    private int size;
+
+    public IndexSet() {
+        this.bits = new BitSet();
+    }
+
+    private IndexSet(BitSet bits) {
+        this.bits = bits;
+        this.size = bits.cardinality();
+    }
+
+    /**
+     * Создает набор из диапазона {@code [from, to)}.
+     */
+    public static IndexSet range(int from, int to) {
+        IndexSet set = new IndexSet();
+        set.addRange(from, to);
+        return set;
+    }
+
+    /**
+     * Создает набор по битовой маске; маска копируется.
+     */
+    public static IndexSet fromBitSet(BitSet marks) {
+        return new IndexSet((BitSet) marks.clone());
+    }
+
+    /**
+     * Возвращает коллекцию как набор индексов: сам набор, если это уже {@code IndexSet},
+     * иначе новую копию.
+     *
+     * @throws IllegalArgumentException если коллекция содержит отрицательный индекс или {@code null}
+     */
+    public static IndexSet from(Collection<Integer> indices) {
+        if (indices instanceof IndexSet indexSet) {
+            return indexSet;
+        }
+        IndexSet set = new IndexSet();
+        if (indices != null) {
+            for (Integer index : indices) {
+                if (index == null) {
+                    throw new IllegalArgumentException("Набор индексов не может содержать null");
+                }
+                set.add(index.intValue());
+            }
+        }
+        return set;
+    }
+
+    public IndexSet copy() {
+        IndexSet copy = new IndexSet((BitSet) bits.clone());
+        copy.size = size;
+        return copy;
+    }
+
+    public boolean add(int index) {
+        checkIndex(index);
+        if (bits.get(index)) {
+            return false;
+        }
+        bits.set(index);
+        size++;
+        return true;
+    }
+
+    /**
+     * Добавляет все индексы диапазона {@code [from, to)}.
+     */
+    public void addRange(int from, int to) {
+        checkIndex(from);
+        if (to <= from) {
+            return;
+        }
+        size += (to - from) - bits.get(from, to).cardinality();
+        bits.set(from, to);
+    }
+
+    public boolean remove(int index) {
+        if (index < 0 || !bits.get(index)) {
+            return false;
+        }
+        bits.clear(index);
+        size--;
+        return true;
+    }
+
+    /**
+     * Удаляет все индексы диапазона {@code [from, to)}.
+     */
+    public void removeRange(int from, int to) {
+        checkIndex(from);
+        if (to <= from) {
+            return;
+        }
+        size -= bits.get(from, to).cardinality();
+        bits.clear(from, to);
+    }
+
+    public boolean contains(int index) {
+        return index >= 0 && bits.get(index);
+    }
+
+    /**
+     * Следующий индекс набора, не меньший {@code from}, или {@code -1}.
+     */
+    public int next(int from) {
+        return bits.nextSetBit(Math.max(0, from));
+    }
+
+    /**
+     * Наибольший индекс набора или {@code -1} для пустого набора.
+     */
+    public int max() {
+        return bits.length() - 1;
+    }
+
+    public void forEachIndex(IntConsumer action) {
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            action.accept(i);
+        }
+    }
+
+    /**
+     * Возвращает индексы набора, меньшие {@code limit}, в виде битовой маски.
+     */
+    public BitSet toBitSet(int limit) {
+        return bits.get(0, Math.max(0, limit));
+    }
+
+    public int[] toIntArray() {
+        int[] result = new int[size];
+        int write = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result[write++] = i;
+        }
+        return result;
+    }
+
+    /**
+     * Переводит индексы в нумерацию после удаления отмеченных элементов:
+     * удаленные индексы выбывают, остальные сдвигаются на количество удаленных перед ними.
+     * Выполняется за один проход по обоим наборам.
+     *
+     * @param removed индексы удаленных элементов в исходной нумерации
+     */
+    public void shiftAfterRemoval(IndexSet removed) {
+        if (isEmpty() || removed.isEmpty()) {
+            return;
+        }
+
+        BitSet shifted = new BitSet(bits.length());
+        int removedBefore = 0;
+        int nextRemoved = removed.next(0);
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            while (nextRemoved >= 0 && nextRemoved < i) {
+                removedBefore++;
+                nextRemoved = removed.next(nextRemoved + 1);
+            }
+            if (nextRemoved != i) {
+                shifted.set(i - removedBefore);
+            }
+        }
+
+        bits.clear();
+        bits.or(shifted);
+        size = bits.cardinality();
+    }
+
+    /**
+     * Оценка занимаемой набором памяти в байтах.
+     */
+    public long estimatedBytes() {
+        return 32L + bits.size() / 8;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer index && contains(index.intValue());
+    }
+
+    @Override
+    public boolean add(Integer index) {
+        return add(index.intValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer index && remove(index.intValue());
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Integer> c) {
+        if (c instanceof IndexSet other) {
+            int before = size;
+            bits.or(other.bits);
+            size = bits.cardinality();
+            return size != before;
+        }
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c instanceof IndexSet other) {
+            int before = size;
+            bits.andNot(other.bits);
+            size = bits.cardinality();
+            return size != before;
+        }
+        boolean changed = false;
+        for (Object o : c) {
+            changed |= remove(o);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (c instanceof IndexSet other) {
+            int before = size;
+            bits.and(other.bits);
+            size = bits.cardinality();
+            return size != before;
+        }
+        return super.retainAll(c);
+    }
+
+    @Override
+    public void clear() {
+        bits.clear();
+        size = 0;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int next = bits.nextSetBit(0);
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = bits.nextSetBit(next + 1);
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                IndexSet.this.remove(last);
+                last = -1;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof IndexSet other) {
+            return bits.equals(other.bits);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            hash += i;
+        }
+        return hash;
+    }
+
+    /**
+     * Записывает набор диапазонами: {@code "0-4, 7, 9-12"}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int start = bits.nextSetBit(0); start >= 0; start = bits.nextSetBit(start)) {
+            int end = bits.nextClearBit(start) - 1;
+            if (!result.isEmpty()) {
+                result.append(", ");
+            }
+            result.append(start);
+            if (end > start) {
+                result.append('-').append(end);
+            }
+            if (end == Integer.MAX_VALUE) {
+                break;
+            }
+            start = end + 1;
+        }
+        return result.toString();
+    }
+
+    private static void checkIndex(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Индекс не может быть отрицательным: " + index);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package ru.vsu.cs.cg.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Индекс смежности сетки в формате CSR (сжатые строки).
+ * <p>
+ * Для вершины {@code v} инцидентные полигоны лежат в {@code vertexFaces}
+ * на отрезке {@code [vertexFaceOffsets[v], vertexFaceOffsets[v + 1])}.
+ * Соседи полигона по общим ребрам хранятся так же и строятся лениво
+ * при первом запросе. Индекс неизменяем: после правки топологии модель
+ * строит новый ({@link Model#getAdjacency()}).
+ */
+public final class MeshAdjacency {
+    private final int sourceVertexCount;
+    private final int vertexCount;
+    private final int faceCount;
+    private final int[] faceVertexOffsets;
+    private final int[] faceVertices;
+    private final int[] vertexFaceOffsets;
+    private final int[] vertexFaces;
+
+    private volatile int[] faceNeighborOffsets;
+    private volatile int[] faceNeighbors;
+
+    private MeshAdjacency(int sourceVertexCount, int vertexCount, int[] faceVertexOffsets, int[] faceVertices) {
+        this.sourceVertexCount = sourceVertexCount;
+        this.vertexCount = vertexCount;
+        this.faceCount = faceVertexOffsets.length - 1;
+        this.faceVertexOffsets = faceVertexOffsets;
+        this.faceVertices = faceVertices;
+        this.vertexFaceOffsets = new int[vertexCount + 1];
+        this.vertexFaces = buildVertexFaces();
+    }
+
+    /**
+     * Строит индекс по списку полигонов. Количество вершин расширяется до
+     * максимального индекса, на который ссылаются полигоны; отрицательные индексы пропускаются.
+     *
+     * @param vertexCount количество вершин модели
+     * @param polygons    полигоны модели
+     * @return индекс смежности
+     */
+    public static MeshAdjacency build(int vertexCount, List<Polygon> polygons) {
+        int[] offsets = new int[polygons.size() + 1];
+        int total = 0;
+        for (int f = 0; f < polygons.size(); f++) {
+            Polygon polygon = polygons.get(f);
+            offsets[f] = total;
+            total += polygon == null ? 0 : polygon.getVertexIndices().size();
+        }
+        offsets[polygons.size()] = total;
+
+        int[] flat = new int[total];
+        int maxVertex = vertexCount - 1;
+        for (int f = 0; f < polygons.size(); f++) {
+            Polygon polygon = polygons.get(f);
+            if (polygon == null) {
+                continue;
+            }
+            int position = offsets[f];
+            for (Integer index : polygon.getVertexIndices()) {
+                flat[position++] = index;
+                maxVertex = Math.max(maxVertex, index);
+            }
+        }
+
+        return new MeshAdjacency(vertexCount, maxVertex + 1, offsets, flat);
+    }
+
+    private int[] buildVertexFaces() {
+        int[] lastFace = new int[vertexCount];
+        Arrays.fill(lastFace, -1);
+
+        int[] counts = new int[vertexCount + 1];
+        for (int f = 0; f < faceCount; f++) {
+            for (int i = faceVertexOffsets[f]; i < faceVertexOffsets[f + 1]; i++) {
+                int v = faceVertices[i];
+                if (v >= 0 && lastFace[v] != f) {
+                    lastFace[v] = f;
+                    counts[v + 1]++;
+                }
+            }
+        }
+
+        for (int v = 0; v < vertexCount; v++) {
+            vertexFaceOffsets[v + 1] = vertexFaceOffsets[v] + counts[v + 1];
+        }
+
+        int[] faces = new int[vertexFaceOffsets[vertexCount]];
+        int[] cursor = Arrays.copyOf(vertexFaceOffsets, vertexCount);
+        Arrays.fill(lastFace, -1);
+        for (int f = 0; f < faceCount; f++) {
+            for (int i = faceVertexOffsets[f]; i < faceVertexOffsets[f + 1]; i++) {
+                int v = faceVertices[i];
+                if (v >= 0 && lastFace[v] != f) {
+                    lastFace[v] = f;
+                    faces[cursor[v]++] = f;
+                }
+            }
+        }
+        return faces;
+    }
+
+    private synchronized void ensureFaceNeighbors() {
+        if (faceNeighbors != null) {
+            return;
+        }
+
+        int[] offsets = new int[faceCount + 1];
+        int[] neighbors = new int[Math.max(16, faceVertices.length)];
+        int[] lastSeen = new int[faceCount];
+        Arrays.fill(lastSeen, -1);
+        int size = 0;
+
+        for (int f = 0; f < faceCount; f++) {
+            offsets[f] = size;
+            int start = faceVertexOffsets[f];
+            int end = faceVertexOffsets[f + 1];
+
+            for (int i = start; i < end; i++) {
+                int a = faceVertices[i];
+                int b = faceVertices[i + 1 < end ? i + 1 : start];
+                if (a < 0 || b < 0 || a == b) {
+                    continue;
+                }
+
+                for (int j = vertexFaceOffsets[a]; j < vertexFaceOffsets[a + 1]; j++) {
+                    int g = vertexFaces[j];
+                    if (g == f || lastSeen[g] == f || !faceHasEdge(g, a, b)) {
+                        continue;
+                    }
+                    lastSeen[g] = f;
+                    if (size == neighbors.length) {
+                        neighbors = Arrays.copyOf(neighbors, size * 2);
+                    }
+                    neighbors[size++] = g;
+                }
+            }
+        }
+        offsets[faceCount] = size;
+
+        faceNeighborOffsets = offsets;
+        faceNeighbors = Arrays.copyOf(neighbors, size);
+    }
+
+    private boolean faceHasEdge(int face, int a, int b) {
+        int start = faceVertexOffsets[face];
+        int end = faceVertexOffsets[face + 1];
+        for (int i = start; i < end; i++) {
+            int u = faceVertices[i];
+            int w = faceVertices[i + 1 < end ? i + 1 : start];
+            if ((u == a && w == b) || (u == b && w == a)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    /**
+     * Начало вершин полигона в плоском массиве; вершины читаются через {@link #faceVertexAt(int)}.
+     */
+    public int faceVertexStart(int faceIndex) {
+        return faceVertexOffsets[faceIndex];
+    }
+
+    public int faceVertexEnd(int faceIndex) {
+        return faceVertexOffsets[faceIndex + 1];
+    }
+
+    public int faceVertexAt(int position) {
+        return faceVertices[position];
+    }
+
+    /**
+     * Начало инцидентных вершине полигонов; полигоны читаются через {@link #vertexFaceAt(int)}.
+     * Методы доступа не копируют массивы и пригодны для горячих циклов.
+     */
+    public int vertexFaceStart(int vertexIndex) {
+        return vertexFaceOffsets[vertexIndex];
+    }
+
+    public int vertexFaceEnd(int vertexIndex) {
+        return vertexFaceOffsets[vertexIndex + 1];
+    }
+
+    public int vertexFaceAt(int position) {
+        return vertexFaces[position];
+    }
+
+    /**
+     * Возвращает индексы полигонов, содержащих вершину.
+     */
+    public int[] getFacesOfVertex(int vertexIndex) {
+        if (vertexIndex < 0 || vertexIndex >= vertexCount) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(vertexFaces, vertexFaceOffsets[vertexIndex], vertexFaceOffsets[vertexIndex + 1]);
+    }
+
+    /**
+     * Возвращает индексы полигонов, имеющих с данным общее ребро.
+     */
+    public int[] getFaceNeighbors(int faceIndex) {
+        if (faceIndex < 0 || faceIndex >= faceCount) {
+            return new int[0];
+        }
+        ensureFaceNeighbors();
+        return Arrays.copyOfRange(faceNeighbors, faceNeighborOffsets[faceIndex], faceNeighborOffsets[faceIndex + 1]);
+    }
+
+    /**
+     * Отмечает все полигоны, содержащие хотя бы одну из отмеченных вершин.
+     * Время пропорционально количеству инцидентных полигонов, а не размеру модели.
+     */
+    public BitSet markFacesOfVertices(BitSet vertexMarks) {
+        BitSet faces = new BitSet(faceCount);
+        for (int v = vertexMarks.nextSetBit(0); v >= 0 && v < vertexCount; v = vertexMarks.nextSetBit(v + 1)) {
+            for (int j = vertexFaceOffsets[v]; j < vertexFaceOffsets[v + 1]; j++) {
+                faces.set(vertexFaces[j]);
+            }
+        }
+        return faces;
+    }
+
+    /**
+     * Отмечает полигоны, все вершины которых отмечены.
+     * Просматриваются только полигоны, инцидентные отмеченным вершинам.
+     */
+    public BitSet markFacesWithinVertices(BitSet vertexMarks) {
+        BitSet faces = markFacesOfVertices(vertexMarks);
+        for (int f = faces.nextSetBit(0); f >= 0; f = faces.nextSetBit(f + 1)) {
+            for (int i = faceVertexOffsets[f]; i < faceVertexOffsets[f + 1]; i++) {
+                int v = faceVertices[i];
+                if (v < 0 || !vertexMarks.get(v)) {
+                    faces.clear(f);
+                    break;
+                }
+            }
+        }
+        return faces;
+    }
+
+    /**
+     * Расширяет набор полигонов на одно кольцо соседей по общим ребрам.
+     *
+     * @return исходные полигоны вместе с их соседями
+     */
+    public BitSet growFaces(BitSet faceMarks) {
+        ensureFaceNeighbors();
+        BitSet grown = (BitSet) faceMarks.clone();
+        for (int f = faceMarks.nextSetBit(0); f >= 0 && f < faceCount; f = faceMarks.nextSetBit(f + 1)) {
+            for (int j = faceNeighborOffsets[f]; j < faceNeighborOffsets[f + 1]; j++) {
+                grown.set(faceNeighbors[j]);
+            }
+        }
+        return grown;
+    }
+
+    /**
+     * Расширяет набор вершин на одно кольцо: добавляет все вершины полигонов,
+     * содержащих отмеченные вершины.
+     *
+     * @return исходные вершины вместе с соседними
+     */
+    public BitSet growVertices(BitSet vertexMarks) {
+        BitSet grown = (BitSet) vertexMarks.clone();
+        BitSet faces = markFacesOfVertices(vertexMarks);
+        for (int f = faces.nextSetBit(0); f >= 0; f = faces.nextSetBit(f + 1)) {
+            for (int i = faceVertexOffsets[f]; i < faceVertexOffsets[f + 1]; i++) {
+                if (faceVertices[i] >= 0) {
+                    grown.set(faceVertices[i]);
+                }
+            }
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.vsu.cs.cg.model;
+
+import java.util.Arrays;
+
+/**
+ * Список уникальных неориентированных ребер сетки. Ребро {@code i} соединяет
+ * вершины {@link #from(int)} и {@link #to(int)}, причем {@code from < to}.
+ * Ребра упорядочены по первой вершине. Список неизменяем; модель строит
+ * новый после изменения топологии ({@link Model#getEdges()}).
+ */
+public final class MeshEdges {
+    private final int[] endpoints;
+    private final int count;
+
+    private MeshEdges(int[] endpoints, int count) {
+        this.endpoints = endpoints;
+        this.count = count;
+    }
+
+    /**
+     * Собирает ребра по индексу смежности: для каждой вершины просматриваются
+     * только инцидентные ей полигоны, повторы отсекаются меткой последней вершины.
+     */
+    public static MeshEdges build(MeshAdjacency adjacency) {
+        int vertexCount = adjacency.getVertexCount();
+        int[] lastSeen = new int[vertexCount];
+        Arrays.fill(lastSeen, -1);
+
+        int[] endpoints = new int[16];
+        int count = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            for (int j = adjacency.vertexFaceStart(v); j < adjacency.vertexFaceEnd(v); j++) {
+                int face = adjacency.vertexFaceAt(j);
+                int start = adjacency.faceVertexStart(face);
+                int end = adjacency.faceVertexEnd(face);
+                for (int i = start; i < end; i++) {
+                    if (adjacency.faceVertexAt(i) != v) {
+                        continue;
+                    }
+                    int previous = adjacency.faceVertexAt(i > start ? i - 1 : end - 1);
+                    int next = adjacency.faceVertexAt(i + 1 < end ? i + 1 : start);
+                    for (int k = 0; k < 2; k++) {
+                        int u = k == 0 ? previous : next;
+                        if (u > v && lastSeen[u] != v) {
+                            lastSeen[u] = v;
+                            if (count * 2 == endpoints.length) {
+                                endpoints = Arrays.copyOf(endpoints, endpoints.length * 2);
+                            }
+                            endpoints[count * 2] = v;
+                            endpoints[count * 2 + 1] = u;
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return new MeshEdges(endpoints, count);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int from(int edgeIndex) {
+        return endpoints[edgeIndex * 2];
+    }
+
+    public int to(int edgeIndex) {
+        return endpoints[edgeIndex * 2 + 1];
+    }
+}
@@ -1,6 +1,7 @@
 package ru.vsu.cs.cg.model;
 
 import ru.vsu.cs.cg.math.NormalCalculator;
+import ru.vsu.cs.cg.math.NormalWeighting;
 import ru.vsu.cs.cg.math.Vector2f;
 import ru.vsu.cs.cg.math.Vector3f;
 import ru.vsu.cs.cg.math.Matrix4x4;
@@ -9,15 +10,54 @@ import ru.vsu.cs.cg.model.selection.ModelSelection;
 
 import java.util.*;
 
+/**
+ * Полигональная модель. Списки геометрии разделяются между копиями
+ * ({@link #copy()}) и копируются лениво, при первом изменяющем вызове
+ * в конкретной копии; производные кэши разделяются вместе с ними.
+ * <p>
+ * Каждая правка увеличивает счетчик версии геометрии (позиции вершин) или
+ * топологии (количество вершин и полигоны), в том числе правки через
+ * изменяемые списки. Производные данные (триангуляция, смежность, ребра,
+ * границы, дерево треугольников) хранятся вместе с версиями, при которых они
+ * вычислены ({@link #getDerived(DerivedKey)}), поэтому строятся не чаще
+ * одного раза на правку и никогда не выдаются устаревшими.
+ */
 public final class Model {
-    private final List<Vector3f> vertices;
-    private final List<Vector2f> textureVertices;
-    private final List<Vector3f> normals;
-    private final List<Polygon> polygons;
+    private static final DerivedKey<Triangulation> TRIANGULATION = DerivedKey.<Triangulation>of("triangulation",
+            DerivedKey.GEOMETRY | DerivedKey.TOPOLOGY,
+            model -> Triangulation.build(model.vertices.items(), model.polygons.items()))
+        .withGeometryUpdate(Model::retriangulate);
+    private static final DerivedKey<List<Polygon>> TRIANGULATED_POLYGONS = DerivedKey.of("triangulatedPolygons",
+        DerivedKey.GEOMETRY | DerivedKey.TOPOLOGY | DerivedKey.POLYGON_ATTRIBUTES,
+        model -> model.getTriangulation().toPolygons(model.polygons.items()));
+    private static final DerivedKey<MeshAdjacency> ADJACENCY = DerivedKey.of("adjacency",
+        DerivedKey.TOPOLOGY, model -> MeshAdjacency.build(model.vertices.items().size(), model.polygons.items()));
+    private static final DerivedKey<MeshEdges> EDGES = DerivedKey.of("edges",
+        DerivedKey.TOPOLOGY, model -> MeshEdges.build(model.getAdjacency()));
+    private static final DerivedKey<float[]> BOUNDS = DerivedKey.of("bounds",
+        DerivedKey.GEOMETRY, Model::computeBounds);
+    private static final DerivedKey<TriangleBvh> BVH = DerivedKey.<TriangleBvh>of("bvh",
+            DerivedKey.GEOMETRY | DerivedKey.TOPOLOGY,
+            model -> TriangleBvh.build(model.vertices.items(), model.getTriangulation()))
+        .withGeometryUpdate(Model::refitBvh);
+    private static final DerivedKey<float[]> TRIANGLE_NORMALS = DerivedKey.of("triangleNormals",
+        DerivedKey.GEOMETRY | DerivedKey.TOPOLOGY, Model::computeTriangleNormals);
+
+    private SharedBuffer<Vector3f> vertices;
+    private SharedBuffer<Vector2f> textureVertices;
+    private SharedBuffer<Vector3f> normals;
+    private SharedBuffer<Polygon> polygons;
     private boolean useLighting = false;
     private boolean useTexture = false;
     private boolean drawPolygonalGrid = false;
-    private volatile List<Polygon> triangulatedPolygonsCache = null;
+    private final DerivedCache derived;
+    private long geometryVersion;
+    private long topologyVersion;
+    private long polygonAttributeVersion;
+    private boolean normalsComputed = false;
+    private long normalsGeometryVersion = -1;
+    private long normalsTopologyVersion = -1;
+    private NormalWeighting normalWeighting = NormalWeighting.AREA;
     private final ModelSelection selection = new ModelSelection();
 
     private String materialName;
@@ -28,10 +68,11 @@ public final class Model {
     private Float materialReflectivity;
 
     public Model() {
-        this.vertices = new ArrayList<>();
-        this.textureVertices = new ArrayList<>();
-        this.normals = new ArrayList<>();
-        this.polygons = new ArrayList<>();
+        this.vertices = new SharedBuffer<>(new ArrayList<>());
+        this.textureVertices = new SharedBuffer<>(new ArrayList<>());
+        this.normals = new SharedBuffer<>(new ArrayList<>());
+        this.polygons = new SharedBuffer<>(new ArrayList<>());
+        this.derived = new DerivedCache();
         this.materialColor = new float[]{1.0f, 1.0f, 1.0f};
     }
 
@@ -45,10 +86,11 @@ public final class Model {
                  Float materialShininess,
                  Float materialTransparency,
                  Float materialReflectivity) {
-        this.vertices = new ArrayList<>(Objects.requireNonNull(vertices));
-        this.textureVertices = new ArrayList<>(Objects.requireNonNull(textureVertices));
-        this.normals = new ArrayList<>(Objects.requireNonNull(normals));
-        this.polygons = new ArrayList<>(Objects.requireNonNull(polygons));
+        this.vertices = new SharedBuffer<>(new ArrayList<>(Objects.requireNonNull(vertices)));
+        this.textureVertices = new SharedBuffer<>(new ArrayList<>(Objects.requireNonNull(textureVertices)));
+        this.normals = new SharedBuffer<>(new ArrayList<>(Objects.requireNonNull(normals)));
+        this.polygons = new SharedBuffer<>(new ArrayList<>(Objects.requireNonNull(polygons)));
+        this.derived = new DerivedCache();
         this.materialName = materialName;
         this.texturePath = texturePath;
         this.materialColor = materialColor != null ? materialColor : new float[]{1.0f, 1.0f, 1.0f};
@@ -57,135 +99,402 @@ public final class Model {
         this.materialReflectivity = materialReflectivity;
     }
 
+    private Model(Model source) {
+        this.vertices = source.vertices.share();
+        this.textureVertices = source.textureVertices.share();
+        this.normals = source.normals.share();
+        this.polygons = source.polygons.share();
+        this.derived = new DerivedCache(source.derived);
+        this.geometryVersion = source.geometryVersion;
+        this.topologyVersion = source.topologyVersion;
+        this.polygonAttributeVersion = source.polygonAttributeVersion;
+        this.normalsComputed = source.normalsComputed;
+        this.normalsGeometryVersion = source.normalsGeometryVersion;
+        this.normalsTopologyVersion = source.normalsTopologyVersion;
+        this.normalWeighting = source.normalWeighting;
+        this.materialName = source.materialName;
+        this.texturePath = source.texturePath;
+        this.materialColor = source.materialColor != null ? source.materialColor.clone() : new float[]{1.0f, 1.0f, 1.0f};
+        this.materialShininess = source.materialShininess;
+        this.materialTransparency = source.materialTransparency;
+        this.materialReflectivity = source.materialReflectivity;
+        this.useLighting = source.useLighting;
+        this.useTexture = source.useTexture;
+        this.drawPolygonalGrid = source.drawPolygonalGrid;
+    }
+
     public void addVertex(Vector3f vertex) {
-        vertices.add(vertex);
-        invalidateTriangulation();
+        getVerticesMutable().add(vertex);
+        normalsComputed = false;
     }
 
     public void clearPolygons() {
-        polygons.clear();
-        invalidateTriangulation();
+        getPolygonsMutable().clear();
+        normalsComputed = false;
     }
 
     public void addAllPolygons(Collection<Polygon> newPolygons) {
         if (newPolygons != null && !newPolygons.isEmpty()) {
-            polygons.addAll(newPolygons);
-            invalidateTriangulation();
+            getPolygonsMutable().addAll(newPolygons);
+            normalsComputed = false;
         }
     }
 
     public void addTextureVertex(Vector2f textureVertex) {
-        textureVertices.add(textureVertex);
+        getTextureVerticesMutable().add(textureVertex);
     }
 
+    /**
+     * Заменяет вершины. Если количество вершин не изменилось, меняется только версия
+     * геометрии, и производные данные, зависящие лишь от топологии, остаются в силе.
+     */
     public void setVertices(List<Vector3f> vertices) {
-        this.vertices.clear();
-        if (vertices != null) {
-            this.vertices.addAll(vertices);
+        int previousCount = this.vertices.items().size();
+        this.vertices = new SharedBuffer<>(vertices != null ? new ArrayList<>(vertices) : new ArrayList<>());
+        normalsComputed = false;
+        geometryVersion++;
+        if (this.vertices.items().size() != previousCount) {
+            topologyVersion++;
         }
-        invalidateTriangulation();
     }
 
     public void setTextureVertices(List<Vector2f> textureVertices) {
-        this.textureVertices.clear();
-        if (textureVertices != null) {
-            this.textureVertices.addAll(textureVertices);
-        }
+        this.textureVertices = new SharedBuffer<>(
+            textureVertices != null ? new ArrayList<>(textureVertices) : new ArrayList<>());
     }
 
     public void setNormals(List<Vector3f> normals) {
-        this.normals.clear();
-        if (normals != null) {
-            this.normals.addAll(normals);
-        }
+        this.normals = new SharedBuffer<>(normals != null ? new ArrayList<>(normals) : new ArrayList<>());
+        normalsComputed = false;
     }
 
     public void setPolygons(List<Polygon> polygons) {
-        this.polygons.clear();
-        if (polygons != null) {
-            this.polygons.addAll(polygons);
-        }
-        invalidateTriangulation();
+        this.polygons = new SharedBuffer<>(polygons != null ? new ArrayList<>(polygons) : new ArrayList<>());
+        normalsComputed = false;
+        topologyVersion++;
     }
 
     public void addNormal(Vector3f normal) {
-        normals.add(normal);
+        getNormalsMutable().add(normal);
+        normalsComputed = false;
     }
 
     public void addPolygon(Polygon polygon) {
-        polygons.add(polygon);
-        invalidateTriangulation();
+        getPolygonsMutable().add(polygon);
+        normalsComputed = false;
     }
 
+    /**
+     * Возвращает треугольники полигонов отдельными полигонами. Для отрисовки
+     * и трассировки дешевле индексный буфер {@link #getTriangulation()}.
+     */
     public List<Polygon> getTriangulatedPolygonsCache() {
-        List<Polygon> cache = triangulatedPolygonsCache;
+        return getDerived(TRIANGULATED_POLYGONS);
+    }
 
-        if (cache == null) {
-            cache = computeTriangulation();
-            triangulatedPolygonsCache = cache;
-        }
+    /**
+     * Возвращает триангуляцию полигонов: веер для выпуклых, отсечение ушей для невыпуклых.
+     * Строится лениво; после сдвига вершин прежний буфер сохраняется, если разбиение не изменилось.
+     */
+    public Triangulation getTriangulation() {
+        return getDerived(TRIANGULATION);
+    }
 
-        return cache;
+    /**
+     * Возвращает производные данные модели: сохраненное значение, если версии,
+     * от которых зависит ключ, не менялись, иначе вычисляет его заново.
+     *
+     * @param key ключ производных данных
+     * @return значение для текущего состояния модели
+     */
+    public <T> T getDerived(DerivedKey<T> key) {
+        return derived.get(this, key, geometryVersion, topologyVersion, polygonAttributeVersion);
     }
 
-    private List<Polygon> computeTriangulation() {
-        if (polygons.isEmpty()) {
-            return Collections.emptyList();
-        }
+    /**
+     * Проверяет, вычислено ли значение ключа для текущего состояния модели.
+     */
+    public boolean isDerivedCurrent(DerivedKey<?> key) {
+        return derived.isCurrent(key, geometryVersion, topologyVersion, polygonAttributeVersion);
+    }
+
+    /**
+     * Версия геометрии: увеличивается при каждом изменении позиций вершин.
+     */
+    public long getGeometryVersion() {
+        return geometryVersion;
+    }
+
+    /**
+     * Версия топологии: увеличивается при изменении количества вершин и при каждой правке полигонов.
+     */
+    public long getTopologyVersion() {
+        return topologyVersion;
+    }
+
+    private static Triangulation retriangulate(Triangulation previous, Model model) {
+        Triangulation current = Triangulation.build(model.vertices.items(), model.polygons.items());
+        return current.hasSameTriangles(previous) ? previous : current;
+    }
 
-        List<Polygon> triangulatedPolygons = new ArrayList<>();
-        for (Polygon polygon : polygons) {
-            triangulatedPolygons.addAll(polygon.triangulate());
+    private static TriangleBvh refitBvh(TriangleBvh previous, Model model) {
+        Triangulation triangulation = model.getTriangulation();
+        return previous.isBuiltFrom(triangulation)
+            ? previous.refit(model.vertices.items())
+            : TriangleBvh.build(model.vertices.items(), triangulation);
+    }
+
+    public NormalWeighting getNormalWeighting() {
+        return normalWeighting;
+    }
+
+    /**
+     * Задает способ взвешивания нормалей полигонов при расчете нормалей вершин.
+     * При смене способа посчитанные нормали считаются устаревшими
+     * и будут пересчитаны при следующем {@link #ensureNormals()}.
+     */
+    public void setNormalWeighting(NormalWeighting normalWeighting) {
+        Objects.requireNonNull(normalWeighting);
+        if (this.normalWeighting != normalWeighting) {
+            this.normalWeighting = normalWeighting;
+            normalsComputed = false;
         }
-        return Collections.unmodifiableList(triangulatedPolygons);
     }
 
+    /**
+     * Пересчитывает нормали всех вершин способом {@link #getNormalWeighting()}.
+     * Индексы нормалей полигонов совпадают с индексами вершин.
+     */
     public void recomputeNormals() {
-        List<Vector3f> newNormals = NormalCalculator.computeVertexNormals(vertices, polygons);
-        normals.clear();
-        normals.addAll(newNormals);
-
-        for (Polygon polygon : polygons) {
-            List<Integer> normalIndices = polygon.getNormalIndices();
-            normalIndices.clear();
-            normalIndices.addAll(polygon.getVertexIndices());
+        List<Vector3f> vertices = this.vertices.items();
+        float[] computed = NormalCalculator.computeVertexNormals(vertices, getAdjacency(), normalWeighting);
+        normals = new SharedBuffer<>(NormalCalculator.toVectors(computed, vertices.size()));
+
+        for (int f = 0; f < polygons.items().size(); f++) {
+            assignVertexNormalIndices(f);
+        }
+        markNormalsComputed();
+    }
+
+    /**
+     * Пересчитывает нормали только вокруг затронутых правкой вершин.
+     * Если нормали еще не были посчитаны моделью или их количество не совпадает
+     * с количеством вершин, выполняется полный пересчет.
+     *
+     * @param touchedVertices вершины, чьи позиции или инцидентные полигоны изменились
+     */
+    public void recomputeNormals(BitSet touchedVertices) {
+        List<Vector3f> vertices = this.vertices.items();
+        if (!normalsComputed || normals.items().size() != vertices.size()) {
+            recomputeNormals();
+            return;
+        }
+
+        MeshAdjacency current = getAdjacency();
+        BitSet affected = NormalCalculator.updateVertexNormals(
+            vertices, current, normalWeighting, touchedVertices, getNormalsMutable());
+
+        BitSet faces = current.markFacesOfVertices(affected);
+        for (int f = faces.nextSetBit(0); f >= 0; f = faces.nextSetBit(f + 1)) {
+            assignVertexNormalIndices(f);
+        }
+        markNormalsComputed();
+    }
+
+    /**
+     * Пересчитывает нормали, только если они не актуальны: не считались моделью
+     * или геометрия либо топология изменились после расчета.
+     */
+    public void ensureNormals() {
+        if (!normalsComputed || normalsGeometryVersion != geometryVersion || normalsTopologyVersion != topologyVersion
+            || normals.items().size() != vertices.items().size()) {
+            recomputeNormals();
         }
     }
 
+    private void markNormalsComputed() {
+        normalsComputed = true;
+        normalsGeometryVersion = geometryVersion;
+        normalsTopologyVersion = topologyVersion;
+    }
+
+    /**
+     * Делает индексы нормалей полигона равными индексам его вершин. Полигон заменяется
+     * новым, а не меняется на месте, потому что может принадлежать и другим копиям модели.
+     * Индексы вершин не меняются, поэтому увеличивается только версия атрибутов полигонов.
+     */
+    private void assignVertexNormalIndices(int polygonIndex) {
+        Polygon polygon = polygons.items().get(polygonIndex);
+        if (polygon == null || polygon.getNormalIndices().equals(polygon.getVertexIndices())) {
+            return;
+        }
+        polygons = polygons.forWrite();
+        polygons.items().set(polygonIndex, new Polygon(
+            polygon.getVertexIndices(), polygon.getTextureVertexIndices(), polygon.getVertexIndices()));
+        polygonAttributeVersion++;
+    }
+
+    /**
+     * Возвращает индекс смежности вершин и полигонов. Индекс строится лениво
+     * и перестраивается после изменения топологии модели.
+     */
+    public MeshAdjacency getAdjacency() {
+        return getDerived(ADJACENCY);
+    }
+
+    /**
+     * Возвращает уникальные ребра полигонов. Строятся лениво по индексу смежности.
+     */
+    public MeshEdges getEdges() {
+        return getDerived(EDGES);
+    }
+
+    /**
+     * Возвращает ограничивающий параллелепипед вершин: {@code minX, minY, minZ, maxX, maxY, maxZ}.
+     * Для модели без вершин все значения равны нулю.
+     */
+    public float[] getBounds() {
+        return getDerived(BOUNDS).clone();
+    }
+
+    /**
+     * Возвращает единичные нормали треугольников триангуляции в координатах модели,
+     * по три числа на треугольник в порядке {@link #getTriangulation()}.
+     * Направление задается обходом вершин против часовой стрелки;
+     * у вырожденного треугольника нормаль {@code (0, 1, 0)}. Массив не копируется.
+     */
+    public float[] getTriangleNormals() {
+        return getDerived(TRIANGLE_NORMALS);
+    }
+
+    /**
+     * Возвращает иерархию ограничивающих объемов по треугольникам модели для трассировки лучей.
+     * Строится лениво; при изменении одних позиций вершин границы
+     * пересчитываются без перестроения.
+     */
+    public TriangleBvh getBvh() {
+        return getDerived(BVH);
+    }
+
+    /**
+     * Принудительно объявляет полигоны измененными: все производные данные,
+     * зависящие от топологии, будут построены заново. Правки через изменяемые
+     * списки модели учитываются автоматически; метод нужен, если полигон
+     * изменили на месте.
+     */
     public void invalidateTriangulation() {
-        triangulatedPolygonsCache = null;
+        topologyVersion++;
+        polygonAttributeVersion++;
+    }
+
+    private static float[] computeBounds(Model model) {
+        List<Vector3f> vertices = model.vertices.items();
+        if (vertices.isEmpty()) {
+            return new float[6];
+        }
+
+        float[] bounds = {
+            Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+        for (Vector3f vertex : vertices) {
+            bounds[0] = Math.min(bounds[0], vertex.getX());
+            bounds[1] = Math.min(bounds[1], vertex.getY());
+            bounds[2] = Math.min(bounds[2], vertex.getZ());
+            bounds[3] = Math.max(bounds[3], vertex.getX());
+            bounds[4] = Math.max(bounds[4], vertex.getY());
+            bounds[5] = Math.max(bounds[5], vertex.getZ());
+        }
+        return bounds;
+    }
+
+    private static float[] computeTriangleNormals(Model model) {
+        List<Vector3f> vertices = model.vertices.items();
+        Triangulation triangulation = model.getTriangulation();
+        float[] normals = new float[triangulation.getTriangleCount() * 3];
+        for (int t = 0; t < triangulation.getTriangleCount(); t++) {
+            Vector3f v1 = vertices.get(triangulation.vertexAt(t, 0));
+            Vector3f normal = vertices.get(triangulation.vertexAt(t, 1)).subtract(v1)
+                .cross(vertices.get(triangulation.vertexAt(t, 2)).subtract(v1))
+                .normalizeSafe();
+            normals[t * 3] = normal.getX();
+            normals[t * 3 + 1] = normal.getY();
+            normals[t * 3 + 2] = normal.getZ();
+        }
+        return normals;
+    }
+
+    /**
+     * Отмечает, что нормали больше не соответствуют геометрии
+     * и при следующем {@link #ensureNormals()} будут пересчитаны.
+     */
+    public void invalidateNormals() {
+        normalsComputed = false;
     }
 
     public List<Vector3f> getVertices() {
-        return Collections.unmodifiableList(vertices);
+        return Collections.unmodifiableList(vertices.items());
     }
 
     public List<Vector2f> getTextureVertices() {
-        return Collections.unmodifiableList(textureVertices);
+        return Collections.unmodifiableList(textureVertices.items());
     }
 
     public List<Vector3f> getNormals() {
-        return Collections.unmodifiableList(normals);
+        return Collections.unmodifiableList(normals.items());
     }
 
     public List<Polygon> getPolygons() {
-        return Collections.unmodifiableList(polygons);
+        return Collections.unmodifiableList(polygons.items());
     }
 
+    /**
+     * Возвращает изменяемый список вершин; если список разделен с другой копией,
+     * модель сначала получает собственный. Замена вершины увеличивает версию
+     * геометрии, изменение размера — версии геометрии и топологии.
+     */
     public List<Vector3f> getVerticesMutable() {
-        return vertices;
-    }
-
+        vertices = vertices.forWrite();
+        return new VersionedList<>(vertices.items(),
+            () -> geometryVersion++,
+            () -> {
+                geometryVersion++;
+                topologyVersion++;
+            });
+    }
+
+    /**
+     * Возвращает изменяемый список полигонов; любая правка увеличивает версию топологии.
+     */
     public List<Polygon> getPolygonsMutable() {
-        return polygons;
+        polygons = polygons.forWrite();
+        return new VersionedList<>(polygons.items(), () -> topologyVersion++, () -> topologyVersion++);
     }
 
     public List<Vector2f> getTextureVerticesMutable() {
-        return textureVertices;
+        textureVertices = textureVertices.forWrite();
+        return textureVertices.items();
     }
 
     public List<Vector3f> getNormalsMutable() {
-        return normals;
+        normals = normals.forWrite();
+        return normals.items();
+    }
+
+    /**
+     * Проверяет, разделяет ли модель хотя бы один список геометрии с другой копией.
+     */
+    public boolean isGeometryShared() {
+        return vertices.isShared() || textureVertices.isShared() || normals.isShared() || polygons.isShared();
+    }
+
+    /**
+     * Проверяет, что модели ссылаются на одни и те же списки геометрии, то есть
+     * ни одна из них не менялась с момента {@link #copy()}.
+     */
+    public boolean sharesGeometryWith(Model other) {
+        return other != null && vertices == other.vertices && textureVertices == other.textureVertices
+            && normals == other.normals && polygons == other.polygons;
     }
 
     public String getMaterialName() {
@@ -236,27 +545,16 @@ public final class Model {
         this.materialReflectivity = materialReflectivity;
     }
 
+    /**
+     * Создает копию модели за O(1): списки геометрии и производные кэши
+     * разделяются до первого изменения. Выделение копии пустое.
+     */
     public Model copy() {
-        Model copy = new Model(
-            vertices,
-            textureVertices,
-            normals,
-            polygons,
-            materialName,
-            texturePath,
-            materialColor != null ? materialColor.clone() : null,
-            materialShininess,
-            materialTransparency,
-            materialReflectivity
-        );
-        copy.selection.clearAll();
-        copy.useLighting = this.useLighting;
-        copy.useTexture = this.useTexture;
-        copy.drawPolygonalGrid = this.drawPolygonalGrid;
-        return copy;
+        return new Model(this);
     }
 
     public List<Vector3f> getTransformedVertices(Vector3f translation, Vector3f rotation, Vector3f scale) {
+        List<Vector3f> vertices = this.vertices.items();
         List<Vector3f> transformedVertices = new ArrayList<>(vertices.size());
 
         Matrix4x4 modelMatrix = GraphicConveyor.rotateScaleTranslate(translation, rotation, scale);
@@ -274,9 +572,9 @@ public final class Model {
 
         Model copy = new Model(
             transformedVertices,
-            new ArrayList<>(textureVertices),
-            new ArrayList<>(normals),
-            new ArrayList<>(polygons),
+            textureVertices.items(),
+            normals.items(),
+            polygons.items(),
             materialName,
             texturePath,
             materialColor != null ? materialColor.clone() : null,
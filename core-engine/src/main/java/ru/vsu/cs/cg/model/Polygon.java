@@ -25,7 +25,8 @@ public final class Polygon {
     }
 
     /**
-     * Выполняется триангуляция веером
+     * Выполняется триангуляция веером. Верна только для выпуклых полигонов;
+     * модель триангулирует с учетом позиций вершин ({@link Model#getTriangulation()})
      * @return список полигонов
      */
     public List<Polygon> triangulate() {
@@ -0,0 +1,421 @@
+package ru.vsu.cs.cg.model;
+
+import ru.vsu.cs.cg.math.Vector2f;
+import ru.vsu.cs.cg.math.Vector3f;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Компактная запись удаленной части модели для отмены удаления.
+ * <p>
+ * Хранит только удаленные элементы: отсортированные индексы и данные
+ * в примитивных массивах (координаты вершин, текстурные координаты, нормали,
+ * индексы удаленных полигонов в исходной нумерации). Оставшиеся элементы
+ * не копируются: при восстановлении их индексы переводятся обратно
+ * по маскам удаления.
+ * <p>
+ * Запись действительна, только пока модель находится в состоянии сразу
+ * после удаления, для которого она была снята. Для журнала автосохранения
+ * запись сериализуется в буфер ({@link #writeTo(ByteBuffer)}).
+ */
+public final class RemovedGeometry {
+    private static final int POLYGON_HEADER = 3;
+
+    private final int vertexCount;
+    private final int textureCount;
+    private final int normalCount;
+    private final int polygonCount;
+
+    private final int[] removedVertices;
+    private final float[] vertexPayload;
+    private final int[] removedTextures;
+    private final float[] texturePayload;
+    private final int[] removedNormals;
+    private final float[] normalPayload;
+    private final int[] removedPolygons;
+    private final int[] polygonHeaders;
+    private final int[] polygonIndices;
+
+    private RemovedGeometry(int[] counts, int[] removedVertices, float[] vertexPayload,
+                            int[] removedTextures, float[] texturePayload,
+                            int[] removedNormals, float[] normalPayload,
+                            int[] removedPolygons, int[] polygonHeaders, int[] polygonIndices) {
+        this.vertexCount = counts[0];
+        this.textureCount = counts[1];
+        this.normalCount = counts[2];
+        this.polygonCount = counts[3];
+        this.removedVertices = removedVertices;
+        this.vertexPayload = vertexPayload;
+        this.removedTextures = removedTextures;
+        this.texturePayload = texturePayload;
+        this.removedNormals = removedNormals;
+        this.normalPayload = normalPayload;
+        this.removedPolygons = removedPolygons;
+        this.polygonHeaders = polygonHeaders;
+        this.polygonIndices = polygonIndices;
+    }
+
+    private RemovedGeometry(Model model, BitSet vertices, BitSet textures, BitSet normals, BitSet polygons) {
+        vertexCount = model.getVertices().size();
+        textureCount = model.getTextureVertices().size();
+        normalCount = model.getNormals().size();
+        polygonCount = model.getPolygons().size();
+
+        removedVertices = toSortedArray(vertices, vertexCount);
+        vertexPayload = new float[removedVertices.length * 3];
+        for (int i = 0; i < removedVertices.length; i++) {
+            writeVector(model.getVertices().get(removedVertices[i]), vertexPayload, i * 3);
+        }
+
+        removedTextures = toSortedArray(textures, textureCount);
+        texturePayload = new float[removedTextures.length * 2];
+        for (int i = 0; i < removedTextures.length; i++) {
+            Vector2f texture = model.getTextureVertices().get(removedTextures[i]);
+            texturePayload[i * 2] = texture.getX();
+            texturePayload[i * 2 + 1] = texture.getY();
+        }
+
+        removedNormals = toSortedArray(normals, normalCount);
+        normalPayload = new float[removedNormals.length * 3];
+        for (int i = 0; i < removedNormals.length; i++) {
+            writeVector(model.getNormals().get(removedNormals[i]), normalPayload, i * 3);
+        }
+
+        removedPolygons = toSortedArray(polygons, polygonCount);
+        polygonHeaders = new int[removedPolygons.length * POLYGON_HEADER];
+        int total = 0;
+        for (int i = 0; i < removedPolygons.length; i++) {
+            Polygon polygon = model.getPolygons().get(removedPolygons[i]);
+            if (polygon == null) {
+                continue;
+            }
+            polygonHeaders[i * POLYGON_HEADER] = polygon.getVertexIndices().size();
+            polygonHeaders[i * POLYGON_HEADER + 1] = polygon.getTextureVertexIndices().size();
+            polygonHeaders[i * POLYGON_HEADER + 2] = polygon.getNormalIndices().size();
+            total += polygon.getVertexIndices().size() + polygon.getTextureVertexIndices().size()
+                + polygon.getNormalIndices().size();
+        }
+
+        polygonIndices = new int[total];
+        int position = 0;
+        for (int removedPolygon : removedPolygons) {
+            Polygon polygon = model.getPolygons().get(removedPolygon);
+            if (polygon == null) {
+                continue;
+            }
+            position = writeIndices(polygon.getVertexIndices(), polygonIndices, position);
+            position = writeIndices(polygon.getTextureVertexIndices(), polygonIndices, position);
+            position = writeIndices(polygon.getNormalIndices(), polygonIndices, position);
+        }
+    }
+
+    /**
+     * Снимает запись с модели до удаления. Маски задают удаляемые элементы;
+     * индексы за пределами списков модели игнорируются.
+     *
+     * @param model    модель до удаления
+     * @param vertices маска удаляемых вершин
+     * @param textures маска удаляемых текстурных координат
+     * @param normals  маска удаляемых нормалей
+     * @param polygons маска удаляемых полигонов
+     * @return запись удаляемой геометрии
+     */
+    public static RemovedGeometry capture(Model model, BitSet vertices, BitSet textures,
+                                          BitSet normals, BitSet polygons) {
+        return new RemovedGeometry(model, vertices, textures, normals, polygons);
+    }
+
+    /**
+     * Снимает запись удаления одних полигонов без вершин.
+     */
+    public static RemovedGeometry capturePolygons(Model model, BitSet polygons) {
+        return new RemovedGeometry(model, new BitSet(), new BitSet(), new BitSet(), polygons);
+    }
+
+    /**
+     * Возвращает удаленные элементы в модель. Оставшиеся полигоны получают
+     * исходную нумерацию, удаленные вставляются на прежние места.
+     * Если нормали модели после удаления были пересчитаны, они пересчитываются снова.
+     *
+     * @param model модель сразу после удаления
+     * @throws IllegalStateException если модель изменилась после удаления
+     */
+    public void restore(Model model) {
+        if (model.getVertices().size() != vertexCount - removedVertices.length
+            || model.getTextureVertices().size() != textureCount - removedTextures.length
+            || model.getPolygons().size() != polygonCount - removedPolygons.length) {
+            throw new IllegalStateException("Модель изменилась после удаления, восстановление невозможно");
+        }
+        boolean normalsRestorable = model.getNormals().size() == normalCount - removedNormals.length;
+
+        int[] keptVertices = keptIndices(vertexCount, removedVertices);
+        int[] keptTextures = keptIndices(textureCount, removedTextures);
+        int[] keptNormals = normalsRestorable ? keptIndices(normalCount, removedNormals) : keptVertices;
+
+        List<Polygon> polygons = model.getPolygonsMutable();
+        for (int i = 0; i < polygons.size(); i++) {
+            Polygon polygon = polygons.get(i);
+            polygons.set(i, new Polygon(
+                mapIndices(polygon.getVertexIndices(), keptVertices),
+                mapIndices(polygon.getTextureVertexIndices(), keptTextures),
+                mapIndices(polygon.getNormalIndices(), keptNormals)));
+        }
+
+        int[] polygonStarts = new int[removedPolygons.length];
+        for (int i = 1; i < removedPolygons.length; i++) {
+            int previous = (i - 1) * POLYGON_HEADER;
+            polygonStarts[i] = polygonStarts[i - 1] + polygonHeaders[previous]
+                + polygonHeaders[previous + 1] + polygonHeaders[previous + 2];
+        }
+
+        expand(model.getVerticesMutable(), removedVertices, i -> readVector(vertexPayload, i * 3));
+        expand(model.getTextureVerticesMutable(), removedTextures,
+            i -> new Vector2f(texturePayload[i * 2], texturePayload[i * 2 + 1]));
+        if (normalsRestorable) {
+            expand(model.getNormalsMutable(), removedNormals, i -> readVector(normalPayload, i * 3));
+        }
+        expand(polygons, removedPolygons, i -> readPolygon(i, polygonStarts[i]));
+
+        model.invalidateTriangulation();
+        model.invalidateNormals();
+        if (model.isUseLighting() && !model.getNormals().isEmpty()) {
+            model.recomputeNormals();
+        }
+    }
+
+    public int getRemovedVertexCount() {
+        return removedVertices.length;
+    }
+
+    public int getRemovedPolygonCount() {
+        return removedPolygons.length;
+    }
+
+    /**
+     * Оценка занимаемой записью памяти в байтах.
+     */
+    public long estimatedBytes() {
+        long ints = (long) removedVertices.length + removedTextures.length + removedNormals.length
+            + removedPolygons.length + polygonHeaders.length + polygonIndices.length;
+        long floats = (long) vertexPayload.length + texturePayload.length + normalPayload.length;
+        return 4 * (ints + floats) + 16L * 9 + 64;
+    }
+
+    /**
+     * Размер записи в байтах при сериализации через {@link #writeTo(ByteBuffer)}.
+     */
+    public int serializedSize() {
+        int arrays = removedVertices.length + vertexPayload.length + removedTextures.length
+            + texturePayload.length + removedNormals.length + normalPayload.length
+            + removedPolygons.length + polygonHeaders.length + polygonIndices.length;
+        return Integer.BYTES * (4 + 9 + arrays);
+    }
+
+    /**
+     * Записывает удаленные элементы в буфер в порядке байтов буфера.
+     * Буфер должен вмещать {@link #serializedSize()} байт.
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(vertexCount).putInt(textureCount).putInt(normalCount).putInt(polygonCount);
+        putInts(out, removedVertices);
+        putFloats(out, vertexPayload);
+        putInts(out, removedTextures);
+        putFloats(out, texturePayload);
+        putInts(out, removedNormals);
+        putFloats(out, normalPayload);
+        putInts(out, removedPolygons);
+        putInts(out, polygonHeaders);
+        putInts(out, polygonIndices);
+    }
+
+    /**
+     * Читает запись, сохраненную {@link #writeTo(ByteBuffer)}.
+     *
+     * @param in буфер, позиционированный на начало записи
+     * @return восстановленная запись удаленной геометрии
+     * @throws IllegalArgumentException если данные повреждены или не согласованы
+     */
+    public static RemovedGeometry readFrom(ByteBuffer in) {
+        try {
+            int[] counts = {in.getInt(), in.getInt(), in.getInt(), in.getInt()};
+            int[] vertices = getInts(in);
+            float[] vertexPayload = getFloats(in);
+            int[] textures = getInts(in);
+            float[] texturePayload = getFloats(in);
+            int[] normals = getInts(in);
+            float[] normalPayload = getFloats(in);
+            int[] polygons = getInts(in);
+            int[] headers = getInts(in);
+            int[] indices = getInts(in);
+
+            long headerTotal = 0;
+            for (int header : headers) {
+                if (header < 0) {
+                    throw new IllegalArgumentException("Некорректный размер удаленного полигона: " + header);
+                }
+                headerTotal += header;
+            }
+            if (vertexPayload.length != 3L * vertices.length || texturePayload.length != 2L * textures.length
+                || normalPayload.length != 3L * normals.length
+                || headers.length != (long) POLYGON_HEADER * polygons.length
+                || headerTotal != indices.length
+                || !isSortedWithin(vertices, counts[0]) || !isSortedWithin(textures, counts[1])
+                || !isSortedWithin(normals, counts[2]) || !isSortedWithin(polygons, counts[3])) {
+                throw new IllegalArgumentException("Данные удаленной геометрии не согласованы");
+            }
+
+            return new RemovedGeometry(counts, vertices, vertexPayload, textures, texturePayload,
+                normals, normalPayload, polygons, headers, indices);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Данные удаленной геометрии обрываются", e);
+        }
+    }
+
+    private Polygon readPolygon(int removedIndex, int start) {
+        int header = removedIndex * POLYGON_HEADER;
+        int vertexEnd = start + polygonHeaders[header];
+        int textureEnd = vertexEnd + polygonHeaders[header + 1];
+        int normalEnd = textureEnd + polygonHeaders[header + 2];
+        return new Polygon(
+            readIndices(polygonIndices, start, vertexEnd),
+            readIndices(polygonIndices, vertexEnd, textureEnd),
+            readIndices(polygonIndices, textureEnd, normalEnd));
+    }
+
+    /**
+     * Вставляет элементы на отсортированные позиции за один проход с конца списка.
+     */
+    private static <T> void expand(List<T> list, int[] positions, IntFunction<T> payload) {
+        if (positions.length == 0) {
+            return;
+        }
+
+        int read = list.size() - 1;
+        for (int i = 0; i < positions.length; i++) {
+            list.add(null);
+        }
+
+        int removed = positions.length - 1;
+        for (int write = list.size() - 1; write >= 0 && removed >= 0; write--) {
+            if (positions[removed] == write) {
+                list.set(write, payload.apply(removed--));
+            } else {
+                list.set(write, list.get(read--));
+            }
+        }
+    }
+
+    /**
+     * Таблица обратной переиндексации: новый индекс оставшегося элемента в его исходный индекс.
+     */
+    private static int[] keptIndices(int size, int[] removed) {
+        int[] kept = new int[size - removed.length];
+        int write = 0;
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (next < removed.length && removed[next] == i) {
+                next++;
+            } else {
+                kept[write++] = i;
+            }
+        }
+        return kept;
+    }
+
+    private static List<Integer> mapIndices(List<Integer> indices, int[] kept) {
+        List<Integer> mapped = new ArrayList<>(indices.size());
+        for (Integer index : indices) {
+            mapped.add(index >= 0 && index < kept.length ? kept[index] : index);
+        }
+        return mapped;
+    }
+
+    private static int[] toSortedArray(BitSet marks, int size) {
+        BitSet bounded = marks.get(0, size);
+        int[] result = new int[bounded.cardinality()];
+        int write = 0;
+        for (int i = bounded.nextSetBit(0); i >= 0; i = bounded.nextSetBit(i + 1)) {
+            result[write++] = i;
+        }
+        return result;
+    }
+
+    private static int writeIndices(List<Integer> indices, int[] target, int position) {
+        for (Integer index : indices) {
+            target[position++] = index;
+        }
+        return position;
+    }
+
+    private static List<Integer> readIndices(int[] source, int from, int to) {
+        List<Integer> indices = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            indices.add(source[i]);
+        }
+        return indices;
+    }
+
+    private static boolean isSortedWithin(int[] indices, int size) {
+        int previous = -1;
+        for (int index : indices) {
+            if (index <= previous || index >= size) {
+                return false;
+            }
+            previous = index;
+        }
+        return true;
+    }
+
+    private static void putInts(ByteBuffer out, int[] values) {
+        out.putInt(values.length);
+        for (int value : values) {
+            out.putInt(value);
+        }
+    }
+
+    private static void putFloats(ByteBuffer out, float[] values) {
+        out.putInt(values.length);
+        for (float value : values) {
+            out.putFloat(value);
+        }
+    }
+
+    private static int[] getInts(ByteBuffer in) {
+        int[] values = new int[checkedLength(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.getInt();
+        }
+        return values;
+    }
+
+    private static float[] getFloats(ByteBuffer in) {
+        float[] values = new float[checkedLength(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.getFloat();
+        }
+        return values;
+    }
+
+    private static int checkedLength(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining() / Integer.BYTES) {
+            throw new IllegalArgumentException("Некорректная длина массива удаленной геометрии: " + length);
+        }
+        return length;
+    }
+
+    private static void writeVector(Vector3f vector, float[] target, int offset) {
+        target[offset] = vector.getX();
+        target[offset + 1] = vector.getY();
+        target[offset + 2] = vector.getZ();
+    }
+
+    private static Vector3f readVector(float[] source, int offset) {
+        return new Vector3f(source[offset], source[offset + 1], source[offset + 2]);
+    }
+}
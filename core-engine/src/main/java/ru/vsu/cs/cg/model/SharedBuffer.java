@@ -0,0 +1,48 @@
+package ru.vsu.cs.cg.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Список, разделяемый между копиями модели до первой записи.
+ * Счетчик владельцев показывает, сколько моделей ссылаются на список;
+ * модель, которая собирается его менять, при нескольких владельцах
+ * получает собственную копию.
+ */
+final class SharedBuffer<T> {
+    private final List<T> items;
+    private final AtomicInteger owners = new AtomicInteger(1);
+
+    SharedBuffer(List<T> items) {
+        this.items = items;
+    }
+
+    List<T> items() {
+        return items;
+    }
+
+    /**
+     * Регистрирует еще одного владельца и возвращает тот же буфер.
+     */
+    SharedBuffer<T> share() {
+        owners.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Возвращает буфер, который вызывающий может менять: этот же,
+     * если владелец единственный, иначе собственную копию.
+     */
+    SharedBuffer<T> forWrite() {
+        if (owners.get() == 1) {
+            return this;
+        }
+        owners.decrementAndGet();
+        return new SharedBuffer<>(new ArrayList<>(items));
+    }
+
+    boolean isShared() {
+        return owners.get() > 1;
+    }
+}
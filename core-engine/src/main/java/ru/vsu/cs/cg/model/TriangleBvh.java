@@ -0,0 +1,667 @@
+package ru.vsu.cs.cg.model;
+
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.utils.ParallelRanges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Иерархия ограничивающих объемов (BVH) по треугольникам модели в ее локальных координатах.
+ * <p>
+ * Треугольники берутся из триангуляции модели, дерево строится по SAH с разбиением
+ * центроидов на корзины. Верхние уровни строятся с параллельным подсчетом
+ * корзин, поддеревья ниже порога — параллельно в отдельных буферах,
+ * которые затем сливаются в общие плоские массивы. Узел хранит
+ * шесть границ и два целых: для листа — начало и количество треугольников,
+ * для внутреннего узла — индекс левого потомка (правый следует за ним) и {@code -1}.
+ * Лист может быть пустым: дерево модели без треугольников состоит из одного пустого листа.
+ * <p>
+ * Дерево неизменяемо. Трансформация объекта не требует перестроения: луч
+ * переводится в локальные координаты. После сдвига вершин, не изменившего
+ * триангуляцию, достаточно {@link #refit(List)}.
+ */
+public final class TriangleBvh {
+    private static final int LEAF_SIZE = 4;
+    private static final int MAX_LEAF_SIZE = 16;
+    private static final int BIN_COUNT = 16;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int SUBTREE_SIZE = 1 << 14;
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final float EPSILON = 1e-9f;
+    private static final int INNER = -1;
+
+    private final int sourceVertexCount;
+    private final Triangulation source;
+    private final float[] positions;
+    private final int[] triangles;
+    private final int[] triangleFaces;
+    private final float[] bounds;
+    private final int[] nodes;
+    private final int nodeCount;
+
+    private TriangleBvh(int sourceVertexCount, Triangulation source, float[] positions, int[] triangles,
+                        int[] triangleFaces, float[] bounds, int[] nodes, int nodeCount) {
+        this.sourceVertexCount = sourceVertexCount;
+        this.source = source;
+        this.positions = positions;
+        this.triangles = triangles;
+        this.triangleFaces = triangleFaces;
+        this.bounds = bounds;
+        this.nodes = nodes;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Результат пересечения луча с треугольником.
+     *
+     * @param faceIndex индекс исходного полигона модели
+     * @param distance  параметр луча в точке пересечения
+     * @param vertex0   первая вершина треугольника
+     * @param vertex1   вторая вершина треугольника
+     * @param vertex2   третья вершина треугольника
+     * @param point     точка пересечения в локальных координатах модели
+     */
+    public record Hit(int faceIndex, float distance, int vertex0, int vertex1, int vertex2, Vector3f point) {
+    }
+
+    /**
+     * Строит дерево по вершинам и триангуляции модели.
+     *
+     * @param vertices      вершины модели
+     * @param triangulation триангуляция полигонов модели
+     * @return дерево треугольников
+     */
+    public static TriangleBvh build(List<Vector3f> vertices, Triangulation triangulation) {
+        int vertexCount = vertices.size();
+        float[] positions = toPositions(vertices);
+
+        int triangleCount = triangulation.getTriangleCount();
+        int[] sourceTriangles = new int[triangleCount * 3];
+        int[] sourceFaces = new int[triangleCount];
+        for (int t = 0; t < triangleCount; t++) {
+            sourceTriangles[t * 3] = triangulation.vertexAt(t, 0);
+            sourceTriangles[t * 3 + 1] = triangulation.vertexAt(t, 1);
+            sourceTriangles[t * 3 + 2] = triangulation.vertexAt(t, 2);
+            sourceFaces[t] = triangulation.faceOf(t);
+        }
+
+        Builder root = new Builder(positions, sourceTriangles, triangleCount);
+        root.buildTree();
+
+        int[] triangles = new int[triangleCount * 3];
+        int[] triangleFaces = new int[triangleCount];
+        for (int i = 0; i < triangleCount; i++) {
+            int source = root.order[i];
+            triangles[i * 3] = sourceTriangles[source * 3];
+            triangles[i * 3 + 1] = sourceTriangles[source * 3 + 1];
+            triangles[i * 3 + 2] = sourceTriangles[source * 3 + 2];
+            triangleFaces[i] = sourceFaces[source];
+        }
+
+        return new TriangleBvh(vertexCount, triangulation, positions, triangles, triangleFaces,
+            root.nodes.bounds, root.nodes.data, root.nodes.count);
+    }
+
+    /**
+     * Пересчитывает границы узлов по новым позициям вершин, сохраняя структуру дерева.
+     *
+     * @param vertices вершины модели после сдвига; количество должно совпадать
+     * @return новое дерево, разделяющее с текущим топологию
+     * @throws IllegalArgumentException если количество вершин изменилось
+     */
+    public TriangleBvh refit(List<Vector3f> vertices) {
+        if (vertices.size() != sourceVertexCount) {
+            throw new IllegalArgumentException("Количество вершин изменилось, требуется перестроение дерева");
+        }
+
+        float[] newPositions = toPositions(vertices);
+        float[] newBounds = new float[nodeCount * 6];
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            int count = nodes[node * 2 + 1];
+            int offset = node * 6;
+            if (count != INNER) {
+                resetBox(newBounds, offset);
+                int first = nodes[node * 2];
+                for (int t = first; t < first + count; t++) {
+                    for (int k = 0; k < 3; k++) {
+                        includePoint(newBounds, offset, newPositions, triangles[t * 3 + k]);
+                    }
+                }
+            } else {
+                int left = nodes[node * 2];
+                for (int k = 0; k < 3; k++) {
+                    newBounds[offset + k] = Math.min(newBounds[left * 6 + k], newBounds[(left + 1) * 6 + k]);
+                    newBounds[offset + 3 + k] = Math.max(newBounds[left * 6 + 3 + k], newBounds[(left + 1) * 6 + 3 + k]);
+                }
+            }
+        }
+
+        return new TriangleBvh(sourceVertexCount, source, newPositions, triangles, triangleFaces,
+            newBounds, nodes, nodeCount);
+    }
+
+    /**
+     * Ищет ближайшее пересечение луча с треугольниками. Направление не обязано быть единичным;
+     * расстояние возвращается в единицах параметра луча. Треугольники проверяются с обеих сторон.
+     *
+     * @param origin      начало луча в локальных координатах модели
+     * @param direction   направление луча
+     * @param maxDistance максимальный параметр луча
+     * @return ближайшее пересечение или {@code null}
+     */
+    public Hit intersect(Vector3f origin, Vector3f direction, float maxDistance) {
+        if (nodeCount == 0 || triangleFaces.length == 0) {
+            return null;
+        }
+
+        float ox = origin.getX(), oy = origin.getY(), oz = origin.getZ();
+        float dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        float ix = 1.0f / dx, iy = 1.0f / dy, iz = 1.0f / dz;
+
+        float best = maxDistance;
+        int bestTriangle = -1;
+
+        int[] stack = new int[64];
+        int top = 0;
+        if (slab(0, ox, oy, oz, ix, iy, iz, best) < Float.POSITIVE_INFINITY) {
+            stack[top++] = 0;
+        }
+
+        while (top > 0) {
+            int node = stack[--top];
+            if (slab(node, ox, oy, oz, ix, iy, iz, best) == Float.POSITIVE_INFINITY) {
+                continue;
+            }
+
+            int count = nodes[node * 2 + 1];
+            if (count != INNER) {
+                int first = nodes[node * 2];
+                for (int t = first; t < first + count; t++) {
+                    float distance = intersectTriangle(t, ox, oy, oz, dx, dy, dz);
+                    if (distance >= 0 && distance < best) {
+                        best = distance;
+                        bestTriangle = t;
+                    }
+                }
+                continue;
+            }
+
+            int left = nodes[node * 2];
+            float leftDistance = slab(left, ox, oy, oz, ix, iy, iz, best);
+            float rightDistance = slab(left + 1, ox, oy, oz, ix, iy, iz, best);
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (leftDistance <= rightDistance) {
+                if (rightDistance < Float.POSITIVE_INFINITY) stack[top++] = left + 1;
+                if (leftDistance < Float.POSITIVE_INFINITY) stack[top++] = left;
+            } else {
+                if (leftDistance < Float.POSITIVE_INFINITY) stack[top++] = left;
+                stack[top++] = left + 1;
+            }
+        }
+
+        if (bestTriangle < 0) {
+            return null;
+        }
+        return new Hit(triangleFaces[bestTriangle], best,
+            triangles[bestTriangle * 3], triangles[bestTriangle * 3 + 1], triangles[bestTriangle * 3 + 2],
+            new Vector3f(ox + dx * best, oy + dy * best, oz + dz * best));
+    }
+
+    /**
+     * Возвращает ту вершину треугольника попадания, что ближе всего к точке пересечения.
+     */
+    public int nearestVertex(Hit hit) {
+        int[] candidates = {hit.vertex0(), hit.vertex1(), hit.vertex2()};
+        int nearest = candidates[0];
+        float nearestDistance = Float.POSITIVE_INFINITY;
+        for (int vertex : candidates) {
+            float ddx = positions[vertex * 3] - hit.point().getX();
+            float ddy = positions[vertex * 3 + 1] - hit.point().getY();
+            float ddz = positions[vertex * 3 + 2] - hit.point().getZ();
+            float distance = ddx * ddx + ddy * ddy + ddz * ddz;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = vertex;
+            }
+        }
+        return nearest;
+    }
+
+    public int getTriangleCount() {
+        return triangleFaces.length;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Проверяет, построено ли дерево по этой триангуляции; только тогда допустим {@link #refit(List)}.
+     */
+    public boolean isBuiltFrom(Triangulation triangulation) {
+        return source == triangulation;
+    }
+
+    /**
+     * Пересечение луча с узлом методом плит.
+     *
+     * @return параметр входа в узел или {@code +inf}, если пересечения нет ближе {@code limit}
+     */
+    private float slab(int node, float ox, float oy, float oz, float ix, float iy, float iz, float limit) {
+        int b = node * 6;
+        float t1 = (bounds[b] - ox) * ix, t2 = (bounds[b + 3] - ox) * ix;
+        float near = Math.min(t1, t2), far = Math.max(t1, t2);
+        t1 = (bounds[b + 1] - oy) * iy;
+        t2 = (bounds[b + 4] - oy) * iy;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        t1 = (bounds[b + 2] - oz) * iz;
+        t2 = (bounds[b + 5] - oz) * iz;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+
+        if (far < Math.max(near, 0) || near > limit || Float.isNaN(near) || Float.isNaN(far)) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return near;
+    }
+
+    /**
+     * Пересечение луча с треугольником (Мёллер — Трумбор).
+     *
+     * @return параметр луча или {@code -1}
+     */
+    private float intersectTriangle(int triangle, float ox, float oy, float oz, float dx, float dy, float dz) {
+        int a = triangles[triangle * 3] * 3;
+        int b = triangles[triangle * 3 + 1] * 3;
+        int c = triangles[triangle * 3 + 2] * 3;
+
+        float e1x = positions[b] - positions[a], e1y = positions[b + 1] - positions[a + 1], e1z = positions[b + 2] - positions[a + 2];
+        float e2x = positions[c] - positions[a], e2y = positions[c + 1] - positions[a + 1], e2z = positions[c + 2] - positions[a + 2];
+
+        float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        float determinant = e1x * px + e1y * py + e1z * pz;
+        if (Math.abs(determinant) < EPSILON) {
+            return -1;
+        }
+        float inverse = 1.0f / determinant;
+
+        float sx = ox - positions[a], sy = oy - positions[a + 1], sz = oz - positions[a + 2];
+        float u = (sx * px + sy * py + sz * pz) * inverse;
+        if (u < 0 || u > 1) {
+            return -1;
+        }
+
+        float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        float v = (dx * qx + dy * qy + dz * qz) * inverse;
+        if (v < 0 || u + v > 1) {
+            return -1;
+        }
+
+        return (e2x * qx + e2y * qy + e2z * qz) * inverse;
+    }
+
+    private static float[] toPositions(List<Vector3f> vertices) {
+        float[] positions = new float[vertices.size() * 3];
+        ParallelRanges.forEach(vertices.size(), CHUNK_SIZE, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Vector3f vertex = vertices.get(i);
+                positions[i * 3] = vertex.getX();
+                positions[i * 3 + 1] = vertex.getY();
+                positions[i * 3 + 2] = vertex.getZ();
+            }
+        });
+        return positions;
+    }
+
+    private static void resetBox(float[] box, int offset) {
+        Arrays.fill(box, offset, offset + 3, Float.POSITIVE_INFINITY);
+        Arrays.fill(box, offset + 3, offset + 6, Float.NEGATIVE_INFINITY);
+    }
+
+    private static void includePoint(float[] box, int offset, float[] positions, int vertex) {
+        for (int k = 0; k < 3; k++) {
+            float value = positions[vertex * 3 + k];
+            if (value < box[offset + k]) box[offset + k] = value;
+            if (value > box[offset + 3 + k]) box[offset + 3 + k] = value;
+        }
+    }
+
+    private static void includeBox(float[] target, int targetOffset, float[] source, int sourceOffset) {
+        for (int k = 0; k < 3; k++) {
+            target[targetOffset + k] = Math.min(target[targetOffset + k], source[sourceOffset + k]);
+            target[targetOffset + 3 + k] = Math.max(target[targetOffset + 3 + k], source[sourceOffset + 3 + k]);
+        }
+    }
+
+    private static float halfArea(float[] box, int offset) {
+        float ex = box[offset + 3] - box[offset];
+        float ey = box[offset + 4] - box[offset + 1];
+        float ez = box[offset + 5] - box[offset + 2];
+        if (ex < 0 || ey < 0 || ez < 0) {
+            return 0;
+        }
+        return ex * ey + ey * ez + ez * ex;
+    }
+
+    /**
+     * Растущие плоские массивы узлов.
+     */
+    private static final class NodeBuffer {
+        private float[] bounds = new float[6 * 64];
+        private int[] data = new int[2 * 64];
+        private int count;
+
+        int allocate() {
+            if (count == data.length / 2) {
+                data = Arrays.copyOf(data, data.length * 2);
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            return count++;
+        }
+
+        void setLeaf(int node, int first, int triangleCount) {
+            data[node * 2] = first;
+            data[node * 2 + 1] = triangleCount;
+        }
+
+        void setInner(int node, int left) {
+            data[node * 2] = left;
+            data[node * 2 + 1] = INNER;
+        }
+
+        void trim() {
+            data = Arrays.copyOf(data, count * 2);
+            bounds = Arrays.copyOf(bounds, count * 6);
+        }
+    }
+
+    /**
+     * Поддерево, отложенное для параллельного построения.
+     */
+    private record PendingSubtree(int node, int start, int end) {
+    }
+
+    /**
+     * Построитель дерева. Общий порядок треугольников {@code order} переставляется
+     * на месте; параллельные поддеревья работают с непересекающимися отрезками.
+     */
+    private static final class Builder {
+        private final float[] positions;
+        private final int[] sourceTriangles;
+        private final int[] order;
+        private final float[] centroids;
+        private final NodeBuffer nodes = new NodeBuffer();
+        private final List<PendingSubtree> pending = new ArrayList<>();
+        private final boolean deferSubtrees;
+
+        Builder(float[] positions, int[] sourceTriangles, int triangleCount) {
+            this.positions = positions;
+            this.sourceTriangles = sourceTriangles;
+            this.order = new int[triangleCount];
+            this.centroids = new float[triangleCount * 3];
+            this.deferSubtrees = triangleCount >= PARALLEL_THRESHOLD;
+
+            ParallelRanges.forEach(triangleCount, CHUNK_SIZE, (from, to) -> {
+                for (int t = from; t < to; t++) {
+                    order[t] = t;
+                    for (int k = 0; k < 3; k++) {
+                        centroids[t * 3 + k] = (positions[sourceTriangles[t * 3] * 3 + k]
+                            + positions[sourceTriangles[t * 3 + 1] * 3 + k]
+                            + positions[sourceTriangles[t * 3 + 2] * 3 + k]) / 3.0f;
+                    }
+                }
+            });
+        }
+
+        private Builder(Builder parent) {
+            this.positions = parent.positions;
+            this.sourceTriangles = parent.sourceTriangles;
+            this.order = parent.order;
+            this.centroids = parent.centroids;
+            this.deferSubtrees = false;
+        }
+
+        void buildTree() {
+            int root = nodes.allocate();
+            build(root, 0, order.length);
+
+            if (!pending.isEmpty()) {
+                List<NodeBuffer> subtrees = pending.parallelStream().map(subtree -> {
+                    Builder local = new Builder(this);
+                    local.build(local.nodes.allocate(), subtree.start(), subtree.end());
+                    return local.nodes;
+                }).toList();
+
+                for (int i = 0; i < pending.size(); i++) {
+                    merge(pending.get(i).node(), subtrees.get(i));
+                }
+            }
+            nodes.trim();
+        }
+
+        /**
+         * Переносит локальное поддерево в общий буфер: локальный корень заменяет
+         * отложенный узел, остальные узлы добавляются в конец со сдвигом индексов.
+         */
+        private void merge(int target, NodeBuffer local) {
+            int offset = nodes.count - 1;
+            for (int i = 1; i < local.count; i++) {
+                int node = nodes.allocate();
+                System.arraycopy(local.bounds, i * 6, nodes.bounds, node * 6, 6);
+                if (local.data[i * 2 + 1] != INNER) {
+                    nodes.setLeaf(node, local.data[i * 2], local.data[i * 2 + 1]);
+                } else {
+                    nodes.setInner(node, local.data[i * 2] + offset);
+                }
+            }
+
+            System.arraycopy(local.bounds, 0, nodes.bounds, target * 6, 6);
+            if (local.data[1] != INNER) {
+                nodes.setLeaf(target, local.data[0], local.data[1]);
+            } else {
+                nodes.setInner(target, local.data[0] + offset);
+            }
+        }
+
+        private void build(int node, int start, int end) {
+            float[] box = rangeBounds(start, end);
+            System.arraycopy(box, 0, nodes.bounds, node * 6, 6);
+            int count = end - start;
+
+            if (count <= LEAF_SIZE) {
+                nodes.setLeaf(node, start, count);
+                return;
+            }
+
+            int mid = split(box, start, end);
+            if (mid < 0) {
+                nodes.setLeaf(node, start, count);
+                return;
+            }
+
+            int left = nodes.allocate();
+            int right = nodes.allocate();
+            nodes.setInner(node, left);
+
+            buildChild(left, start, mid);
+            buildChild(right, mid, end);
+        }
+
+        private void buildChild(int node, int start, int end) {
+            if (deferSubtrees && end - start <= SUBTREE_SIZE) {
+                nodes.setLeaf(node, start, end - start);
+                pending.add(new PendingSubtree(node, start, end));
+            } else {
+                build(node, start, end);
+            }
+        }
+
+        /**
+         * Выбирает разбиение по SAH и переставляет отрезок.
+         *
+         * @return граница разбиения или {@code -1}, если выгоднее лист
+         */
+        private int split(float[] box, int start, int end) {
+            int count = end - start;
+            float[] centroidBox = Arrays.copyOfRange(box, 6, 12);
+
+            int bestAxis = -1;
+            int bestBin = -1;
+            float bestCost = Float.POSITIVE_INFINITY;
+
+            for (int axis = 0; axis < 3; axis++) {
+                float min = centroidBox[axis];
+                float extent = centroidBox[axis + 3] - min;
+                if (extent <= EPSILON) {
+                    continue;
+                }
+
+                float[] bins = binRange(start, end, axis, min, BIN_COUNT / extent);
+                float[] rightArea = new float[BIN_COUNT];
+                int[] rightCount = new int[BIN_COUNT];
+                float[] accumulated = new float[6];
+                resetBox(accumulated, 0);
+                int accumulatedCount = 0;
+                for (int bin = BIN_COUNT - 1; bin > 0; bin--) {
+                    includeBox(accumulated, 0, bins, bin * 7);
+                    accumulatedCount += (int) bins[bin * 7 + 6];
+                    rightArea[bin] = halfArea(accumulated, 0);
+                    rightCount[bin] = accumulatedCount;
+                }
+
+                resetBox(accumulated, 0);
+                accumulatedCount = 0;
+                for (int bin = 0; bin < BIN_COUNT - 1; bin++) {
+                    includeBox(accumulated, 0, bins, bin * 7);
+                    accumulatedCount += (int) bins[bin * 7 + 6];
+                    if (accumulatedCount == 0 || rightCount[bin + 1] == 0) {
+                        continue;
+                    }
+                    float cost = halfArea(accumulated, 0) * accumulatedCount
+                        + rightArea[bin + 1] * rightCount[bin + 1];
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestBin = bin;
+                    }
+                }
+            }
+
+            if (bestAxis < 0) {
+                return count > MAX_LEAF_SIZE ? start + count / 2 : -1;
+            }
+            if (count <= MAX_LEAF_SIZE && bestCost >= halfArea(box, 0) * count) {
+                return -1;
+            }
+
+            float min = centroidBox[bestAxis];
+            float scale = BIN_COUNT / (centroidBox[bestAxis + 3] - min);
+            int i = start;
+            int j = end - 1;
+            while (i <= j) {
+                if (binOf(centroids[order[i] * 3 + bestAxis], min, scale) <= bestBin) {
+                    i++;
+                } else {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            return i;
+        }
+
+        /**
+         * Для каждой корзины: границы треугольников (6 чисел) и их количество.
+         */
+        private float[] binRange(int start, int end, int axis, float min, float scale) {
+            if (end - start < PARALLEL_THRESHOLD) {
+                float[] bins = emptyBins();
+                fillBins(bins, start, end, axis, min, scale);
+                return bins;
+            }
+
+            int chunks = (end - start + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            return IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+                float[] bins = emptyBins();
+                fillBins(bins, start + chunk * CHUNK_SIZE, Math.min(end, start + (chunk + 1) * CHUNK_SIZE),
+                    axis, min, scale);
+                return bins;
+            }).reduce(emptyBins(), (a, b) -> {
+                float[] merged = a.clone();
+                for (int bin = 0; bin < BIN_COUNT; bin++) {
+                    includeBox(merged, bin * 7, b, bin * 7);
+                    merged[bin * 7 + 6] += b[bin * 7 + 6];
+                }
+                return merged;
+            });
+        }
+
+        private void fillBins(float[] bins, int start, int end, int axis, float min, float scale) {
+            for (int i = start; i < end; i++) {
+                int triangle = order[i];
+                int offset = binOf(centroids[triangle * 3 + axis], min, scale) * 7;
+                for (int k = 0; k < 3; k++) {
+                    includePoint(bins, offset, positions, sourceTriangles[triangle * 3 + k]);
+                }
+                bins[offset + 6]++;
+            }
+        }
+
+        private static float[] emptyBins() {
+            float[] bins = new float[BIN_COUNT * 7];
+            for (int bin = 0; bin < BIN_COUNT; bin++) {
+                resetBox(bins, bin * 7);
+            }
+            return bins;
+        }
+
+        private static int binOf(float centroid, float min, float scale) {
+            int bin = (int) ((centroid - min) * scale);
+            return Math.max(0, Math.min(BIN_COUNT - 1, bin));
+        }
+
+        /**
+         * Границы треугольников отрезка (первые шесть чисел) и границы их центроидов (следующие шесть).
+         */
+        private float[] rangeBounds(int start, int end) {
+            if (end - start < PARALLEL_THRESHOLD) {
+                return accumulateBounds(start, end);
+            }
+
+            int chunks = (end - start + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> accumulateBounds(start + chunk * CHUNK_SIZE,
+                    Math.min(end, start + (chunk + 1) * CHUNK_SIZE)))
+                .reduce((a, b) -> {
+                    float[] merged = a.clone();
+                    includeBox(merged, 0, b, 0);
+                    includeBox(merged, 6, b, 6);
+                    return merged;
+                }).orElseGet(() -> accumulateBounds(start, start));
+        }
+
+        private float[] accumulateBounds(int start, int end) {
+            float[] box = new float[12];
+            resetBox(box, 0);
+            resetBox(box, 6);
+            for (int i = start; i < end; i++) {
+                int triangle = order[i];
+                for (int k = 0; k < 3; k++) {
+                    includePoint(box, 0, positions, sourceTriangles[triangle * 3 + k]);
+                }
+                for (int k = 0; k < 3; k++) {
+                    float value = centroids[triangle * 3 + k];
+                    if (value < box[6 + k]) box[6 + k] = value;
+                    if (value > box[9 + k]) box[9 + k] = value;
+                }
+            }
+            return box;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package ru.vsu.cs.cg.model;
+
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.utils.ParallelRanges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Триангуляция полигонов модели в виде плоского индексного буфера.
+ * <p>
+ * Треугольник {@code t} хранит три индекса вершин модели и три позиции углов
+ * в исходном полигоне ({@link #cornerAt(int, int)}), по которым берутся индексы
+ * текстурных координат и нормалей. Треугольники полигона {@code f} лежат подряд
+ * на отрезке {@code [faceTriangleStart(f), faceTriangleEnd(f))}; полигон из
+ * {@code n} вершин всегда дает {@code n - 2} треугольника, поэтому смещения
+ * известны заранее и полигоны триангулируются параллельно по диапазонам.
+ * <p>
+ * Каждый полигон проецируется на доминирующую плоскость его нормали (по Ньюэллу).
+ * Выпуклые полигоны режутся веером, невыпуклые — отсечением ушей. Полигоны
+ * со ссылками на несуществующие вершины пропускаются. Буфер неизменяем:
+ * модель строит новый после правки ({@link Model#getTriangulation()}).
+ */
+public final class Triangulation {
+    private static final int CHUNK_SIZE = 1 << 10;
+    private static final float EPSILON = 1e-12f;
+
+    private final int[] faceOffsets;
+    private final int[] triangleVertices;
+    private final int[] triangleCorners;
+    private final int[] triangleFaces;
+
+    private Triangulation(int[] faceOffsets, int[] triangleVertices, int[] triangleCorners, int[] triangleFaces) {
+        this.faceOffsets = faceOffsets;
+        this.triangleVertices = triangleVertices;
+        this.triangleCorners = triangleCorners;
+        this.triangleFaces = triangleFaces;
+    }
+
+    /**
+     * Триангулирует полигоны модели.
+     *
+     * @param vertices вершины модели
+     * @param polygons полигоны модели
+     * @return индексный буфер треугольников
+     */
+    public static Triangulation build(List<Vector3f> vertices, List<Polygon> polygons) {
+        int faceCount = polygons.size();
+        int vertexCount = vertices.size();
+
+        int[] offsets = new int[faceCount + 1];
+        ParallelRanges.forEach(faceCount, CHUNK_SIZE, (from, to) -> {
+            for (int f = from; f < to; f++) {
+                Polygon polygon = polygons.get(f);
+                offsets[f + 1] = isValid(polygon, vertexCount) ? polygon.getVertexIndices().size() - 2 : 0;
+            }
+        });
+        for (int f = 0; f < faceCount; f++) {
+            offsets[f + 1] += offsets[f];
+        }
+
+        int triangleCount = offsets[faceCount];
+        int[] triangleVertices = new int[triangleCount * 3];
+        int[] triangleCorners = new int[triangleCount * 3];
+        int[] triangleFaces = new int[triangleCount];
+
+        ParallelRanges.forEach(faceCount, CHUNK_SIZE, (from, to) -> {
+            EarClipper clipper = new EarClipper();
+            for (int f = from; f < to; f++) {
+                int first = offsets[f];
+                int count = offsets[f + 1] - first;
+                if (count == 0) {
+                    continue;
+                }
+                List<Integer> indices = polygons.get(f).getVertexIndices();
+                clipper.triangulate(vertices, indices, triangleCorners, first * 3);
+                Arrays.fill(triangleFaces, first, first + count, f);
+                for (int i = first * 3; i < (first + count) * 3; i++) {
+                    triangleVertices[i] = indices.get(triangleCorners[i]);
+                }
+            }
+        });
+
+        return new Triangulation(offsets, triangleVertices, triangleCorners, triangleFaces);
+    }
+
+    public int getTriangleCount() {
+        return triangleFaces.length;
+    }
+
+    public int getFaceCount() {
+        return faceOffsets.length - 1;
+    }
+
+    /**
+     * Индекс вершины модели в углу {@code corner} (0..2) треугольника.
+     */
+    public int vertexAt(int triangle, int corner) {
+        return triangleVertices[triangle * 3 + corner];
+    }
+
+    /**
+     * Позиция угла {@code corner} треугольника в списках индексов исходного полигона.
+     */
+    public int cornerAt(int triangle, int corner) {
+        return triangleCorners[triangle * 3 + corner];
+    }
+
+    /**
+     * Индекс полигона модели, которому принадлежит треугольник.
+     */
+    public int faceOf(int triangle) {
+        return triangleFaces[triangle];
+    }
+
+    public int faceTriangleStart(int face) {
+        return faceOffsets[face];
+    }
+
+    public int faceTriangleEnd(int face) {
+        return faceOffsets[face + 1];
+    }
+
+    /**
+     * Проверяет, совпадает ли разбиение с другим: те же треугольники из тех же вершин.
+     */
+    public boolean hasSameTriangles(Triangulation other) {
+        return other == this || (other != null
+            && Arrays.equals(triangleCorners, other.triangleCorners)
+            && Arrays.equals(faceOffsets, other.faceOffsets)
+            && Arrays.equals(triangleVertices, other.triangleVertices));
+    }
+
+    /**
+     * Собирает треугольники в полигоны с индексами текстурных координат и нормалей исходных полигонов.
+     *
+     * @param polygons полигоны, по которым построена триангуляция
+     * @return неизменяемый список треугольных полигонов
+     */
+    public List<Polygon> toPolygons(List<Polygon> polygons) {
+        List<Polygon> result = new ArrayList<>(getTriangleCount());
+        for (int t = 0; t < getTriangleCount(); t++) {
+            Polygon source = polygons.get(triangleFaces[t]);
+            result.add(new Polygon(
+                cornerValues(source.getVertexIndices(), t),
+                cornerValues(source.getTextureVertexIndices(), t),
+                cornerValues(source.getNormalIndices(), t)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private List<Integer> cornerValues(List<Integer> values, int triangle) {
+        if (values.isEmpty()) {
+            return List.of();
+        }
+        return List.of(
+            values.get(triangleCorners[triangle * 3]),
+            values.get(triangleCorners[triangle * 3 + 1]),
+            values.get(triangleCorners[triangle * 3 + 2]));
+    }
+
+    private static boolean isValid(Polygon polygon, int vertexCount) {
+        if (polygon == null || polygon.getVertexIndices().size() < 3) {
+            return false;
+        }
+        for (Integer vertex : polygon.getVertexIndices()) {
+            if (vertex == null || vertex < 0 || vertex >= vertexCount) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Триангуляция одного полигона. Рабочие массивы переиспользуются между полигонами одного диапазона.
+     */
+    private static final class EarClipper {
+        private float[] xs = new float[16];
+        private float[] ys = new float[16];
+        private int[] previous = new int[16];
+        private int[] next = new int[16];
+
+        /**
+         * Записывает {@code n - 2} треугольника позициями углов полигона в {@code out}, начиная с {@code offset}.
+         */
+        void triangulate(List<Vector3f> vertices, List<Integer> indices, int[] out, int offset) {
+            int n = indices.size();
+            if (n == 3) {
+                out[offset] = 0;
+                out[offset + 1] = 1;
+                out[offset + 2] = 2;
+                return;
+            }
+
+            project(vertices, indices);
+            if (isConvex(n)) {
+                for (int i = 1; i < n - 1; i++) {
+                    out[offset++] = 0;
+                    out[offset++] = i;
+                    out[offset++] = i + 1;
+                }
+                return;
+            }
+
+            for (int i = 0; i < n; i++) {
+                previous[i] = i == 0 ? n - 1 : i - 1;
+                next[i] = i == n - 1 ? 0 : i + 1;
+            }
+
+            int remaining = n;
+            int current = 0;
+            int attempts = 0;
+            while (remaining > 3) {
+                int a = previous[current];
+                int c = next[current];
+                // Если обход не нашел уха (вырожденный или самопересекающийся контур), режем текущий угол.
+                if (attempts >= remaining || isEar(a, current, c)) {
+                    out[offset++] = a;
+                    out[offset++] = current;
+                    out[offset++] = c;
+                    next[a] = c;
+                    previous[c] = a;
+                    remaining--;
+                    attempts = 0;
+                    current = c;
+                } else {
+                    attempts++;
+                    current = c;
+                }
+            }
+            out[offset++] = previous[current];
+            out[offset++] = current;
+            out[offset] = next[current];
+        }
+
+        /**
+         * Проецирует полигон на плоскость, перпендикулярную наибольшей компоненте нормали,
+         * так, чтобы обход в проекции шел против часовой стрелки.
+         */
+        private void project(List<Vector3f> vertices, List<Integer> indices) {
+            int n = indices.size();
+            if (xs.length < n) {
+                int capacity = Math.max(n, xs.length * 2);
+                xs = new float[capacity];
+                ys = new float[capacity];
+                previous = new int[capacity];
+                next = new int[capacity];
+            }
+
+            float nx = 0, ny = 0, nz = 0;
+            for (int i = 0; i < n; i++) {
+                Vector3f p = vertices.get(indices.get(i));
+                Vector3f q = vertices.get(indices.get(i + 1 < n ? i + 1 : 0));
+                nx += (p.getY() - q.getY()) * (p.getZ() + q.getZ());
+                ny += (p.getZ() - q.getZ()) * (p.getX() + q.getX());
+                nz += (p.getX() - q.getX()) * (p.getY() + q.getY());
+            }
+
+            float ax = Math.abs(nx), ay = Math.abs(ny), az = Math.abs(nz);
+            for (int i = 0; i < n; i++) {
+                Vector3f p = vertices.get(indices.get(i));
+                if (az >= ax && az >= ay) {
+                    xs[i] = p.getX();
+                    ys[i] = nz >= 0 ? p.getY() : -p.getY();
+                } else if (ax >= ay) {
+                    xs[i] = p.getY();
+                    ys[i] = nx >= 0 ? p.getZ() : -p.getZ();
+                } else {
+                    xs[i] = p.getZ();
+                    ys[i] = ny >= 0 ? p.getX() : -p.getX();
+                }
+            }
+        }
+
+        private boolean isConvex(int n) {
+            for (int i = 0; i < n; i++) {
+                if (cross(i == 0 ? n - 1 : i - 1, i, i + 1 < n ? i + 1 : 0) < -EPSILON) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isEar(int a, int b, int c) {
+            if (cross(a, b, c) <= EPSILON) {
+                return false;
+            }
+            for (int p = next[c]; p != a; p = next[p]) {
+                if (cross(previous[p], p, next[p]) <= EPSILON && contains(a, b, c, p)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean contains(int a, int b, int c, int p) {
+            return cross(a, b, p) >= 0 && cross(b, c, p) >= 0 && cross(c, a, p) >= 0;
+        }
+
+        private float cross(int a, int b, int c) {
+            return (xs[b] - xs[a]) * (ys[c] - ys[a]) - (ys[b] - ys[a]) * (xs[c] - xs[a]);
+        }
+    }
+}
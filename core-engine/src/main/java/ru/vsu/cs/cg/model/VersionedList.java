@@ -0,0 +1,92 @@
+package ru.vsu.cs.cg.model;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Изменяемое представление списка модели, сообщающее модели о каждой правке.
+ * Замена элемента и изменение размера сообщаются раздельно: для вершин
+ * первое меняет только геометрию, второе — еще и нумерацию.
+ * Массовые операции делегируются списку целиком, без поэлементного удаления.
+ */
+final class VersionedList<T> extends AbstractList<T> implements RandomAccess {
+    private final List<T> items;
+    private final Runnable onSet;
+    private final Runnable onResize;
+
+    VersionedList(List<T> items, Runnable onSet, Runnable onResize) {
+        this.items = items;
+        this.onSet = onSet;
+        this.onResize = onResize;
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T previous = items.set(index, element);
+        onSet.run();
+        return previous;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        items.add(index, element);
+        modCount++;
+        onResize.run();
+    }
+
+    @Override
+    public boolean add(T element) {
+        items.add(element);
+        modCount++;
+        onResize.run();
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        boolean changed = items.addAll(collection);
+        if (changed) {
+            modCount++;
+            onResize.run();
+        }
+        return changed;
+    }
+
+    @Override
+    public T remove(int index) {
+        T removed = items.remove(index);
+        modCount++;
+        onResize.run();
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        if (!items.isEmpty()) {
+            items.clear();
+            modCount++;
+            onResize.run();
+        }
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < toIndex) {
+            items.subList(fromIndex, toIndex).clear();
+            modCount++;
+            onResize.run();
+        }
+    }
+}
@@ -1,41 +1,97 @@
 package ru.vsu.cs.cg.model.selection;
 
-import java.util.*;
+import ru.vsu.cs.cg.model.IndexSet;
+
+import java.util.Set;
+import java.util.function.IntConsumer;
 
 public class ModelSelection {
-    private final Set<Integer> selectedVertices = new HashSet<>();
-    private final Set<Integer> selectedPolygons = new HashSet<>();
+    private final IndexSet selectedVertices = new IndexSet();
+    private final IndexSet selectedPolygons = new IndexSet();
+    private long version;
+
+    /**
+     * Версия выделения: увеличивается при каждом изменении, по ней рендерер
+     * определяет, что подсветку выделения нужно перерисовать.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Возвращает копию выделенных вершин. Для обхода без копирования
+     * используйте {@link #forEachSelectedVertex(IntConsumer)}.
+     */
+    public IndexSet getSelectedVertices() {
+        return selectedVertices.copy();
+    }
+
+    public IndexSet getSelectedPolygons() {
+        return selectedPolygons.copy();
+    }
+
+    /**
+     * Обходит выделенные вершины по возрастанию индекса без копирования набора.
+     */
+    public void forEachSelectedVertex(IntConsumer action) {
+        selectedVertices.forEachIndex(action);
+    }
 
-    public Set<Integer> getSelectedVertices() {
-        return new HashSet<>(selectedVertices);
+    public void forEachSelectedPolygon(IntConsumer action) {
+        selectedPolygons.forEachIndex(action);
     }
 
-    public Set<Integer> getSelectedPolygons() {
-        return new HashSet<>(selectedPolygons);
+    /**
+     * Добавляет к выделению набор вершин целиком.
+     */
+    public void selectVertices(Set<Integer> indices) {
+        selectedVertices.addAll(IndexSet.from(indices));
+        version++;
+    }
+
+    public void selectPolygons(Set<Integer> indices) {
+        selectedPolygons.addAll(IndexSet.from(indices));
+        version++;
+    }
+
+    public void deselectVertices(Set<Integer> indices) {
+        selectedVertices.removeAll(IndexSet.from(indices));
+        version++;
+    }
+
+    public void deselectPolygons(Set<Integer> indices) {
+        selectedPolygons.removeAll(IndexSet.from(indices));
+        version++;
     }
 
     public void selectVertex(int index) {
         selectedVertices.add(index);
+        version++;
     }
 
     public void selectPolygon(int index) {
         selectedPolygons.add(index);
+        version++;
     }
 
     public void deselectVertex(int index) {
         selectedVertices.remove(index);
+        version++;
     }
 
     public void deselectPolygon(int index) {
         selectedPolygons.remove(index);
+        version++;
     }
 
     public void clearVertexSelection() {
         selectedVertices.clear();
+        version++;
     }
 
     public void clearPolygonSelection() {
         selectedPolygons.clear();
+        version++;
     }
 
     public void clearAll() {
@@ -93,34 +149,11 @@ public class ModelSelection {
         adjustIndicesSet(selectedVertices, removedVertices);
     }
 
-    private void adjustIndicesSet(Set<Integer> indices, Set<Integer> removedIndices) {
+    private void adjustIndicesSet(IndexSet indices, Set<Integer> removedIndices) {
         if (indices.isEmpty() || removedIndices.isEmpty()) {
             return;
         }
-
-        Set<Integer> newIndices = new HashSet<>();
-        List<Integer> sortedRemoved = new ArrayList<>(removedIndices);
-        Collections.sort(sortedRemoved);
-
-        for (Integer index : indices) {
-            int shift = 0;
-            boolean isRemoved = false;
-
-            for (Integer removed : sortedRemoved) {
-                if (index > removed) {
-                    shift++;
-                } else if (index.equals(removed)) {
-                    isRemoved = true;
-                    break;
-                }
-            }
-
-            if (!isRemoved) {
-                newIndices.add(index - shift);
-            }
-        }
-
-        indices.clear();
-        indices.addAll(newIndices);
+        indices.shiftAfterRemoval(IndexSet.from(removedIndices));
+        version++;
     }
 }
@@ -1,6 +1,7 @@
 package ru.vsu.cs.cg.objwriter;
 
 import ru.vsu.cs.cg.exceptions.ObjWriterException;
+import ru.vsu.cs.cg.math.Matrix4x4;
 import ru.vsu.cs.cg.math.Vector2f;
 import ru.vsu.cs.cg.math.Vector3f;
 import ru.vsu.cs.cg.model.Model;
@@ -19,8 +20,14 @@ import java.text.DecimalFormatSymbols;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.stream.IntStream;
 
 public final class ObjWriter {
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+    private static final int CHUNK_SIZE = 1 << 12;
+    private static final int CHUNKS_PER_BLOCK = 64;
+    private static final float EPSILON = 1e-12f;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
 
     public static void write(String fileName, Model model) {
         write(fileName, model, null, null, null, null, null, null);
@@ -29,6 +36,21 @@ public final class ObjWriter {
     public static void write(String fileName, Model model, String materialName,
                              String texturePath, float[] color, Float shininess,
                              Float transparency, Float reflectivity) {
+        write(fileName, model, null, materialName, texturePath, color, shininess, transparency, reflectivity);
+    }
+
+    /**
+     * Записывает модель, применяя к геометрии матрицу модели на лету.
+     * Вершины умножаются на матрицу, нормали на матрицу нормалей
+     * (обратную транспонированную к верхнему блоку 3x3) и нормализуются.
+     * Преобразование и форматирование идут параллельно по блокам,
+     * блоки пишутся в файл по порядку; вторая модель в памяти не создается.
+     *
+     * @param modelMatrix матрица модели или {@code null}, если геометрия пишется как есть
+     */
+    public static void write(String fileName, Model model, Matrix4x4 modelMatrix, String materialName,
+                             String texturePath, float[] color, Float shininess,
+                             Float transparency, Float reflectivity) {
         File objFile = new File(fileName);
 
         try {
@@ -59,9 +81,11 @@ public final class ObjWriter {
                 }
             }
 
-            writeVertices(writer, model.getVertices());
+            float[] vertexMatrix = modelMatrix != null ? affineOf(modelMatrix) : null;
+            float[] normalMatrix = modelMatrix != null ? normalMatrixOf(modelMatrix) : null;
+            writeVectors(writer, "v ", model.getVertices(), vertexMatrix, false);
             writeTextureVertices(writer, model.getTextureVertices());
-            writeNormals(writer, model.getNormals());
+            writeVectors(writer, "vn ", model.getNormals(), normalMatrix, true);
             writePolygons(writer, model.getPolygons());
         } catch (IOException e) {
             throw new ObjWriterException(MessageConstants.FILE_WRITE_ERROR_MESSAGE + e.getMessage());
@@ -146,35 +170,119 @@ public final class ObjWriter {
         return path.getParent().resolve(baseName + ".mtl").toString();
     }
 
-    private static void writeVertices(BufferedWriter writer, List<Vector3f> vertices)
-        throws IOException {
-        DecimalFormat decimalFormat = createDecimalFormat();
+    /**
+     * Пишет векторы блоками: внутри блока куски по {@link #CHUNK_SIZE} строк
+     * преобразуются и форматируются параллельно, затем блок пишется по порядку.
+     *
+     * @param matrix    матрица 3x4 построчно или {@code null}
+     * @param normalize нормализовать результат (для нормалей)
+     */
+    private static void writeVectors(BufferedWriter writer, String prefix, List<Vector3f> vectors,
+                                     float[] matrix, boolean normalize) throws IOException {
+        int count = vectors.size();
+        if (count < PARALLEL_THRESHOLD) {
+            writer.write(formatVectors(prefix, vectors, 0, count, matrix, normalize));
+            return;
+        }
 
-        for (Vector3f vertex : vertices) {
-            writer.write("v " + decimalFormat.format(vertex.getX()) + " " +
-                decimalFormat.format(vertex.getY()) + " " + decimalFormat.format(vertex.getZ()));
-            writer.newLine();
+        int blockSize = CHUNK_SIZE * CHUNKS_PER_BLOCK;
+        String[] chunks = new String[CHUNKS_PER_BLOCK];
+        for (int blockStart = 0; blockStart < count; blockStart += blockSize) {
+            int from = blockStart;
+            int blockEnd = Math.min(count, blockStart + blockSize);
+            int chunkCount = (blockEnd - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+            IntStream.range(0, chunkCount).parallel().forEach(chunk -> chunks[chunk] = formatVectors(
+                prefix, vectors, from + chunk * CHUNK_SIZE,
+                Math.min(blockEnd, from + (chunk + 1) * CHUNK_SIZE), matrix, normalize));
+
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                writer.write(chunks[chunk]);
+                chunks[chunk] = null;
+            }
         }
     }
 
-    private static void writeTextureVertices(BufferedWriter writer, List<Vector2f> textureVertices)
-        throws IOException {
+    private static String formatVectors(String prefix, List<Vector3f> vectors, int from, int to,
+                                        float[] matrix, boolean normalize) {
         DecimalFormat decimalFormat = createDecimalFormat();
+        StringBuilder builder = new StringBuilder((to - from) * 32);
+
+        for (int i = from; i < to; i++) {
+            Vector3f vector = vectors.get(i);
+            float x = vector.getX();
+            float y = vector.getY();
+            float z = vector.getZ();
+
+            if (matrix != null) {
+                float tx = matrix[0] * x + matrix[1] * y + matrix[2] * z + matrix[3];
+                float ty = matrix[4] * x + matrix[5] * y + matrix[6] * z + matrix[7];
+                float tz = matrix[8] * x + matrix[9] * y + matrix[10] * z + matrix[11];
+                x = tx;
+                y = ty;
+                z = tz;
+            }
+            if (normalize) {
+                float length = (float) Math.sqrt(x * x + y * y + z * z);
+                if (length > EPSILON) {
+                    x /= length;
+                    y /= length;
+                    z /= length;
+                }
+            }
 
-        for (Vector2f textureVertex : textureVertices) {
-            writer.write("vt " + decimalFormat.format(textureVertex.getX()) + " "
-                + decimalFormat.format(textureVertex.getY()));
-            writer.newLine();
+            builder.append(prefix)
+                .append(decimalFormat.format(x)).append(' ')
+                .append(decimalFormat.format(y)).append(' ')
+                .append(decimalFormat.format(z))
+                .append(LINE_SEPARATOR);
         }
+        return builder.toString();
     }
 
-    private static void writeNormals(BufferedWriter writer, List<Vector3f> normals)
+    /**
+     * Верхние три строки матрицы модели; нижняя строка аффинной матрицы равна (0, 0, 0, 1).
+     */
+    private static float[] affineOf(Matrix4x4 matrix) {
+        float[] affine = new float[12];
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 4; col++) {
+                affine[row * 4 + col] = matrix.get(row, col);
+            }
+        }
+        return affine;
+    }
+
+    /**
+     * Матрица нормалей в виде 3x4 с нулевым переносом. Вместо обратной транспонированной
+     * берется матрица алгебраических дополнений со знаком определителя: направление то же,
+     * а вырожденный масштаб не приводит к исключению.
+     */
+    private static float[] normalMatrixOf(Matrix4x4 matrix) {
+        float a = matrix.get(0, 0), b = matrix.get(0, 1), c = matrix.get(0, 2);
+        float d = matrix.get(1, 0), e = matrix.get(1, 1), f = matrix.get(1, 2);
+        float g = matrix.get(2, 0), h = matrix.get(2, 1), k = matrix.get(2, 2);
+
+        float c00 = e * k - f * h;
+        float c01 = f * g - d * k;
+        float c02 = d * h - e * g;
+        float determinant = a * c00 + b * c01 + c * c02;
+        float sign = determinant < 0 ? -1.0f : 1.0f;
+
+        return new float[]{
+            sign * c00, sign * c01, sign * c02, 0,
+            sign * (c * h - b * k), sign * (a * k - c * g), sign * (b * g - a * h), 0,
+            sign * (b * f - c * e), sign * (c * d - a * f), sign * (a * e - b * d), 0
+        };
+    }
+
+    private static void writeTextureVertices(BufferedWriter writer, List<Vector2f> textureVertices)
         throws IOException {
         DecimalFormat decimalFormat = createDecimalFormat();
 
-        for (Vector3f normal : normals) {
-            writer.write("vn " + decimalFormat.format(normal.getX()) + " "
-                + decimalFormat.format(normal.getY()) + " " + decimalFormat.format(normal.getZ()));
+        for (Vector2f textureVertex : textureVertices) {
+            writer.write("vt " + decimalFormat.format(textureVertex.getX()) + " "
+                + decimalFormat.format(textureVertex.getY()));
             writer.newLine();
         }
     }
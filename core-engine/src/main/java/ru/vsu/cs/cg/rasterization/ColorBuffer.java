@@ -0,0 +1,139 @@
+package ru.vsu.cs.cg.rasterization;
+
+import javafx.scene.paint.Color;
+import ru.vsu.cs.cg.renderEngine.PixelWriter;
+
+import java.util.Arrays;
+
+/**
+ * Буфер цвета кадра в формате ARGB, по одному {@code int} на пиксель.
+ * Кадр собирается в буфере и выводится на экран одной операцией,
+ * а его содержимое можно сохранить и восстановить копированием массива.
+ */
+public class ColorBuffer implements PixelWriter {
+    private final int[] pixels;
+    private final int width;
+    private final int height;
+
+    public ColorBuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    @Override
+    public void setPixel(int x, int y, Color color) {
+        if (color == null || x < 0 || x >= width || y < 0 || y >= height) {
+            return;
+        }
+        pixels[y * width + x] = toArgb(color);
+    }
+
+    /**
+     * Заполняет весь буфер одним цветом.
+     *
+     * @param argb цвет в формате ARGB
+     */
+    public void fill(int argb) {
+        Arrays.fill(pixels, argb);
+    }
+
+    /**
+     * Заполняет цветом прямоугольную область буфера.
+     *
+     * @param argb цвет в формате ARGB
+     * @param minX левая граница включительно
+     * @param minY верхняя граница включительно
+     * @param maxX правая граница не включительно
+     * @param maxY нижняя граница не включительно
+     */
+    public void fill(int argb, int minX, int minY, int maxX, int maxY) {
+        int fromX = Math.max(0, minX);
+        int toX = Math.min(width, maxX);
+        if (fromX >= toX) {
+            return;
+        }
+        for (int y = Math.max(0, minY); y < Math.min(height, maxY); y++) {
+            Arrays.fill(pixels, y * width + fromX, y * width + toX, argb);
+        }
+    }
+
+    /**
+     * Копирует содержимое буфера того же размера.
+     */
+    public void copyFrom(ColorBuffer other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Размеры буферов цвета не совпадают");
+        }
+        System.arraycopy(other.pixels, 0, pixels, 0, pixels.length);
+    }
+
+    /**
+     * Заполняет буфер содержимым буфера другого размера с билинейной
+     * интерполяцией. Центры пикселей обоих буферов совмещаются, поэтому
+     * изображение не смещается при масштабировании.
+     */
+    public void resampleFrom(ColorBuffer source) {
+        if (source.width == 0 || source.height == 0) {
+            return;
+        }
+        float scaleX = (float) source.width / width;
+        float scaleY = (float) source.height / height;
+
+        for (int y = 0; y < height; y++) {
+            float sourceY = Math.max(0, Math.min(source.height - 1, (y + 0.5f) * scaleY - 0.5f));
+            int y0 = (int) sourceY;
+            int y1 = Math.min(y0 + 1, source.height - 1);
+            int weightY = (int) ((sourceY - y0) * 256);
+            int row0 = y0 * source.width;
+            int row1 = y1 * source.width;
+
+            for (int x = 0; x < width; x++) {
+                float sourceX = Math.max(0, Math.min(source.width - 1, (x + 0.5f) * scaleX - 0.5f));
+                int x0 = (int) sourceX;
+                int x1 = Math.min(x0 + 1, source.width - 1);
+                int weightX = (int) ((sourceX - x0) * 256);
+
+                int top = blend(source.pixels[row0 + x0], source.pixels[row0 + x1], weightX);
+                int bottom = blend(source.pixels[row1 + x0], source.pixels[row1 + x1], weightX);
+                pixels[y * width + x] = blend(top, bottom, weightY);
+            }
+        }
+    }
+
+    /**
+     * Покомпонентное смешивание двух цветов ARGB с весом второго {@code weight / 256}.
+     */
+    private static int blend(int first, int second, int weight) {
+        if (weight == 0 || first == second) {
+            return first;
+        }
+        int inverse = 256 - weight;
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int a = (first >>> shift) & 0xFF;
+            int b = (second >>> shift) & 0xFF;
+            result |= ((a * inverse + b * weight) >> 8) << shift;
+        }
+        return result;
+    }
+
+    public int getArgb(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    /**
+     * Пиксели построчно; массив не копируется.
+     */
+    public int[] getPixels() { return pixels; }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    public static int toArgb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+            | (int) Math.round(color.getRed() * 255) << 16
+            | (int) Math.round(color.getGreen() * 255) << 8
+            | (int) Math.round(color.getBlue() * 255);
+    }
+}
@@ -13,12 +13,45 @@ public class Rasterizer {
     private final ZBuffer zBuffer;
     private static final float EPSILON = 1e-5f;
 
+    private int scissorMinX;
+    private int scissorMinY;
+    private int scissorMaxX = Integer.MAX_VALUE;
+    private int scissorMaxY = Integer.MAX_VALUE;
+
     public Rasterizer(ZBuffer zBuffer) {
         this.zBuffer = zBuffer;
     }
 
+    /**
+     * Ограничивает вывод прямоугольником: пиксели вне него не проверяются по
+     * глубине и не записываются. Внутри прямоугольника результат совпадает
+     * с растеризацией без ограничения.
+     *
+     * @param minX левая граница включительно
+     * @param minY верхняя граница включительно
+     * @param maxX правая граница не включительно
+     * @param maxY нижняя граница не включительно
+     */
+    public void setScissor(int minX, int minY, int maxX, int maxY) {
+        this.scissorMinX = minX;
+        this.scissorMinY = minY;
+        this.scissorMaxX = maxX;
+        this.scissorMaxY = maxY;
+    }
+
+    /**
+     * Снимает ограничение вывода.
+     */
+    public void resetScissor() {
+        setScissor(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
     /**
      * Отрисовывает треугольник с текстурированием, освещением и интерполяцией атрибутов.
+     * Освещение считается способом {@link RasterizerSettings#getShadingMode()}:
+     * для {@link ShadingMode#FLAT} нормалью грани считается {@code normal1},
+     * для {@link ShadingMode#GOURAUD} яркость считается в вершинах и передается
+     * в {@link #drawShadedTriangle}.
      *
      * @param pixelWriter   Писатель пикселей в буфер кадра
      * @param width         Ширина области рендеринга
@@ -45,21 +78,98 @@ public class Rasterizer {
             Texture texture,
             Vector3f lightDirection,
             RasterizerSettings settings)
+    {
+        boolean lit = settings.isUseLighting() && normal1 != null && normal2 != null && normal3 != null;
+        ShadingMode shading = lit ? settings.getShadingMode() : null;
+
+        if (shading == ShadingMode.FLAT) {
+            float shade = brightness(Math.max(0, normal1.normalizeSafe().dot(lightDirection)), settings);
+            drawShadedTriangle(pixelWriter, width, height, vertex1, vertex2, vertex3, uv1, uv2, uv3,
+                    shade, shade, shade, texture, settings);
+            return;
+        }
+        if (shading == ShadingMode.GOURAUD) {
+            drawShadedTriangle(pixelWriter, width, height, vertex1, vertex2, vertex3, uv1, uv2, uv3,
+                    brightness(Math.max(0, normal1.normalizeSafe().dot(lightDirection)), settings),
+                    brightness(Math.max(0, normal2.normalizeSafe().dot(lightDirection)), settings),
+                    brightness(Math.max(0, normal3.normalizeSafe().dot(lightDirection)), settings),
+                    texture, settings);
+            return;
+        }
+
+        if (!lit) {
+            normal1 = normal2 = normal3 = null;
+        }
+        rasterize(pixelWriter, width, height,
+                vertex1, vertex2, vertex3,
+                uv1, uv2, uv3,
+                normal1, normal2, normal3,
+                shading, 1.0f, 1.0f, 1.0f, null,
+                texture, lightDirection, settings);
+    }
+
+    /**
+     * Отрисовывает треугольник с готовой яркостью освещения в вершинах:
+     * яркость интерполируется по треугольнику (затенение по Гуро), а при равной
+     * яркости всех вершин треугольник заливается одним цветом (плоское затенение).
+     * Яркость умножается на цвет текстуры или цвет по умолчанию.
+     *
+     * @param shade1   Яркость первой вершины ({@link #brightness(float, RasterizerSettings)})
+     * @param shade2   Яркость второй вершины
+     * @param shade3   Яркость третьей вершины
+     * @param texture  Текстура для наложения (может быть null)
+     * @param settings Настройки рендеринга
+     * @see #drawTriangle
+     */
+    public void drawShadedTriangle(
+            PixelWriter pixelWriter,
+            int width, int height,
+            Vector3f vertex1, Vector3f vertex2, Vector3f vertex3,
+            Vector2f uv1, Vector2f uv2, Vector2f uv3,
+            float shade1, float shade2, float shade3,
+            Texture texture,
+            RasterizerSettings settings)
+    {
+        ShadingMode shading = shade1 == shade2 && shade2 == shade3 ? ShadingMode.FLAT : ShadingMode.GOURAUD;
+        Color flatColor = null;
+        if (shading == ShadingMode.FLAT && (!settings.isUseTexture() || texture == null || uv1 == null)) {
+            flatColor = applyBrightness(settings.getDefaultColor(), shade1);
+        }
+
+        rasterize(pixelWriter, width, height,
+                vertex1, vertex2, vertex3,
+                uv1, uv2, uv3,
+                null, null, null,
+                shading, shade1, shade2, shade3, flatColor,
+                texture, null, settings);
+    }
+
+    private void rasterize(
+            PixelWriter pixelWriter,
+            int width, int height,
+            Vector3f vertex1, Vector3f vertex2, Vector3f vertex3,
+            Vector2f uv1, Vector2f uv2, Vector2f uv3,
+            Vector3f normal1, Vector3f normal2, Vector3f normal3,
+            ShadingMode shading, float shade1, float shade2, float shade3, Color flatColor,
+            Texture texture, Vector3f lightDirection, RasterizerSettings settings)
     {
         if (vertex1.getY() > vertex2.getY()) {
             Vector3f tempV = vertex1; vertex1 = vertex2; vertex2 = tempV;
             Vector2f tempUV = uv1; uv1 = uv2; uv2 = tempUV;
             Vector3f tempN = normal1; normal1 = normal2; normal2 = tempN;
+            float tempS = shade1; shade1 = shade2; shade2 = tempS;
         }
         if (vertex1.getY() > vertex3.getY()) {
             Vector3f tempV = vertex1; vertex1 = vertex3; vertex3 = tempV;
             Vector2f tempUV = uv1; uv1 = uv3; uv3 = tempUV;
             Vector3f tempN = normal1; normal1 = normal3; normal3 = tempN;
+            float tempS = shade1; shade1 = shade3; shade3 = tempS;
         }
         if (vertex2.getY() > vertex3.getY()) {
             Vector3f tempV = vertex2; vertex2 = vertex3; vertex3 = tempV;
             Vector2f tempUV = uv2; uv2 = uv3; uv3 = tempUV;
             Vector3f tempN = normal2; normal2 = normal3; normal3 = tempN;
+            float tempS = shade2; shade2 = shade3; shade3 = tempS;
         }
 
         drawScanlinePart(
@@ -70,6 +180,9 @@ public class Rasterizer {
                 uv1, uv3,
                 normal1, normal2,
                 normal1, normal3,
+                shading, shade1, shade2,
+                shade1, shade3,
+                flatColor,
                 texture, lightDirection, settings
         );
 
@@ -81,6 +194,9 @@ public class Rasterizer {
                 uv1, uv3,
                 normal2, normal3,
                 normal1, normal3,
+                shading, shade2, shade3,
+                shade1, shade3,
+                flatColor,
                 texture, lightDirection, settings
         );
 
@@ -111,6 +227,12 @@ public class Rasterizer {
      * @param normalEndA     Нормаль конца первого ребра
      * @param normalStartB   Нормаль начала второго ребра
      * @param normalEndB     Нормаль конца второго ребра
+     * @param shading        Способ освещения или {@code null} без освещения
+     * @param shadeStartA    Яркость начала первого ребра (FLAT и GOURAUD)
+     * @param shadeEndA      Яркость конца первого ребра
+     * @param shadeStartB    Яркость начала второго ребра
+     * @param shadeEndB      Яркость конца второго ребра
+     * @param flatColor      Готовый цвет всех пикселей треугольника или {@code null}
      * @param texture        Текстура
      * @param lightDirection Направление света
      * @param settings       Настройки рендеринга
@@ -124,11 +246,15 @@ public class Rasterizer {
             Vector2f uvStartB, Vector2f uvEndB,
             Vector3f normalStartA, Vector3f normalEndA,
             Vector3f normalStartB, Vector3f normalEndB,
+            ShadingMode shading,
+            float shadeStartA, float shadeEndA,
+            float shadeStartB, float shadeEndB,
+            Color flatColor,
             Texture texture, Vector3f lightDirection, RasterizerSettings settings
     ) {
 
-        int scanlineYStart = (int) Math.max(0, Math.ceil(Math.max(edgeStartA.getY(), edgeStartB.getY())));
-        int scanlineYEnd   = (int) Math.min(height, Math.ceil(Math.min(edgeEndA.getY(), edgeEndB.getY())));
+        int scanlineYStart = (int) Math.max(scissorMinY, Math.ceil(Math.max(edgeStartA.getY(), edgeStartB.getY())));
+        int scanlineYEnd   = (int) Math.min(Math.min(height, scissorMaxY), Math.ceil(Math.min(edgeEndA.getY(), edgeEndB.getY())));
 
         float depthStartA = Math.max(edgeStartA.getZ(), EPSILON);
         float depthEndA   = Math.max(edgeEndA.getZ(), EPSILON);
@@ -155,6 +281,8 @@ public class Rasterizer {
             Vector2f uvOverDepthEnd = null;
             Vector3f normalOverDepthStart = null;
             Vector3f normalOverDepthEnd = null;
+            float shadeOverDepthStart = 0;
+            float shadeOverDepthEnd = 0;
 
             if (settings.isUseTexture() && uvStartA != null) {
                 uvOverDepthStart = interpolate(uvStartA.multiply(invDepthStartA), uvEndA.multiply(invDepthEndA), verticalFactorA);
@@ -166,15 +294,21 @@ public class Rasterizer {
                 normalOverDepthEnd   = interpolate(normalStartB.multiply(invDepthStartB), normalEndB.multiply(invDepthEndB), verticalFactorB);
             }
 
+            if (shading == ShadingMode.GOURAUD) {
+                shadeOverDepthStart = interpolate(shadeStartA * invDepthStartA, shadeEndA * invDepthEndA, verticalFactorA);
+                shadeOverDepthEnd   = interpolate(shadeStartB * invDepthStartB, shadeEndB * invDepthEndB, verticalFactorB);
+            }
+
             if (scanlineStartX > scanlineEndX) {
                 float tempX = scanlineStartX; scanlineStartX = scanlineEndX; scanlineEndX = tempX;
                 float tempInvDepth = scanlineStartInvDepth; scanlineStartInvDepth = scanlineEndInvDepth; scanlineEndInvDepth = tempInvDepth;
                 Vector2f tempUV = uvOverDepthStart; uvOverDepthStart = uvOverDepthEnd; uvOverDepthEnd = tempUV;
                 Vector3f tempNormal = normalOverDepthStart; normalOverDepthStart = normalOverDepthEnd; normalOverDepthEnd = tempNormal;
+                float tempShade = shadeOverDepthStart; shadeOverDepthStart = shadeOverDepthEnd; shadeOverDepthEnd = tempShade;
             }
 
-            int pixelXStart = (int) Math.max(0, Math.ceil(scanlineStartX));
-            int pixelXEnd   = (int) Math.min(width, Math.ceil(scanlineEndX));
+            int pixelXStart = (int) Math.max(scissorMinX, Math.ceil(scanlineStartX));
+            int pixelXEnd   = (int) Math.min(Math.min(width, scissorMaxX), Math.ceil(scanlineEndX));
 
             float scanlineWidth = scanlineEndX - scanlineStartX;
 
@@ -190,6 +324,11 @@ public class Rasterizer {
 
                 if (zBuffer.checkAndSet(x, y, currentPixelDepth)) {
 
+                    if (flatColor != null) {
+                        pixelWriter.setPixel(x, y, flatColor);
+                        continue;
+                    }
+
                     Color finalPixelColor = settings.getDefaultColor();
 
                     if (settings.isUseTexture() && texture != null && uvOverDepthStart != null) {
@@ -204,6 +343,11 @@ public class Rasterizer {
                         pixelNormal = pixelNormal.normalizeSafe();
                         float dotProduct = Math.max(0, pixelNormal.dot(lightDirection));
                         finalPixelColor = applyLight(finalPixelColor, dotProduct, settings);
+                    } else if (shading == ShadingMode.GOURAUD) {
+                        float shade = interpolate(shadeOverDepthStart, shadeOverDepthEnd, horizontalFactor) * currentPixelDepth;
+                        finalPixelColor = applyBrightness(finalPixelColor, shade);
+                    } else if (shading == ShadingMode.FLAT) {
+                        finalPixelColor = applyBrightness(finalPixelColor, shadeStartA);
                     }
 
                     pixelWriter.setPixel(x, y, finalPixelColor);
@@ -249,7 +393,7 @@ public class Rasterizer {
             int px = Math.round(x1 + dx * t);
             int py = Math.round(y1 + dy * t);
 
-            if (px >= 0 && px < width && py >= 0 && py < height) {
+            if (px >= 0 && px < width && py >= 0 && py < height && isInsideScissor(px, py)) {
                 float currentInvW = invWStart + (invWEnd - invWStart) * t;
                 float currentW = 1.0f / currentInvW;
 
@@ -279,13 +423,17 @@ public class Rasterizer {
      * @param color  Цвет пикселя
      */
     public void drawPixel(PixelWriter pw, int x, int y, float depth, Color color) {
-        if (x >= 0 && x < zBuffer.getWidth() && y >= 0 && y < zBuffer.getHeight()) {
+        if (x >= 0 && x < zBuffer.getWidth() && y >= 0 && y < zBuffer.getHeight() && isInsideScissor(x, y)) {
             if (zBuffer.checkAndSet(x, y, depth)) {
                 pw.setPixel(x, y, color);
             }
         }
     }
 
+    private boolean isInsideScissor(int x, int y) {
+        return x >= scissorMinX && x < scissorMaxX && y >= scissorMinY && y < scissorMaxY;
+    }
+
     /**
      * Применяет модель освещения
      * @param baseColor базовый цвет пикселя (от текстуры или материала)
@@ -293,12 +441,22 @@ public class Rasterizer {
      * @param settings настройки, откуда берем коэффициенты
      */
     private Color applyLight(Color baseColor, float dotProduct, RasterizerSettings settings) {
-        float ambient = settings.getAmbientStrength();
-        float diffuse = settings.getDiffuseStrength();
-        float intensity = settings.getLightIntensity();
+        return applyBrightness(baseColor, brightness(dotProduct, settings));
+    }
 
-        float brightness = (ambient + (diffuse * dotProduct)) * intensity;
+    /**
+     * Яркость освещения по модели Ламберта с фоновой составляющей.
+     * @param dotProduct скалярное произведение (N * L)
+     * @param settings настройки, откуда берем коэффициенты
+     */
+    public static float brightness(float dotProduct, RasterizerSettings settings) {
+        return (settings.getAmbientStrength() + settings.getDiffuseStrength() * dotProduct) * settings.getLightIntensity();
+    }
 
+    /**
+     * Умножает цвет на яркость с ограничением компонент.
+     */
+    private static Color applyBrightness(Color baseColor, float brightness) {
         double r = Math.min(1.0, Math.max(0, baseColor.getRed() * brightness));
         double g = Math.min(1.0, Math.max(0, baseColor.getGreen() * brightness));
         double b = Math.min(1.0, Math.max(0, baseColor.getBlue() * brightness));
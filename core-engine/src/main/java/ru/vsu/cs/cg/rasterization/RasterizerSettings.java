@@ -2,6 +2,8 @@ package ru.vsu.cs.cg.rasterization;
 
 import javafx.scene.paint.Color;
 
+import java.util.Objects;
+
 /**
  * класс для настройки растеризатора,
  * управляющий параметрами отрисовки треугольника
@@ -20,6 +22,7 @@ public class RasterizerSettings {
     private Color gridColor;
     private Color defaultColor;
     private Color lightColor;
+    private ShadingMode shadingMode = ShadingMode.PHONG;
 
     public RasterizerSettings(boolean useTexture, boolean useLighting,
                               boolean drawPolygonalGrid, boolean drawAxisLines, boolean drawGrid,
@@ -86,8 +89,35 @@ public class RasterizerSettings {
     public Color getLightColor() {return lightColor;}
     public void setLightColor(Color lightColor) {this.lightColor = lightColor;}
 
+    public ShadingMode getShadingMode() { return shadingMode; }
+    public void setShadingMode(ShadingMode shadingMode) {
+        if (shadingMode == null) {
+            throw new IllegalArgumentException("Режим затенения не может быть null");
+        }
+        this.shadingMode = shadingMode;
+    }
+
+    /**
+     * Сравнивает все параметры с другими настройками без создания копий.
+     */
+    public boolean hasSameValues(RasterizerSettings other) {
+        return other != null
+            && useTexture == other.useTexture
+            && useLighting == other.useLighting
+            && drawPolygonalGrid == other.drawPolygonalGrid
+            && drawAxisLines == other.drawAxisLines
+            && drawGrid == other.drawGrid
+            && ambientStrength == other.ambientStrength
+            && diffuseStrength == other.diffuseStrength
+            && lightIntensity == other.lightIntensity
+            && Objects.equals(defaultColor, other.defaultColor)
+            && Objects.equals(gridColor, other.gridColor)
+            && Objects.equals(lightColor, other.lightColor)
+            && shadingMode == other.shadingMode;
+    }
+
     public RasterizerSettings copy() {
-        return new RasterizerSettings(
+        RasterizerSettings copy = new RasterizerSettings(
             this.isUseTexture(),
             this.isUseLighting(),
             this.isDrawPolygonalGrid(),
@@ -100,5 +130,7 @@ public class RasterizerSettings {
             this.getGridColor(),
                 this.getLightColor()
         );
+        copy.setShadingMode(this.getShadingMode());
+        return copy;
     }
 }
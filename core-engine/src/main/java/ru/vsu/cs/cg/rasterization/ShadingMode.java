@@ -0,0 +1,21 @@
+package ru.vsu.cs.cg.rasterization;
+
+/**
+ * Способ расчета освещения треугольника.
+ */
+public enum ShadingMode {
+    /**
+     * Освещение считается один раз по нормали грани, треугольник заливается одним цветом.
+     */
+    FLAT,
+
+    /**
+     * Освещение считается в вершинах, яркость интерполируется по треугольнику.
+     */
+    GOURAUD,
+
+    /**
+     * Нормаль интерполируется и нормализуется в каждом пикселе.
+     */
+    PHONG
+}
@@ -21,6 +21,35 @@ public class ZBuffer {
         Arrays.fill(buffer, Float.MAX_VALUE);
     }
 
+    /**
+     * Очистка прямоугольной области буфера.
+     *
+     * @param minX левая граница включительно
+     * @param minY верхняя граница включительно
+     * @param maxX правая граница не включительно
+     * @param maxY нижняя граница не включительно
+     */
+    public void clear(int minX, int minY, int maxX, int maxY) {
+        int fromX = Math.max(0, minX);
+        int toX = Math.min(width, maxX);
+        if (fromX >= toX) {
+            return;
+        }
+        for (int y = Math.max(0, minY); y < Math.min(height, maxY); y++) {
+            Arrays.fill(buffer, y * width + fromX, y * width + toX, Float.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Копирует глубины из буфера того же размера.
+     */
+    public void copyFrom(ZBuffer other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Размеры буферов глубины не совпадают");
+        }
+        System.arraycopy(other.buffer, 0, buffer, 0, buffer.length);
+    }
+
 
     /**
      * Проверка можно ли рисовать пиксель
@@ -45,6 +74,42 @@ public class ZBuffer {
         return false;
     }
 
+    /**
+     * Глубина пикселя или {@code Float.MAX_VALUE} за пределами буфера.
+     */
+    public float getDepth(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return Float.MAX_VALUE;
+        }
+        return buffer[y * width + x];
+    }
+
+    /**
+     * Проверка видимости точки по содержимому буфера после отрисовки кадра.
+     * Точка видима, если хотя бы в одном пикселе окрестности 3x3 в пределах буфера ничто не лежит
+     * ближе нее с учетом относительного допуска: вершины лежат на ребрах
+     * треугольников, и их собственный пиксель может принадлежать соседней грани.
+     *
+     * @param x         горизонтальная координата
+     * @param y         вертикальная координата
+     * @param z         глубина точки
+     * @param tolerance относительный допуск глубины
+     * @return true если точка не закрыта другими поверхностями
+     */
+    public boolean isVisible(float x, float y, float z, float tolerance) {
+        int centerX = (int) x;
+        int centerY = (int) y;
+        float limit = z - z * tolerance;
+        for (int py = Math.max(0, centerY - 1); py <= Math.min(height - 1, centerY + 1); py++) {
+            for (int px = Math.max(0, centerX - 1); px <= Math.min(width - 1, centerX + 1); px++) {
+                if (limit <= buffer[py * width + px]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public int getWidth() { return width; }
     public int getHeight() { return height; }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package ru.vsu.cs.cg.renderEngine;
+
+/**
+ * Прямоугольник кадра, перерисованный в последнем вызове рендеринга.
+ * Левая и верхняя границы включительно, правая и нижняя — нет.
+ */
+public final class DirtyRegion {
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+
+    public DirtyRegion() {
+        clear();
+    }
+
+    public int getMinX() { return minX; }
+    public int getMinY() { return minY; }
+    public int getMaxX() { return maxX; }
+    public int getMaxY() { return maxY; }
+
+    public int getWidth() { return isEmpty() ? 0 : maxX - minX; }
+    public int getHeight() { return isEmpty() ? 0 : maxY - minY; }
+
+    public boolean isEmpty() {
+        return minX >= maxX || minY >= maxY;
+    }
+
+    /**
+     * Проверяет, что область покрывает весь кадр заданного размера.
+     */
+    public boolean coversFrame(int width, int height) {
+        return minX <= 0 && minY <= 0 && maxX >= width && maxY >= height;
+    }
+
+    boolean intersects(int otherMinX, int otherMinY, int otherMaxX, int otherMaxY) {
+        return otherMinX < maxX && otherMaxX > minX && otherMinY < maxY && otherMaxY > minY;
+    }
+
+    void clear() {
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Отмечает весь кадр заданного размера.
+     */
+    public void setFrame(int width, int height) {
+        minX = 0;
+        minY = 0;
+        maxX = width;
+        maxY = height;
+    }
+
+    void include(int otherMinX, int otherMinY, int otherMaxX, int otherMaxY) {
+        minX = Math.min(minX, otherMinX);
+        minY = Math.min(minY, otherMinY);
+        maxX = Math.max(maxX, otherMaxX);
+        maxY = Math.max(maxY, otherMaxY);
+    }
+
+    void clamp(int width, int height) {
+        if (isEmpty()) {
+            return;
+        }
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        maxX = Math.min(width, maxX);
+        maxY = Math.min(height, maxY);
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty() ? "DirtyRegion[empty]" : String.format("DirtyRegion[%d, %d, %d, %d]", minX, minY, maxX, maxY);
+    }
+}
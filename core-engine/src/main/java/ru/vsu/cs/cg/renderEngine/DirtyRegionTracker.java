@@ -0,0 +1,217 @@
+package ru.vsu.cs.cg.renderEngine;
+
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.rasterization.ColorBuffer;
+import ru.vsu.cs.cg.renderEngine.camera.Camera;
+import ru.vsu.cs.cg.renderEngine.dto.RenderEntity;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Определяет, какую часть кадра нужно перерисовать при неподвижной камере.
+ * <p>
+ * Для каждой сущности хранится экранный прямоугольник ее границ и версии,
+ * от которых зависит ее изображение. Сущность считается изменившейся, если
+ * в кадре появилась новая сущность (таблица отрисовки пересобирает сущность
+ * при изменении объекта), если изменились геометрия или выделение модели или
+ * если сущность исчезла. Грязная область — объединение старых и новых
+ * прямоугольников изменившихся сущностей. Смена камеры, размера, буфера кадра
+ * или сетки требует полной перерисовки.
+ */
+final class DirtyRegionTracker {
+    private static final float NEAR_W = 0.1f;
+    private static final float GIZMO_LENGTH = 1.5f;
+    private static final int PADDING = 6;
+    private static final float MAX_PARTIAL_SHARE = 0.5f;
+
+    private Map<RenderEntity, Footprint> footprints = new IdentityHashMap<>();
+    private Map<RenderEntity, Footprint> previous = new IdentityHashMap<>();
+    private final float[] viewProjection = new float[16];
+    private float[] cameraPositions = new float[0];
+    private int cameraCount;
+    private ColorBuffer frame;
+    private boolean drawGrid;
+    private boolean valid;
+
+    /**
+     * Сверяет кадр с предыдущим и записывает в {@code region} область, которую
+     * нужно перерисовать. Пустая область означает, что кадр не изменился.
+     */
+    void update(ColorBuffer frame, Matrix4x4 viewProjectionMatrix, boolean drawGrid,
+                List<RenderEntity> entities, List<Camera> cameras, Camera activeCamera,
+                DirtyRegion region) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        boolean full = !valid || this.frame != frame || this.drawGrid != drawGrid;
+        full |= updateViewProjection(viewProjectionMatrix);
+        full |= updateCameras(cameras, activeCamera);
+        this.frame = frame;
+        this.drawGrid = drawGrid;
+        this.valid = true;
+
+        Map<RenderEntity, Footprint> recycled = previous;
+        previous = footprints;
+        footprints = recycled;
+
+        region.clear();
+        for (int i = 0; i < entities.size(); i++) {
+            RenderEntity entity = entities.get(i);
+            Footprint footprint = previous.remove(entity);
+            if (footprint == null) {
+                footprint = new Footprint();
+                footprint.measure(entity, viewProjectionMatrix, width, height);
+                footprint.includeInto(region);
+            } else if (full || footprint.isStale(entity)) {
+                footprint.includeInto(region);
+                footprint.measure(entity, viewProjectionMatrix, width, height);
+                footprint.includeInto(region);
+            }
+            footprints.put(entity, footprint);
+        }
+        for (Footprint removed : previous.values()) {
+            removed.includeInto(region);
+        }
+        previous.clear();
+
+        region.clamp(width, height);
+        if (full || (long) region.getWidth() * region.getHeight() > MAX_PARTIAL_SHARE * width * height) {
+            region.setFrame(width, height);
+        }
+    }
+
+    /**
+     * Проверяет, может ли сущность текущего кадра задеть пиксели области.
+     */
+    boolean intersects(RenderEntity entity, DirtyRegion region) {
+        Footprint footprint = footprints.get(entity);
+        return footprint == null
+            || region.intersects(footprint.minX, footprint.minY, footprint.maxX, footprint.maxY);
+    }
+
+    /**
+     * Сбрасывает состояние: следующий кадр будет перерисован полностью.
+     */
+    void invalidate() {
+        valid = false;
+        frame = null;
+        footprints.clear();
+    }
+
+    private boolean updateViewProjection(Matrix4x4 matrix) {
+        boolean changed = false;
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                float value = matrix.get(row, col);
+                if (viewProjection[row * 4 + col] != value) {
+                    viewProjection[row * 4 + col] = value;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private boolean updateCameras(List<Camera> cameras, Camera activeCamera) {
+        int count = cameras == null ? 0 : cameras.size();
+        boolean changed = count != cameraCount;
+        if (cameraPositions.length < count * 3) {
+            cameraPositions = Arrays.copyOf(cameraPositions, count * 3);
+        }
+        for (int i = 0; i < count; i++) {
+            Camera camera = cameras.get(i);
+            Vector3f position = camera == activeCamera ? null : camera.getPosition();
+            float x = position == null ? Float.NaN : position.getX();
+            float y = position == null ? Float.NaN : position.getY();
+            float z = position == null ? Float.NaN : position.getZ();
+            changed |= Float.compare(cameraPositions[i * 3], x) != 0
+                || Float.compare(cameraPositions[i * 3 + 1], y) != 0
+                || Float.compare(cameraPositions[i * 3 + 2], z) != 0;
+            cameraPositions[i * 3] = x;
+            cameraPositions[i * 3 + 1] = y;
+            cameraPositions[i * 3 + 2] = z;
+        }
+        cameraCount = count;
+        return changed;
+    }
+
+    /**
+     * Экранный прямоугольник сущности и версии модели, для которых он посчитан.
+     */
+    private static final class Footprint {
+        private int minX;
+        private int minY;
+        private int maxX;
+        private int maxY;
+        private long geometryVersion;
+        private long topologyVersion;
+        private long selectionVersion;
+
+        boolean isStale(RenderEntity entity) {
+            Model model = entity.getModel();
+            return model.getGeometryVersion() != geometryVersion
+                || model.getTopologyVersion() != topologyVersion
+                || model.getSelection().getVersion() != selectionVersion;
+        }
+
+        void includeInto(DirtyRegion region) {
+            region.include(minX, minY, maxX, maxY);
+        }
+
+        void measure(RenderEntity entity, Matrix4x4 viewProjectionMatrix, int width, int height) {
+            Model model = entity.getModel();
+            geometryVersion = model.getGeometryVersion();
+            topologyVersion = model.getTopologyVersion();
+            selectionVersion = model.getSelection().getVersion();
+
+            float[] bounds = model.getBounds();
+            if (entity.getSettings().isDrawAxisLines()) {
+                for (int axis = 0; axis < 3; axis++) {
+                    bounds[axis] = Math.min(bounds[axis], 0);
+                    bounds[axis + 3] = Math.max(bounds[axis + 3], GIZMO_LENGTH);
+                }
+            }
+
+            Matrix4x4 mvp = viewProjectionMatrix.multiply(entity.getModelMatrix());
+            float screenMinX = Float.POSITIVE_INFINITY;
+            float screenMinY = Float.POSITIVE_INFINITY;
+            float screenMaxX = Float.NEGATIVE_INFINITY;
+            float screenMaxY = Float.NEGATIVE_INFINITY;
+            for (int corner = 0; corner < 8; corner++) {
+                float x = bounds[(corner & 1) == 0 ? 0 : 3];
+                float y = bounds[(corner & 2) == 0 ? 1 : 4];
+                float z = bounds[(corner & 4) == 0 ? 2 : 5];
+                float w = mvp.get(3, 0) * x + mvp.get(3, 1) * y + mvp.get(3, 2) * z + mvp.get(3, 3);
+                if (!(w >= NEAR_W)) {
+                    setRect(0, 0, width, height);
+                    return;
+                }
+                float clipX = mvp.get(0, 0) * x + mvp.get(0, 1) * y + mvp.get(0, 2) * z + mvp.get(0, 3);
+                float clipY = mvp.get(1, 0) * x + mvp.get(1, 1) * y + mvp.get(1, 2) * z + mvp.get(1, 3);
+                float screenX = (clipX / w + 1.0f) * width / 2.0f;
+                float screenY = (1.0f - clipY / w) * height / 2.0f;
+                screenMinX = Math.min(screenMinX, screenX);
+                screenMinY = Math.min(screenMinY, screenY);
+                screenMaxX = Math.max(screenMaxX, screenX);
+                screenMaxY = Math.max(screenMaxY, screenY);
+            }
+
+            setRect(
+                (int) Math.max(-PADDING, Math.min(width, Math.floor(screenMinX) - PADDING)),
+                (int) Math.max(-PADDING, Math.min(height, Math.floor(screenMinY) - PADDING)),
+                (int) Math.max(0, Math.min(width + PADDING, Math.ceil(screenMaxX) + PADDING + 1)),
+                (int) Math.max(0, Math.min(height + PADDING, Math.ceil(screenMaxY) + PADDING + 1)));
+        }
+
+        private void setRect(int minX, int minY, int maxX, int maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+    }
+}
@@ -123,6 +123,31 @@ public class GraphicConveyor {
         return translationM.multiply(rotationM).multiply(scaleM);
     }
 
+    /**
+     * Переводит ограничивающий параллелепипед в другую систему координат.
+     * Результат — параллелепипед, выровненный по осям новой системы и содержащий исходный.
+     *
+     * @param matrix аффинная матрица перехода
+     * @param bounds границы {@code minX, minY, minZ, maxX, maxY, maxZ}
+     * @return новые границы в том же формате
+     */
+    public static float[] transformBounds(Matrix4x4 matrix, float[] bounds) {
+        float[] result = new float[6];
+        for (int row = 0; row < 3; row++) {
+            float min = matrix.get(row, 3);
+            float max = min;
+            for (int column = 0; column < 3; column++) {
+                float a = matrix.get(row, column) * bounds[column];
+                float b = matrix.get(row, column) * bounds[column + 3];
+                min += Math.min(a, b);
+                max += Math.max(a, b);
+            }
+            result[row] = min;
+            result[row + 3] = max;
+        }
+        return result;
+    }
+
     /**
      * Создает матрицу вида на основе параметров камеры (LookAt).
      * Переводит координаты из мировых координат в пространство камеры.
@@ -0,0 +1,61 @@
+package ru.vsu.cs.cg.renderEngine;
+
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.math.Vector4f;
+import ru.vsu.cs.cg.renderEngine.camera.Camera;
+
+/**
+ * Луч выбора объектов: {@code origin + t * direction}.
+ * <p>
+ * Параметр {@code t} сохраняется при аффинном переводе луча в другую систему
+ * координат, поэтому расстояния попаданий в разных объектах можно сравнивать напрямую.
+ *
+ * @param origin    начало луча
+ * @param direction направление луча (не обязательно единичное)
+ */
+public record PickingRay(Vector3f origin, Vector3f direction) {
+
+    /**
+     * Строит луч из точки экрана через ближнюю и дальнюю плоскости отсечения камеры.
+     * Луч начинается на ближней плоскости, {@code t = 1} соответствует дальней.
+     *
+     * @param camera камера сцены
+     * @param x      координата X в пикселях
+     * @param y      координата Y в пикселях
+     * @param width  ширина области отрисовки
+     * @param height высота области отрисовки
+     * @return луч в мировых координатах
+     * @throws ArithmeticException если матрица вида-проекции вырождена
+     */
+    public static PickingRay fromScreen(Camera camera, float x, float y, int width, int height) {
+        float ndcX = 2.0f * x / width - 1.0f;
+        float ndcY = 1.0f - 2.0f * y / height;
+
+        Matrix4x4 inverse = camera.getProjectionMatrix().multiply(camera.getViewMatrix()).inverse();
+        Vector3f near = inverse.multiply(new Vector4f(ndcX, ndcY, -1.0f, 1.0f)).toVector3Safe();
+        Vector3f far = inverse.multiply(new Vector4f(ndcX, ndcY, 1.0f, 1.0f)).toVector3Safe();
+
+        return new PickingRay(near, far.subtract(near));
+    }
+
+    /**
+     * Переводит луч матрицей: начало как точку, направление как вектор.
+     * Для перехода в локальные координаты модели передается обратная матрица модели.
+     */
+    public PickingRay transform(Matrix4x4 matrix) {
+        Vector4f transformedOrigin = matrix.multiply(new Vector4f(origin.getX(), origin.getY(), origin.getZ(), 1.0f));
+        Vector4f transformedDirection = matrix.multiply(
+            new Vector4f(direction.getX(), direction.getY(), direction.getZ(), 0.0f));
+        return new PickingRay(
+            new Vector3f(transformedOrigin.getX(), transformedOrigin.getY(), transformedOrigin.getZ()),
+            new Vector3f(transformedDirection.getX(), transformedDirection.getY(), transformedDirection.getZ()));
+    }
+
+    /**
+     * Точка луча с параметром {@code t}.
+     */
+    public Vector3f pointAt(float t) {
+        return origin.add(direction.multiply(t));
+    }
+}
@@ -0,0 +1,205 @@
+package ru.vsu.cs.cg.renderEngine;
+
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.IndexSet;
+import ru.vsu.cs.cg.rasterization.ZBuffer;
+import ru.vsu.cs.cg.utils.ParallelRanges;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Экранные координаты и глубина вершин модели в последнем отрисованном кадре.
+ * <p>
+ * Каждая вершина проецируется один раз за кадр, и эти же координаты используются
+ * при растеризации треугольников. Для выделения областью экрана вершины
+ * раскладываются по равномерной сетке ячеек; сетка строится лениво при первом
+ * запросе после кадра, и запрос просматривает только ячейки, пересекающие область.
+ */
+public final class ProjectedVertices {
+    private static final float NEAR_W = 0.1f;
+    private static final int CELL_SIZE = 16;
+
+    private int count;
+    private int width;
+    private int height;
+    private float[] screenX = new float[0];
+    private float[] screenY = new float[0];
+    private float[] depth = new float[0];
+
+    private int gridColumns;
+    private int gridRows;
+    private int[] cellOffsets;
+    private int[] cellVertices;
+
+    /**
+     * Проецирует вершины в экранные координаты. Массивы переиспользуются,
+     * если количество вершин не превышает прежнее.
+     *
+     * @param vertices  вершины модели
+     * @param mvpMatrix матрица Model-View-Projection
+     * @param width     ширина области рендеринга
+     * @param height    высота области рендеринга
+     */
+    public void update(List<Vector3f> vertices, Matrix4x4 mvpMatrix, int width, int height) {
+        this.count = vertices.size();
+        this.width = width;
+        this.height = height;
+        this.cellOffsets = null;
+        this.cellVertices = null;
+
+        if (screenX.length < count) {
+            screenX = new float[count];
+            screenY = new float[count];
+            depth = new float[count];
+        }
+
+        float m00 = mvpMatrix.get(0, 0), m01 = mvpMatrix.get(0, 1), m02 = mvpMatrix.get(0, 2), m03 = mvpMatrix.get(0, 3);
+        float m10 = mvpMatrix.get(1, 0), m11 = mvpMatrix.get(1, 1), m12 = mvpMatrix.get(1, 2), m13 = mvpMatrix.get(1, 3);
+        float m30 = mvpMatrix.get(3, 0), m31 = mvpMatrix.get(3, 1), m32 = mvpMatrix.get(3, 2), m33 = mvpMatrix.get(3, 3);
+        float halfWidth = width / 2.0f;
+        float halfHeight = height / 2.0f;
+
+        ParallelRanges.forEach(count, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Vector3f vertex = vertices.get(i);
+                float x = vertex.getX(), y = vertex.getY(), z = vertex.getZ();
+                float w = m30 * x + m31 * y + m32 * z + m33;
+                if (w < NEAR_W) {
+                    depth[i] = Float.NaN;
+                    continue;
+                }
+                float clipX = m00 * x + m01 * y + m02 * z + m03;
+                float clipY = m10 * x + m11 * y + m12 * z + m13;
+                screenX[i] = (clipX / w + 1.0f) * halfWidth;
+                screenY[i] = (1.0f - clipY / w) * halfHeight;
+                depth[i] = w;
+            }
+        });
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Проверяет, лежит ли вершина перед ближней плоскостью камеры.
+     */
+    public boolean isInFront(int index) {
+        return !Float.isNaN(depth[index]);
+    }
+
+    public float getScreenX(int index) {
+        return screenX[index];
+    }
+
+    public float getScreenY(int index) {
+        return screenY[index];
+    }
+
+    /**
+     * Глубина вершины в тех же единицах, что и в буфере глубины.
+     */
+    public float getDepth(int index) {
+        return depth[index];
+    }
+
+    /**
+     * Экранная вершина для растеризатора: координаты X, Y и глубина.
+     */
+    public Vector3f toScreenVector(int index) {
+        return new Vector3f(screenX[index], screenY[index], depth[index]);
+    }
+
+    /**
+     * Выбирает вершины, попавшие в область экрана.
+     *
+     * @param region    область выделения
+     * @param zBuffer   буфер глубины отрисованного кадра или {@code null}, чтобы выбирать и закрытые вершины
+     * @param tolerance относительный допуск глубины для проверки видимости
+     * @return индексы выбранных вершин
+     */
+    public IndexSet select(ScreenRegion region, ZBuffer zBuffer, float tolerance) {
+        IndexSet result = new IndexSet();
+        if (count == 0) {
+            return result;
+        }
+        ensureGrid();
+
+        int firstColumn = Math.max(0, (int) Math.floor(region.getMinX() / CELL_SIZE));
+        int lastColumn = Math.min(gridColumns - 1, (int) Math.floor(region.getMaxX() / CELL_SIZE));
+        int firstRow = Math.max(0, (int) Math.floor(region.getMinY() / CELL_SIZE));
+        int lastRow = Math.min(gridRows - 1, (int) Math.floor(region.getMaxY() / CELL_SIZE));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * gridColumns + column;
+                boolean cellInside = !region.isLasso()
+                    && column * CELL_SIZE >= region.getMinX() && (column + 1) * CELL_SIZE <= region.getMaxX()
+                    && row * CELL_SIZE >= region.getMinY() && (row + 1) * CELL_SIZE <= region.getMaxY();
+
+                for (int j = cellOffsets[cell]; j < cellOffsets[cell + 1]; j++) {
+                    int vertex = cellVertices[j];
+                    if (!cellInside && !region.contains(screenX[vertex], screenY[vertex])) {
+                        continue;
+                    }
+                    if (zBuffer != null && !zBuffer.isVisible(screenX[vertex], screenY[vertex], depth[vertex], tolerance)) {
+                        continue;
+                    }
+                    result.add(vertex);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Раскладывает видимые на экране вершины по ячейкам сетки (формат CSR).
+     */
+    private void ensureGrid() {
+        if (cellOffsets != null) {
+            return;
+        }
+
+        gridColumns = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+        gridRows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+        int cellCount = gridColumns * gridRows;
+
+        int[] cells = new int[count];
+        int[] offsets = new int[cellCount + 1];
+        for (int i = 0; i < count; i++) {
+            int cell = cellOf(i);
+            cells[i] = cell;
+            if (cell >= 0) {
+                offsets[cell + 1]++;
+            }
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            offsets[cell + 1] += offsets[cell];
+        }
+
+        int[] items = new int[offsets[cellCount]];
+        int[] cursor = Arrays.copyOf(offsets, cellCount);
+        for (int i = 0; i < count; i++) {
+            if (cells[i] >= 0) {
+                items[cursor[cells[i]]++] = i;
+            }
+        }
+
+        cellOffsets = offsets;
+        cellVertices = items;
+    }
+
+    private int cellOf(int index) {
+        if (Float.isNaN(depth[index])) {
+            return -1;
+        }
+        float x = screenX[index];
+        float y = screenY[index];
+        if (!(x >= 0 && x < width && y >= 0 && y < height)) {
+            return -1;
+        }
+        return ((int) y / CELL_SIZE) * gridColumns + (int) x / CELL_SIZE;
+    }
+}
@@ -6,13 +6,19 @@ import ru.vsu.cs.cg.math.Vector3f;
 import ru.vsu.cs.cg.math.Vector4f;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.model.Triangulation;
 import ru.vsu.cs.cg.model.selection.ModelSelection;
+import ru.vsu.cs.cg.rasterization.ColorBuffer;
 import ru.vsu.cs.cg.rasterization.Rasterizer;
 import ru.vsu.cs.cg.rasterization.RasterizerSettings;
+import ru.vsu.cs.cg.rasterization.ShadingMode;
+import ru.vsu.cs.cg.rasterization.ZBuffer;
 import ru.vsu.cs.cg.renderEngine.camera.Camera;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javafx.scene.paint.Color;
 import ru.vsu.cs.cg.rasterization.Texture;
@@ -24,8 +30,28 @@ import ru.vsu.cs.cg.renderEngine.dto.RenderEntity;
  */
 public class RenderEngine {
 
+    /**
+     * Бюджет треугольников модели по умолчанию для кадров взаимодействия.
+     */
+    public static final int DEFAULT_INTERACTION_TRIANGLE_BUDGET = 20_000;
+
+    /**
+     * Во сколько раз модель должна превышать бюджет, чтобы вместо плоской
+     * заливки отрисовываться ограничивающим параллелепипедом.
+     */
+    static final int PROXY_BUDGET_FACTOR = 4;
+
     private static Model cameraGizmoModel;
 
+    private Map<Model, ProjectedVertices> projections = new IdentityHashMap<>();
+    private Map<Model, ProjectedVertices> previousProjections = new IdentityHashMap<>();
+    private final DirtyRegionTracker dirtyRegions = new DirtyRegionTracker();
+    private final DirtyRegion lastDirtyRegion = new DirtyRegion();
+    private final RasterizerSettings flatSettings = new RasterizerSettings();
+    private float[] normalShades = new float[0];
+    private RenderQuality quality = RenderQuality.FULL;
+    private int interactionTriangleBudget = DEFAULT_INTERACTION_TRIANGLE_BUDGET;
+
     /**
      * Главный метод рендеринга сцены.
      *
@@ -50,6 +76,9 @@ public class RenderEngine {
 
         if (activeCamera == null) return;
 
+        dirtyRegions.invalidate();
+        lastDirtyRegion.setFrame(width, height);
+
         Matrix4x4 viewMatrix = activeCamera.getViewMatrix();
         Matrix4x4 projectionMatrix = activeCamera.getProjectionMatrix();
         Matrix4x4 viewProjectionMatrix = projectionMatrix.multiply(viewMatrix);
@@ -57,37 +86,308 @@ public class RenderEngine {
 
         Vector3f lightDirection = activeCamera.getLightDirection();
 
+        Map<Model, ProjectedVertices> recycled = previousProjections;
+        previousProjections = projections;
+        projections = recycled;
+        projections.clear();
+
         renderGrid(pixelWriter, width, height, activeCamera, viewProjectionMatrix, rasterizer, baseSettings);
 
-        for (RenderEntity entity : entities) {
-            RasterizerSettings objectSettings = entity.getSettings().copy();
+        renderEntities(pixelWriter, width, height, entities, viewProjectionMatrix, lightDirection, rasterizer);
 
-            renderModel(
+        if (cameras != null) {
+            renderCameraGizmos(
                 pixelWriter, width, height,
-                entity.getModel(),
-                entity.getTranslation(), entity.getRotation(), entity.getScale(),
-                viewProjectionMatrix, lightDirection,
-                rasterizer, objectSettings, entity.getTexture()
-            );
+                cameras, activeCamera,
+                viewProjectionMatrix,
+                lightDirection,
+                rasterizer);
+        }
 
-            if (objectSettings.isDrawAxisLines()){
-                renderObjectGizmo(
-                    pixelWriter, width, height,
-                    entity,
-                    viewProjectionMatrix,
-                    rasterizer);
+    }
+
+    /**
+     * Рендеринг кадра поверх кэшированного статического слоя.
+     * Если слой построен для той же камеры, размера и набора статических
+     * сущностей, он копируется в кадр вместе с глубиной, и растеризуются
+     * только динамические сущности. Иначе кадр собирается заново, а сетка и
+     * статические сущности сохраняются в слой до отрисовки динамических.
+     *
+     * @param frame           Буфер цвета кадра
+     * @param depth           Буфер глубины, с которым работает растеризатор
+     * @param width           Ширина области рендеринга
+     * @param height          Высота области рендеринга
+     * @param staticEntities  Неподвижные объекты
+     * @param dynamicEntities Объекты, изменяющиеся от кадра к кадру
+     * @param cameras         Список камер в сцене
+     * @param activeCamera    Активная камера
+     * @param rasterizer      Растеризатор для отрисовки треугольников
+     * @param baseSettings    Базовые настройки рендеринга
+     * @param layer           Кэш статического слоя
+     * @param background      Цвет фона в формате ARGB
+     */
+    public void renderLayered(
+        ColorBuffer frame,
+        ZBuffer depth,
+        int width,
+        int height,
+        List<RenderEntity> staticEntities,
+        List<RenderEntity> dynamicEntities,
+        List<Camera> cameras,
+        Camera activeCamera,
+        Rasterizer rasterizer,
+        RasterizerSettings baseSettings,
+        StaticLayer layer,
+        int background) {
+
+        if (activeCamera == null) return;
+
+        dirtyRegions.invalidate();
+        lastDirtyRegion.setFrame(width, height);
+
+        Matrix4x4 viewProjectionMatrix = activeCamera.getProjectionMatrix().multiply(activeCamera.getViewMatrix());
+        Vector3f lightDirection = activeCamera.getLightDirection();
+
+        Map<Model, ProjectedVertices> recycled = previousProjections;
+        previousProjections = projections;
+        projections = recycled;
+        projections.clear();
+
+        if (layer.matches(viewProjectionMatrix, width, height, staticEntities, baseSettings.isDrawGrid())) {
+            layer.restore(frame, depth);
+            for (int i = 0; i < staticEntities.size(); i++) {
+                retainProjection(staticEntities.get(i).getModel());
             }
+        } else {
+            frame.fill(background);
+            depth.clear();
+            renderGrid(frame, width, height, activeCamera, viewProjectionMatrix, rasterizer, baseSettings);
+            renderEntities(frame, width, height, staticEntities, viewProjectionMatrix, lightDirection, rasterizer);
+            layer.store(frame, depth, viewProjectionMatrix, staticEntities, baseSettings.isDrawGrid());
         }
 
+        renderEntities(frame, width, height, dynamicEntities, viewProjectionMatrix, lightDirection, rasterizer);
+
         if (cameras != null) {
             renderCameraGizmos(
-                pixelWriter, width, height,
+                frame, width, height,
                 cameras, activeCamera,
                 viewProjectionMatrix,
                 lightDirection,
                 rasterizer);
         }
+    }
+
+    /**
+     * Рендеринг кадра с перерисовкой только изменившейся области.
+     * При неподвижной камере кадр и буфер глубины сохраняются между вызовами:
+     * область, покрывающая старое и новое положение изменившихся сущностей,
+     * очищается и перерисовывается с ограничением вывода растеризатора,
+     * а сущности вне нее не обрабатываются. Перерисованную область
+     * возвращает {@link #getLastDirtyRegion()}.
+     *
+     * @param frame        Буфер цвета кадра, сохраняемый между вызовами
+     * @param depth        Буфер глубины, с которым работает растеризатор
+     * @param width        Ширина области рендеринга
+     * @param height       Высота области рендеринга
+     * @param entities     Список объектов для рендеринга
+     * @param cameras      Список камер в сцене
+     * @param activeCamera Активная камера
+     * @param rasterizer   Растеризатор для отрисовки треугольников
+     * @param baseSettings Базовые настройки рендеринга
+     * @param background   Цвет фона в формате ARGB
+     */
+    public void renderIncremental(
+        ColorBuffer frame,
+        ZBuffer depth,
+        int width,
+        int height,
+        List<RenderEntity> entities,
+        List<Camera> cameras,
+        Camera activeCamera,
+        Rasterizer rasterizer,
+        RasterizerSettings baseSettings,
+        int background) {
+
+        if (activeCamera == null) return;
+
+        Matrix4x4 viewProjectionMatrix = activeCamera.getProjectionMatrix().multiply(activeCamera.getViewMatrix());
+        Vector3f lightDirection = activeCamera.getLightDirection();
+
+        Map<Model, ProjectedVertices> recycled = previousProjections;
+        previousProjections = projections;
+        projections = recycled;
+        projections.clear();
+
+        DirtyRegion region = lastDirtyRegion;
+        dirtyRegions.update(frame, viewProjectionMatrix, baseSettings.isDrawGrid(),
+            entities, cameras, activeCamera, region);
+
+        if (region.isEmpty()) {
+            for (int i = 0; i < entities.size(); i++) {
+                retainProjection(entities.get(i).getModel());
+            }
+            return;
+        }
+
+        boolean partial = !region.coversFrame(width, height);
+        if (partial) {
+            frame.fill(background, region.getMinX(), region.getMinY(), region.getMaxX(), region.getMaxY());
+            depth.clear(region.getMinX(), region.getMinY(), region.getMaxX(), region.getMaxY());
+            rasterizer.setScissor(region.getMinX(), region.getMinY(), region.getMaxX(), region.getMaxY());
+        } else {
+            frame.fill(background);
+            depth.clear();
+        }
+
+        try {
+            renderGrid(frame, width, height, activeCamera, viewProjectionMatrix, rasterizer, baseSettings);
+            for (int i = 0; i < entities.size(); i++) {
+                RenderEntity entity = entities.get(i);
+                if (!partial || dirtyRegions.intersects(entity, region)) {
+                    renderEntity(frame, width, height, entity, viewProjectionMatrix, lightDirection, rasterizer);
+                } else {
+                    retainProjection(entity.getModel());
+                }
+            }
+            if (cameras != null) {
+                renderCameraGizmos(
+                    frame, width, height,
+                    cameras, activeCamera,
+                    viewProjectionMatrix,
+                    lightDirection,
+                    rasterizer);
+            }
+        } finally {
+            rasterizer.resetScissor();
+        }
+    }
+
+    /**
+     * Область кадра, перерисованная последним вызовом рендеринга.
+     * Пустая область означает, что кадр не изменился.
+     */
+    public DirtyRegion getLastDirtyRegion() {
+        return lastDirtyRegion;
+    }
 
+    public RenderQuality getQuality() {
+        return quality;
+    }
+
+    /**
+     * Задает уровень качества следующих кадров.
+     * При смене уровня следующий инкрементальный кадр перерисовывается целиком,
+     * поэтому после окончания взаимодействия кадр сразу получает полное качество.
+     */
+    public void setQuality(RenderQuality quality) {
+        if (quality == null) {
+            throw new IllegalArgumentException("Качество отрисовки не может быть null");
+        }
+        if (this.quality != quality) {
+            this.quality = quality;
+            dirtyRegions.invalidate();
+        }
+    }
+
+    public int getInteractionTriangleBudget() {
+        return interactionTriangleBudget;
+    }
+
+    /**
+     * Задает бюджет треугольников модели для кадров взаимодействия.
+     * Модель сверх бюджета отрисовывается плоской заливкой по граням без текстуры,
+     * а сверх {@value #PROXY_BUDGET_FACTOR}-кратного бюджета — ограничивающим параллелепипедом.
+     *
+     * @param budget число треугольников, не меньше единицы
+     */
+    public void setInteractionTriangleBudget(int budget) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("Бюджет треугольников должен быть положительным: " + budget);
+        }
+        if (interactionTriangleBudget != budget) {
+            interactionTriangleBudget = budget;
+            if (quality == RenderQuality.INTERACTIVE) {
+                dirtyRegions.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Переносит проекцию модели, не перерисованной в этом кадре, из предыдущего кадра.
+     */
+    private void retainProjection(Model model) {
+        ProjectedVertices projected = previousProjections.remove(model);
+        if (projected != null) {
+            projections.put(model, projected);
+        }
+    }
+
+    private void renderEntities(
+        PixelWriter pixelWriter,
+        int width,
+        int height,
+        List<RenderEntity> entities,
+        Matrix4x4 viewProjectionMatrix,
+        Vector3f lightDirection,
+        Rasterizer rasterizer) {
+
+        for (int i = 0; i < entities.size(); i++) {
+            renderEntity(pixelWriter, width, height, entities.get(i), viewProjectionMatrix, lightDirection, rasterizer);
+        }
+    }
+
+    private void renderEntity(
+        PixelWriter pixelWriter,
+        int width,
+        int height,
+        RenderEntity entity,
+        Matrix4x4 viewProjectionMatrix,
+        Vector3f lightDirection,
+        Rasterizer rasterizer) {
+
+        RasterizerSettings objectSettings = entity.getSettings();
+        int triangles = entity.getModel().getTriangulation().getTriangleCount();
+
+        if (quality == RenderQuality.INTERACTIVE && triangles > interactionTriangleBudget) {
+            if (triangles > (long) interactionTriangleBudget * PROXY_BUDGET_FACTOR) {
+                renderBoundsProxy(pixelWriter, width, height, entity, viewProjectionMatrix, rasterizer);
+            } else {
+                renderModel(
+                    pixelWriter, width, height,
+                    entity.getModel(),
+                    entity.getModelMatrix(), entity.getNormalMatrix(),
+                    viewProjectionMatrix, lightDirection,
+                    rasterizer, toFlatSettings(objectSettings), null
+                );
+            }
+        } else {
+            renderModel(
+                pixelWriter, width, height,
+                entity.getModel(),
+                entity.getModelMatrix(), entity.getNormalMatrix(),
+                viewProjectionMatrix, lightDirection,
+                rasterizer, objectSettings, entity.getTexture()
+            );
+        }
+
+        if (objectSettings.isDrawAxisLines()){
+            renderObjectGizmo(
+                pixelWriter, width, height,
+                entity,
+                viewProjectionMatrix,
+                rasterizer);
+        }
+    }
+
+    /**
+     * Возвращает экранные координаты вершин модели из последнего отрисованного кадра.
+     *
+     * @param model модель сцены
+     * @return проекция вершин или {@code null}, если модель не отрисовывалась в последнем кадре
+     */
+    public ProjectedVertices getProjectedVertices(Model model) {
+        return projections.get(model);
     }
 
     /**
@@ -97,9 +397,8 @@ public class RenderEngine {
      * @param width                Ширина области
      * @param height               Высота области
      * @param model                3D модель для отрисовки
-     * @param translation          Позиция модели в мире
-     * @param rotation             Вращение модели
-     * @param scale                Масштаб модели
+     * @param modelMatrix          Мировая матрица модели
+     * @param normalMatrix         Матрица преобразования нормалей
      * @param viewProjectionMatrix Комбинированная матрица вида и проекции
      * @param lightDirection       Направление источника света
      * @param rasterizer           Растеризатор
@@ -111,47 +410,78 @@ public class RenderEngine {
         int width,
         int height,
         Model model,
-        Vector3f translation, Vector3f rotation, Vector3f scale,
+        Matrix4x4 modelMatrix, Matrix4x4 normalMatrix,
         Matrix4x4 viewProjectionMatrix,
         Vector3f lightDirection,
         Rasterizer rasterizer,
         RasterizerSettings settings,
         Texture texture) {
 
-        Matrix4x4 modelMatrix = GraphicConveyor.rotateScaleTranslate(translation, rotation, scale);
         Matrix4x4 mvpMatrix = viewProjectionMatrix.multiply(modelMatrix);
 
-        Matrix4x4 normalMatrix = modelMatrix.inverse().transpose();
-
         List<Vector3f> vertices = model.getVertices();
         List<Vector3f> normals = model.getNormals();
         List<Vector2f> textureVertices = model.getTextureVertices();
-        List<Polygon> polygons = model.getTriangulatedPolygonsCache();
-
-        for (Polygon polygon : polygons) {
-            List<Integer> vIdx = polygon.getVertexIndices();
-            List<Integer> tIdx = polygon.getTextureVertexIndices();
-            List<Integer> nIdx = polygon.getNormalIndices();
+        List<Polygon> polygons = model.getPolygons();
+        Triangulation triangulation = model.getTriangulation();
 
-            Vector4f v1Clip = GraphicConveyor.multiplyMatrix4ByVector3ToVector4(mvpMatrix, vertices.get(vIdx.get(0)));
-            Vector4f v2Clip = GraphicConveyor.multiplyMatrix4ByVector3ToVector4(mvpMatrix, vertices.get(vIdx.get(1)));
-            Vector4f v3Clip = GraphicConveyor.multiplyMatrix4ByVector3ToVector4(mvpMatrix, vertices.get(vIdx.get(2)));
+        ProjectedVertices projected = previousProjections.remove(model);
+        if (projected == null) {
+            projected = new ProjectedVertices();
+        }
+        projected.update(vertices, mvpMatrix, width, height);
+        projections.put(model, projected);
 
-            if (v1Clip.getW() < 0.1f || v2Clip.getW() < 0.1f || v3Clip.getW() < 0.1f) continue;
+        ShadingMode shading = settings.isUseLighting() ? settings.getShadingMode() : null;
+        float[] triangleNormals = shading == ShadingMode.FLAT ? model.getTriangleNormals() : null;
+        float[] shades = shading == ShadingMode.GOURAUD ? shadeNormals(normals, normalMatrix, lightDirection, settings) : null;
 
-            Vector3f screenV1 = toScreenSpace(v1Clip, width, height);
-            Vector3f screenV2 = toScreenSpace(v2Clip, width, height);
-            Vector3f screenV3 = toScreenSpace(v3Clip, width, height);
+        for (int t = 0; t < triangulation.getTriangleCount(); t++) {
+            Polygon polygon = polygons.get(triangulation.faceOf(t));
+            List<Integer> tIdx = polygon.getTextureVertexIndices();
+            List<Integer> nIdx = polygon.getNormalIndices();
 
-            Vector2f vt1 = (settings.isUseTexture() && tIdx.size() > 0) ? textureVertices.get(tIdx.get(0)) : null;
-            Vector2f vt2 = (settings.isUseTexture() && tIdx.size() > 1) ? textureVertices.get(tIdx.get(1)) : null;
-            Vector2f vt3 = (settings.isUseTexture() && tIdx.size() > 2) ? textureVertices.get(tIdx.get(2)) : null;
+            int i1 = triangulation.vertexAt(t, 0);
+            int i2 = triangulation.vertexAt(t, 1);
+            int i3 = triangulation.vertexAt(t, 2);
+            int c1 = triangulation.cornerAt(t, 0);
+            int c2 = triangulation.cornerAt(t, 1);
+            int c3 = triangulation.cornerAt(t, 2);
+
+            if (!projected.isInFront(i1) || !projected.isInFront(i2) || !projected.isInFront(i3)) continue;
+
+            Vector3f screenV1 = projected.toScreenVector(i1);
+            Vector3f screenV2 = projected.toScreenVector(i2);
+            Vector3f screenV3 = projected.toScreenVector(i3);
+
+            Vector2f vt1 = (settings.isUseTexture() && tIdx.size() > c1) ? textureVertices.get(tIdx.get(c1)) : null;
+            Vector2f vt2 = (settings.isUseTexture() && tIdx.size() > c2) ? textureVertices.get(tIdx.get(c2)) : null;
+            Vector2f vt3 = (settings.isUseTexture() && tIdx.size() > c3) ? textureVertices.get(tIdx.get(c3)) : null;
+
+            if (triangleNormals != null) {
+                float shade = shade(normalMatrix, triangleNormals[t * 3], triangleNormals[t * 3 + 1],
+                    triangleNormals[t * 3 + 2], lightDirection, settings);
+                rasterizer.drawShadedTriangle(pixelWriter, width, height,
+                    screenV1, screenV2, screenV3,
+                    vt1, vt2, vt3,
+                    shade, shade, shade,
+                    texture, settings);
+                continue;
+            }
+            if (shades != null && !nIdx.isEmpty()) {
+                rasterizer.drawShadedTriangle(pixelWriter, width, height,
+                    screenV1, screenV2, screenV3,
+                    vt1, vt2, vt3,
+                    shades[nIdx.get(c1)], shades[nIdx.get(c2)], shades[nIdx.get(c3)],
+                    texture, settings);
+                continue;
+            }
 
             Vector3f n1 = null, n2 = null, n3 = null;
-            if (settings.isUseLighting() && !nIdx.isEmpty()) {
-                n1 = GraphicConveyor.multiplyMatrix4ByVector3Normal(normalMatrix, normals.get(nIdx.get(0))).normalizeSafe();
-                n2 = GraphicConveyor.multiplyMatrix4ByVector3Normal(normalMatrix, normals.get(nIdx.get(1))).normalizeSafe();
-                n3 = GraphicConveyor.multiplyMatrix4ByVector3Normal(normalMatrix, normals.get(nIdx.get(2))).normalizeSafe();
+            if (shading == ShadingMode.PHONG && !nIdx.isEmpty()) {
+                n1 = GraphicConveyor.multiplyMatrix4ByVector3Normal(normalMatrix, normals.get(nIdx.get(c1))).normalizeSafe();
+                n2 = GraphicConveyor.multiplyMatrix4ByVector3Normal(normalMatrix, normals.get(nIdx.get(c2))).normalizeSafe();
+                n3 = GraphicConveyor.multiplyMatrix4ByVector3Normal(normalMatrix, normals.get(nIdx.get(c3))).normalizeSafe();
             }
 
             rasterizer.drawTriangle(pixelWriter, width, height,
@@ -163,10 +493,85 @@ public class RenderEngine {
         }
 
         renderSelection(pixelWriter, width, height,
-            model, mvpMatrix,
+            model, mvpMatrix, projected,
             rasterizer);
     }
 
+    /**
+     * Яркость освещения для каждой нормали модели (затенение по Гуро): каждая
+     * нормаль переводится в мировые координаты один раз за кадр, а не в каждом
+     * использующем ее треугольнике. Буфер переиспользуется между моделями.
+     */
+    private float[] shadeNormals(List<Vector3f> normals, Matrix4x4 normalMatrix,
+                                 Vector3f lightDirection, RasterizerSettings settings) {
+        if (normalShades.length < normals.size()) {
+            normalShades = new float[normals.size()];
+        }
+        for (int i = 0; i < normals.size(); i++) {
+            Vector3f normal = normals.get(i);
+            normalShades[i] = shade(normalMatrix, normal.getX(), normal.getY(), normal.getZ(), lightDirection, settings);
+        }
+        return normalShades;
+    }
+
+    /**
+     * Яркость освещения нормали модели после перевода матрицей нормалей,
+     * без промежуточных векторов. Вырожденная нормаль считается направленной
+     * вдоль оси Y, как в {@link Vector3f#normalizeSafe()}.
+     */
+    private static float shade(Matrix4x4 normalMatrix, float nx, float ny, float nz,
+                               Vector3f lightDirection, RasterizerSettings settings) {
+        float x = normalMatrix.get(0, 0) * nx + normalMatrix.get(0, 1) * ny + normalMatrix.get(0, 2) * nz;
+        float y = normalMatrix.get(1, 0) * nx + normalMatrix.get(1, 1) * ny + normalMatrix.get(1, 2) * nz;
+        float z = normalMatrix.get(2, 0) * nx + normalMatrix.get(2, 1) * ny + normalMatrix.get(2, 2) * nz;
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        float dot = length < 1e-7f ? lightDirection.getY()
+            : (x * lightDirection.getX() + y * lightDirection.getY() + z * lightDirection.getZ()) / length;
+        return Rasterizer.brightness(Math.max(0, dot), settings);
+    }
+
+    /**
+     * Настройки упрощенной отрисовки модели: освещение объекта по граням без текстуры.
+     * Объект настроек переиспользуется между вызовами.
+     */
+    private RasterizerSettings toFlatSettings(RasterizerSettings settings) {
+        flatSettings.setUseTexture(false);
+        flatSettings.setUseLighting(settings.isUseLighting());
+        flatSettings.setShadingMode(ShadingMode.FLAT);
+        flatSettings.setAmbientStrength(settings.getAmbientStrength());
+        flatSettings.setDiffuseStrength(settings.getDiffuseStrength());
+        flatSettings.setLightIntensity(settings.getLightIntensity());
+        flatSettings.setDefaultColor(settings.getDefaultColor());
+        flatSettings.setDrawPolygonalGrid(settings.isDrawPolygonalGrid());
+        flatSettings.setGridColor(settings.getGridColor());
+        return flatSettings;
+    }
+
+    /**
+     * Отрисовывает вместо модели ребра ее ограничивающего параллелепипеда.
+     * Проекция вершин модели в этом кадре не строится.
+     */
+    private void renderBoundsProxy(PixelWriter pw, int w, int h, RenderEntity entity, Matrix4x4 vp, Rasterizer r) {
+        float[] bounds = entity.getModel().getBounds();
+        Matrix4x4 mvp = vp.multiply(entity.getModelMatrix());
+        Color color = entity.getSettings().getDefaultColor();
+
+        Vector3f[] corners = new Vector3f[8];
+        for (int corner = 0; corner < 8; corner++) {
+            corners[corner] = new Vector3f(
+                bounds[(corner & 1) == 0 ? 0 : 3],
+                bounds[(corner & 2) == 0 ? 1 : 4],
+                bounds[(corner & 4) == 0 ? 2 : 5]);
+        }
+        for (int corner = 0; corner < 8; corner++) {
+            for (int bit = 1; bit < 8; bit <<= 1) {
+                if ((corner & bit) == 0) {
+                    renderLine3D(pw, w, h, corners[corner], corners[corner | bit], mvp, color, r, true);
+                }
+            }
+        }
+    }
+
     /**
      * Отрисовывает 3D линию с отсечением по ближней плоскости.
      *
@@ -242,26 +647,29 @@ public class RenderEngine {
      * @param h     Высота области рендеринга
      * @param model Модель с выделенными элементами
      * @param mvp   Матрица Model-View-Projection
+     * @param projected Экранные координаты вершин текущего кадра
      * @param r     Растеризатор
      */
-    private void renderSelection(PixelWriter pw, int w, int h, Model model, Matrix4x4 mvp, Rasterizer r) {
+    private void renderSelection(PixelWriter pw, int w, int h, Model model, Matrix4x4 mvp, ProjectedVertices projected, Rasterizer r) {
         ModelSelection sel = model.getSelection();
         if (sel.hasSelectedVertices()) {
-            for (Integer idx : sel.getSelectedVertices()) {
-                Vector4f v = GraphicConveyor.multiplyMatrix4ByVector3ToVector4(mvp, model.getVertices().get(idx));
-                if (v.getW() > 0.1f) renderVertexPoint(pw, w, h, GraphicConveyor.vertexToPoint(v.toVector3Safe(), w, h), v.getW(), 8, Color.YELLOW, r);
-            }
+            sel.forEachSelectedVertex(idx -> {
+                if (idx < projected.size() && projected.isInFront(idx)) {
+                    Vector2f point = new Vector2f(projected.getScreenX(idx), projected.getScreenY(idx));
+                    renderVertexPoint(pw, w, h, point, projected.getDepth(idx), 8, Color.YELLOW, r);
+                }
+            });
         }
 
         if (sel.hasSelectedPolygons()) {
-            for (Integer idx : sel.getSelectedPolygons()) {
+            sel.forEachSelectedPolygon(idx -> {
                 Polygon poly = model.getPolygons().get(idx);
                 for (int i = 0; i < poly.getVertexIndices().size(); i++) {
                     Vector3f v1 = model.getVertices().get(poly.getVertexIndices().get(i));
                     Vector3f v2 = model.getVertices().get(poly.getVertexIndices().get((i + 1) % poly.getVertexIndices().size()));
                     renderLine3D(pw, w, h, v1, v2, mvp, Color.CYAN, r, true);
                 }
-            }
+            });
         }
     }
 
@@ -289,8 +697,7 @@ public class RenderEngine {
      * Рендерит оси объекта (гизмо) - X, Y, Z.
      */
     public void renderObjectGizmo(PixelWriter pw, int w, int h, RenderEntity entity, Matrix4x4 vp, Rasterizer r) {
-        Matrix4x4 modelMatrix = GraphicConveyor.rotateScaleTranslate(entity.getTranslation(), entity.getRotation(), entity.getScale());
-        Matrix4x4 mvp = vp.multiply(modelMatrix);
+        Matrix4x4 mvp = vp.multiply(entity.getModelMatrix());
 
         float len = 1.5f;
         renderLine3D(pw, w, h, new Vector3f(0,0,0), new Vector3f(len,0,0), mvp, Color.RED, r, true);
@@ -309,9 +716,9 @@ public class RenderEngine {
 
         for (Camera c : cameras) {
             if (c == active) continue;
+            Matrix4x4 modelMatrix = GraphicConveyor.translate(c.getPosition().getX(), c.getPosition().getY(), c.getPosition().getZ());
             renderModel(pw, w, h,
-                gizmo, c.getPosition(),
-                new Vector3f(0,0,0), new Vector3f(1,1,1),
+                gizmo, modelMatrix, modelMatrix.inverse().transpose(),
                 vp, light,
                 r, s,
                 null);
@@ -0,0 +1,17 @@
+package ru.vsu.cs.cg.renderEngine;
+
+/**
+ * Уровень качества отрисовки кадра.
+ */
+public enum RenderQuality {
+    /**
+     * Полное качество: все модели отрисовываются с текстурами и попиксельным освещением.
+     */
+    FULL,
+
+    /**
+     * Качество на время взаимодействия: модели тяжелее бюджета треугольников
+     * отрисовываются упрощенно, чтобы время кадра оставалось ограниченным.
+     */
+    INTERACTIVE
+}
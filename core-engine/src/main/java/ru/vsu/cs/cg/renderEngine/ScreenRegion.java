@@ -0,0 +1,173 @@
+package ru.vsu.cs.cg.renderEngine;
+
+import java.util.Arrays;
+
+/**
+ * Область выделения на экране: прямоугольник или лассо (замкнутая ломаная).
+ * <p>
+ * Для лассо при создании для каждой строки пикселей в пределах области
+ * вычисляются отсортированные точки пересечения с контуром, поэтому проверка
+ * точки сводится к двоичному поиску в строке и не зависит от длины контура.
+ */
+public final class ScreenRegion {
+    private final float minX;
+    private final float minY;
+    private final float maxX;
+    private final float maxY;
+    private final int firstRow;
+    private final int[] rowOffsets;
+    private final float[] crossings;
+    private final float[] contourXs;
+    private final float[] contourYs;
+
+    private ScreenRegion(float minX, float minY, float maxX, float maxY,
+                         int firstRow, int[] rowOffsets, float[] crossings,
+                         float[] contourXs, float[] contourYs) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.firstRow = firstRow;
+        this.rowOffsets = rowOffsets;
+        this.crossings = crossings;
+        this.contourXs = contourXs;
+        this.contourYs = contourYs;
+    }
+
+    /**
+     * Прямоугольник по двум противоположным углам в любом порядке.
+     */
+    public static ScreenRegion box(float x0, float y0, float x1, float y1) {
+        return new ScreenRegion(Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1),
+            0, null, null, null, null);
+    }
+
+    /**
+     * Лассо по точкам контура; контур замыкается автоматически.
+     * Принадлежность точки определяется правилом четности по центру ее строки пикселей.
+     *
+     * @param xs координаты X точек контура
+     * @param ys координаты Y точек контура
+     * @throws IllegalArgumentException если точек меньше трех или массивы разной длины
+     */
+    public static ScreenRegion lasso(float[] xs, float[] ys) {
+        if (xs.length != ys.length || xs.length < 3) {
+            throw new IllegalArgumentException("Лассо должно содержать не менее трех точек");
+        }
+
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        int firstRow = (int) Math.floor(minY);
+        int rowCount = (int) Math.floor(maxY) - firstRow + 1;
+        int[] counts = new int[rowCount + 1];
+        forEachCrossing(xs, ys, firstRow, rowCount, (row, x) -> counts[row + 1]++);
+
+        int[] offsets = new int[rowCount + 1];
+        for (int row = 0; row < rowCount; row++) {
+            offsets[row + 1] = offsets[row] + counts[row + 1];
+        }
+
+        float[] crossings = new float[offsets[rowCount]];
+        int[] cursor = Arrays.copyOf(offsets, rowCount);
+        forEachCrossing(xs, ys, firstRow, rowCount, (row, x) -> crossings[cursor[row]++] = x);
+        for (int row = 0; row < rowCount; row++) {
+            Arrays.sort(crossings, offsets[row], offsets[row + 1]);
+        }
+
+        return new ScreenRegion(minX, minY, maxX, maxY, firstRow, offsets, crossings, xs.clone(), ys.clone());
+    }
+
+    /**
+     * Та же область в системе координат, растянутой по осям в заданное число раз,
+     * например в координатах буфера кадра уменьшенного разрешения.
+     */
+    public ScreenRegion scaled(float scaleX, float scaleY) {
+        if (scaleX == 1.0f && scaleY == 1.0f) {
+            return this;
+        }
+        if (!isLasso()) {
+            return box(minX * scaleX, minY * scaleY, maxX * scaleX, maxY * scaleY);
+        }
+        float[] xs = new float[contourXs.length];
+        float[] ys = new float[contourYs.length];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = contourXs[i] * scaleX;
+            ys[i] = contourYs[i] * scaleY;
+        }
+        return lasso(xs, ys);
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public boolean isLasso() {
+        return crossings != null;
+    }
+
+    /**
+     * Проверяет, лежит ли точка экрана внутри области.
+     */
+    public boolean contains(float x, float y) {
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return false;
+        }
+        if (crossings == null) {
+            return true;
+        }
+
+        int row = (int) Math.floor(y) - firstRow;
+        if (row < 0 || row >= rowOffsets.length - 1) {
+            return false;
+        }
+        int from = rowOffsets[row];
+        int to = rowOffsets[row + 1];
+        int position = Arrays.binarySearch(crossings, from, to, x);
+        int before = (position >= 0 ? position : -position - 1) - from;
+        return (before & 1) == 1;
+    }
+
+    private static void forEachCrossing(float[] xs, float[] ys, int firstRow, int rowCount, CrossingConsumer consumer) {
+        int n = xs.length;
+        for (int i = 0; i < n; i++) {
+            float ax = xs[i], ay = ys[i];
+            float bx = xs[(i + 1) % n], by = ys[(i + 1) % n];
+            if (ay == by) {
+                continue;
+            }
+
+            float top = Math.min(ay, by);
+            float bottom = Math.max(ay, by);
+            int startRow = Math.max(0, (int) Math.ceil(top - 0.5f) - firstRow);
+            int endRow = Math.min(rowCount - 1, (int) Math.ceil(bottom - 0.5f) - 1 - firstRow);
+            for (int row = startRow; row <= endRow; row++) {
+                float center = firstRow + row + 0.5f;
+                consumer.accept(row, ax + (center - ay) * (bx - ax) / (by - ay));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface CrossingConsumer {
+        void accept(int row, float x);
+    }
+}
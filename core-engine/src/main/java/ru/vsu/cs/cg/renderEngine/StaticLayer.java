@@ -0,0 +1,104 @@
+package ru.vsu.cs.cg.renderEngine;
+
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.rasterization.ColorBuffer;
+import ru.vsu.cs.cg.rasterization.ZBuffer;
+import ru.vsu.cs.cg.renderEngine.dto.RenderEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Кэшированный слой неподвижной части кадра: цвет и глубина сетки и
+ * статических объектов. Слой действителен, пока не изменились матрица
+ * вида-проекции, размер кадра, флаг сетки и набор статических сущностей.
+ * Сущности сравниваются по ссылке: постоянная таблица отрисовки пересобирает
+ * сущность при любом изменении объекта, а версии геометрии ловят правку
+ * вершин модели без пересборки сущности.
+ */
+public class StaticLayer {
+    private ColorBuffer color;
+    private ZBuffer depth;
+    private final float[] viewProjection = new float[16];
+    private final List<RenderEntity> entities = new ArrayList<>();
+    private long[] modelVersions = new long[0];
+    private boolean drawGrid;
+    private boolean valid;
+
+    /**
+     * Проверяет, что слой построен для тех же параметров кадра.
+     */
+    public boolean matches(Matrix4x4 viewProjectionMatrix, int width, int height,
+                           List<RenderEntity> staticEntities, boolean drawGrid) {
+        if (!valid || color.getWidth() != width || color.getHeight() != height
+            || this.drawGrid != drawGrid || entities.size() != staticEntities.size()) {
+            return false;
+        }
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                if (viewProjection[row * 4 + col] != viewProjectionMatrix.get(row, col)) {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            RenderEntity entity = staticEntities.get(i);
+            Model model = entity.getModel();
+            if (entities.get(i) != entity
+                || modelVersions[2 * i] != model.getGeometryVersion()
+                || modelVersions[2 * i + 1] != model.getTopologyVersion()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Сохраняет текущий кадр как статический слой.
+     */
+    public void store(ColorBuffer frame, ZBuffer frameDepth, Matrix4x4 viewProjectionMatrix,
+                      List<RenderEntity> staticEntities, boolean drawGrid) {
+        if (color == null || color.getWidth() != frame.getWidth() || color.getHeight() != frame.getHeight()) {
+            color = new ColorBuffer(frame.getWidth(), frame.getHeight());
+            depth = new ZBuffer(frame.getWidth(), frame.getHeight());
+        }
+        color.copyFrom(frame);
+        depth.copyFrom(frameDepth);
+
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                viewProjection[row * 4 + col] = viewProjectionMatrix.get(row, col);
+            }
+        }
+        entities.clear();
+        entities.addAll(staticEntities);
+        if (modelVersions.length < 2 * entities.size()) {
+            modelVersions = Arrays.copyOf(modelVersions, 2 * entities.size());
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            Model model = entities.get(i).getModel();
+            modelVersions[2 * i] = model.getGeometryVersion();
+            modelVersions[2 * i + 1] = model.getTopologyVersion();
+        }
+        this.drawGrid = drawGrid;
+        this.valid = true;
+    }
+
+    /**
+     * Восстанавливает слой в кадр и буфер глубины.
+     */
+    public void restore(ColorBuffer frame, ZBuffer frameDepth) {
+        frame.copyFrom(color);
+        frameDepth.copyFrom(depth);
+    }
+
+    /**
+     * Сбрасывает слой, например при начале нового взаимодействия.
+     */
+    public void invalidate() {
+        valid = false;
+        entities.clear();
+    }
+}
@@ -0,0 +1,45 @@
+package ru.vsu.cs.cg.renderEngine;
+
+import ru.vsu.cs.cg.math.Matrix4x4;
+
+/**
+ * Проверка ограничивающих параллелепипедов на пересечение с пирамидой видимости.
+ */
+public final class ViewFrustum {
+
+    private ViewFrustum() {
+    }
+
+    /**
+     * Проверяет, лежит ли параллелепипед целиком вне пирамиды видимости: все восемь
+     * его углов находятся за одной из боковых плоскостей или позади камеры.
+     * Проверка консервативна: {@code false} не гарантирует, что объект виден.
+     *
+     * @param viewProjection матрица вида и проекции
+     * @param bounds         границы в мировых координатах {@code minX, minY, minZ, maxX, maxY, maxZ}
+     * @return {@code true}, если параллелепипед заведомо не виден
+     */
+    public static boolean isOutside(Matrix4x4 viewProjection, float[] bounds) {
+        int left = 0, right = 0, bottom = 0, top = 0, behind = 0;
+        for (int corner = 0; corner < 8; corner++) {
+            float x = bounds[(corner & 1) == 0 ? 0 : 3];
+            float y = bounds[(corner & 2) == 0 ? 1 : 4];
+            float z = bounds[(corner & 4) == 0 ? 2 : 5];
+
+            float clipX = row(viewProjection, 0, x, y, z);
+            float clipY = row(viewProjection, 1, x, y, z);
+            float clipW = row(viewProjection, 3, x, y, z);
+
+            if (clipX < -clipW) left++;
+            if (clipX > clipW) right++;
+            if (clipY < -clipW) bottom++;
+            if (clipY > clipW) top++;
+            if (clipW <= 0) behind++;
+        }
+        return left == 8 || right == 8 || bottom == 8 || top == 8 || behind == 8;
+    }
+
+    private static float row(Matrix4x4 matrix, int row, float x, float y, float z) {
+        return matrix.get(row, 0) * x + matrix.get(row, 1) * y + matrix.get(row, 2) * z + matrix.get(row, 3);
+    }
+}
@@ -1,7 +1,7 @@
 package ru.vsu.cs.cg.renderEngine.dto;
 
 import javafx.scene.paint.Color;
-import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.math.Matrix4x4;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.rasterization.RasterizerSettings;
 import ru.vsu.cs.cg.rasterization.Texture;
@@ -11,18 +11,20 @@ import ru.vsu.cs.cg.rasterization.Texture;
  */
 public class RenderEntity {
     private final Model model;
-    private final Vector3f translation;
-    private final Vector3f rotation;
-    private final Vector3f scale;
+    private final Matrix4x4 modelMatrix;
+    private final Matrix4x4 normalMatrix;
     private final Texture texture;
     private final RasterizerSettings settings;
 
-    public RenderEntity(Model model, Vector3f translation, Vector3f rotation, Vector3f scale,
+    /**
+     * @param modelMatrix  мировая матрица объекта
+     * @param normalMatrix обратная транспонированная мировая матрица
+     */
+    public RenderEntity(Model model, Matrix4x4 modelMatrix, Matrix4x4 normalMatrix,
                         Texture texture, RasterizerSettings settings) {
         this.model = model;
-        this.translation = translation;
-        this.rotation = rotation;
-        this.scale = scale;
+        this.modelMatrix = modelMatrix;
+        this.normalMatrix = normalMatrix;
         this.texture = texture;
         this.settings = settings.copy();
 
@@ -30,9 +32,8 @@ public class RenderEntity {
     }
 
     public Model getModel() { return model; }
-    public Vector3f getTranslation() { return translation; }
-    public Vector3f getRotation() { return rotation; }
-    public Vector3f getScale() { return scale; }
+    public Matrix4x4 getModelMatrix() { return modelMatrix; }
+    public Matrix4x4 getNormalMatrix() { return normalMatrix; }
     public Texture getTexture() { return texture; }
     public Color getColor() { return settings.getDefaultColor(); }
     public RasterizerSettings getSettings(){return this.settings;}
@@ -1,5 +1,6 @@
 package ru.vsu.cs.cg.utils;
 
+import ru.vsu.cs.cg.model.IndexSet;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.model.Polygon;
 import ru.vsu.cs.cg.utils.functional.PolygonDataExtractor;
@@ -8,7 +9,7 @@ import java.util.*;
 
 /**
  * Утилитарный класс для работы с индексами в 3D модели.
- * Содержит методы для создания маппингов индексов и получения используемых индексов.
+ * Содержит методы для построения таблиц переиндексации и получения используемых индексов.
  */
 public final class IndexUtils {
 
@@ -17,124 +18,101 @@ public final class IndexUtils {
     public static final PolygonDataExtractor NORMAL_EXTRACTOR = Polygon::getNormalIndices;
 
     /**
-     * Получает все индексы определенного типа, используемые в полигонах модели.
+     * Отмечает в битовой маске все индексы определенного типа, используемые в полигонах модели.
      *
      * @param model Модель для анализа
      * @param extractor Извлекатель данных для получения индексов определенного типа
-     * @return Набор всех используемых индексов указанного типа
+     * @return Маска используемых индексов
      */
-    public static Set<Integer> getAllUsedIndices(Model model,
-                                                 PolygonDataExtractor extractor) {
-        Set<Integer> usedIndices = new HashSet<>();
+    public static BitSet markUsedIndices(Model model, PolygonDataExtractor extractor) {
+        BitSet used = new BitSet();
 
         for (Polygon polygon : model.getPolygons()) {
             if (polygon != null) {
-                usedIndices.addAll(extractor.extract(polygon));
+                for (Integer index : extractor.extract(polygon)) {
+                    if (index >= 0) {
+                        used.set(index);
+                    }
+                }
             }
         }
 
-        return usedIndices;
+        return used;
     }
 
     /**
-     * Получает все индексы вершин, используемые в полигонах модели.
+     * Переводит набор индексов в битовую маску. Индексы вне диапазона {@code [0, size)} пропускаются.
      *
-     * @param model Модель для анализа
-     * @return Набор всех используемых индексов вершин
+     * @param indices Набор индексов
+     * @param size Размер индексируемого массива
+     * @return Битовая маска индексов
      */
-    public static Set<Integer> getAllUsedVertexIndices(Model model) {
-        return getAllUsedIndices(model, VERTEX_EXTRACTOR);
-    }
+    public static BitSet toBitSet(Set<Integer> indices, int size) {
+        if (indices instanceof IndexSet indexSet) {
+            return indexSet.toBitSet(size);
+        }
 
-    /**
-     * Получает все индексы текстурных координат, используемые в полигонах модели.
-     *
-     * @param model Модель для анализа
-     * @return Набор всех используемых индексов текстурных координат
-     */
-    public static Set<Integer> getAllUsedTextureVertexIndices(Model model) {
-        return getAllUsedIndices(model, TEXTURE_EXTRACTOR);
+        BitSet marks = new BitSet(size);
+        if (indices == null) {
+            return marks;
+        }
+
+        for (Integer index : indices) {
+            if (index != null && index >= 0 && index < size) {
+                marks.set(index);
+            }
+        }
+
+        return marks;
     }
 
     /**
-     * Получает все индексы нормалей, используемые в полигонах модели.
+     * Переводит битовую маску обратно в набор индексов.
      *
-     * @param model Модель для анализа
-     * @return Набор всех используемых индексов нормалей
+     * @param marks Битовая маска
+     * @return Набор отмеченных индексов
      */
-    public static Set<Integer> getAllUsedNormalIndices(Model model) {
-        return getAllUsedIndices(model, NORMAL_EXTRACTOR);
+    public static IndexSet toIndexSet(BitSet marks) {
+        return IndexSet.fromBitSet(marks);
     }
 
-
     /**
-     * Создает отображение старых индексов на новые с учетом удаленных индексов.
+     * Строит таблицу переиндексации массива после удаления отмеченных элементов.
+     * Для оставшегося элемента таблица содержит его новый индекс, для удаленного {@code -1}.
      *
-     * @param usedIndices Набор используемых индексов
-     * @param removedIndices Набор удаляемых индексов
-     * @return Отображение старых индексов на новые
+     * @param size Размер массива до удаления
+     * @param removed Маска удаляемых элементов
+     * @return Таблица старый индекс -> новый индекс
      */
-    public static Map<Integer, Integer> createIndexMappingExcluding(Set<Integer> usedIndices,
-                                                                    Set<Integer> removedIndices) {
-        if (usedIndices == null || usedIndices.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        List<Integer> sortedUsedIndices = new ArrayList<>(usedIndices);
-        Collections.sort(sortedUsedIndices);
-
-        Map<Integer, Integer> mapping = new HashMap<>();
+    public static int[] createRemapTable(int size, BitSet removed) {
+        int[] remap = new int[size];
         int newIndex = 0;
 
-        for (Integer oldIndex : sortedUsedIndices) {
-            if (removedIndices == null || !removedIndices.contains(oldIndex)) {
-                mapping.put(oldIndex, newIndex++);
-            }
+        for (int oldIndex = 0; oldIndex < size; oldIndex++) {
+            remap[oldIndex] = removed.get(oldIndex) ? -1 : newIndex++;
         }
 
-        return mapping;
+        return remap;
     }
 
     /**
-     * Создает отображение старых индексов на новые для ВСЕХ элементов, кроме удаленных.
-     * Создает маппинг для всех индексов от 0 до максимального используемого индекса.
+     * Строит таблицу, которая плотно нумерует используемые и не удаляемые индексы.
      *
-     * @param usedIndices Набор используемых индексов
-     * @param removedIndices Набор удаляемых индексов
-     * @return Отображение старых индексов на новые
+     * @param used Маска используемых индексов
+     * @param removed Маска удаляемых индексов
+     * @return Таблица старый индекс -> новый индекс, {@code -1} для отсутствующих
      */
-    public static Map<Integer, Integer> createFullIndexMapping(Set<Integer> usedIndices,
-                                                               Set<Integer> removedIndices) {
-        if (usedIndices == null || usedIndices.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        int maxUsedIndex = usedIndices.stream()
-                .max(Integer::compareTo)
-                .orElse(-1);
-
-        if (maxUsedIndex < 0) {
-            return Collections.emptyMap();
-        }
-
-        List<Integer> sortedUsedIndices = new ArrayList<>(usedIndices);
-        Collections.sort(sortedUsedIndices);
-
-        Map<Integer, Integer> mapping = new HashMap<>();
+    public static int[] createUsedRemapTable(BitSet used, BitSet removed) {
+        int[] remap = new int[used.length()];
+        Arrays.fill(remap, -1);
         int newIndex = 0;
-        int currentIndex = 0;
-
-        for (int oldIndex = 0; oldIndex <= maxUsedIndex; oldIndex++) {
-            if (currentIndex < sortedUsedIndices.size()
-                    && sortedUsedIndices.get(currentIndex) == oldIndex) {
-                currentIndex++;
-                if (removedIndices != null && removedIndices.contains(oldIndex)) {
-                    continue;
-                }
-                mapping.put(oldIndex, newIndex++);
+
+        for (int i = used.nextSetBit(0); i >= 0; i = used.nextSetBit(i + 1)) {
+            if (!removed.get(i)) {
+                remap[i] = newIndex++;
             }
         }
 
-        return mapping;
+        return remap;
     }
 }
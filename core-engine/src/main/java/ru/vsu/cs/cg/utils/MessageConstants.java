@@ -20,6 +20,7 @@ public final class MessageConstants {
 
     // Сообщения для полигонов
     public static final String POLYGON_TOO_FEW_VERTICES_MESSAGE = "Полигон должен содержать хотя бы 3 вершины.";
+    public static final String POLYGON_INVALID_VERTEX_INDEX_MESSAGE = "Полигон ссылается на несуществующую вершину.";
 
     // Сообщения для записи файлов
     public static final String FILE_WRITE_ERROR_MESSAGE = "Ошибка при записи файла: ";
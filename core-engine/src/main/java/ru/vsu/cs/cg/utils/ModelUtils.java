@@ -2,8 +2,10 @@ package ru.vsu.cs.cg.utils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.model.IndexSet;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.model.selection.ModelSelection;
 import ru.vsu.cs.cg.utils.functional.PolygonDataExtractor;
 
 import java.util.*;
@@ -27,26 +29,63 @@ public final class ModelUtils {
      * @return Набор индексов полигонов, содержащих указанные вершины
      */
     public static Set<Integer> findPolygonsContainingVertices(Model model, Set<Integer> vertexIndices) {
+        BitSet vertexMarks = IndexUtils.toBitSet(vertexIndices, model.getVertices().size());
+        return IndexUtils.toIndexSet(markPolygonsContainingVertices(model, vertexMarks));
+    }
+
+    /**
+     * Отмечает все полигоны, которые содержат хотя бы одну из отмеченных вершин.
+     * Поиск идет по индексу смежности модели, поэтому обходятся только инцидентные полигоны.
+     *
+     * @param model Модель для поиска
+     * @param vertexMarks Маска индексов вершин
+     * @return Маска индексов полигонов, содержащих отмеченные вершины
+     */
+    public static BitSet markPolygonsContainingVertices(Model model, BitSet vertexMarks) {
         log.info("VERTEX_REMOVAL_SERVICE_FIND_POLYGONS_CONTAINING_VERTICES_START: " +
                 "поиск полигонов, содержащих указанные вершины");
 
-        Set<Integer> polygonsToRemove = new HashSet<>();
-
-        for (int polygonIndex = 0; polygonIndex < model.getPolygons().size(); polygonIndex++) {
-            Polygon polygon = model.getPolygons().get(polygonIndex);
-            boolean contains = PolygonUtils.polygonContainsAnyVertex(polygon, vertexIndices);
-            if (contains) {
-                log.debug("VERTEX_REMOVAL_SERVICE_POLYGON_CONTAINS_VERTICES: " +
-                                "полигон {} содержит вершины: {}, вершины полигона: {}",
-                        polygonIndex, vertexIndices, polygon.getVertexIndices());
-                polygonsToRemove.add(polygonIndex);
-            }
-        }
+        BitSet polygonMarks = model.getAdjacency().markFacesOfVertices(vertexMarks);
 
         log.info("VERTEX_REMOVAL_SERVICE_FIND_POLYGONS_CONTAINING_VERTICES_COMPLETE: " +
-                "найдено полигонов: {}", polygonsToRemove.size());
+                "найдено полигонов: {}", polygonMarks.cardinality());
+
+        return polygonMarks;
+    }
+
+    /**
+     * Расширяет выделение полигонов модели на соседей по общим ребрам.
+     *
+     * @param model Модель с выделением
+     * @return Количество добавленных в выделение полигонов
+     */
+    public static int growPolygonSelection(Model model) {
+        ModelSelection selection = model.getSelection();
+        BitSet selected = IndexUtils.toBitSet(selection.getSelectedPolygons(), model.getPolygons().size());
+        BitSet grown = model.getAdjacency().growFaces(selected);
+        grown.andNot(selected);
 
-        return polygonsToRemove;
+        selection.selectPolygons(IndexSet.fromBitSet(grown));
+
+        return grown.cardinality();
+    }
+
+    /**
+     * Расширяет выделение вершин модели на вершины полигонов, содержащих выделенные вершины.
+     *
+     * @param model Модель с выделением
+     * @return Количество добавленных в выделение вершин
+     */
+    public static int growVertexSelection(Model model) {
+        ModelSelection selection = model.getSelection();
+        BitSet selected = IndexUtils.toBitSet(selection.getSelectedVertices(), model.getVertices().size());
+        BitSet grown = model.getAdjacency().growVertices(selected);
+        grown.andNot(selected);
+        grown.clear(model.getVertices().size(), Math.max(model.getVertices().size(), grown.length()));
+
+        selection.selectVertices(IndexSet.fromBitSet(grown));
+
+        return grown.cardinality();
     }
 
     /**
@@ -200,112 +239,88 @@ public final class ModelUtils {
     }
 
     /**
-     * Частичная переиндексация модели только для используемых элементов.
-     * Используется при clearUnused = true.
+     * Переиндексирует модель после удаления элементов: используемые в полигонах
+     * и не удаляемые элементы каждого типа нумеруются подряд с сохранением порядка,
+     * а полигоны, ссылающиеся на удаленные элементы, отбрасываются.
      *
      * @param model Модель для переиндексации
      * @param removedVertexIndices Удаляемые индексы вершин
      * @param removedTextureIndices Удаляемые индексы текстурных координат
      * @param removedNormalIndices Удаляемые индексы нормалей
      */
-    public static void partialReindexModel(Model model,
-                                           Set<Integer> removedVertexIndices,
-                                           Set<Integer> removedTextureIndices,
-                                           Set<Integer> removedNormalIndices) {
-        log.info("MODEL_UTILS_PARTIAL_REINDEX_START: " +
-                "частичная переиндексация модели");
+    public static void reindexModel(Model model,
+                                    Set<Integer> removedVertexIndices,
+                                    Set<Integer> removedTextureIndices,
+                                    Set<Integer> removedNormalIndices) {
+        log.info("MODEL_UTILS_REINDEX_START: " +
+                "переиндексация модели");
 
         if (model.getPolygons().isEmpty()) {
-            log.info("MODEL_UTILS_PARTIAL_REINDEX_SKIP: " +
+            log.info("MODEL_UTILS_REINDEX_SKIP: " +
                     "модель не содержит полигонов, переиндексация не требуется");
             return;
         }
 
-        Set<Integer> usedVertexIndices = IndexUtils.getAllUsedVertexIndices(model);
-        Set<Integer> usedTextureIndices = IndexUtils.getAllUsedTextureVertexIndices(model);
-        Set<Integer> usedNormalIndices = IndexUtils.getAllUsedNormalIndices(model);
+        int[] vertexRemap = createUsedRemapTable(model, IndexUtils.VERTEX_EXTRACTOR, removedVertexIndices);
+        int[] textureRemap = createUsedRemapTable(model, IndexUtils.TEXTURE_EXTRACTOR, removedTextureIndices);
+        int[] normalRemap = createUsedRemapTable(model, IndexUtils.NORMAL_EXTRACTOR, removedNormalIndices);
 
-        Map<Integer, Integer> vertexIndexMapping =
-                IndexUtils.createIndexMappingExcluding(usedVertexIndices, removedVertexIndices);
-        Map<Integer, Integer> textureIndexMapping =
-                IndexUtils.createIndexMappingExcluding(usedTextureIndices, removedTextureIndices);
-        Map<Integer, Integer> normalIndexMapping =
-                IndexUtils.createIndexMappingExcluding(usedNormalIndices, removedNormalIndices);
-
-        List<Polygon> newPolygons = new ArrayList<>();
-
-        for (Polygon polygon : model.getPolygons()) {
-            Polygon reindexedPolygon = PolygonUtils.reindexPolygon(polygon,
-                    vertexIndexMapping, textureIndexMapping, normalIndexMapping);
-            if (reindexedPolygon != null) {
-                newPolygons.add(reindexedPolygon);
-            }
-        }
+        log.debug("MODEL_UTILS_REINDEX_MAPPINGS: " +
+                        "вершин: {}, текстур: {}, нормалей: {}",
+                vertexRemap.length, textureRemap.length, normalRemap.length);
 
-        model.clearPolygons();
-        model.addAllPolygons(newPolygons);
+        int removedPolygons = reindexModel(model, new BitSet(), vertexRemap, textureRemap, normalRemap);
 
-        log.info("MODEL_UTILS_PARTIAL_REINDEX_COMPLETE: " +
-                "частичная переиндексация завершена");
+        log.info("MODEL_UTILS_REINDEX_COMPLETE: " +
+                "переиндексация завершена, " +
+                "полигонов после переиндексации: {}, отброшено: {}", model.getPolygons().size(), removedPolygons);
     }
 
     /**
-     * Полная переиндексация модели с сохранением всех оставшихся элементов.
-     * Используется при clearUnused = false. Переиндексирует все индексы от 0 до максимального
-     * используемого индекса, сохраняя порядок.
+     * Удаляет отмеченные полигоны и переиндексирует оставшиеся за один проход по списку полигонов.
+     * Полигон также отбрасывается, если ссылается на удаленный элемент.
      *
      * @param model Модель для переиндексации
-     * @param removedVertexIndices Удаляемые индексы вершин
-     * @param removedTextureIndices Удаляемые индексы текстурных координат
-     * @param removedNormalIndices Удаляемые индексы нормалей
+     * @param removedPolygons Маска удаляемых полигонов
+     * @param vertexRemap Таблица индексов вершин, {@code -1} для удаленных
+     * @param textureRemap Таблица индексов текстурных координат, {@code -1} для удаленных
+     * @param normalRemap Таблица индексов нормалей, {@code -1} для удаленных
+     * @return Количество удаленных полигонов
      */
-    public static void fullReindexModel(Model model,
-                                        Set<Integer> removedVertexIndices,
-                                        Set<Integer> removedTextureIndices,
-                                        Set<Integer> removedNormalIndices) {
-        log.info("MODEL_UTILS_FULL_REINDEX_START: " +
-                "полная переиндексация модели");
-
-        if (model.getPolygons().isEmpty()) {
-            log.info("MODEL_UTILS_FULL_REINDEX_SKIP: " +
-                    "модель не содержит полигонов, переиндексация не требуется");
-            return;
-        }
-
-        Set<Integer> usedVertexIndices = IndexUtils.getAllUsedVertexIndices(model);
-        Set<Integer> usedTextureIndices = IndexUtils.getAllUsedTextureVertexIndices(model);
-        Set<Integer> usedNormalIndices = IndexUtils.getAllUsedNormalIndices(model);
-
-        log.debug("MODEL_UTILS_FULL_REINDEX_USED_INDICES: " +
-                        "используемые вершины: {}, текстуры: {}, нормали: {}",
-                usedVertexIndices.size(), usedTextureIndices.size(), usedNormalIndices.size());
-
-        Map<Integer, Integer> vertexIndexMapping =
-                IndexUtils.createFullIndexMapping(usedVertexIndices, removedVertexIndices);
-        Map<Integer, Integer> textureIndexMapping =
-                IndexUtils.createFullIndexMapping(usedTextureIndices, removedTextureIndices);
-        Map<Integer, Integer> normalIndexMapping =
-                IndexUtils.createFullIndexMapping(usedNormalIndices, removedNormalIndices);
-
-        log.debug("MODEL_UTILS_FULL_REINDEX_MAPPINGS: " +
-                        "вершин: {}, текстур: {}, нормалей: {}",
-                vertexIndexMapping.size(), textureIndexMapping.size(), normalIndexMapping.size());
-
-        List<Polygon> newPolygons = new ArrayList<>();
+    public static int reindexModel(Model model, BitSet removedPolygons,
+                                   int[] vertexRemap, int[] textureRemap, int[] normalRemap) {
+        List<Polygon> polygons = model.getPolygonsMutable();
+        int size = polygons.size();
+        int write = 0;
+
+        for (int read = 0; read < size; read++) {
+            if (removedPolygons.get(read)) {
+                continue;
+            }
 
-        for (Polygon polygon : model.getPolygons()) {
-            Polygon reindexedPolygon = PolygonUtils.reindexPolygon(polygon,
-                    vertexIndexMapping, textureIndexMapping, normalIndexMapping);
+            Polygon reindexedPolygon = PolygonUtils.reindexPolygon(polygons.get(read),
+                    vertexRemap, textureRemap, normalRemap);
             if (reindexedPolygon != null) {
-                newPolygons.add(reindexedPolygon);
+                polygons.set(write++, reindexedPolygon);
             }
         }
 
-        model.clearPolygons();
-        model.addAllPolygons(newPolygons);
+        polygons.subList(write, size).clear();
+        model.invalidateTriangulation();
+        return size - write;
+    }
 
-        log.info("MODEL_UTILS_FULL_REINDEX_COMPLETE: " +
-                "полная переиндексация завершена, " +
-                "полигонов после переиндексации: {}", newPolygons.size());
+    /**
+     * Строит таблицу плотной нумерации используемых индексов без удаляемых.
+     *
+     * @param model Модель для анализа
+     * @param extractor Экстрактор индексов из полигона
+     * @param removedIndices Удаляемые индексы
+     * @return Таблица переиндексации
+     */
+    private static int[] createUsedRemapTable(Model model, PolygonDataExtractor extractor,
+                                              Set<Integer> removedIndices) {
+        BitSet used = IndexUtils.markUsedIndices(model, extractor);
+        return IndexUtils.createUsedRemapTable(used, IndexUtils.toBitSet(removedIndices, used.length()));
     }
 }
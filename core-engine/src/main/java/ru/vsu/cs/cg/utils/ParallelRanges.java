@@ -0,0 +1,53 @@
+package ru.vsu.cs.cg.utils;
+
+import ru.vsu.cs.cg.utils.functional.RangeTask;
+
+import java.util.stream.IntStream;
+
+/**
+ * Утилитарный класс для параллельной обработки независимых элементов по диапазонам индексов.
+ * Небольшие объемы обрабатываются одним диапазоном в вызывающем потоке: для них
+ * накладные расходы общего пула дороже самой работы.
+ */
+public final class ParallelRanges {
+
+    /**
+     * Размер диапазона по умолчанию, подходящий для дешевой обработки одного элемента.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 12;
+
+    private static final int MIN_PARALLEL_CHUNKS = 4;
+
+    private ParallelRanges() {
+    }
+
+    /**
+     * Обрабатывает индексы {@code [0, count)} диапазонами размера {@link #DEFAULT_CHUNK_SIZE}.
+     *
+     * @param count Количество элементов
+     * @param task Обработка одного диапазона
+     */
+    public static void forEach(int count, RangeTask task) {
+        forEach(count, DEFAULT_CHUNK_SIZE, task);
+    }
+
+    /**
+     * Обрабатывает индексы {@code [0, count)} диапазонами заданного размера. Параллельно
+     * диапазоны обрабатываются, только если их набирается хотя бы {@value #MIN_PARALLEL_CHUNKS}.
+     * Диапазоны не пересекаются, поэтому задача может писать в общие массивы по своим индексам.
+     *
+     * @param count Количество элементов
+     * @param chunkSize Размер диапазона; чем дороже обработка элемента, тем он меньше
+     * @param task Обработка одного диапазона
+     */
+    public static void forEach(int count, int chunkSize, RangeTask task) {
+        if (count < chunkSize * MIN_PARALLEL_CHUNKS) {
+            task.run(0, count);
+            return;
+        }
+
+        int chunks = (count + chunkSize - 1) / chunkSize;
+        IntStream.range(0, chunks).parallel()
+            .forEach(chunk -> task.run(chunk * chunkSize, Math.min(count, (chunk + 1) * chunkSize)));
+    }
+}
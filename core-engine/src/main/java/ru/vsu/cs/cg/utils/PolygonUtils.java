@@ -96,4 +96,95 @@ public final class PolygonUtils {
 
         return newIndices;
     }
-}
\ No newline at end of file
+
+    /**
+     * Проверяет без создания нового полигона, переживет ли полигон
+     * {@link #reindexPolygon(Polygon, int[], int[], int[])}.
+     *
+     * @param polygon Полигон для проверки
+     * @param vertexRemap Таблица индексов вершин
+     * @param textureRemap Таблица индексов текстурных координат
+     * @param normalRemap Таблица индексов нормалей
+     * @return true если полигон останется после переиндексации
+     */
+    public static boolean isReindexable(Polygon polygon, int[] vertexRemap,
+                                        int[] textureRemap, int[] normalRemap) {
+        return polygon != null
+                && polygon.getVertexIndices().size() >= 3
+                && allRemapped(polygon.getVertexIndices(), vertexRemap)
+                && allRemapped(polygon.getTextureVertexIndices(), textureRemap)
+                && allRemapped(polygon.getNormalIndices(), normalRemap);
+    }
+
+    /**
+     * Переиндексирует полигон по таблицам переиндексации.
+     * Таблица содержит новый индекс для каждого старого или {@code -1} для удаленного элемента.
+     *
+     * @param polygon Полигон для переиндексации
+     * @param vertexRemap Таблица индексов вершин
+     * @param textureRemap Таблица индексов текстурных координат
+     * @param normalRemap Таблица индексов нормалей
+     * @return Переиндексированный полигон или null если полигон нужно удалить
+     */
+    public static Polygon reindexPolygon(Polygon polygon, int[] vertexRemap,
+                                         int[] textureRemap, int[] normalRemap) {
+        if (polygon == null) {
+            return null;
+        }
+
+        ArrayList<Integer> newVertexIndices = remapIndices(polygon.getVertexIndices(), vertexRemap);
+        if (newVertexIndices == null || newVertexIndices.size() < 3) {
+            return null;
+        }
+
+        Polygon newPolygon = new Polygon();
+        newPolygon.setVertexIndices(newVertexIndices);
+
+        if (!polygon.getTextureVertexIndices().isEmpty()) {
+            List<Integer> newTextureIndices = remapIndices(polygon.getTextureVertexIndices(), textureRemap);
+            if (newTextureIndices == null) {
+                return null;
+            }
+            newPolygon.setTextureVertexIndices(newTextureIndices);
+        }
+
+        if (!polygon.getNormalIndices().isEmpty()) {
+            List<Integer> newNormalIndices = remapIndices(polygon.getNormalIndices(), normalRemap);
+            if (newNormalIndices == null) {
+                return null;
+            }
+            newPolygon.setNormalIndices(newNormalIndices);
+        }
+
+        return newPolygon;
+    }
+
+    private static boolean allRemapped(List<Integer> indices, int[] remap) {
+        for (Integer index : indices) {
+            if (index < 0 || index >= remap.length || remap[index] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Переиндексирует список индексов по таблице.
+     *
+     * @param oldIndices Старые индексы
+     * @param remap Таблица переиндексации
+     * @return Новые индексы или null если какой-то индекс удален или вне таблицы
+     */
+    private static ArrayList<Integer> remapIndices(List<Integer> oldIndices, int[] remap) {
+        ArrayList<Integer> newIndices = new ArrayList<>(oldIndices.size());
+
+        for (Integer oldIndex : oldIndices) {
+            if (oldIndex < 0 || oldIndex >= remap.length || remap[oldIndex] < 0) {
+                return null;
+            }
+            newIndices.add(remap[oldIndex]);
+        }
+
+        return newIndices;
+    }
+}
@@ -3,6 +3,8 @@ package ru.vsu.cs.cg.utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.model.RemovedGeometry;
 
 import java.util.*;
 
@@ -15,7 +17,7 @@ public final class RemovalUtils {
 
     /**
      * Удаляет элементы из списка по указанным индексам.
-     * Элементы удаляются в обратном порядке для сохранения корректности индексов.
+     * Некорректные индексы пропускаются.
      *
      * @param <T> Тип элементов в списке
      * @param list Список для удаления элементов
@@ -26,14 +28,34 @@ public final class RemovalUtils {
             return;
         }
 
-        List<Integer> sortedIndices = new ArrayList<>(indices);
-        sortedIndices.sort(Collections.reverseOrder());
+        compact(list, IndexUtils.toBitSet(indices, list.size()));
+    }
+
+    /**
+     * Удаляет из списка отмеченные элементы за один проход: оставшиеся элементы
+     * сдвигаются к началу с сохранением порядка, хвост отрезается одной операцией.
+     *
+     * @param <T> Тип элементов в списке
+     * @param list Список для удаления элементов
+     * @param removed Маска удаляемых индексов
+     * @return Количество удаленных элементов
+     */
+    public static <T> int compact(List<T> list, BitSet removed) {
+        int size = list.size();
+        int first = removed.nextSetBit(0);
+        if (first < 0 || first >= size) {
+            return 0;
+        }
 
-        for (Integer index : sortedIndices) {
-            if (index >= 0 && index < list.size()) {
-                list.remove(index.intValue());
+        int write = first;
+        for (int read = first + 1; read < size; read++) {
+            if (!removed.get(read)) {
+                list.set(write++, list.get(read));
             }
         }
+
+        list.subList(write, size).clear();
+        return size - write;
     }
 
     /**
@@ -55,14 +77,38 @@ public final class RemovalUtils {
      *
      * @param model Модель для удаления полигонов
      * @param polygonIndices Набор индексов полигонов для удаления
+     * @return Запись удаленных полигонов для отмены или null, если удалять нечего
      */
-    public static void removePolygonsFromModel(Model model, Set<Integer> polygonIndices) {
+    public static RemovedGeometry removePolygonsFromModel(Model model, Set<Integer> polygonIndices) {
         log.info("VERTEX_REMOVAL_SERVICE_REMOVE_POLYGONS_FROM_MODEL_START: " +
                         "удаление полигонов из модели, количество: {}",
                 polygonIndices == null ? 0 : polygonIndices.size());
 
+        if (polygonIndices == null || polygonIndices.isEmpty()) {
+            return null;
+        }
+
+        RemovedGeometry removedGeometry = RemovedGeometry.capturePolygons(model,
+                IndexUtils.toBitSet(polygonIndices, model.getPolygons().size()));
+        BitSet touchedVertices = new BitSet(model.getVertices().size());
+        List<Polygon> polygons = model.getPolygons();
+        for (Integer index : polygonIndices) {
+            if (index != null && index >= 0 && index < polygons.size()) {
+                for (Integer vertexIndex : polygons.get(index).getVertexIndices()) {
+                    if (vertexIndex >= 0) {
+                        touchedVertices.set(vertexIndex);
+                    }
+                }
+            }
+        }
+
         removeElementsByIndices(model.getPolygonsMutable(), polygonIndices);
         model.invalidateTriangulation();
+
+        if (model.isUseLighting() && !model.getNormals().isEmpty()) {
+            model.recomputeNormals(touchedVertices);
+        }
+        return removedGeometry;
     }
 
     /**
@@ -118,31 +164,8 @@ public final class RemovalUtils {
             return;
         }
 
-        List<T> newElements = createNewElementsList(sourceElements, usedIndices);
-        sourceElements.clear();
-        sourceElements.addAll(newElements);
-    }
-
-    /**
-     * Создает новый список элементов на основе используемых индексов.
-     *
-     * @param source Исходная коллекция
-     * @param usedIndices Используемые индексы
-     * @param <T> Тип элемента
-     * @return Новая коллекция элементов
-     */
-    private static <T> List<T> createNewElementsList(List<T> source, Set<Integer> usedIndices) {
-        List<Integer> sortedUsedIndices = new ArrayList<>(usedIndices);
-        Collections.sort(sortedUsedIndices);
-
-        List<T> newElements = new ArrayList<>();
-
-        for (Integer oldIndex : sortedUsedIndices) {
-            if (oldIndex >= 0 && oldIndex < source.size()) {
-                newElements.add(source.get(oldIndex));
-            }
-        }
-
-        return newElements;
+        BitSet unused = IndexUtils.toBitSet(usedIndices, sourceElements.size());
+        unused.flip(0, sourceElements.size());
+        compact(sourceElements, unused);
     }
 }
@@ -0,0 +1,15 @@
+package ru.vsu.cs.cg.utils.functional;
+
+/**
+ * Функциональный интерфейс для обработки диапазона индексов.
+ */
+@FunctionalInterface
+public interface RangeTask {
+    /**
+     * Обрабатывает элементы с индексами из полуинтервала.
+     *
+     * @param from Первый индекс диапазона
+     * @param to Индекс, следующий за последним
+     */
+    void run(int from, int to);
+}
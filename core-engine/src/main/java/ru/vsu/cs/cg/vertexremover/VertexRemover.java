@@ -16,7 +16,8 @@ public interface VertexRemover {
      * Удаляет указанные вершины из модели.
      *
      * @param model Исходная модель
-     * @param vertexIndices Набор индексов вершин для удаления
+     * @param vertexIndices Набор индексов вершин для удаления; {@link ru.vsu.cs.cg.model.IndexSet}
+     *                      переводится в маску без поэлементного обхода
      * @return Результат операции удаления
      * @throws VertexRemoverException Если возникла ошибка при удалении
      */
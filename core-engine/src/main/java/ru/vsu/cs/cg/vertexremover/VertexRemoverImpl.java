@@ -3,13 +3,19 @@ package ru.vsu.cs.cg.vertexremover;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.vsu.cs.cg.exceptions.VertexRemoverException;
+import ru.vsu.cs.cg.model.IndexSet;
 import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.model.RemovedGeometry;
+import ru.vsu.cs.cg.utils.IndexUtils;
 import ru.vsu.cs.cg.utils.MessageConstants;
 import ru.vsu.cs.cg.utils.ModelUtils;
+import ru.vsu.cs.cg.utils.PolygonUtils;
 import ru.vsu.cs.cg.utils.RemovalUtils;
 import ru.vsu.cs.cg.vertexremover.dto.VertexRemovalResult;
 
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -41,31 +47,22 @@ public final class VertexRemoverImpl implements VertexRemover {
 
         validateRemovalRequest(model, vertexIndices);
 
-        Set<Integer> polygonsToRemove = ModelUtils.findPolygonsContainingVertices(model, vertexIndices);
+        BitSet verticesToRemove = IndexUtils.toBitSet(vertexIndices, model.getVertices().size());
+        BitSet polygonsToRemove = ModelUtils.markPolygonsContainingVertices(model, verticesToRemove);
         log.info("VERTEX_REMOVAL_SERVICE_FIND_POLYGONS: " +
-                        "найдено полигонов для удаления: {}, индексы: {}",
-                polygonsToRemove.size(), polygonsToRemove);
+                "найдено полигонов для удаления: {}", polygonsToRemove.cardinality());
 
-        Set<Integer> allVerticesToRemove = new HashSet<>(vertexIndices);
-        Set<Integer> textureIndicesToRemove = new HashSet<>();
-        Set<Integer> normalIndicesToRemove = new HashSet<>();
+        BitSet textureIndicesToRemove = new BitSet();
+        BitSet normalIndicesToRemove = new BitSet();
 
         if (clearUnused) {
-            processUnusedElements(model, polygonsToRemove, allVerticesToRemove,
+            processUnusedElements(model, polygonsToRemove, verticesToRemove,
                     textureIndicesToRemove, normalIndicesToRemove);
-        } else {
-            ModelUtils.removePolygonsFromModel(model, polygonsToRemove);
         }
 
-        log.info("VERTEX_REMOVAL_SERVICE_REMOVE_POLYGONS_FROM_MODEL: " +
-                "полигоны удалены из модели, осталось полигонов: {}", model.getPolygons().size());
-
-        ModelUtils.removeVerticesFromModel(model, allVerticesToRemove);
-        log.info("VERTEX_REMOVAL_SERVICE_REMOVE_VERTICES_FROM_MODEL: " +
-                "вершины удалены из модели, осталось вершин: {}", model.getVertices().size());
-
-        performCleanupAndReindex(model, allVerticesToRemove, textureIndicesToRemove,
-                normalIndicesToRemove, clearUnused);
+        int removedVerticesCount = verticesToRemove.cardinality();
+        RemovedGeometry removedGeometry = performCleanupAndReindex(model, polygonsToRemove, verticesToRemove,
+                textureIndicesToRemove, normalIndicesToRemove);
 
         if (model.isUseLighting() && !model.getNormals().isEmpty()) {
             log.debug("VERTEX_REMOVAL_SERVICE_RECOMPUTE_NORMALS: пересчет нормалей после удаления вершин");
@@ -78,9 +75,10 @@ public final class VertexRemoverImpl implements VertexRemover {
                 model.getVertices().size(), model.getPolygons().size());
 
         return new VertexRemovalResult(
-                allVerticesToRemove.size(),
-                polygonsToRemove.size(),
-                polygonsToRemove
+                removedVerticesCount,
+                polygonsToRemove.cardinality(),
+                IndexUtils.toIndexSet(polygonsToRemove),
+                removedGeometry
         );
     }
 
@@ -102,6 +100,10 @@ public final class VertexRemoverImpl implements VertexRemover {
             return vertexIndices != null;
         }
 
+        if (vertexIndices instanceof IndexSet indexSet) {
+            return indexSet.max() < model.getVertices().size();
+        }
+
         for (Integer index : vertexIndices) {
             if (!ModelUtils.isValidVertexIndex(model, index)) {
                 log.warn("VERTEX_REMOVAL_SERVICE_CAN_REMOVE_VERTICES_INVALID_INDEX: " +
@@ -126,84 +128,102 @@ public final class VertexRemoverImpl implements VertexRemover {
     }
 
     /**
-     * Обрабатывает неиспользуемые элементы. Сначала собирает данные из удаляемых полигонов,
-     * потом удаляет полигоны, и затем определяет какие элементы стали неиспользуемыми.
+     * Обрабатывает неиспользуемые элементы. Одним проходом по полигонам отмечает элементы,
+     * на которые ссылаются удаляемые полигоны, и элементы, используемые оставшимися.
+     * Удаляются элементы, которые использовались только удаляемыми полигонами.
      *
      * @param model                  Модель для обработки
-     * @param polygonsToRemove       Полигоны для удаления
-     * @param allVerticesToRemove    Все вершины для удаления
-     * @param textureIndicesToRemove Индексы текстур для удаления
-     * @param normalIndicesToRemove  Индексы нормалей для удаления
+     * @param polygonsToRemove       Маска удаляемых полигонов
+     * @param verticesToRemove       Маска удаляемых вершин, дополняется
+     * @param textureIndicesToRemove Маска удаляемых текстурных координат, дополняется
+     * @param normalIndicesToRemove  Маска удаляемых нормалей, дополняется
      */
     private void processUnusedElements(Model model,
-                                       Set<Integer> polygonsToRemove,
-                                       Set<Integer> allVerticesToRemove,
-                                       Set<Integer> textureIndicesToRemove,
-                                       Set<Integer> normalIndicesToRemove) {
-
-        Set<Integer> verticesInRemovedPolygons = ModelUtils.collectVerticesFromPolygons(model, polygonsToRemove);
-        Set<Integer> textureIndicesInRemovedPolygons = ModelUtils.collectTextureIndicesFromPolygons(model, polygonsToRemove);
-        Set<Integer> normalIndicesInRemovedPolygons = ModelUtils.collectNormalIndicesFromPolygons(model, polygonsToRemove);
-
-        ModelUtils.removePolygonsFromModel(model, polygonsToRemove);
+                                       BitSet polygonsToRemove,
+                                       BitSet verticesToRemove,
+                                       BitSet textureIndicesToRemove,
+                                       BitSet normalIndicesToRemove) {
+        List<Polygon> polygons = model.getPolygons();
+        BitSet requestedVertices = (BitSet) verticesToRemove.clone();
+        BitSet usedVertices = new BitSet(model.getVertices().size());
+        BitSet usedTextureIndices = new BitSet(model.getTextureVertices().size());
+        BitSet usedNormalIndices = new BitSet(model.getNormals().size());
+
+        for (int polygonIndex = 0; polygonIndex < polygons.size(); polygonIndex++) {
+            Polygon polygon = polygons.get(polygonIndex);
+            if (polygon == null) {
+                continue;
+            }
 
-        Set<Integer> usedVertices = ModelUtils.collectUsedVertices(model);
-        Set<Integer> usedTextureIndices = ModelUtils.collectUsedTextureIndices(model);
-        Set<Integer> usedNormalIndices = ModelUtils.collectUsedNormalIndices(model);
+            boolean removed = polygonsToRemove.get(polygonIndex);
+            markIndices(polygon.getVertexIndices(), removed ? verticesToRemove : usedVertices);
+            markIndices(polygon.getTextureVertexIndices(), removed ? textureIndicesToRemove : usedTextureIndices);
+            markIndices(polygon.getNormalIndices(), removed ? normalIndicesToRemove : usedNormalIndices);
+        }
 
-        addUnusedElements(allVerticesToRemove, verticesInRemovedPolygons, usedVertices);
-        addUnusedElements(textureIndicesToRemove, textureIndicesInRemovedPolygons, usedTextureIndices);
-        addUnusedElements(normalIndicesToRemove, normalIndicesInRemovedPolygons, usedNormalIndices);
+        verticesToRemove.andNot(usedVertices);
+        verticesToRemove.or(requestedVertices);
+        textureIndicesToRemove.andNot(usedTextureIndices);
+        normalIndicesToRemove.andNot(usedNormalIndices);
     }
 
     /**
-     * Добавляет неиспользуемые элементы в набор для удаления.
+     * Отмечает индексы в маске.
      *
-     * @param elementsToRemove            Набор элементов для удаления
-     * @param elementsFromRemovedPolygons Элементы из удаленных полигонов
-     * @param usedElements                Используемые элементы
+     * @param indices Индексы
+     * @param marks   Маска
      */
-    private void addUnusedElements(Set<Integer> elementsToRemove,
-                                   Set<Integer> elementsFromRemovedPolygons,
-                                   Set<Integer> usedElements) {
-
-        for (Integer element : elementsFromRemovedPolygons) {
-            if (!usedElements.contains(element)) {
-                elementsToRemove.add(element);
+    private void markIndices(List<Integer> indices, BitSet marks) {
+        for (Integer index : indices) {
+            if (index >= 0) {
+                marks.set(index);
             }
         }
     }
 
     /**
-     * Выполняет очистку и переиндексацию модели.
+     * Выполняет очистку и переиндексацию модели: каждый массив уплотняется одним проходом,
+     * затем полигоны фильтруются и переиндексируются одним проходом по таблицам.
+     * Полигоны, которые не переживут переиндексацию, заранее добавляются в маску удаления,
+     * чтобы запись удаленной геометрии была полной.
      *
      * @param model                  Модель для обработки
-     * @param allVerticesToRemove    Все вершины для удаления
-     * @param textureIndicesToRemove Индексы текстур для удаления
-     * @param normalIndicesToRemove  Индексы нормалей для удаления
-     * @param clearUnused            Флаг очистки неиспользуемых элементов
+     * @param polygonsToRemove       Маска удаляемых полигонов, дополняется
+     * @param verticesToRemove       Маска удаляемых вершин
+     * @param textureIndicesToRemove Маска удаляемых текстурных координат
+     * @param normalIndicesToRemove  Маска удаляемых нормалей
+     * @return Запись удаленной геометрии для отмены
      */
-    private void performCleanupAndReindex(Model model,
-                                          Set<Integer> allVerticesToRemove,
-                                          Set<Integer> textureIndicesToRemove,
-                                          Set<Integer> normalIndicesToRemove,
-                                          boolean clearUnused) {
-
-        if (clearUnused) {
-            if (!textureIndicesToRemove.isEmpty()) {
-                RemovalUtils.removeUnusedTextureVertices(model, textureIndicesToRemove);
-            }
-            if (!normalIndicesToRemove.isEmpty()) {
-                RemovalUtils.removeUnusedNormals(model, normalIndicesToRemove);
+    private RemovedGeometry performCleanupAndReindex(Model model,
+                                                     BitSet polygonsToRemove,
+                                                     BitSet verticesToRemove,
+                                                     BitSet textureIndicesToRemove,
+                                                     BitSet normalIndicesToRemove) {
+        int[] vertexRemap = IndexUtils.createRemapTable(model.getVertices().size(), verticesToRemove);
+        int[] textureRemap = IndexUtils.createRemapTable(model.getTextureVertices().size(), textureIndicesToRemove);
+        int[] normalRemap = IndexUtils.createRemapTable(model.getNormals().size(), normalIndicesToRemove);
+
+        List<Polygon> polygons = model.getPolygons();
+        for (int i = polygonsToRemove.nextClearBit(0); i < polygons.size(); i = polygonsToRemove.nextClearBit(i + 1)) {
+            if (!PolygonUtils.isReindexable(polygons.get(i), vertexRemap, textureRemap, normalRemap)) {
+                polygonsToRemove.set(i);
             }
         }
 
-        if (clearUnused) {
-            ModelUtils.partialReindexModel(model, allVerticesToRemove,
-                    textureIndicesToRemove, normalIndicesToRemove);
-        } else {
-            ModelUtils.fullReindexModel(model, allVerticesToRemove,
-                    textureIndicesToRemove, normalIndicesToRemove);
-        }
+        RemovedGeometry removedGeometry = RemovedGeometry.capture(model, verticesToRemove,
+                textureIndicesToRemove, normalIndicesToRemove, polygonsToRemove);
+
+        RemovalUtils.compact(model.getVerticesMutable(), verticesToRemove);
+        RemovalUtils.compact(model.getTextureVerticesMutable(), textureIndicesToRemove);
+        RemovalUtils.compact(model.getNormalsMutable(), normalIndicesToRemove);
+        log.info("VERTEX_REMOVAL_SERVICE_REMOVE_VERTICES_FROM_MODEL: " +
+                "вершины удалены из модели, осталось вершин: {}", model.getVertices().size());
+
+        int removedPolygons = ModelUtils.reindexModel(model, polygonsToRemove,
+                vertexRemap, textureRemap, normalRemap);
+        log.info("VERTEX_REMOVAL_SERVICE_REMOVE_POLYGONS_FROM_MODEL: " +
+                        "полигоны удалены из модели: {}, осталось полигонов: {}",
+                removedPolygons, model.getPolygons().size());
+        return removedGeometry;
     }
 }
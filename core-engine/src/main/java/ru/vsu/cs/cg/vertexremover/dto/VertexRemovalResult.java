@@ -1,5 +1,7 @@
 package ru.vsu.cs.cg.vertexremover.dto;
 
+import ru.vsu.cs.cg.model.RemovedGeometry;
+
 import java.util.Set;
 
 /**
@@ -9,6 +11,7 @@ public final class VertexRemovalResult {
     private final int removedVerticesCount;
     private final int removedPolygonsCount;
     private final Set<Integer> affectedPolygonIndices;
+    private final RemovedGeometry removedGeometry;
 
     /**
      * Конструктор результата удаления вершин.
@@ -20,9 +23,25 @@ public final class VertexRemovalResult {
     public VertexRemovalResult(int removedVerticesCount,
                                int removedPolygonsCount,
                                Set<Integer> affectedPolygonIndices) {
+        this(removedVerticesCount, removedPolygonsCount, affectedPolygonIndices, null);
+    }
+
+    /**
+     * Конструктор результата удаления вершин с записью удаленной геометрии.
+     *
+     * @param removedVerticesCount Количество удаленных вершин
+     * @param removedPolygonsCount Количество удаленных полигонов
+     * @param affectedPolygonIndices Индексы затронутых полигонов
+     * @param removedGeometry Запись удаленной геометрии для отмены
+     */
+    public VertexRemovalResult(int removedVerticesCount,
+                               int removedPolygonsCount,
+                               Set<Integer> affectedPolygonIndices,
+                               RemovedGeometry removedGeometry) {
         this.removedVerticesCount = removedVerticesCount;
         this.removedPolygonsCount = removedPolygonsCount;
         this.affectedPolygonIndices = affectedPolygonIndices;
+        this.removedGeometry = removedGeometry;
     }
 
     /**
@@ -42,4 +61,13 @@ public final class VertexRemovalResult {
     public int getRemovedPolygonsCount() {
         return removedPolygonsCount;
     }
-}
\ No newline at end of file
+
+    /**
+     * Возвращает запись удаленной геометрии, по которой удаление можно отменить.
+     *
+     * @return Запись удаленной геометрии или null
+     */
+    public RemovedGeometry getRemovedGeometry() {
+        return removedGeometry;
+    }
+}
@@ -1,8 +1,10 @@
 package ru.vsu.cs.cg.math;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
 import ru.vsu.cs.cg.objreader.ObjReader;
 
 
@@ -12,6 +14,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,4 +47,107 @@ public class NormalsCalculatorTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Параллельный расчет на большой плоской сетке дает нормаль плоскости при любом взвешивании")
+    void computeVertexNormals_LargeFlatGrid_ShouldPointAlongZ() {
+        Model grid = createGrid(200);
+
+        for (NormalWeighting weighting : NormalWeighting.values()) {
+            float[] normals = NormalCalculator.computeVertexNormals(
+                grid.getVertices(), grid.getAdjacency(), weighting);
+
+            assertEquals(grid.getVertices().size() * 3, normals.length);
+            for (int v = 0; v < grid.getVertices().size(); v++) {
+                assertEquals(0.0f, normals[v * 3], 1e-5f);
+                assertEquals(0.0f, normals[v * 3 + 1], 1e-5f);
+                assertEquals(1.0f, normals[v * 3 + 2], 1e-5f);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Нормаль n-угольника учитывает все его вершины")
+    void computeVertexNormals_Quad_ShouldUseAllVertices() {
+        List<Vector3f> vertices = List.of(
+            new Vector3f(0, 0, 0), new Vector3f(1, 0, 0), new Vector3f(1, 1, 0), new Vector3f(0, 1, 0));
+        List<Polygon> polygons = List.of(new Polygon(List.of(0, 1, 2, 3), List.of(), List.of()));
+
+        List<Vector3f> normals = NormalCalculator.computeVertexNormals(vertices, polygons);
+
+        assertEquals(4, normals.size());
+        for (Vector3f normal : normals) {
+            assertEquals(1.0f, normal.getZ(), 1e-6f);
+        }
+    }
+
+    @Test
+    @DisplayName("Локальный пересчет после сдвига вершины совпадает с полным")
+    void recomputeNormals_TouchedVertex_ShouldMatchFullRecompute() {
+        Model incremental = createGrid(20);
+        incremental.recomputeNormals();
+
+        int moved = 10 * 21 + 10;
+        incremental.getVerticesMutable().set(moved, new Vector3f(10, 10, 3));
+        BitSet touched = new BitSet();
+        touched.set(moved);
+        incremental.recomputeNormals(touched);
+
+        Model full = incremental.copy();
+        full.recomputeNormals();
+
+        for (int v = 0; v < full.getNormals().size(); v++) {
+            Vector3f expected = full.getNormals().get(v);
+            Vector3f actual = incremental.getNormals().get(v);
+            assertEquals(expected.getX(), actual.getX(), 1e-6f);
+            assertEquals(expected.getY(), actual.getY(), 1e-6f);
+            assertEquals(expected.getZ(), actual.getZ(), 1e-6f);
+        }
+    }
+
+    @Test
+    @DisplayName("Модель считает нормали заданным способом взвешивания, в том числе при локальном пересчете")
+    void recomputeNormals_AngleWeighting_ShouldUseModelSetting() {
+        Model model = createGrid(6);
+        model.getVerticesMutable().set(3 * 7 + 3, new Vector3f(3, 3, 2));
+        model.addPolygon(new Polygon(new ArrayList<>(List.of(0, 1, 8)), new ArrayList<>(), new ArrayList<>()));
+        model.recomputeNormals();
+
+        model.setNormalWeighting(NormalWeighting.ANGLE);
+        model.ensureNormals();
+        int moved = 2 * 7 + 2;
+        model.getVerticesMutable().set(moved, new Vector3f(2, 2, -1));
+        BitSet touched = new BitSet();
+        touched.set(moved);
+        model.recomputeNormals(touched);
+
+        float[] expected = NormalCalculator.computeVertexNormals(
+            model.getVertices(), model.getAdjacency(), NormalWeighting.ANGLE);
+        for (int v = 0; v < model.getVertices().size(); v++) {
+            Vector3f actual = model.getNormals().get(v);
+            assertEquals(expected[v * 3], actual.getX(), 1e-6f);
+            assertEquals(expected[v * 3 + 1], actual.getY(), 1e-6f);
+            assertEquals(expected[v * 3 + 2], actual.getZ(), 1e-6f);
+        }
+        assertEquals(NormalWeighting.ANGLE, model.copy().getNormalWeighting());
+    }
+
+    private Model createGrid(int cells) {
+        Model grid = new Model();
+        for (int y = 0; y <= cells; y++) {
+            for (int x = 0; x <= cells; x++) {
+                grid.addVertex(new Vector3f(x, y, 0));
+            }
+        }
+        List<Polygon> polygons = new ArrayList<>(cells * cells);
+        for (int y = 0; y < cells; y++) {
+            for (int x = 0; x < cells; x++) {
+                int corner = y * (cells + 1) + x;
+                polygons.add(new Polygon(
+                    new ArrayList<>(List.of(corner, corner + 1, corner + cells + 2, corner + cells + 1)),
+                    new ArrayList<>(), new ArrayList<>()));
+            }
+        }
+        grid.addAllPolygons(polygons);
+        return grid;
+    }
+}
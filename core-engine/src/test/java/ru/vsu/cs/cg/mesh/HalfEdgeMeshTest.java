@@ -0,0 +1,230 @@
+package ru.vsu.cs.cg.mesh;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.exceptions.ValidateVertexException;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.objreader.ObjReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HalfEdgeMeshTest {
+
+    private final static String BASE_TEST_RESOURCE_PATH = "src/test/resources";
+
+    @Test
+    @DisplayName("Преобразование модели в сетку и обратно сохраняет геометрию")
+    void toModel_AfterFromModel_ShouldPreserveGeometry() throws IOException {
+        Model cube = readModel("simpleCube.obj");
+
+        HalfEdgeMesh mesh = HalfEdgeMesh.fromModel(cube);
+        Model exported = mesh.toModel();
+
+        assertEquals(cube.getVertices().size(), exported.getVertices().size());
+        assertEquals(cube.getPolygons().size(), exported.getPolygons().size());
+        for (int i = 0; i < cube.getPolygons().size(); i++) {
+            assertEquals(cube.getPolygons().get(i).getVertexIndices(), exported.getPolygons().get(i).getVertexIndices());
+            assertEquals(cube.getPolygons().get(i).getTextureVertexIndices(),
+                exported.getPolygons().get(i).getTextureVertexIndices());
+        }
+    }
+
+    @Test
+    @DisplayName("У замкнутой сетки каждое полуребро имеет парное")
+    void fromModel_ClosedOctahedron_ShouldPairAllHalfEdges() {
+        HalfEdgeMesh mesh = HalfEdgeMesh.fromModel(createOctahedron());
+
+        for (int h = 0; h < 24; h++) {
+            int twin = mesh.getTwin(h);
+            assertNotEquals(HalfEdgeMesh.NONE, twin);
+            assertEquals(h, mesh.getTwin(twin));
+            assertEquals(mesh.getOrigin(h), mesh.getOrigin(mesh.getNext(twin)));
+        }
+    }
+
+    @Test
+    @DisplayName("Удаление полигона открывает границу и сохраняет вершины")
+    void deleteFace_Octahedron_ShouldLeaveBoundary() {
+        HalfEdgeMesh mesh = HalfEdgeMesh.fromModel(createOctahedron());
+        int h = mesh.getFaceHalfEdge(0);
+        int twin = mesh.getTwin(h);
+
+        assertTrue(mesh.deleteFace(0));
+        assertFalse(mesh.deleteFace(0));
+
+        assertEquals(HalfEdgeMesh.NONE, mesh.getTwin(twin));
+        Model exported = mesh.toModel();
+        assertEquals(6, exported.getVertices().size());
+        assertEquals(7, exported.getPolygons().size());
+    }
+
+    @Test
+    @DisplayName("Удаление внутренней вершины с заполнением закрывает дыру одним полигоном")
+    void deleteVertex_InnerWithFill_ShouldCloseHole() throws IOException {
+        HalfEdgeMesh mesh = HalfEdgeMesh.fromModel(readModel("plane.obj"));
+
+        assertTrue(mesh.deleteVertex(12, true));
+
+        Model exported = mesh.toModel();
+        assertEquals(29, exported.getVertices().size());
+        assertEquals(17, exported.getPolygons().size());
+        assertTrue(exported.getPolygons().stream().anyMatch(p -> p.getVertexIndices().size() == 8));
+    }
+
+    @Test
+    @DisplayName("Удаление вершины без заполнения удаляет инцидентные полигоны")
+    void deleteVertex_WithoutFill_ShouldRemoveIncidentFaces() throws IOException {
+        HalfEdgeMesh mesh = HalfEdgeMesh.fromModel(readModel("plane.obj"));
+
+        assertTrue(mesh.deleteVertex(12, false));
+
+        assertEquals(29, mesh.getVertexCount());
+        assertEquals(16, mesh.getFaceCount());
+        Model exported = mesh.toModel();
+        for (Polygon polygon : exported.getPolygons()) {
+            for (Integer index : polygon.getVertexIndices()) {
+                assertTrue(index >= 0 && index < exported.getVertices().size());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Удаление вершины-«бабочки» удаляет полигоны обоих вееров")
+    void deleteVertex_Bowtie_ShouldRemoveFacesOfAllFans() {
+        Model model = new Model();
+        model.addVertex(new Vector3f(0, 0, 0));
+        model.addVertex(new Vector3f(1, 0, 0));
+        model.addVertex(new Vector3f(1, 1, 0));
+        model.addVertex(new Vector3f(-1, 0, 0));
+        model.addVertex(new Vector3f(-1, -1, 0));
+        model.addVertex(new Vector3f(2, 0, 0));
+        model.addPolygon(new Polygon(List.of(0, 1, 2), List.of(), List.of()));
+        model.addPolygon(new Polygon(List.of(0, 3, 4), List.of(), List.of()));
+        model.addPolygon(new Polygon(List.of(2, 1, 5), List.of(), List.of()));
+        HalfEdgeMesh mesh = HalfEdgeMesh.fromModel(model);
+
+        assertNotEquals(HalfEdgeMesh.NONE, mesh.findHalfEdge(0, 3));
+        assertNotEquals(HalfEdgeMesh.NONE, mesh.findHalfEdge(0, 1));
+        assertTrue(mesh.deleteVertex(0, false));
+
+        assertEquals(1, mesh.getFaceCount());
+        Model exported = mesh.toModel();
+        assertEquals(5, exported.getVertices().size());
+        assertEquals(1, exported.getPolygons().size());
+        assertEquals(List.of(1, 0, 4), exported.getPolygons().get(0).getVertexIndices());
+    }
+
+    @Test
+    @DisplayName("Вершина, веер которой разорван удалением полигонов, удаляется вместе со всеми полигонами")
+    void deleteVertex_FanSplitByDeletedFaces_ShouldRemoveRemainingFaces() {
+        HalfEdgeMesh mesh = HalfEdgeMesh.fromModel(createOctahedron());
+        List<Integer> incident = new ArrayList<>();
+        for (int f = 0; f < 8; f++) {
+            for (int vertex : mesh.getFaceVertices(f)) {
+                if (vertex == 0) {
+                    incident.add(f);
+                }
+            }
+        }
+        int first = incident.get(0);
+        int opposite = incident.stream()
+            .filter(f -> f != first && sharedVertices(mesh, first, f) == 1)
+            .findFirst().orElseThrow();
+
+        assertTrue(mesh.deleteFace(first));
+        assertTrue(mesh.deleteFace(opposite));
+        int[] remaining = mesh.getFaceVertices(incident.stream().filter(mesh::isFaceAlive).findFirst().orElseThrow());
+        int corner = 0;
+        while (remaining[corner] != 0) {
+            corner++;
+        }
+        int neighbor = remaining[(corner + 1) % remaining.length];
+        assertFalse(mesh.collapseEdge(mesh.findHalfEdge(0, neighbor)));
+        assertTrue(mesh.deleteVertex(0, true));
+
+        assertEquals(4, mesh.getFaceCount());
+        Model exported = mesh.toModel();
+        for (Polygon polygon : exported.getPolygons()) {
+            for (Integer index : polygon.getVertexIndices()) {
+                assertTrue(index >= 0 && index < exported.getVertices().size());
+            }
+        }
+    }
+
+    private static int sharedVertices(HalfEdgeMesh mesh, int faceA, int faceB) {
+        int shared = 0;
+        for (int a : mesh.getFaceVertices(faceA)) {
+            for (int b : mesh.getFaceVertices(faceB)) {
+                if (a == b) {
+                    shared++;
+                }
+            }
+        }
+        return shared;
+    }
+
+    @Test
+    @DisplayName("Стягивание ребра октаэдра удаляет вершину и два треугольника")
+    void collapseEdge_Octahedron_ShouldRemoveTwoTriangles() {
+        HalfEdgeMesh mesh = HalfEdgeMesh.fromModel(createOctahedron());
+        int h = mesh.findHalfEdge(0, 2);
+
+        assertTrue(mesh.collapseEdge(h));
+
+        assertEquals(5, mesh.getVertexCount());
+        assertEquals(6, mesh.getFaceCount());
+        assertEquals(0.5f, mesh.getPosition(0).getX(), 1e-6f);
+        assertEquals(0.5f, mesh.getPosition(0).getY(), 1e-6f);
+
+        Model exported = mesh.toModel();
+        assertEquals(6, exported.getPolygons().size());
+        for (Polygon polygon : exported.getPolygons()) {
+            assertEquals(3, polygon.getVertexIndices().stream().distinct().count());
+        }
+        HalfEdgeMesh reimported = HalfEdgeMesh.fromModel(exported);
+        for (int e = 0; e < 18; e++) {
+            assertNotEquals(HalfEdgeMesh.NONE, reimported.getTwin(e));
+        }
+    }
+
+    @Test
+    @DisplayName("Полигон с несуществующей вершиной должен отклоняться")
+    void fromModel_InvalidVertexIndex_ShouldThrow() {
+        Model model = new Model();
+        model.addVertex(new Vector3f(0, 0, 0));
+        model.addPolygon(new Polygon(List.of(0, 1, 2), List.of(), List.of()));
+
+        assertThrows(ValidateVertexException.class, () -> HalfEdgeMesh.fromModel(model));
+    }
+
+    private Model readModel(String name) throws IOException {
+        return ObjReader.read(Files.readString(Paths.get(BASE_TEST_RESOURCE_PATH + "/" + name)));
+    }
+
+    private Model createOctahedron() {
+        Model model = new Model();
+        model.addVertex(new Vector3f(1, 0, 0));
+        model.addVertex(new Vector3f(-1, 0, 0));
+        model.addVertex(new Vector3f(0, 1, 0));
+        model.addVertex(new Vector3f(0, -1, 0));
+        model.addVertex(new Vector3f(0, 0, 1));
+        model.addVertex(new Vector3f(0, 0, -1));
+
+        int[][] faces = {
+            {0, 2, 4}, {2, 1, 4}, {1, 3, 4}, {3, 0, 4},
+            {2, 0, 5}, {1, 2, 5}, {3, 1, 5}, {0, 3, 5}
+        };
+        for (int[] f : faces) {
+            model.addPolygon(new Polygon(List.of(f[0], f[1], f[2]), List.of(), List.of()));
+        }
+        return model;
+    }
+}
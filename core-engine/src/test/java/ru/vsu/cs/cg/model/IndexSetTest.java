@@ -0,0 +1,90 @@
+package ru.vsu.cs.cg.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.model.selection.ModelSelection;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexSetTest {
+
+    @Test
+    @DisplayName("Большой диапазон без нескольких индексов строится без перебора")
+    void addRange_LargeRangeMinusFew_ShouldKeepExactSize() {
+        IndexSet set = IndexSet.range(0, 5_000_000);
+        set.remove(7);
+        set.remove(4_999_999);
+        set.removeRange(100, 200);
+
+        assertEquals(5_000_000 - 102, set.size());
+        assertFalse(set.contains(7));
+        assertFalse(set.contains(150));
+        assertTrue(set.contains(200));
+        assertEquals(4_999_998, set.max());
+        assertTrue(set.estimatedBytes() < 1_000_000);
+    }
+
+    @Test
+    @DisplayName("Набор совместим с Set<Integer> в обе стороны")
+    void equals_HashSetWithSameIndices_ShouldBeEqual() {
+        IndexSet set = IndexSet.from(List.of(3, 1, 2, 1));
+        Set<Integer> hashSet = new HashSet<>(List.of(1, 2, 3));
+
+        assertEquals(hashSet, set);
+        assertEquals(set, hashSet);
+        assertEquals(hashSet.hashCode(), set.hashCode());
+        assertTrue(set.contains((Object) 2));
+        assertFalse(set.contains((Object) "2"));
+    }
+
+    @Test
+    @DisplayName("Отрицательный индекс должен отклоняться")
+    void add_NegativeIndex_ShouldThrow() {
+        IndexSet set = new IndexSet();
+
+        assertThrows(IllegalArgumentException.class, () -> set.add(-1));
+        assertFalse(set.contains(-1));
+        assertFalse(set.remove(-1));
+    }
+
+    @Test
+    @DisplayName("Строковое представление записывает диапазоны")
+    void toString_Runs_ShouldFormatRanges() {
+        IndexSet set = IndexSet.range(0, 5);
+        set.add(8);
+        set.addRange(10, 13);
+
+        assertEquals("0-4, 8, 10-12", set.toString());
+        assertEquals("", new IndexSet().toString());
+    }
+
+    @Test
+    @DisplayName("Сдвиг после удаления убирает удаленные индексы и сдвигает остальные")
+    void shiftAfterRemoval_ShouldRenumberIndices() {
+        IndexSet set = IndexSet.from(List.of(0, 2, 5, 9));
+
+        set.shiftAfterRemoval(IndexSet.from(List.of(1, 2, 3)));
+
+        assertEquals(IndexSet.from(List.of(0, 2, 6)), set);
+    }
+
+    @Test
+    @DisplayName("Выделение возвращает независимую копию и обходится без копирования")
+    void modelSelection_GetSelected_ShouldReturnIndependentCopy() {
+        ModelSelection selection = new ModelSelection();
+        selection.selectVertices(IndexSet.range(0, 1000));
+        selection.deselectVertices(Set.of(10, 20));
+
+        IndexSet copy = selection.getSelectedVertices();
+        copy.clear();
+
+        assertEquals(998, selection.getSelectedVerticesCount());
+        int[] visited = new int[1];
+        selection.forEachSelectedVertex(index -> visited[0]++);
+        assertEquals(998, visited[0]);
+    }
+}
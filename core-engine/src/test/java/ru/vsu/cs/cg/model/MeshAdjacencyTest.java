@@ -0,0 +1,112 @@
+package ru.vsu.cs.cg.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.objreader.ObjReader;
+import ru.vsu.cs.cg.utils.ModelUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeshAdjacencyTest {
+
+    private final static String BASE_TEST_RESOURCE_PATH = "src/test/resources";
+    private Model cube;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cube = ObjReader.read(Files.readString(Paths.get(BASE_TEST_RESOURCE_PATH + "/simpleCube.obj")));
+    }
+
+    @Test
+    @DisplayName("Каждая вершина куба принадлежит трем граням")
+    void getFacesOfVertex_Cube_ShouldReturnThreeFaces() {
+        MeshAdjacency adjacency = cube.getAdjacency();
+
+        for (int v = 0; v < cube.getVertices().size(); v++) {
+            int[] faces = adjacency.getFacesOfVertex(v);
+            assertEquals(3, faces.length);
+            for (int face : faces) {
+                assertTrue(cube.getPolygons().get(face).getVertexIndices().contains(v));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Каждая грань куба имеет четырех соседей по ребрам")
+    void getFaceNeighbors_Cube_ShouldReturnFourNeighbors() {
+        MeshAdjacency adjacency = cube.getAdjacency();
+
+        for (int f = 0; f < cube.getPolygons().size(); f++) {
+            int[] neighbors = adjacency.getFaceNeighbors(f);
+            assertEquals(4, neighbors.length);
+            final int face = f;
+            assertFalse(Arrays.stream(neighbors).anyMatch(n -> n == face));
+        }
+    }
+
+    @Test
+    @DisplayName("Полигоны с общей вершиной без общего ребра не являются соседями")
+    void getFaceNeighbors_SharedVertexOnly_ShouldNotBeNeighbors() {
+        Model model = new Model();
+        for (int i = 0; i < 5; i++) {
+            model.addVertex(new Vector3f(i, 0, 0));
+        }
+        model.addPolygon(new Polygon(List.of(0, 1, 2), List.of(), List.of()));
+        model.addPolygon(new Polygon(List.of(2, 3, 4), List.of(), List.of()));
+
+        assertEquals(0, model.getAdjacency().getFaceNeighbors(0).length);
+        assertEquals(2, model.getAdjacency().getFacesOfVertex(2).length);
+    }
+
+    @Test
+    @DisplayName("Изменение топологии должно перестраивать индекс")
+    void getAdjacency_AfterAddPolygon_ShouldRebuild() {
+        MeshAdjacency before = cube.getAdjacency();
+
+        cube.addPolygon(new Polygon(List.of(0, 1, 2), List.of(), List.of()));
+
+        MeshAdjacency after = cube.getAdjacency();
+        assertNotSame(before, after);
+        assertEquals(cube.getPolygons().size(), after.getFaceCount());
+        assertEquals(4, after.getFacesOfVertex(0).length);
+        assertSame(after, cube.getAdjacency());
+    }
+
+    @Test
+    @DisplayName("Расширение выделения полигона добавляет соседей по ребрам")
+    void growPolygonSelection_SingleFace_ShouldSelectNeighbors() {
+        cube.getSelection().selectPolygon(0);
+
+        int added = ModelUtils.growPolygonSelection(cube);
+
+        assertEquals(4, added);
+        Set<Integer> selected = cube.getSelection().getSelectedPolygons();
+        assertEquals(5, selected.size());
+        BitSet expected = cube.getAdjacency().growFaces(BitSet.valueOf(new long[]{1L}));
+        assertEquals(expected.cardinality(), selected.size());
+    }
+
+    @Test
+    @DisplayName("Полигоны внутри набора вершин - только те, у которых отмечены все вершины")
+    void markFacesWithinVertices_FaceVertices_ShouldReturnOnlyThatFace() {
+        BitSet vertices = new BitSet();
+        for (int v : cube.getPolygons().get(0).getVertexIndices()) {
+            vertices.set(v);
+        }
+
+        BitSet faces = cube.getAdjacency().markFacesWithinVertices(vertices);
+
+        assertEquals(1, faces.cardinality());
+        assertTrue(faces.get(0));
+    }
+}
@@ -9,6 +9,7 @@ import ru.vsu.cs.cg.math.Vector3f;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -244,4 +245,199 @@ public class ModelTest {
         List<Polygon> triangulated3 = model.getTriangulatedPolygonsCache();
         assertNotSame(triangulated1, triangulated3, "Кэш должен инвалидироваться после изменения");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Копия разделяет геометрию с исходной моделью до первого изменения")
+    void copy_BeforeMutation_ShouldShareGeometry() {
+        model.addVertex(vertex1);
+        model.addVertex(vertex2);
+        model.addVertex(vertex3);
+        model.addPolygon(polygon);
+        List<Polygon> triangulated = model.getTriangulatedPolygonsCache();
+        MeshAdjacency adjacency = model.getAdjacency();
+
+        Model copy = model.copy();
+
+        assertTrue(model.isGeometryShared());
+        assertTrue(copy.isGeometryShared());
+        assertSame(triangulated, copy.getTriangulatedPolygonsCache());
+        assertSame(adjacency, copy.getAdjacency());
+    }
+
+    @Test
+    @DisplayName("Изменение копии не затрагивает исходную модель")
+    void copy_MutateCopy_ShouldNotAffectOriginal() {
+        model.addVertex(vertex1);
+        model.addVertex(vertex2);
+        model.addVertex(vertex3);
+        model.addPolygon(polygon);
+
+        Model copy = model.copy();
+        copy.addVertex(new Vector3f(5, 5, 5));
+        copy.getPolygonsMutable().clear();
+
+        assertEquals(3, model.getVertices().size());
+        assertEquals(1, model.getPolygons().size());
+        assertEquals(4, copy.getVertices().size());
+        assertTrue(copy.getPolygons().isEmpty());
+        assertFalse(model.getTriangulatedPolygonsCache().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Пересчет нормалей копии не меняет полигоны исходной модели")
+    void recomputeNormals_OnCopy_ShouldNotChangeOriginalPolygons() {
+        model.addVertex(vertex1);
+        model.addVertex(vertex2);
+        model.addVertex(vertex3);
+        model.addPolygon(new Polygon(List.of(0, 1, 2), List.of(), List.of()));
+
+        Model copy = model.copy();
+        copy.recomputeNormals();
+
+        assertTrue(model.getPolygons().get(0).getNormalIndices().isEmpty());
+        assertEquals(List.of(0, 1, 2), copy.getPolygons().get(0).getNormalIndices());
+        assertEquals(3, copy.getNormals().size());
+        assertTrue(model.getNormals().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Правка полигона через изменяемый список должна сбрасывать триангуляцию и смежность")
+    void getPolygonsMutable_Set_ShouldInvalidateTopologyData() {
+        fillQuad();
+        List<Polygon> triangulated = model.getTriangulatedPolygonsCache();
+        MeshAdjacency adjacency = model.getAdjacency();
+        long topology = model.getTopologyVersion();
+
+        model.getPolygonsMutable().set(0, new Polygon(List.of(0, 1, 2), List.of(), List.of()));
+
+        assertTrue(model.getTopologyVersion() > topology);
+        assertEquals(1, model.getTriangulatedPolygonsCache().size());
+        assertNotSame(triangulated, model.getTriangulatedPolygonsCache());
+        assertNotSame(adjacency, model.getAdjacency());
+        assertEquals(3, model.getAdjacency().faceVertexEnd(0) - model.getAdjacency().faceVertexStart(0));
+    }
+
+    @Test
+    @DisplayName("Сдвиг вершины должен сохранять смежность и обновлять дерево треугольников и границы")
+    void getVerticesMutable_Set_ShouldKeepTopologyAndRefitGeometry() {
+        fillQuad();
+        MeshAdjacency adjacency = model.getAdjacency();
+        MeshEdges edges = model.getEdges();
+        TriangleBvh bvh = model.getBvh();
+        long topology = model.getTopologyVersion();
+
+        model.getVerticesMutable().set(2, new Vector3f(3, 4, 5));
+
+        assertEquals(topology, model.getTopologyVersion());
+        assertSame(adjacency, model.getAdjacency());
+        assertSame(edges, model.getEdges());
+        assertNotSame(bvh, model.getBvh());
+        assertEquals(bvh.getNodeCount(), model.getBvh().getNodeCount());
+        assertArrayEquals(new float[]{0, 0, 0, 3, 4, 5}, model.getBounds());
+    }
+
+    @Test
+    @DisplayName("Ребра куба должны быть уникальными")
+    void getEdges_Cube_ShouldReturnTwelveUniqueEdges() {
+        float[][] corners = {{0, 0, 0}, {1, 0, 0}, {1, 1, 0}, {0, 1, 0}, {0, 0, 1}, {1, 0, 1}, {1, 1, 1}, {0, 1, 1}};
+        for (float[] corner : corners) {
+            model.addVertex(new Vector3f(corner[0], corner[1], corner[2]));
+        }
+        int[][] faces = {{0, 1, 2, 3}, {4, 5, 6, 7}, {0, 1, 5, 4}, {1, 2, 6, 5}, {2, 3, 7, 6}, {3, 0, 4, 7}};
+        for (int[] face : faces) {
+            model.addPolygon(new Polygon(Arrays.stream(face).boxed().toList(), List.of(), List.of()));
+        }
+
+        MeshEdges edges = model.getEdges();
+
+        assertEquals(12, edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            assertTrue(edges.from(i) < edges.to(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Производные данные должны вычисляться один раз на правку")
+    void getDerived_RepeatedCalls_ShouldComputeOncePerVersion() {
+        fillQuad();
+        AtomicInteger computations = new AtomicInteger();
+        DerivedKey<Integer> key = DerivedKey.of("count", DerivedKey.GEOMETRY, m -> {
+            computations.incrementAndGet();
+            return m.getVertices().size();
+        });
+
+        model.getDerived(key);
+        model.getDerived(key);
+        model.getPolygonsMutable().clear();
+        model.getDerived(key);
+        assertEquals(1, computations.get());
+
+        model.getVerticesMutable().set(0, new Vector3f(-1, 0, 0));
+        assertFalse(model.isDerivedCurrent(key));
+        model.getDerived(key);
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    @DisplayName("Нормали должны пересчитываться после изменения вершин через изменяемый список")
+    void ensureNormals_AfterVertexEdit_ShouldRecompute() {
+        fillQuad();
+        model.ensureNormals();
+        assertEquals(1, model.getNormals().get(0).getZ(), 1e-5f);
+
+        List<Vector3f> vertices = model.getVerticesMutable();
+        for (int i = 0; i < vertices.size(); i++) {
+            Vector3f v = vertices.get(i);
+            vertices.set(i, new Vector3f(v.getX(), 0, v.getY()));
+        }
+        model.ensureNormals();
+
+        assertEquals(0, model.getNormals().get(0).getZ(), 1e-5f);
+    }
+
+    @Test
+    @DisplayName("Сдвиг вершины должен сохранять триангуляцию, пока разбиение не меняется")
+    void getTriangulation_VertexMoved_ShouldRebuildOnlyWhenSplitChanges() {
+        fillQuad();
+        Triangulation triangulation = model.getTriangulation();
+        TriangleBvh bvh = model.getBvh();
+
+        model.getVerticesMutable().set(2, new Vector3f(2, 2, 0));
+        assertSame(triangulation, model.getTriangulation());
+        assertTrue(model.getBvh().isBuiltFrom(triangulation));
+
+        model.getVerticesMutable().set(3, new Vector3f(0.9f, 0.9f, 0));
+        model.getVerticesMutable().set(2, new Vector3f(0.2f, 2, 0));
+        Triangulation concave = model.getTriangulation();
+        assertNotSame(triangulation, concave);
+        assertTrue(model.getBvh().isBuiltFrom(concave));
+        assertNotSame(bvh, model.getBvh());
+    }
+
+    @Test
+    @DisplayName("Нормали треугольников должны кэшироваться и пересчитываться после сдвига вершин")
+    void getTriangleNormals_VertexMoved_ShouldRecompute() {
+        fillQuad();
+        float[] normals = model.getTriangleNormals();
+        assertEquals(6, normals.length);
+        for (int t = 0; t < 2; t++) {
+            assertEquals(0, normals[t * 3], 1e-6f);
+            assertEquals(0, normals[t * 3 + 1], 1e-6f);
+            assertEquals(1, normals[t * 3 + 2], 1e-6f);
+        }
+        assertSame(normals, model.getTriangleNormals());
+
+        model.getVerticesMutable().set(0, new Vector3f(0, 0, 1));
+        float[] moved = model.getTriangleNormals();
+        assertNotSame(normals, moved);
+        assertTrue(moved[2] < 1 - 1e-3f);
+    }
+
+    private void fillQuad() {
+        model.addVertex(new Vector3f(0, 0, 0));
+        model.addVertex(new Vector3f(1, 0, 0));
+        model.addVertex(new Vector3f(1, 1, 0));
+        model.addVertex(new Vector3f(0, 1, 0));
+        model.addPolygon(new Polygon(List.of(0, 1, 2, 3), List.of(), List.of()));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.vsu.cs.cg.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.exceptions.VertexRemoverException;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.objreader.ObjReader;
+import ru.vsu.cs.cg.utils.RemovalUtils;
+import ru.vsu.cs.cg.vertexremover.VertexRemoverImpl;
+import ru.vsu.cs.cg.vertexremover.dto.VertexRemovalResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RemovedGeometryTest {
+
+    private final static String BASE_TEST_RESOURCE_PATH = "src/test/resources";
+
+    @Test
+    @DisplayName("Восстановление после удаления вершин возвращает исходную модель")
+    void restore_AfterVertexRemoval_ShouldRestoreOriginalModel() throws IOException, VertexRemoverException {
+        Model model = readModel("simpleCube.obj");
+        Model original = model.copy();
+
+        VertexRemovalResult result = new VertexRemoverImpl().removeVertices(model, Set.of(0, 5), true);
+        assertNotNull(result.getRemovedGeometry());
+        assertTrue(model.getVertices().size() < original.getVertices().size());
+
+        result.getRemovedGeometry().restore(model);
+
+        assertModelsEqual(original, model);
+    }
+
+    @Test
+    @DisplayName("Восстановление после удаления полигонов возвращает их на прежние места")
+    void restore_AfterPolygonRemoval_ShouldReinsertPolygons() throws IOException {
+        Model model = readModel("plane.obj");
+        Model original = model.copy();
+
+        RemovedGeometry removed = RemovalUtils.removePolygonsFromModel(model, Set.of(0, 3, 7));
+        assertEquals(3, removed.getRemovedPolygonCount());
+        assertEquals(original.getPolygons().size() - 3, model.getPolygons().size());
+
+        removed.restore(model);
+
+        assertModelsEqual(original, model);
+    }
+
+    @Test
+    @DisplayName("Запись хранит только удаленные элементы")
+    void estimatedBytes_SmallRemoval_ShouldNotDependOnModelSize() throws IOException {
+        Model model = readModel("plane.obj");
+
+        RemovedGeometry removed = RemovalUtils.removePolygonsFromModel(model, Set.of(1));
+
+        assertTrue(removed.estimatedBytes() < 512);
+    }
+
+    @Test
+    @DisplayName("Восстановление в измененную модель должно отклоняться")
+    void restore_ModelChangedAfterRemoval_ShouldThrow() throws IOException {
+        Model model = readModel("plane.obj");
+        RemovedGeometry removed = RemovalUtils.removePolygonsFromModel(model, Set.of(1));
+
+        model.addVertex(new Vector3f(0, 0, 0));
+        model.clearPolygons();
+
+        assertThrows(IllegalStateException.class, () -> removed.restore(model));
+    }
+
+    @Test
+    @DisplayName("Сериализованная запись восстанавливает модель так же, как исходная")
+    void readFrom_SerializedRecord_ShouldRestoreOriginalModel() throws IOException, VertexRemoverException {
+        Model model = readModel("simpleCube.obj");
+        Model original = model.copy();
+        RemovedGeometry removed = new VertexRemoverImpl().removeVertices(model, Set.of(1, 6), true)
+            .getRemovedGeometry();
+
+        ByteBuffer buffer = ByteBuffer.allocate(removed.serializedSize());
+        removed.writeTo(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        RemovedGeometry.readFrom(buffer).restore(model);
+
+        assertModelsEqual(original, model);
+    }
+
+    @Test
+    @DisplayName("Оборванная сериализованная запись должна отклоняться")
+    void readFrom_TruncatedRecord_ShouldThrow() throws IOException {
+        Model model = readModel("plane.obj");
+        RemovedGeometry removed = RemovalUtils.removePolygonsFromModel(model, Set.of(1, 2));
+
+        ByteBuffer buffer = ByteBuffer.allocate(removed.serializedSize());
+        removed.writeTo(buffer);
+        buffer.flip().limit(buffer.limit() - Integer.BYTES);
+
+        assertThrows(IllegalArgumentException.class, () -> RemovedGeometry.readFrom(buffer));
+    }
+
+    private void assertModelsEqual(Model expected, Model actual) {
+        assertEquals(expected.getVertices().size(), actual.getVertices().size());
+        for (int i = 0; i < expected.getVertices().size(); i++) {
+            assertEquals(expected.getVertices().get(i), actual.getVertices().get(i));
+        }
+        assertEquals(expected.getTextureVertices().size(), actual.getTextureVertices().size());
+        assertEquals(expected.getNormals().size(), actual.getNormals().size());
+        assertEquals(expected.getPolygons().size(), actual.getPolygons().size());
+        for (int i = 0; i < expected.getPolygons().size(); i++) {
+            Polygon expectedPolygon = expected.getPolygons().get(i);
+            Polygon actualPolygon = actual.getPolygons().get(i);
+            assertEquals(expectedPolygon.getVertexIndices(), actualPolygon.getVertexIndices());
+            assertEquals(expectedPolygon.getTextureVertexIndices(), actualPolygon.getTextureVertexIndices());
+            assertEquals(expectedPolygon.getNormalIndices(), actualPolygon.getNormalIndices());
+        }
+    }
+
+    private Model readModel(String name) throws IOException {
+        return ObjReader.read(Files.readString(Paths.get(BASE_TEST_RESOURCE_PATH + "/" + name)));
+    }
+}
@@ -0,0 +1,151 @@
+package ru.vsu.cs.cg.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.math.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TriangleBvhTest {
+
+    @Test
+    @DisplayName("Луч сверху должен попадать в полигон под точкой и выбирать ближайшую вершину")
+    void intersect_RayAboveGrid_ShouldHitFaceBelow() {
+        Model model = createGrid(4, 0.0f, new Random(1));
+
+        TriangleBvh.Hit hit = model.getBvh().intersect(
+            new Vector3f(1.1f, 5.0f, 2.2f), new Vector3f(0, -1, 0), Float.POSITIVE_INFINITY);
+
+        assertNotNull(hit);
+        assertEquals(2 * 4 + 1, hit.faceIndex());
+        assertEquals(5.0f, hit.distance(), 1e-5f);
+        assertEquals(2 * 5 + 1, model.getBvh().nearestVertex(hit));
+    }
+
+    @Test
+    @DisplayName("Луч мимо модели и луч с ограничением расстояния не должны давать попаданий")
+    void intersect_RayMissesOrTooShort_ShouldReturnNull() {
+        Model model = createGrid(4, 0.0f, new Random(1));
+        TriangleBvh bvh = model.getBvh();
+
+        assertNull(bvh.intersect(new Vector3f(10, 5, 10), new Vector3f(0, -1, 0), Float.POSITIVE_INFINITY));
+        assertNull(bvh.intersect(new Vector3f(1, 5, 1), new Vector3f(0, 1, 0), Float.POSITIVE_INFINITY));
+        assertNull(bvh.intersect(new Vector3f(1, 5, 1), new Vector3f(0, -1, 0), 4.0f));
+    }
+
+    @Test
+    @DisplayName("Результаты на большой сетке должны совпадать с полным перебором треугольников")
+    void intersect_LargeNoisyGrid_ShouldMatchBruteForce() {
+        Random random = new Random(42);
+        Model model = createGrid(200, 0.5f, random);
+        TriangleBvh bvh = model.getBvh();
+        assertEquals(200 * 200 * 2, bvh.getTriangleCount());
+
+        for (int i = 0; i < 200; i++) {
+            Vector3f origin = new Vector3f(random.nextFloat() * 200, 3.0f, random.nextFloat() * 200);
+            Vector3f direction = new Vector3f(random.nextFloat() - 0.5f, -1.0f, random.nextFloat() - 0.5f);
+
+            TriangleBvh.Hit hit = bvh.intersect(origin, direction, Float.POSITIVE_INFINITY);
+            float expected = bruteForce(model, origin, direction);
+
+            if (Float.isInfinite(expected)) {
+                assertNull(hit);
+            } else {
+                assertNotNull(hit);
+                assertEquals(expected, hit.distance(), 1e-4f);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Замена вершин без изменения топологии должна пересчитывать границы дерева")
+    void setVertices_SameTopology_ShouldRefitBvh() {
+        Model model = createGrid(8, 0.0f, new Random(1));
+        TriangleBvh before = model.getBvh();
+
+        List<Vector3f> lifted = new ArrayList<>();
+        for (Vector3f vertex : model.getVertices()) {
+            lifted.add(new Vector3f(vertex.getX(), vertex.getY() + 10, vertex.getZ()));
+        }
+        model.setVertices(lifted);
+        TriangleBvh after = model.getBvh();
+
+        assertNotSame(before, after);
+        assertEquals(before.getNodeCount(), after.getNodeCount());
+        TriangleBvh.Hit hit = after.intersect(new Vector3f(3.5f, 20, 3.5f), new Vector3f(0, -1, 0), Float.POSITIVE_INFINITY);
+        assertNotNull(hit);
+        assertEquals(10.0f, hit.distance(), 1e-5f);
+    }
+
+    @Test
+    @DisplayName("Сдвиг вершин модели без треугольников должен пересчитывать пустое дерево")
+    void setVertices_NoTriangles_ShouldRefitEmptyBvh() {
+        Model model = new Model();
+        model.addVertex(new Vector3f(0, 0, 0));
+        model.addVertex(new Vector3f(1, 0, 0));
+        TriangleBvh before = model.getBvh();
+        assertEquals(0, before.getTriangleCount());
+
+        model.setVertices(new ArrayList<>(List.of(new Vector3f(0, 1, 0), new Vector3f(1, 1, 0))));
+        TriangleBvh after = model.getBvh();
+
+        assertNotSame(before, after);
+        assertEquals(0, after.getTriangleCount());
+        assertNull(after.intersect(new Vector3f(0, 5, 0), new Vector3f(0, -1, 0), Float.POSITIVE_INFINITY));
+    }
+
+    private float bruteForce(Model model, Vector3f origin, Vector3f direction) {
+        float best = Float.POSITIVE_INFINITY;
+        for (Polygon polygon : model.getPolygons()) {
+            List<Integer> indices = polygon.getVertexIndices();
+            for (int i = 1; i + 1 < indices.size(); i++) {
+                float t = intersect(origin, direction, model.getVertices().get(indices.get(0)),
+                    model.getVertices().get(indices.get(i)), model.getVertices().get(indices.get(i + 1)));
+                if (t >= 0 && t < best) {
+                    best = t;
+                }
+            }
+        }
+        return best;
+    }
+
+    private float intersect(Vector3f origin, Vector3f direction, Vector3f a, Vector3f b, Vector3f c) {
+        Vector3f e1 = b.subtract(a);
+        Vector3f e2 = c.subtract(a);
+        Vector3f p = direction.cross(e2);
+        float determinant = e1.dot(p);
+        if (Math.abs(determinant) < 1e-9f) {
+            return -1;
+        }
+        Vector3f s = origin.subtract(a);
+        float u = s.dot(p) / determinant;
+        Vector3f q = s.cross(e1);
+        float v = direction.dot(q) / determinant;
+        if (u < 0 || u > 1 || v < 0 || u + v > 1) {
+            return -1;
+        }
+        return e2.dot(q) / determinant;
+    }
+
+    private Model createGrid(int size, float noise, Random random) {
+        Model model = new Model();
+        for (int z = 0; z <= size; z++) {
+            for (int x = 0; x <= size; x++) {
+                model.addVertex(new Vector3f(x, noise * (random.nextFloat() - 0.5f), z));
+            }
+        }
+        List<Polygon> polygons = new ArrayList<>();
+        for (int z = 0; z < size; z++) {
+            for (int x = 0; x < size; x++) {
+                int v = z * (size + 1) + x;
+                polygons.add(new Polygon(List.of(v, v + 1, v + size + 2, v + size + 1), List.of(), List.of()));
+            }
+        }
+        model.addAllPolygons(polygons);
+        return model;
+    }
+}
@@ -0,0 +1,144 @@
+package ru.vsu.cs.cg.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.math.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TriangulationTest {
+
+    @Test
+    @DisplayName("Выпуклый полигон должен резаться веером")
+    void build_ConvexPolygon_ShouldUseFan() {
+        List<Vector3f> vertices = List.of(
+            new Vector3f(0, 0, 0), new Vector3f(1, 0, 0), new Vector3f(1, 1, 0), new Vector3f(0, 1, 0));
+
+        Triangulation triangulation = Triangulation.build(vertices, List.of(face(0, 1, 2, 3)));
+
+        assertEquals(2, triangulation.getTriangleCount());
+        for (int t = 0; t < 2; t++) {
+            assertEquals(0, triangulation.cornerAt(t, 0));
+            assertEquals(t + 1, triangulation.cornerAt(t, 1));
+            assertEquals(t + 2, triangulation.cornerAt(t, 2));
+        }
+    }
+
+    @Test
+    @DisplayName("Невыпуклый полигон должен покрываться треугольниками без выхода за контур")
+    void build_ConcavePolygon_ShouldCoverAreaExactly() {
+        List<Vector3f> vertices = arrow(0, 0);
+
+        Triangulation triangulation = Triangulation.build(vertices, List.of(face(0, 1, 2, 3, 4, 5)));
+
+        assertEquals(4, triangulation.getTriangleCount());
+        float area = 0;
+        for (int t = 0; t < triangulation.getTriangleCount(); t++) {
+            float signed = signedArea(vertices, triangulation, t);
+            assertTrue(signed > 0, "Треугольник должен сохранять обход полигона");
+            area += signed;
+        }
+        assertEquals(4.0f, area, 1e-5f);
+    }
+
+    @Test
+    @DisplayName("Триангуляция должна зависеть от доминирующей плоскости и обхода полигона")
+    void build_ConcavePolygonInOtherPlane_ShouldCoverAreaExactly() {
+        List<Vector3f> vertices = new ArrayList<>();
+        for (Vector3f v : arrow(0, 0)) {
+            vertices.add(new Vector3f(5, v.getY(), v.getX()));
+        }
+
+        Triangulation triangulation = Triangulation.build(vertices, List.of(face(5, 4, 3, 2, 1, 0)));
+
+        float area = 0;
+        for (int t = 0; t < triangulation.getTriangleCount(); t++) {
+            List<Vector3f> projected = List.of(
+                flatten(vertices.get(triangulation.vertexAt(t, 0))),
+                flatten(vertices.get(triangulation.vertexAt(t, 1))),
+                flatten(vertices.get(triangulation.vertexAt(t, 2))));
+            area += Math.abs(cross(projected.get(0), projected.get(1), projected.get(2))) / 2;
+        }
+        assertEquals(4.0f, area, 1e-5f);
+    }
+
+    @Test
+    @DisplayName("Параллельная триангуляция большого числа полигонов должна совпадать с последовательной")
+    void build_ManyFaces_ShouldMatchSingleFaceResults() {
+        List<Vector3f> vertices = new ArrayList<>();
+        List<Polygon> polygons = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            int base = vertices.size();
+            vertices.addAll(arrow(i * 4, i % 7));
+            polygons.add(i % 3 == 0
+                ? face(base, base + 1, base + 2)
+                : face(base, base + 1, base + 2, base + 3, base + 4, base + 5));
+        }
+        polygons.add(face(0, 1, vertices.size()));
+
+        Triangulation triangulation = Triangulation.build(vertices, polygons);
+
+        assertEquals(6001, triangulation.getFaceCount());
+        assertEquals(0, triangulation.faceTriangleEnd(6000) - triangulation.faceTriangleStart(6000));
+        IntStream.of(1, 2, 4095, 4096, 5999).forEach(f -> {
+            Triangulation single = Triangulation.build(vertices, List.of(polygons.get(f)));
+            int start = triangulation.faceTriangleStart(f);
+            assertEquals(single.getTriangleCount(), triangulation.faceTriangleEnd(f) - start);
+            for (int t = 0; t < single.getTriangleCount(); t++) {
+                assertEquals(f, triangulation.faceOf(start + t));
+                for (int k = 0; k < 3; k++) {
+                    assertEquals(single.vertexAt(t, k), triangulation.vertexAt(start + t, k));
+                }
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Треугольные полигоны должны сохранять индексы текстур и нормалей исходного полигона")
+    void toPolygons_ShouldMapCornerAttributes() {
+        List<Vector3f> vertices = arrow(0, 0);
+        Polygon polygon = new Polygon(List.of(0, 1, 2, 3, 4, 5), List.of(10, 11, 12, 13, 14, 15), List.of());
+
+        Triangulation triangulation = Triangulation.build(vertices, List.of(polygon));
+        List<Polygon> triangles = triangulation.toPolygons(List.of(polygon));
+
+        assertEquals(4, triangles.size());
+        for (Polygon triangle : triangles) {
+            for (int k = 0; k < 3; k++) {
+                assertEquals(triangle.getVertexIndices().get(k) + 10, triangle.getTextureVertexIndices().get(k));
+            }
+            assertTrue(triangle.getNormalIndices().isEmpty());
+        }
+    }
+
+    /**
+     * Невыпуклая «стрелка» площадью 4 с вогнутой вершиной под номером 4.
+     */
+    private static List<Vector3f> arrow(float x, float y) {
+        return List.of(
+            new Vector3f(x, y, 0), new Vector3f(x + 2, y, 0), new Vector3f(x + 3, y + 1, 0),
+            new Vector3f(x + 2, y + 2, 0), new Vector3f(x + 1.5f, y + 1, 0), new Vector3f(x, y + 2, 0));
+    }
+
+    private static Polygon face(int... indices) {
+        return new Polygon(IntStream.of(indices).boxed().toList(), List.of(), List.of());
+    }
+
+    private static float signedArea(List<Vector3f> vertices, Triangulation triangulation, int triangle) {
+        return cross(vertices.get(triangulation.vertexAt(triangle, 0)),
+            vertices.get(triangulation.vertexAt(triangle, 1)),
+            vertices.get(triangulation.vertexAt(triangle, 2))) / 2;
+    }
+
+    private static Vector3f flatten(Vector3f v) {
+        return new Vector3f(v.getZ(), v.getY(), 0);
+    }
+
+    private static float cross(Vector3f a, Vector3f b, Vector3f c) {
+        return (b.getX() - a.getX()) * (c.getY() - a.getY()) - (b.getY() - a.getY()) * (c.getX() - a.getX());
+    }
+}
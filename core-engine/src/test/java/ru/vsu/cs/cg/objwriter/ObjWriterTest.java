@@ -3,10 +3,12 @@ package ru.vsu.cs.cg.objwriter;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import ru.vsu.cs.cg.math.Matrix4x4;
 import ru.vsu.cs.cg.math.Vector2f;
 import ru.vsu.cs.cg.math.Vector3f;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.renderEngine.GraphicConveyor;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -312,4 +314,47 @@ class ObjWriterTest {
         String content = Files.readString(mtlFile);
         assertTrue(content.contains("nonexistent"));
     }
+
+    @Test
+    @DisplayName("Запись с матрицей модели должна запекать вершины и нормали")
+    void write_WithModelMatrix_ShouldBakeVerticesAndNormals(@TempDir Path tempDir) throws IOException {
+        Path objFile = tempDir.resolve("test.obj");
+        Model model = new Model();
+        model.addVertex(new Vector3f(1.0f, 1.0f, 0.0f));
+        model.addNormal(new Vector3f(1.0f, 1.0f, 0.0f));
+        Matrix4x4 matrix = GraphicConveyor.rotateScaleTranslate(
+            new Vector3f(10.0f, 0.0f, 0.0f), new Vector3f(0.0f, 0.0f, 0.0f), new Vector3f(2.0f, 1.0f, 1.0f));
+
+        ObjWriter.write(objFile.toString(), model, matrix, null, null, null, null, null, null);
+
+        List<String> lines = Files.readAllLines(objFile);
+        assertEquals("v 12 1 0", lines.get(0));
+        String[] normal = lines.get(1).split(" ");
+        assertEquals("vn", normal[0]);
+        assertEquals(1.0f / (float) Math.sqrt(5.0f), Float.parseFloat(normal[1]), 1e-5f);
+        assertEquals(2.0f / (float) Math.sqrt(5.0f), Float.parseFloat(normal[2]), 1e-5f);
+        assertTrue(model.getVertices().get(0).equals(new Vector3f(1.0f, 1.0f, 0.0f)));
+    }
+
+    @Test
+    @DisplayName("Параллельная запись большой модели должна сохранять порядок вершин")
+    void write_LargeModel_ShouldKeepVertexOrder(@TempDir Path tempDir) throws IOException {
+        Path objFile = tempDir.resolve("test.obj");
+        List<Vector3f> vertices = new ArrayList<>();
+        for (int i = 0; i < 300_000; i++) {
+            vertices.add(new Vector3f(i, 0.0f, 0.0f));
+        }
+        Model model = new Model(vertices, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+            null, null, null, null, null, null);
+        Matrix4x4 matrix = GraphicConveyor.rotateScaleTranslate(
+            new Vector3f(0.0f, 5.0f, 0.0f), new Vector3f(0.0f, 0.0f, 0.0f), new Vector3f(1.0f, 1.0f, 1.0f));
+
+        ObjWriter.write(objFile.toString(), model, matrix, null, null, null, null, null, null);
+
+        List<String> lines = Files.readAllLines(objFile);
+        assertEquals(300_000, lines.size());
+        for (int i = 0; i < lines.size(); i += 997) {
+            assertEquals("v " + i + " 5 0", lines.get(i));
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package ru.vsu.cs.cg.rasterization;
+
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColorBufferTest {
+
+    @Test
+    @DisplayName("Растягивание однотонного буфера должно сохранять цвет")
+    void resampleFrom_UniformSource_ShouldKeepColor() {
+        ColorBuffer source = new ColorBuffer(3, 2);
+        source.fill(0xFF336699);
+        ColorBuffer target = new ColorBuffer(7, 5);
+
+        target.resampleFrom(source);
+
+        for (int pixel : target.getPixels()) {
+            assertEquals(0xFF336699, pixel);
+        }
+    }
+
+    @Test
+    @DisplayName("Билинейное растягивание должно интерполировать между соседними пикселями")
+    void resampleFrom_TwoColumns_ShouldBlendBetweenCenters() {
+        ColorBuffer source = new ColorBuffer(2, 1);
+        source.setPixel(0, 0, Color.BLACK);
+        source.setPixel(1, 0, Color.WHITE);
+        ColorBuffer target = new ColorBuffer(4, 1);
+
+        target.resampleFrom(source);
+
+        assertEquals(0xFF000000, target.getArgb(0, 0));
+        assertEquals(0xFFFFFFFF, target.getArgb(3, 0));
+        int left = target.getArgb(1, 0) & 0xFF;
+        int right = target.getArgb(2, 0) & 0xFF;
+        assertTrue(left > 0 && left < right && right < 0xFF);
+        assertEquals(0xFF, target.getArgb(1, 0) >>> 24);
+    }
+}
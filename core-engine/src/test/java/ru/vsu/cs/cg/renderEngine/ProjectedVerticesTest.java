@@ -0,0 +1,96 @@
+package ru.vsu.cs.cg.renderEngine;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.IndexSet;
+import ru.vsu.cs.cg.rasterization.ZBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProjectedVerticesTest {
+
+    private static final int SIZE = 200;
+
+    @Test
+    @DisplayName("Рамка должна выбирать вершины только внутри прямоугольника")
+    void select_Box_ShouldReturnVerticesInside() {
+        ProjectedVertices projected = projectGrid();
+
+        IndexSet selected = projected.select(ScreenRegion.box(45, 45, 15, 15), null, 0.01f);
+
+        IndexSet expected = new IndexSet();
+        for (int i = 0; i < projected.size(); i++) {
+            float x = projected.getScreenX(i);
+            float y = projected.getScreenY(i);
+            if (x >= 15 && x <= 45 && y >= 15 && y <= 45) {
+                expected.add(i);
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, selected);
+    }
+
+    @Test
+    @DisplayName("Лассо-треугольник должно выбирать вершины внутри контура, но не в его описанном прямоугольнике")
+    void select_Lasso_ShouldRespectContour() {
+        ProjectedVertices projected = projectGrid();
+        ScreenRegion lasso = ScreenRegion.lasso(new float[]{10, 190, 10}, new float[]{10, 10, 190});
+
+        IndexSet selected = projected.select(lasso, null, 0.01f);
+
+        assertFalse(selected.isEmpty());
+        selected.forEachIndex(i -> assertTrue(projected.getScreenX(i) + projected.getScreenY(i) <= 201));
+        assertTrue(lasso.contains(20, 20));
+        assertFalse(lasso.contains(180, 180));
+    }
+
+    @Test
+    @DisplayName("Вершины, закрытые более близкой поверхностью в буфере глубины, не должны выбираться")
+    void select_OccludedVertices_ShouldBeSkipped() {
+        ProjectedVertices projected = projectGrid();
+        ZBuffer zBuffer = new ZBuffer(SIZE, SIZE);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE / 2; x++) {
+                zBuffer.checkAndSet(x, y, 0.5f);
+            }
+        }
+
+        IndexSet selected = projected.select(ScreenRegion.box(0, 0, SIZE, SIZE), zBuffer, 0.01f);
+
+        assertFalse(selected.isEmpty());
+        selected.forEachIndex(i -> assertTrue(projected.getScreenX(i) >= SIZE / 2.0f - 2));
+    }
+
+    @Test
+    @DisplayName("Вершины за ближней плоскостью не должны проецироваться")
+    void update_VertexBehindCamera_ShouldNotBeInFront() {
+        Matrix4x4 matrix = new Matrix4x4();
+        matrix.set(3, 3, 0);
+        matrix.set(3, 2, 1);
+
+        ProjectedVertices projected = new ProjectedVertices();
+        projected.update(List.of(new Vector3f(0, 0, 2), new Vector3f(0, 0, -2)), matrix, SIZE, SIZE);
+
+        assertTrue(projected.isInFront(0));
+        assertFalse(projected.isInFront(1));
+        assertEquals(SIZE / 2.0f, projected.getScreenX(0), 1e-4f);
+        assertEquals(2.0f, projected.getDepth(0), 1e-6f);
+    }
+
+    private ProjectedVertices projectGrid() {
+        List<Vector3f> vertices = new ArrayList<>();
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 50; x++) {
+                vertices.add(new Vector3f(x / 25.0f - 1.0f, 1.0f - y / 25.0f, 0));
+            }
+        }
+        ProjectedVertices projected = new ProjectedVertices();
+        projected.update(vertices, new Matrix4x4(), SIZE, SIZE);
+        return projected;
+    }
+}
@@ -0,0 +1,236 @@
+package ru.vsu.cs.cg.renderEngine;
+
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.rasterization.ColorBuffer;
+import ru.vsu.cs.cg.rasterization.Rasterizer;
+import ru.vsu.cs.cg.rasterization.RasterizerSettings;
+import ru.vsu.cs.cg.rasterization.ShadingMode;
+import ru.vsu.cs.cg.rasterization.ZBuffer;
+import ru.vsu.cs.cg.renderEngine.camera.Camera;
+import ru.vsu.cs.cg.renderEngine.dto.RenderEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderEngineTest {
+    private static final int SIZE = 64;
+    private static final int BACKGROUND = 0xFF1E1E1E;
+
+    private final Camera camera = new Camera("Test", new Vector3f(0, 0, 5), new Vector3f(0, 0, 0));
+
+    @Test
+    @DisplayName("Кадр поверх статического слоя должен совпадать с полной перерисовкой")
+    void renderLayered_MovedDynamicEntity_ShouldMatchFullRender() {
+        RenderEngine engine = new RenderEngine();
+        ColorBuffer frame = new ColorBuffer(SIZE, SIZE);
+        ZBuffer depth = new ZBuffer(SIZE, SIZE);
+        Rasterizer rasterizer = new Rasterizer(depth);
+        RasterizerSettings base = new RasterizerSettings();
+        StaticLayer layer = new StaticLayer();
+
+        List<RenderEntity> staticEntities = List.of(quad(GraphicConveyor.translate(-0.5f, 0, 0), Color.RED));
+        RenderEntity dynamic = quad(GraphicConveyor.translate(0.5f, 0, 1), Color.BLUE);
+        engine.renderLayered(frame, depth, SIZE, SIZE, staticEntities, List.of(dynamic),
+            null, camera, rasterizer, base, layer, BACKGROUND);
+
+        Matrix4x4 viewProjection = camera.getProjectionMatrix().multiply(camera.getViewMatrix());
+        assertTrue(layer.matches(viewProjection, SIZE, SIZE, staticEntities, base.isDrawGrid()));
+
+        RenderEntity moved = quad(GraphicConveyor.translate(0.2f, 0.3f, 1), Color.BLUE);
+        engine.renderLayered(frame, depth, SIZE, SIZE, staticEntities, List.of(moved),
+            null, camera, rasterizer, base, layer, BACKGROUND);
+
+        ColorBuffer expected = new ColorBuffer(SIZE, SIZE);
+        expected.fill(BACKGROUND);
+        engine.render(expected, SIZE, SIZE, List.of(staticEntities.get(0), moved),
+            null, camera, new Rasterizer(new ZBuffer(SIZE, SIZE)), base);
+
+        assertArrayEquals(expected.getPixels(), frame.getPixels());
+        assertTrue(Arrays.stream(frame.getPixels()).anyMatch(p -> p == ColorBuffer.toArgb(Color.RED)));
+        assertTrue(Arrays.stream(frame.getPixels()).anyMatch(p -> p == ColorBuffer.toArgb(Color.BLUE)));
+        assertNotNull(engine.getProjectedVertices(staticEntities.get(0).getModel()));
+    }
+
+    @Test
+    @DisplayName("Изменение набора статических сущностей должно делать слой недействительным")
+    void matches_ChangedStaticEntities_ShouldReturnFalse() {
+        ColorBuffer frame = new ColorBuffer(SIZE, SIZE);
+        ZBuffer depth = new ZBuffer(SIZE, SIZE);
+        Matrix4x4 viewProjection = camera.getProjectionMatrix().multiply(camera.getViewMatrix());
+        RenderEntity entity = quad(new Matrix4x4(), Color.RED);
+        StaticLayer layer = new StaticLayer();
+
+        layer.store(frame, depth, viewProjection, List.of(entity), true);
+
+        assertTrue(layer.matches(viewProjection, SIZE, SIZE, List.of(entity), true));
+        assertFalse(layer.matches(viewProjection, SIZE, SIZE, List.of(entity), false));
+        assertFalse(layer.matches(viewProjection, SIZE, SIZE, List.of(quad(new Matrix4x4(), Color.RED)), true));
+
+        entity.getModel().getVerticesMutable().set(0, new Vector3f(-2, -2, 0));
+        assertFalse(layer.matches(viewProjection, SIZE, SIZE, List.of(entity), true));
+    }
+
+    @Test
+    @DisplayName("Частичная перерисовка должна затрагивать только изменившуюся область и совпадать с полным кадром")
+    void renderIncremental_ChangedEntity_ShouldRedrawDirtyRegionOnly() {
+        RenderEngine engine = new RenderEngine();
+        ColorBuffer frame = new ColorBuffer(SIZE, SIZE);
+        ZBuffer depth = new ZBuffer(SIZE, SIZE);
+        Rasterizer rasterizer = new Rasterizer(depth);
+        RasterizerSettings base = new RasterizerSettings();
+        RenderEntity left = quad(GraphicConveyor.translate(-2f, 0, 0), Color.RED);
+        RenderEntity right = quad(GraphicConveyor.translate(2f, 0, 0), Color.BLUE);
+
+        engine.renderIncremental(frame, depth, SIZE, SIZE, List.of(left, right), null, camera, rasterizer, base, BACKGROUND);
+        assertTrue(engine.getLastDirtyRegion().coversFrame(SIZE, SIZE));
+
+        engine.renderIncremental(frame, depth, SIZE, SIZE, List.of(left, right), null, camera, rasterizer, base, BACKGROUND);
+        assertTrue(engine.getLastDirtyRegion().isEmpty());
+
+        RenderEntity recolored = quad(GraphicConveyor.translate(2f, 0, 0), Color.GREEN);
+        engine.renderIncremental(frame, depth, SIZE, SIZE, List.of(left, recolored), null, camera, rasterizer, base, BACKGROUND);
+        DirtyRegion region = engine.getLastDirtyRegion();
+        assertFalse(region.isEmpty());
+        assertTrue(region.getWidth() < SIZE / 2, "Область должна покрывать только перекрашенный квадрат: " + region);
+        int recoloredMinX = region.getMinX();
+        int recoloredMaxX = region.getMaxX();
+
+        left.getModel().getSelection().selectVertex(0);
+        engine.renderIncremental(frame, depth, SIZE, SIZE, List.of(left, recolored), null, camera, rasterizer, base, BACKGROUND);
+        region = engine.getLastDirtyRegion();
+        assertFalse(region.isEmpty());
+        assertTrue(region.getMaxX() <= recoloredMinX || region.getMinX() >= recoloredMaxX,
+            "Область выделения не должна задевать перекрашенный квадрат: " + region);
+
+        ColorBuffer expected = new ColorBuffer(SIZE, SIZE);
+        expected.fill(BACKGROUND);
+        engine.render(expected, SIZE, SIZE, List.of(left, recolored),
+            null, camera, new Rasterizer(new ZBuffer(SIZE, SIZE)), base);
+
+        assertArrayEquals(expected.getPixels(), frame.getPixels());
+        assertTrue(Arrays.stream(frame.getPixels()).anyMatch(p -> p == ColorBuffer.toArgb(Color.GREEN)));
+        assertTrue(Arrays.stream(frame.getPixels()).noneMatch(p -> p == ColorBuffer.toArgb(Color.BLUE)));
+    }
+
+    @Test
+    @DisplayName("Во время взаимодействия модель сверх бюджета должна рисоваться плоской заливкой")
+    void render_InteractiveQualityOverBudget_ShouldUseFlatShading() {
+        RenderEngine engine = new RenderEngine();
+        engine.setQuality(RenderQuality.INTERACTIVE);
+        engine.setInteractionTriangleBudget(1);
+        RenderEntity entity = quad(GraphicConveyor.translate(0, 0, 0), Color.RED);
+        entity.getSettings().setUseLighting(true);
+
+        ColorBuffer frame = new ColorBuffer(SIZE, SIZE);
+        frame.fill(BACKGROUND);
+        engine.render(frame, SIZE, SIZE, List.of(entity), null, camera,
+            new Rasterizer(new ZBuffer(SIZE, SIZE)), new RasterizerSettings());
+
+        int center = frame.getArgb(SIZE / 2, SIZE / 2);
+        assertNotEquals(BACKGROUND, center);
+        assertEquals(center, frame.getArgb(SIZE / 2 - 2, SIZE / 2 + 2));
+        assertEquals(center, frame.getArgb(SIZE / 2 + 2, SIZE / 2 - 2));
+        assertNotNull(engine.getProjectedVertices(entity.getModel()));
+    }
+
+    @Test
+    @DisplayName("Очень тяжелая модель при взаимодействии рисуется рамкой, а после остановки кадр перерисовывается целиком")
+    void renderIncremental_HeavyModelWhileInteracting_ShouldDrawProxyThenFullQuality() {
+        RenderEngine engine = new RenderEngine();
+        ColorBuffer frame = new ColorBuffer(SIZE, SIZE);
+        ZBuffer depth = new ZBuffer(SIZE, SIZE);
+        Rasterizer rasterizer = new Rasterizer(depth);
+        RasterizerSettings base = new RasterizerSettings();
+        RenderEntity heavy = octagon(Color.RED);
+        engine.setInteractionTriangleBudget(1);
+
+        engine.setQuality(RenderQuality.INTERACTIVE);
+        engine.renderIncremental(frame, depth, SIZE, SIZE, List.of(heavy), null, camera, rasterizer, base, BACKGROUND);
+        assertEquals(BACKGROUND, frame.getArgb(SIZE / 2, SIZE / 2));
+        assertTrue(Arrays.stream(frame.getPixels()).anyMatch(p -> p == ColorBuffer.toArgb(Color.RED)));
+        assertNull(engine.getProjectedVertices(heavy.getModel()));
+
+        engine.setQuality(RenderQuality.FULL);
+        engine.renderIncremental(frame, depth, SIZE, SIZE, List.of(heavy), null, camera, rasterizer, base, BACKGROUND);
+        assertTrue(engine.getLastDirtyRegion().coversFrame(SIZE, SIZE));
+        assertEquals(ColorBuffer.toArgb(Color.RED), frame.getArgb(SIZE / 2, SIZE / 2));
+        assertNotNull(engine.getProjectedVertices(heavy.getModel()));
+    }
+
+    @Test
+    @DisplayName("Плоское затенение заливает грань одним цветом, а Гуро интерполирует освещение вершин")
+    void render_ShadingModes_ShouldDifferInInterpolation() {
+        RenderEntity flat = litQuad(ShadingMode.FLAT);
+        RenderEntity gouraud = litQuad(ShadingMode.GOURAUD);
+        RenderEntity phong = litQuad(ShadingMode.PHONG);
+
+        ColorBuffer flatFrame = renderSingle(flat);
+        ColorBuffer gouraudFrame = renderSingle(gouraud);
+        ColorBuffer phongFrame = renderSingle(phong);
+
+        int y = SIZE / 2;
+        int left = SIZE / 2 - 3;
+        int right = SIZE / 2 + 3;
+        assertEquals(flatFrame.getArgb(left, y), flatFrame.getArgb(right, y));
+        assertNotEquals(gouraudFrame.getArgb(left, y), gouraudFrame.getArgb(right, y));
+        assertNotEquals(phongFrame.getArgb(left, y), phongFrame.getArgb(right, y));
+        assertNotEquals(BACKGROUND, flatFrame.getArgb(left, y));
+    }
+
+    private ColorBuffer renderSingle(RenderEntity entity) {
+        ColorBuffer frame = new ColorBuffer(SIZE, SIZE);
+        frame.fill(BACKGROUND);
+        new RenderEngine().render(frame, SIZE, SIZE, List.of(entity), null, camera,
+            new Rasterizer(new ZBuffer(SIZE, SIZE)), new RasterizerSettings());
+        return frame;
+    }
+
+    private static RenderEntity litQuad(ShadingMode shading) {
+        RenderEntity entity = quad(GraphicConveyor.translate(0, 0, 0), Color.WHITE);
+        Model model = entity.getModel();
+        model.setNormals(new ArrayList<>(List.of(new Vector3f(0, 0, 1), new Vector3f(1, 0, 0.2f))));
+        model.getPolygonsMutable().set(0, new Polygon(List.of(0, 1, 2, 3), List.of(), List.of(0, 1, 1, 0)));
+        entity.getSettings().setUseLighting(true);
+        entity.getSettings().setLightIntensity(1.0f);
+        entity.getSettings().setShadingMode(shading);
+        return entity;
+    }
+
+    private static RenderEntity octagon(Color color) {
+        Model model = new Model();
+        for (int i = 0; i < 8; i++) {
+            double angle = Math.PI * 2 * i / 8;
+            model.addVertex(new Vector3f((float) Math.cos(angle) * 0.5f, (float) Math.sin(angle) * 0.5f, 0));
+        }
+        model.addPolygon(new Polygon(List.of(0, 1, 2, 3, 4, 5, 6, 7), List.of(), List.of()));
+
+        RasterizerSettings settings = new RasterizerSettings();
+        settings.setUseLighting(false);
+        settings.setDefaultColor(color);
+        Matrix4x4 identity = GraphicConveyor.translate(0, 0, 0);
+        return new RenderEntity(model, identity, identity, null, settings);
+    }
+
+    private static RenderEntity quad(Matrix4x4 modelMatrix, Color color) {
+        Model model = new Model();
+        model.addVertex(new Vector3f(-0.5f, -0.5f, 0));
+        model.addVertex(new Vector3f(0.5f, -0.5f, 0));
+        model.addVertex(new Vector3f(0.5f, 0.5f, 0));
+        model.addVertex(new Vector3f(-0.5f, 0.5f, 0));
+        model.addPolygon(new Polygon(List.of(0, 1, 2, 3), List.of(), List.of()));
+
+        RasterizerSettings settings = new RasterizerSettings();
+        settings.setUseLighting(false);
+        settings.setDefaultColor(color);
+        return new RenderEntity(model, modelMatrix, modelMatrix.inverse().transpose(), null, settings);
+    }
+}
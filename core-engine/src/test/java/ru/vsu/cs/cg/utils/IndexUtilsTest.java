@@ -29,256 +29,69 @@ public class IndexUtilsTest {
     }
 
     @Test
-    @DisplayName("Получение всех используемых индексов вершин из модели")
-    public void testGetAllUsedVertexIndices() {
-        Set<Integer> vertexIndices = IndexUtils.getAllUsedVertexIndices(simpleCubeModel);
+    @DisplayName("Маска используемых индексов вершин модели")
+    public void testMarkUsedVertexIndices() {
+        BitSet used = IndexUtils.markUsedIndices(simpleCubeModel, IndexUtils.VERTEX_EXTRACTOR);
 
-        assertNotNull(vertexIndices);
-        assertEquals(8, vertexIndices.size());
-        for (int i = 0; i < 8; i++) {
-            assertTrue(vertexIndices.contains(i));
-        }
+        assertEquals(8, used.cardinality());
+        assertEquals(8, used.length());
     }
 
     @Test
-    @DisplayName("Получение всех используемых текстурных индексов из модели")
-    public void testGetAllUsedTextureVertexIndices() {
-        Set<Integer> textureIndices = IndexUtils.getAllUsedTextureVertexIndices(cubeWithAdditionalVModel);
+    @DisplayName("Маска используемых текстурных координат и нормалей модели")
+    public void testMarkUsedTextureAndNormalIndices() {
+        BitSet textureIndices = IndexUtils.markUsedIndices(cubeWithAdditionalVModel, IndexUtils.TEXTURE_EXTRACTOR);
+        BitSet normalIndices = IndexUtils.markUsedIndices(cubeWithAdditionalVModel, IndexUtils.NORMAL_EXTRACTOR);
 
-        assertNotNull(textureIndices);
         assertFalse(textureIndices.isEmpty());
-    }
-
-    @Test
-    @DisplayName("Получение всех используемых нормалей из модели")
-    public void testGetAllUsedNormalIndices() {
-        Set<Integer> normalIndices = IndexUtils.getAllUsedNormalIndices(cubeWithAdditionalVModel);
-
-        assertNotNull(normalIndices);
         assertFalse(normalIndices.isEmpty());
     }
 
     @Test
-    @DisplayName("Получение всех используемых индексов с пользовательским экстрактором")
-    public void testGetAllUsedIndicesWithCustomExtractor() {
-        Set<Integer> vertexIndices = IndexUtils.getAllUsedIndices(simpleCubeModel, IndexUtils.VERTEX_EXTRACTOR);
-
-        assertNotNull(vertexIndices);
-        assertEquals(8, vertexIndices.size());
-        for (int i = 0; i < 8; i++) {
-            assertTrue(vertexIndices.contains(i));
-        }
-    }
-
-    @Test
-    @DisplayName("Создание маппинга индексов с исключением удаленных индексов")
-    public void testCreateIndexMappingExcluding() {
-        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 1, 2, 3, 4, 5));
-        Set<Integer> removedIndices = new HashSet<>(Arrays.asList(1, 3, 5));
-
-        Map<Integer, Integer> mapping = IndexUtils.createIndexMappingExcluding(usedIndices, removedIndices);
-
-        assertNotNull(mapping);
-        assertEquals(3, mapping.size());
-        assertEquals(0, mapping.get(0));
-        assertEquals(1, mapping.get(2));
-        assertEquals(2, mapping.get(4));
-        assertNull(mapping.get(1));
-        assertNull(mapping.get(3));
-        assertNull(mapping.get(5));
-    }
-
-    @Test
-    @DisplayName("Создание маппинга индексов с пустым набором используемых индексов")
-    public void testCreateIndexMappingExcludingEmptyUsedIndices() {
-        Set<Integer> usedIndices = new HashSet<>();
-        Set<Integer> removedIndices = new HashSet<>(Arrays.asList(1, 2, 3));
-
-        Map<Integer, Integer> mapping = IndexUtils.createIndexMappingExcluding(usedIndices, removedIndices);
-
-        assertNotNull(mapping);
-        assertTrue(mapping.isEmpty());
-    }
-
-    @Test
-    @DisplayName("Создание маппинга индексов с null набором удаленных индексов")
-    public void testCreateIndexMappingExcludingNullRemovedIndices() {
-        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 1, 2, 3, 4));
-
-        Map<Integer, Integer> mapping = IndexUtils.createIndexMappingExcluding(usedIndices, null);
-
-        assertNotNull(mapping);
-        assertEquals(5, mapping.size());
-        assertEquals(0, mapping.get(0));
-        assertEquals(1, mapping.get(1));
-        assertEquals(2, mapping.get(2));
-        assertEquals(3, mapping.get(3));
-        assertEquals(4, mapping.get(4));
-    }
-
-    @Test
-    @DisplayName("Создание маппинга индексов с удалением всех индексов")
-    public void testCreateIndexMappingExcludingAllRemoved() {
-        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 1, 2, 3, 4));
-        Set<Integer> removedIndices = new HashSet<>(Arrays.asList(0, 1, 2, 3, 4));
-
-        Map<Integer, Integer> mapping = IndexUtils.createIndexMappingExcluding(usedIndices, removedIndices);
-
-        assertNotNull(mapping);
-        assertTrue(mapping.isEmpty());
-    }
-
-    @Test
-    @DisplayName("Создание полного маппинга индексов с исключением удаленных")
-    public void testCreateFullIndexMapping() {
-        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 2, 4, 6, 8));
-        Set<Integer> removedIndices = new HashSet<>(Arrays.asList(2, 6));
-
-        Map<Integer, Integer> mapping = IndexUtils.createFullIndexMapping(usedIndices, removedIndices);
-
-        assertNotNull(mapping);
-        assertEquals(3, mapping.size());
-        assertEquals(0, mapping.get(0));
-        assertEquals(1, mapping.get(4));
-        assertEquals(2, mapping.get(8));
-        assertNull(mapping.get(2));
-        assertNull(mapping.get(6));
-    }
-
-    @Test
-    @DisplayName("Создание полного маппинга индексов с непрерывными индексами")
-    public void testCreateFullIndexMappingContinuousIndices() {
-        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 1, 2, 3, 4));
-        Set<Integer> removedIndices = new HashSet<>(Arrays.asList(1, 3));
+    @DisplayName("Таблица переиндексации после удаления отмеченных элементов")
+    public void testCreateRemapTable() {
+        BitSet removed = new BitSet();
+        removed.set(1);
+        removed.set(3);
 
-        Map<Integer, Integer> mapping = IndexUtils.createFullIndexMapping(usedIndices, removedIndices);
+        int[] remap = IndexUtils.createRemapTable(5, removed);
 
-        assertNotNull(mapping);
-        assertEquals(3, mapping.size());
-        assertEquals(0, mapping.get(0));
-        assertEquals(1, mapping.get(2));
-        assertEquals(2, mapping.get(4));
-        assertNull(mapping.get(1));
-        assertNull(mapping.get(3));
+        assertArrayEquals(new int[]{0, -1, 1, -1, 2}, remap);
     }
 
     @Test
-    @DisplayName("Создание полного маппинга индексов с пустым набором используемых индексов")
-    public void testCreateFullIndexMappingEmptyUsedIndices() {
-        Set<Integer> usedIndices = new HashSet<>();
-        Set<Integer> removedIndices = new HashSet<>(Arrays.asList(1, 2, 3));
+    @DisplayName("Таблица плотной нумерации пропускает неиспользуемые и удаляемые индексы")
+    public void testCreateUsedRemapTable() {
+        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 4, 8, 10));
+        Set<Integer> removedIndices = new HashSet<>(List.of(8));
 
-        Map<Integer, Integer> mapping = IndexUtils.createFullIndexMapping(usedIndices, removedIndices);
+        int[] remap = IndexUtils.createUsedRemapTable(
+                IndexUtils.toBitSet(usedIndices, 11), IndexUtils.toBitSet(removedIndices, 11));
 
-        assertNotNull(mapping);
-        assertTrue(mapping.isEmpty());
+        assertArrayEquals(new int[]{0, -1, -1, -1, 1, -1, -1, -1, -1, -1, 2}, remap);
     }
 
     @Test
-    @DisplayName("Создание полного маппинга индексов с null набором удаленных индексов")
-    public void testCreateFullIndexMappingNullRemovedIndices() {
-        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 2, 4));
+    @DisplayName("Таблица плотной нумерации для реальной модели")
+    public void testCreateUsedRemapTableForRealModel() {
+        BitSet used = IndexUtils.markUsedIndices(simpleCubeModel, IndexUtils.VERTEX_EXTRACTOR);
+        BitSet removed = new BitSet();
+        removed.set(0, 2);
 
-        Map<Integer, Integer> mapping = IndexUtils.createFullIndexMapping(usedIndices, null);
+        int[] remap = IndexUtils.createUsedRemapTable(used, removed);
 
-        assertNotNull(mapping);
-        assertEquals(3, mapping.size());
-        assertEquals(0, mapping.get(0));
-        assertEquals(1, mapping.get(2));
-        assertEquals(2, mapping.get(4));
-    }
-
-    @Test
-    @DisplayName("Создание полного маппинга индексов с удалением всех индексов")
-    public void testCreateFullIndexMappingAllRemoved() {
-        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 2, 4));
-        Set<Integer> removedIndices = new HashSet<>(Arrays.asList(0, 2, 4));
-
-        Map<Integer, Integer> mapping = IndexUtils.createFullIndexMapping(usedIndices, removedIndices);
-
-        assertNotNull(mapping);
-        assertTrue(mapping.isEmpty());
-    }
-
-    @Test
-    @DisplayName("Создание полного маппинга индексов с неиспользуемыми промежуточными индексами")
-    public void testCreateFullIndexMappingWithUnusedIntermediate() {
-        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 5, 10));
-        Set<Integer> removedIndices = new HashSet<>(List.of(5));
-
-        Map<Integer, Integer> mapping = IndexUtils.createFullIndexMapping(usedIndices, removedIndices);
-
-        assertNotNull(mapping);
-        assertEquals(2, mapping.size());
-        assertEquals(0, mapping.get(0));
-        assertEquals(1, mapping.get(10));
-        assertNull(mapping.get(5));
-    }
-
-    @Test
-    @DisplayName("Создание полного маппинга для одного индекса")
-    public void testCreateFullIndexMappingSingleIndex() {
-        Set<Integer> usedIndices = new HashSet<>(List.of(5));
-        Set<Integer> removedIndices = new HashSet<>();
-
-        Map<Integer, Integer> mapping = IndexUtils.createFullIndexMapping(usedIndices, removedIndices);
-
-        assertNotNull(mapping);
-        assertEquals(1, mapping.size());
-        assertEquals(0, mapping.get(5));
-    }
-
-    @Test
-    @DisplayName("Сравнение createIndexMappingExcluding и createFullIndexMapping")
-    public void testCompareMappingMethods() {
-        Set<Integer> usedIndices = new HashSet<>(Arrays.asList(0, 5, 10));
-        Set<Integer> removedIndices = new HashSet<>(List.of(5));
-
-        Map<Integer, Integer> mappingExcluding = IndexUtils.createIndexMappingExcluding(usedIndices, removedIndices);
-        Map<Integer, Integer> mappingFull = IndexUtils.createFullIndexMapping(usedIndices, removedIndices);
-
-        assertNotNull(mappingExcluding);
-        assertNotNull(mappingFull);
-
-        assertEquals(2, mappingExcluding.size());
-        assertEquals(2, mappingFull.size());
-
-        assertEquals(mappingExcluding.get(0), mappingFull.get(0));
-        assertEquals(mappingExcluding.get(10), mappingFull.get(10));
-    }
-
-    @Test
-    @DisplayName("Получение индексов из модели с полигонами, содержащими текстуры и нормали")
-    public void testGetAllIndicesFromModelWithTexturesAndNormals() {
-        Set<Integer> vertexIndices = IndexUtils.getAllUsedVertexIndices(cubeWithAdditionalVModel);
-        Set<Integer> textureIndices = IndexUtils.getAllUsedTextureVertexIndices(cubeWithAdditionalVModel);
-        Set<Integer> normalIndices = IndexUtils.getAllUsedNormalIndices(cubeWithAdditionalVModel);
-
-        assertNotNull(vertexIndices);
-        assertNotNull(textureIndices);
-        assertNotNull(normalIndices);
-        assertFalse(vertexIndices.isEmpty());
-        assertFalse(textureIndices.isEmpty());
-        assertFalse(normalIndices.isEmpty());
+        assertEquals(-1, remap[0]);
+        assertEquals(-1, remap[1]);
+        for (int i = 2; i < 8; i++) {
+            assertEquals(i - 2, remap[i]);
+        }
     }
 
     @Test
-    @DisplayName("Создание маппинга для реальной модели")
-    public void testCreateMappingForRealModel() {
-        Set<Integer> usedVertexIndices = IndexUtils.getAllUsedVertexIndices(simpleCubeModel);
-        Set<Integer> removedIndices = new HashSet<>(Arrays.asList(0, 1));
-
-        Map<Integer, Integer> mapping = IndexUtils.createIndexMappingExcluding(usedVertexIndices, removedIndices);
-
-        assertNotNull(mapping);
-        assertEquals(6, mapping.size());
-
-        for (int i = 2; i < 8; i++) {
-            assertTrue(mapping.containsKey(i));
-            assertTrue(mapping.get(i) >= 0);
-        }
+    @DisplayName("Таблица плотной нумерации пустой маски")
+    public void testCreateUsedRemapTableEmpty() {
+        int[] remap = IndexUtils.createUsedRemapTable(new BitSet(), new BitSet());
 
-        assertFalse(mapping.containsKey(0));
-        assertFalse(mapping.containsKey(1));
+        assertEquals(0, remap.length);
     }
 }
@@ -159,15 +159,15 @@ public class ModelUtilsTest {
     }
 
     @Test
-    @DisplayName("Частичная переиндексация модели")
-    public void testPartialReindexModel() {
+    @DisplayName("Переиндексация модели")
+    public void testReindexModel() {
         Model testModel = createSimpleTestModel();
 
         Set<Integer> removedVertexIndices = new HashSet<>(List.of(0));
         Set<Integer> removedTextureIndices = new HashSet<>();
         Set<Integer> removedNormalIndices = new HashSet<>();
 
-        ModelUtils.partialReindexModel(testModel, removedVertexIndices,
+        ModelUtils.reindexModel(testModel, removedVertexIndices,
                 removedTextureIndices, removedNormalIndices);
 
         assertFalse(testModel.getPolygons().isEmpty());
@@ -180,48 +180,8 @@ public class ModelUtilsTest {
     }
 
     @Test
-    @DisplayName("Полная переиндексация модели")
-    public void testFullReindexModel() {
-        Model testModel = createSimpleTestModel();
-
-        Set<Integer> removedVertexIndices = new HashSet<>(List.of(0));
-        Set<Integer> removedTextureIndices = new HashSet<>();
-        Set<Integer> removedNormalIndices = new HashSet<>();
-
-        ModelUtils.fullReindexModel(testModel, removedVertexIndices,
-                removedTextureIndices, removedNormalIndices);
-
-        assertFalse(testModel.getPolygons().isEmpty());
-
-        Set<Integer> usedIndices = new HashSet<>();
-        for (Polygon polygon : testModel.getPolygons()) {
-            usedIndices.addAll(polygon.getVertexIndices());
-        }
-
-        assertFalse(usedIndices.isEmpty());
-        for (Integer index : usedIndices) {
-            assertTrue(index >= 0);
-        }
-    }
-
-    @Test
-    @DisplayName("Частичная переиндексация пустой модели")
-    public void testPartialReindexModelEmptyModel() {
-        Model emptyModel = new Model();
-        emptyModel.setPolygons(new ArrayList<>());
-        Set<Integer> removedVertexIndices = new HashSet<>(Arrays.asList(0, 1));
-        Set<Integer> removedTextureIndices = new HashSet<>();
-        Set<Integer> removedNormalIndices = new HashSet<>();
-
-        assertDoesNotThrow(() -> {
-            ModelUtils.partialReindexModel(emptyModel, removedVertexIndices,
-                    removedTextureIndices, removedNormalIndices);
-        });
-    }
-
-    @Test
-    @DisplayName("Полная переиндексация пустой модели")
-    public void testFullReindexModelEmptyModel() {
+    @DisplayName("Переиндексация пустой модели")
+    public void testReindexModelEmptyModel() {
         Model emptyModel = new Model();
         emptyModel.setPolygons(new ArrayList<>());
         Set<Integer> removedVertexIndices = new HashSet<>(Arrays.asList(0, 1));
@@ -229,7 +189,7 @@ public class ModelUtilsTest {
         Set<Integer> removedNormalIndices = new HashSet<>();
 
         assertDoesNotThrow(() -> {
-            ModelUtils.fullReindexModel(emptyModel, removedVertexIndices,
+            ModelUtils.reindexModel(emptyModel, removedVertexIndices,
                     removedTextureIndices, removedNormalIndices);
         });
     }
@@ -256,8 +216,8 @@ public class ModelUtilsTest {
     }
 
     @Test
-    @DisplayName("Частичная переиндексация после удаления полигонов")
-    public void testPartialReindexModelAfterRemovingPolygons() {
+    @DisplayName("Переиндексация после удаления полигонов")
+    public void testReindexModelAfterRemovingPolygons() {
         Model testModel = new Model();
         testModel.setPolygons(new ArrayList<>());
 
@@ -273,7 +233,7 @@ public class ModelUtilsTest {
         Set<Integer> removedTextureIndices = new HashSet<>();
         Set<Integer> removedNormalIndices = new HashSet<>();
 
-        ModelUtils.partialReindexModel(testModel, removedVertexIndices,
+        ModelUtils.reindexModel(testModel, removedVertexIndices,
                 removedTextureIndices, removedNormalIndices);
 
         assertFalse(testModel.getPolygons().isEmpty());
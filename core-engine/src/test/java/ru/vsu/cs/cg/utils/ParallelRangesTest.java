@@ -0,0 +1,44 @@
+package ru.vsu.cs.cg.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelRangesTest {
+
+    @Test
+    @DisplayName("Небольшое количество элементов обрабатывается одним диапазоном")
+    public void testSmallCountRunsSingleRange() {
+        List<int[]> ranges = new CopyOnWriteArrayList<>();
+
+        ParallelRanges.forEach(100, (from, to) -> ranges.add(new int[]{from, to}));
+
+        assertEquals(1, ranges.size());
+        assertArrayEquals(new int[]{0, 100}, ranges.get(0));
+    }
+
+    @Test
+    @DisplayName("Каждый индекс обрабатывается ровно один раз при разбиении на диапазоны")
+    public void testLargeCountVisitsEveryIndexOnce() {
+        int count = 1000;
+        AtomicIntegerArray visits = new AtomicIntegerArray(count);
+        List<int[]> ranges = new CopyOnWriteArrayList<>();
+
+        ParallelRanges.forEach(count, 64, (from, to) -> {
+            ranges.add(new int[]{from, to});
+            for (int i = from; i < to; i++) {
+                visits.incrementAndGet(i);
+            }
+        });
+
+        assertEquals(16, ranges.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(1, visits.get(i));
+        }
+    }
+}
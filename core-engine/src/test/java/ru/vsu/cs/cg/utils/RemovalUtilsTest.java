@@ -302,4 +302,22 @@ public class RemovalUtilsTest {
 
         assertEquals(0, testModel.getNormals().size());
     }
+
+    @Test
+    @DisplayName("Уплотнение списка по битовой маске сохраняет порядок оставшихся элементов")
+    public void testCompact() {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            list.add(i);
+        }
+        BitSet removed = new BitSet();
+        removed.set(0);
+        removed.set(5, 8);
+        removed.set(20);
+
+        int removedCount = RemovalUtils.compact(list, removed);
+
+        assertEquals(4, removedCount);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 8, 9), list);
+    }
 }
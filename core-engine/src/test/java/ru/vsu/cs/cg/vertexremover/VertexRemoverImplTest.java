@@ -3,7 +3,9 @@ package ru.vsu.cs.cg.vertexremover;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.vsu.cs.cg.exceptions.VertexRemoverException;
+import ru.vsu.cs.cg.math.Vector3f;
 import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
 import ru.vsu.cs.cg.objreader.ObjReader;
 import ru.vsu.cs.cg.vertexremover.dto.VertexRemovalResult;
 
@@ -347,4 +349,21 @@ public class VertexRemoverImplTest {
         assertTrue(result.getRemovedVerticesCount() > 0);
         assertTrue(result.getRemovedPolygonsCount() > 0);
     }
+
+    @Test
+    public void testRemoveVertexKeepsIndicesOfOrphanVertices() throws VertexRemoverException {
+        Model model = new Model();
+        for (int i = 0; i < 6; i++) {
+            model.addVertex(new Vector3f(i, i % 2, 0));
+        }
+        model.addPolygon(new Polygon(List.of(0, 2, 3), List.of(), List.of()));
+        model.addPolygon(new Polygon(List.of(3, 4, 5), List.of(), List.of()));
+
+        VertexRemovalResult result = vertexRemover.removeVertices(model, Set.of(5), false);
+
+        assertEquals(1, result.getRemovedPolygonsCount());
+        assertEquals(5, model.getVertices().size());
+        assertEquals(List.of(0, 2, 3), model.getPolygons().get(0).getVertexIndices());
+        assertEquals(3.0f, model.getVertices().get(3).getX(), 1e-6f);
+    }
 }
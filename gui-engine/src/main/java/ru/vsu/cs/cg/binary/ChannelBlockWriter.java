@@ -0,0 +1,128 @@
+package ru.vsu.cs.cg.binary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Буферизованная запись примитивов в little-endian порядке в канал.
+ * Отслеживает абсолютную позицию в файле, чтобы писатель сцены мог
+ * запоминать смещения геометрических блоков для таблицы мешей.
+ */
+final class ChannelBlockWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private long position;
+
+    ChannelBlockWriter(WritableByteChannel channel, long startPosition) {
+        this(channel, startPosition, ByteBuffer.allocateDirect(BUFFER_SIZE));
+    }
+
+    /**
+     * Создает писатель с небольшим буфером в куче; подходит для коротких записей в память.
+     */
+    ChannelBlockWriter(WritableByteChannel channel, long startPosition, int bufferSize) {
+        this(channel, startPosition, ByteBuffer.allocate(bufferSize));
+    }
+
+    private ChannelBlockWriter(WritableByteChannel channel, long startPosition, ByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.position = startPosition;
+    }
+
+    long position() {
+        return position;
+    }
+
+    void writeByte(int value) throws IOException {
+        ensureCapacity(Byte.BYTES);
+        buffer.put((byte) value);
+        position += Byte.BYTES;
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+        writeByte(value ? 1 : 0);
+    }
+
+    void writeShort(int value) throws IOException {
+        ensureCapacity(Short.BYTES);
+        buffer.putShort((short) value);
+        position += Short.BYTES;
+    }
+
+    void writeInt(int value) throws IOException {
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(value);
+        position += Integer.BYTES;
+    }
+
+    void writeLong(long value) throws IOException {
+        ensureCapacity(Long.BYTES);
+        buffer.putLong(value);
+        position += Long.BYTES;
+    }
+
+    void writeFloat(float value) throws IOException {
+        ensureCapacity(Float.BYTES);
+        buffer.putFloat(value);
+        position += Float.BYTES;
+    }
+
+    void writeDouble(double value) throws IOException {
+        ensureCapacity(Double.BYTES);
+        buffer.putDouble(value);
+        position += Double.BYTES;
+    }
+
+    /**
+     * Записывает строку как длину в байтах и UTF-8 содержимое.
+     * Для {@code null} записывается длина -1.
+     */
+    void writeString(String value) throws IOException {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        writeBytes(bytes);
+    }
+
+    void writeNullableFloat(Float value) throws IOException {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeFloat(value);
+        }
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensureCapacity(1);
+            int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+        position += bytes.length;
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
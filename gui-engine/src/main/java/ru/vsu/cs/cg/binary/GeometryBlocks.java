@@ -0,0 +1,249 @@
+package ru.vsu.cs.cg.binary;
+
+import ru.vsu.cs.cg.math.Vector2f;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кодирование геометрии модели в колоночные блоки.
+ * <p>
+ * Порядок блоков: вершины (3 float), текстурные вершины (2 float), нормали (3 float),
+ * размеры полигонов (3 int на полигон: число индексов вершин, текстур и нормалей),
+ * индексы вершин, индексы текстурных вершин, индексы нормалей.
+ * Каждый блок начинается с количества элементов (int).
+ */
+final class GeometryBlocks {
+    static final int BOUNDS_LENGTH = 6;
+
+    private GeometryBlocks() {
+    }
+
+    static void write(ChannelBlockWriter out, Model model) throws IOException {
+        List<Vector3f> vertices = model.getVertices();
+        out.writeInt(vertices.size() * 3);
+        for (Vector3f vertex : vertices) {
+            out.writeFloat(vertex.getX());
+            out.writeFloat(vertex.getY());
+            out.writeFloat(vertex.getZ());
+        }
+
+        List<Vector2f> textureVertices = model.getTextureVertices();
+        out.writeInt(textureVertices.size() * 2);
+        for (Vector2f textureVertex : textureVertices) {
+            out.writeFloat(textureVertex.getX());
+            out.writeFloat(textureVertex.getY());
+        }
+
+        List<Vector3f> normals = model.getNormals();
+        out.writeInt(normals.size() * 3);
+        for (Vector3f normal : normals) {
+            out.writeFloat(normal.getX());
+            out.writeFloat(normal.getY());
+            out.writeFloat(normal.getZ());
+        }
+
+        List<Polygon> polygons = model.getPolygons();
+        int vertexIndexCount = 0;
+        int textureIndexCount = 0;
+        int normalIndexCount = 0;
+
+        out.writeInt(polygons.size() * 3);
+        for (Polygon polygon : polygons) {
+            int vertexCount = polygon.getVertexIndices().size();
+            int textureCount = polygon.getTextureVertexIndices().size();
+            int normalCount = polygon.getNormalIndices().size();
+            out.writeInt(vertexCount);
+            out.writeInt(textureCount);
+            out.writeInt(normalCount);
+            vertexIndexCount += vertexCount;
+            textureIndexCount += textureCount;
+            normalIndexCount += normalCount;
+        }
+
+        out.writeInt(vertexIndexCount);
+        for (Polygon polygon : polygons) {
+            writeIndices(out, polygon.getVertexIndices());
+        }
+
+        out.writeInt(textureIndexCount);
+        for (Polygon polygon : polygons) {
+            writeIndices(out, polygon.getTextureVertexIndices());
+        }
+
+        out.writeInt(normalIndexCount);
+        for (Polygon polygon : polygons) {
+            writeIndices(out, polygon.getNormalIndices());
+        }
+    }
+
+    /**
+     * Вычисляет ограничивающий параллелепипед вершин модели:
+     * {@code [minX, minY, minZ, maxX, maxY, maxZ]}. Для модели без вершин
+     * возвращает нулевой параллелепипед.
+     */
+    static float[] bounds(Model model) {
+        List<Vector3f> vertices = model.getVertices();
+        if (vertices.isEmpty()) {
+            return new float[BOUNDS_LENGTH];
+        }
+
+        float[] bounds = {
+            Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+        for (Vector3f vertex : vertices) {
+            bounds[0] = Math.min(bounds[0], vertex.getX());
+            bounds[1] = Math.min(bounds[1], vertex.getY());
+            bounds[2] = Math.min(bounds[2], vertex.getZ());
+            bounds[3] = Math.max(bounds[3], vertex.getX());
+            bounds[4] = Math.max(bounds[4], vertex.getY());
+            bounds[5] = Math.max(bounds[5], vertex.getZ());
+        }
+        return bounds;
+    }
+
+    /**
+     * Вычисляет SHA-256 от закодированного представления геометрии.
+     * Две модели с одинаковыми вершинами, нормалями и полигонами дают одинаковый хэш,
+     * что позволяет хранить их в файле сцены как один меш.
+     */
+    static byte[] contentHash(Model model) throws IOException {
+        MessageDigest digest = createDigest();
+        ChannelBlockWriter out = new ChannelBlockWriter(new DigestChannel(digest), 0);
+        write(out, model);
+        out.flush();
+        return digest.digest();
+    }
+
+    /**
+     * Читает геометрию из буфера, начиная с его текущей позиции.
+     * Буфер должен иметь порядок байтов little-endian.
+     */
+    static void read(ByteBuffer in, Model model) throws IOException {
+        FloatBuffer vertexData = floatBlock(in);
+        List<Vector3f> vertices = new ArrayList<>(vertexData.remaining() / 3);
+        while (vertexData.remaining() >= 3) {
+            vertices.add(new Vector3f(vertexData.get(), vertexData.get(), vertexData.get()));
+        }
+
+        FloatBuffer textureData = floatBlock(in);
+        List<Vector2f> textureVertices = new ArrayList<>(textureData.remaining() / 2);
+        while (textureData.remaining() >= 2) {
+            textureVertices.add(new Vector2f(textureData.get(), textureData.get()));
+        }
+
+        FloatBuffer normalData = floatBlock(in);
+        List<Vector3f> normals = new ArrayList<>(normalData.remaining() / 3);
+        while (normalData.remaining() >= 3) {
+            normals.add(new Vector3f(normalData.get(), normalData.get(), normalData.get()));
+        }
+
+        IntBuffer sizes = intBlock(in);
+        IntBuffer vertexIndices = intBlock(in);
+        IntBuffer textureIndices = intBlock(in);
+        IntBuffer normalIndices = intBlock(in);
+
+        int polygonCount = sizes.remaining() / 3;
+        List<Polygon> polygons = new ArrayList<>(polygonCount);
+        for (int i = 0; i < polygonCount; i++) {
+            List<Integer> polygonVertices = readIndices(vertexIndices, sizes.get());
+            List<Integer> polygonTextures = readIndices(textureIndices, sizes.get());
+            List<Integer> polygonNormals = readIndices(normalIndices, sizes.get());
+            polygons.add(new Polygon(polygonVertices, polygonTextures, polygonNormals));
+        }
+
+        model.setVertices(vertices);
+        model.setTextureVertices(textureVertices);
+        model.setNormals(normals);
+        model.setPolygons(polygons);
+    }
+
+    private static MessageDigest createDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Алгоритм хэширования геометрии недоступен", e);
+        }
+    }
+
+    private static void writeIndices(ChannelBlockWriter out, List<Integer> indices) throws IOException {
+        for (Integer index : indices) {
+            out.writeInt(index);
+        }
+    }
+
+    private static List<Integer> readIndices(IntBuffer source, int count) throws IOException {
+        if (count < 0 || count > source.remaining()) {
+            throw new IOException("Поврежден блок индексов полигона");
+        }
+
+        List<Integer> indices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            indices.add(source.get());
+        }
+        return indices;
+    }
+
+    private static FloatBuffer floatBlock(ByteBuffer in) throws IOException {
+        int count = blockLength(in, Float.BYTES);
+        FloatBuffer block = in.slice().order(in.order()).asFloatBuffer();
+        block.limit(count);
+        in.position(in.position() + count * Float.BYTES);
+        return block;
+    }
+
+    private static IntBuffer intBlock(ByteBuffer in) throws IOException {
+        int count = blockLength(in, Integer.BYTES);
+        IntBuffer block = in.slice().order(in.order()).asIntBuffer();
+        block.limit(count);
+        in.position(in.position() + count * Integer.BYTES);
+        return block;
+    }
+
+    private static int blockLength(ByteBuffer in, int elementSize) throws IOException {
+        if (in.remaining() < Integer.BYTES) {
+            throw new IOException("Неожиданный конец блока геометрии");
+        }
+
+        int count = in.getInt();
+        if (count < 0 || (long) count * elementSize > in.remaining()) {
+            throw new IOException("Некорректная длина блока геометрии: " + count);
+        }
+        return count;
+    }
+
+    private static final class DigestChannel implements WritableByteChannel {
+        private final MessageDigest digest;
+
+        private DigestChannel(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            int length = source.remaining();
+            digest.update(source);
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
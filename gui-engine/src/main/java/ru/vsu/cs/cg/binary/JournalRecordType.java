@@ -0,0 +1,37 @@
+package ru.vsu.cs.cg.binary;
+
+/**
+ * Типы записей журнала автосохранения. Код записывается первым байтом записи.
+ */
+enum JournalRecordType {
+    TRANSFORM(1),
+    MATERIAL(2),
+    RENAME(3),
+    VISIBILITY(4),
+    OBJECT_ADDED(5),
+    OBJECT_REMOVED(6),
+    VERTICES_REMOVED(7),
+    POLYGONS_REMOVED(8),
+    GEOMETRY_RESTORED(9),
+    PARENT_CHANGED(10),
+    OBJECT_DUPLICATED(11);
+
+    private final int code;
+
+    JournalRecordType(int code) {
+        this.code = code;
+    }
+
+    int getCode() {
+        return code;
+    }
+
+    static JournalRecordType fromCode(int code) {
+        for (JournalRecordType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
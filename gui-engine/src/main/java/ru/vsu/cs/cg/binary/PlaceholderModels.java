@@ -0,0 +1,52 @@
+package ru.vsu.cs.cg.binary;
+
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Модели-заглушки, которые отображаются вместо объектов,
+ * чья геометрия еще декодируется в фоне.
+ */
+final class PlaceholderModels {
+    private static final int[][] BOX_FACES = {
+        {0, 2, 3, 1}, {4, 5, 7, 6},
+        {0, 1, 5, 4}, {2, 6, 7, 3},
+        {0, 4, 6, 2}, {1, 3, 7, 5}
+    };
+
+    private PlaceholderModels() {
+    }
+
+    /**
+     * Создает параллелепипед по границам {@code [minX, minY, minZ, maxX, maxY, maxZ]}.
+     * Без известных границ возвращает пустую модель.
+     */
+    static Model boundingBox(float[] bounds) {
+        Model model = new Model();
+        if (bounds == null) {
+            return model;
+        }
+
+        for (int corner = 0; corner < 8; corner++) {
+            model.addVertex(new Vector3f(
+                (corner & 1) == 0 ? bounds[0] : bounds[3],
+                (corner & 2) == 0 ? bounds[1] : bounds[4],
+                (corner & 4) == 0 ? bounds[2] : bounds[5]));
+        }
+
+        for (int[] face : BOX_FACES) {
+            List<Integer> vertexIndices = new ArrayList<>(face.length);
+            for (int index : face) {
+                vertexIndices.add(index);
+            }
+            model.addPolygon(new Polygon(vertexIndices, new ArrayList<>(), new ArrayList<>()));
+        }
+
+        model.recomputeNormals();
+        return model;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.vsu.cs.cg.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Описание бинарного контейнера сцены {@code .3dscene}.
+ * <p>
+ * Все числа записываются в порядке little-endian. Структура файла:
+ * <pre>
+ * заголовок      : magic "3DSC" (4 байта), версия (short), флаги (short),
+ *                  смещение таблицы объектов (long)
+ * геометрия      : по одной записи на уникальный меш, каждая состоит из блоков
+ *                  [количество элементов (int), данные (float/int)]
+ * таблица        : параметры сцены, таблица мешей (хэш содержимого, смещение, длина,
+ *                  ограничивающий параллелепипед) и записи объектов (имя, трансформация,
+ *                  материал, настройки отрисовки, индекс меша, идентификатор родителя)
+ * </pre>
+ * Таблица пишется в конце файла, поэтому геометрия записывается потоково,
+ * без предварительного расчета размеров. Объекты с одинаковой геометрией
+ * ссылаются на один меш, который при загрузке декодируется один раз.
+ * Блоки геометрии читаются через отображение файла в память.
+ * Границы мешей в таблице позволяют показать объекты заглушками
+ * еще до декодирования геометрии. Файлы версии 2 (без границ), версии 3
+ * (без иерархии объектов) и версии 4 (без способа освещения) также читаются.
+ */
+public final class SceneBinaryFormat {
+    static final byte[] MAGIC = {'3', 'D', 'S', 'C'};
+    static final short VERSION = 5;
+    static final short MIN_READABLE_VERSION = 2;
+    static final int HEADER_SIZE = MAGIC.length + Short.BYTES + Short.BYTES + Long.BYTES;
+    static final int TABLE_OFFSET_POSITION = MAGIC.length + Short.BYTES + Short.BYTES;
+
+    private SceneBinaryFormat() {
+    }
+
+    /**
+     * Проверяет, начинается ли файл с сигнатуры бинарной сцены.
+     * Позволяет отличить бинарные файлы от старых JSON-файлов с тем же расширением.
+     *
+     * @param path путь к файлу
+     * @return {@code true}, если файл является бинарной сценой
+     */
+    public static boolean isBinaryScene(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            byte[] signature = input.readNBytes(MAGIC.length);
+            return Arrays.equals(signature, MAGIC);
+        }
+    }
+}
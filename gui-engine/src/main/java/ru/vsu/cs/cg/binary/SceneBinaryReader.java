@@ -0,0 +1,224 @@
+package ru.vsu.cs.cg.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.rasterization.RasterizerSettings;
+import ru.vsu.cs.cg.scene.Material;
+import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneLoad;
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.scene.Transform;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Чтение сцены из бинарного формата {@code .3dscene}.
+ * Таблица объектов и блоки геометрии читаются через отображение файла в память.
+ * Каждый меш декодируется один раз; остальные объекты, ссылающиеся на него,
+ * получают копию уже декодированной модели.
+ *
+ * @see SceneBinaryFormat
+ */
+public final class SceneBinaryReader {
+    private static final Logger LOG = LoggerFactory.getLogger(SceneBinaryReader.class);
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private SceneBinaryReader() {
+    }
+
+    public static Scene read(Path path) throws IOException {
+        SceneLoad load = readProgressively(path, DIRECT_EXECUTOR, DIRECT_EXECUTOR);
+        try {
+            return load.await();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause() : e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Ошибка декодирования геометрии: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Читает таблицу объектов и сразу возвращает сцену, в которой объекты
+     * представлены заглушками по границам своих мешей. Геометрия мешей
+     * декодируется параллельно в {@code workers}, а готовые модели подставляются
+     * в объекты через {@code publisher}, например в потоке интерфейса.
+     *
+     * @param path      путь к файлу сцены
+     * @param workers   исполнитель декодирования геометрии
+     * @param publisher исполнитель, в котором объекты получают готовую геометрию
+     * @return сцена с заглушками и признак завершения загрузки
+     */
+    public static SceneLoad readProgressively(Path path, Executor workers, Executor publisher) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < SceneBinaryFormat.HEADER_SIZE) {
+                throw new IOException("Файл слишком мал для бинарной сцены");
+            }
+
+            BlockReader header = new BlockReader(
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, SceneBinaryFormat.HEADER_SIZE));
+            byte[] magic = header.readBytes(SceneBinaryFormat.MAGIC.length);
+            if (!Arrays.equals(magic, SceneBinaryFormat.MAGIC)) {
+                throw new IOException("Файл не является бинарной сценой");
+            }
+
+            short version = header.readShort();
+            if (version < SceneBinaryFormat.MIN_READABLE_VERSION || version > SceneBinaryFormat.VERSION) {
+                throw new IOException("Неподдерживаемая версия бинарной сцены: " + version);
+            }
+            header.readShort();
+
+            long tableOffset = header.readLong();
+            if (tableOffset < SceneBinaryFormat.HEADER_SIZE || tableOffset > fileSize) {
+                throw new IOException("Некорректное смещение таблицы объектов: " + tableOffset);
+            }
+
+            BlockReader table = new BlockReader(
+                channel.map(FileChannel.MapMode.READ_ONLY, tableOffset, fileSize - tableOffset));
+            SceneTable sceneTable = readSceneTable(channel, table, fileSize, version);
+
+            LOG.debug("Таблица бинарной сцены прочитана: объектов={}, мешей={}, размер={} байт",
+                sceneTable.scene().getObjectCount(), sceneTable.meshes().length, fileSize);
+            return new SceneLoad(sceneTable.scene(), materialize(sceneTable, workers, publisher));
+        }
+    }
+
+    private static SceneTable readSceneTable(FileChannel channel, BlockReader table, long fileSize,
+                                             short version) throws IOException {
+        String sceneId = table.readString();
+        String sceneName = table.readString();
+        boolean gridVisible = table.readBoolean();
+        String selectedObjectId = table.readString();
+
+        int meshCount = table.readInt();
+        if (meshCount < 0) {
+            throw new IOException("Некорректное количество мешей: " + meshCount);
+        }
+
+        ByteBuffer[] meshes = new ByteBuffer[meshCount];
+        float[][] meshBounds = new float[meshCount][];
+        for (int i = 0; i < meshCount; i++) {
+            table.readString();
+            long offset = table.readLong();
+            long length = table.readLong();
+            if (offset < SceneBinaryFormat.HEADER_SIZE || length < 0 || offset + length > fileSize) {
+                throw new IOException("Некорректный блок геометрии меша " + i);
+            }
+            if (version >= 3) {
+                meshBounds[i] = new float[GeometryBlocks.BOUNDS_LENGTH];
+                for (int j = 0; j < GeometryBlocks.BOUNDS_LENGTH; j++) {
+                    meshBounds[i][j] = table.readFloat();
+                }
+            }
+            meshes[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int objectCount = table.readInt();
+        if (objectCount < 0) {
+            throw new IOException("Некорректное количество объектов: " + objectCount);
+        }
+
+        List<SceneObject> objects = new ArrayList<>(objectCount);
+        String[] parentIds = new String[objectCount];
+        List<List<SceneObject>> objectsByMesh = new ArrayList<>(meshCount);
+        for (int i = 0; i < meshCount; i++) {
+            objectsByMesh.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < objectCount; i++) {
+            String id = table.readString();
+            String name = table.readString();
+            boolean visible = table.readBoolean();
+            Transform transform = SceneRecordCodec.readTransform(table);
+            Material material = SceneRecordCodec.readMaterial(table);
+            RasterizerSettings settings = SceneRecordCodec.readRenderSettings(table, version >= 5);
+
+            int meshIndex = table.readInt();
+            if (meshIndex < 0 || meshIndex >= meshCount) {
+                throw new IOException("Объект '" + name + "' ссылается на несуществующий меш " + meshIndex);
+            }
+
+            Model placeholder = PlaceholderModels.boundingBox(meshBounds[meshIndex]);
+            SceneRecordCodec.readModelAttributes(table, placeholder);
+            if (version >= 4) {
+                parentIds[i] = table.readString();
+            }
+
+            SceneObject object = new SceneObject(id, name, placeholder, transform, material, visible, settings);
+            object.setLoading(true);
+            objects.add(object);
+            objectsByMesh.get(meshIndex).add(object);
+        }
+
+        Scene scene = new Scene(sceneId, sceneName, objects, selectedObjectId, gridVisible);
+        for (int i = 0; i < objectCount; i++) {
+            if (parentIds[i] != null) {
+                SceneObject child = objects.get(i);
+                scene.findObjectById(parentIds[i]).ifPresent(parent -> scene.setParent(child, parent));
+            }
+        }
+        return new SceneTable(scene, meshes, objectsByMesh);
+    }
+
+    private static CompletableFuture<Void> materialize(SceneTable table, Executor workers, Executor publisher) {
+        List<CompletableFuture<Void>> meshLoads = new ArrayList<>(table.meshes().length);
+
+        for (int i = 0; i < table.meshes().length; i++) {
+            ByteBuffer geometry = table.meshes()[i];
+            List<SceneObject> owners = table.objectsByMesh().get(i);
+            if (owners.isEmpty()) {
+                continue;
+            }
+
+            meshLoads.add(CompletableFuture
+                .supplyAsync(() -> decodeForOwners(geometry, owners), workers)
+                .thenAcceptAsync(models -> publish(owners, models), publisher));
+        }
+
+        return CompletableFuture.allOf(meshLoads.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private static List<Model> decodeForOwners(ByteBuffer geometry, List<SceneObject> owners) {
+        Model decoded = new Model();
+        try {
+            GeometryBlocks.read(geometry, decoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<Model> models = new ArrayList<>(owners.size());
+        for (int i = 0; i < owners.size(); i++) {
+            Model model = i == 0 ? decoded : decoded.copy();
+            SceneRecordCodec.copyModelAttributes(owners.get(i).getModel(), model);
+            model.getTriangulation();
+            models.add(model);
+        }
+        return models;
+    }
+
+    private static void publish(List<SceneObject> owners, List<Model> models) {
+        for (int i = 0; i < owners.size(); i++) {
+            SceneObject object = owners.get(i);
+            object.setModel(models.get(i));
+            object.setLoading(false);
+        }
+    }
+
+    private record SceneTable(Scene scene, ByteBuffer[] meshes, List<List<SceneObject>> objectsByMesh) {
+    }
+}
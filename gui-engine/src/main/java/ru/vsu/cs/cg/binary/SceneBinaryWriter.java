@@ -0,0 +1,117 @@
+package ru.vsu.cs.cg.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneObject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись сцены в бинарный формат {@code .3dscene}.
+ *
+ * @see SceneBinaryFormat
+ */
+public final class SceneBinaryWriter {
+    private static final Logger LOG = LoggerFactory.getLogger(SceneBinaryWriter.class);
+
+    private SceneBinaryWriter() {
+    }
+
+    public static void write(Scene scene, Path path) throws IOException {
+        List<SceneObject> objects = scene.getObjects();
+        int[] objectMeshes = new int[objects.size()];
+        List<MeshRecord> meshes = new ArrayList<>();
+        Map<Model, Integer> meshesByInstance = new IdentityHashMap<>();
+        Map<String, Integer> meshesByHash = new HashMap<>();
+
+        try (FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            ChannelBlockWriter out = new ChannelBlockWriter(channel, 0);
+            out.writeBytes(SceneBinaryFormat.MAGIC);
+            out.writeShort(SceneBinaryFormat.VERSION);
+            out.writeShort(0);
+            out.writeLong(0L);
+
+            for (int i = 0; i < objects.size(); i++) {
+                Model model = objects.get(i).getModel();
+                Integer meshIndex = meshesByInstance.get(model);
+
+                if (meshIndex == null) {
+                    String hash = HexFormat.of().formatHex(GeometryBlocks.contentHash(model));
+                    meshIndex = meshesByHash.get(hash);
+
+                    if (meshIndex == null) {
+                        long offset = out.position();
+                        GeometryBlocks.write(out, model);
+                        meshIndex = meshes.size();
+                        meshes.add(new MeshRecord(hash, offset, out.position() - offset, GeometryBlocks.bounds(model)));
+                        meshesByHash.put(hash, meshIndex);
+                    }
+                    meshesByInstance.put(model, meshIndex);
+                }
+
+                objectMeshes[i] = meshIndex;
+            }
+
+            long tableOffset = out.position();
+            writeSceneTable(out, scene, meshes, objects, objectMeshes);
+            out.flush();
+
+            ByteBuffer offsetBuffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            offsetBuffer.putLong(tableOffset).flip();
+            channel.write(offsetBuffer, SceneBinaryFormat.TABLE_OFFSET_POSITION);
+
+            LOG.debug("Бинарная сцена записана: объектов={}, уникальных мешей={}, размер={} байт",
+                objects.size(), meshes.size(), out.position());
+        }
+    }
+
+    private static void writeSceneTable(ChannelBlockWriter out, Scene scene, List<MeshRecord> meshes,
+                                        List<SceneObject> objects, int[] objectMeshes) throws IOException {
+        out.writeString(scene.getId());
+        out.writeString(scene.getName());
+        out.writeBoolean(scene.isGridVisible());
+        out.writeString(scene.getSelectedObject() != null ? scene.getSelectedObject().getId() : null);
+
+        out.writeInt(meshes.size());
+        for (MeshRecord mesh : meshes) {
+            out.writeString(mesh.hash());
+            out.writeLong(mesh.offset());
+            out.writeLong(mesh.length());
+            for (float bound : mesh.bounds()) {
+                out.writeFloat(bound);
+            }
+        }
+
+        out.writeInt(objects.size());
+        for (int i = 0; i < objects.size(); i++) {
+            SceneObject object = objects.get(i);
+            out.writeString(object.getId());
+            out.writeString(object.getName());
+            out.writeBoolean(object.isVisible());
+            SceneRecordCodec.writeTransform(out, object.getTransform());
+            SceneRecordCodec.writeMaterial(out, object.getMaterial());
+            SceneRecordCodec.writeRenderSettings(out, object.getRenderSettings());
+            out.writeInt(objectMeshes[i]);
+            SceneRecordCodec.writeModelAttributes(out, object.getModel());
+            out.writeString(object.getParentId());
+        }
+    }
+
+    private record MeshRecord(String hash, long offset, long length, float[] bounds) {
+    }
+}
@@ -0,0 +1,248 @@
+package ru.vsu.cs.cg.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.model.IndexSet;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.RemovedGeometry;
+import ru.vsu.cs.cg.rasterization.RasterizerSettings;
+import ru.vsu.cs.cg.scene.Material;
+import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.scene.Transform;
+import ru.vsu.cs.cg.utils.RemovalUtils;
+import ru.vsu.cs.cg.vertexremover.VertexRemoverImpl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Воспроизведение журнала автосохранения поверх снимка сцены.
+ * Чтение останавливается на первой неполной или поврежденной записи:
+ * такая запись могла остаться только от аварийного завершения во время дозаписи.
+ */
+public final class SceneJournalReader {
+    private static final Logger LOG = LoggerFactory.getLogger(SceneJournalReader.class);
+
+    private SceneJournalReader() {
+    }
+
+    /**
+     * Применяет записи журнала к сцене.
+     *
+     * @param path путь к журналу
+     * @param scene сцена, восстановленная из снимка
+     * @return количество примененных записей
+     */
+    public static int replay(Path path, Scene scene) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                .order(ByteOrder.LITTLE_ENDIAN);
+            short version = readHeader(buffer);
+
+            int applied = 0;
+            while (buffer.remaining() >= SceneJournalWriter.RECORD_HEADER_SIZE) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    LOG.warn("Журнал '{}' обрывается на записи {}, остаток отброшен", path, applied);
+                    break;
+                }
+
+                ByteBuffer record = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+                record.limit(length);
+                buffer.position(buffer.position() + length);
+
+                CRC32 crc = new CRC32();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    LOG.warn("Контрольная сумма записи {} журнала '{}' не совпадает, остаток отброшен", applied, path);
+                    break;
+                }
+
+                apply(new BlockReader(record), scene, version);
+                applied++;
+            }
+
+            LOG.debug("Журнал '{}' воспроизведен: записей={}", path, applied);
+            return applied;
+        }
+    }
+
+    /**
+     * Проверяет, содержит ли журнал хотя бы одну запись после заголовка.
+     */
+    public static boolean containsRecords(Path path) throws IOException {
+        return Files.size(path) > SceneJournalWriter.HEADER_SIZE;
+    }
+
+    private static short readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < SceneJournalWriter.HEADER_SIZE) {
+            throw new IOException("Файл журнала слишком мал");
+        }
+
+        byte[] magic = new byte[SceneJournalWriter.MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, SceneJournalWriter.MAGIC)) {
+            throw new IOException("Файл не является журналом автосохранения");
+        }
+
+        short version = buffer.getShort();
+        if (version < SceneJournalWriter.MIN_READABLE_VERSION || version > SceneJournalWriter.VERSION) {
+            throw new IOException("Неподдерживаемая версия журнала: " + version);
+        }
+        buffer.getShort();
+        buffer.getLong();
+        return version;
+    }
+
+    private static void apply(BlockReader in, Scene scene, short version) throws IOException {
+        JournalRecordType type = JournalRecordType.fromCode(in.readByte());
+        String objectId = in.readString();
+
+        if (type == null) {
+            LOG.warn("Неизвестный тип записи журнала для объекта {}, запись пропущена", objectId);
+            return;
+        }
+
+        if (type == JournalRecordType.OBJECT_ADDED) {
+            addObject(in, scene, objectId, version);
+            return;
+        }
+        if (type == JournalRecordType.OBJECT_DUPLICATED) {
+            duplicateObject(in, scene, objectId, version);
+            return;
+        }
+
+        Optional<SceneObject> target = scene.findObjectById(objectId);
+        if (target.isEmpty()) {
+            LOG.warn("Запись журнала {} ссылается на отсутствующий объект {}", type, objectId);
+            return;
+        }
+
+        SceneObject object = target.get();
+        switch (type) {
+            case TRANSFORM -> object.setTransform(SceneRecordCodec.readTransform(in));
+            case MATERIAL -> {
+                object.setMaterial(SceneRecordCodec.readMaterial(in));
+                object.setRenderSettings(SceneRecordCodec.readRenderSettings(in, version >= 3));
+            }
+            case RENAME -> object.setName(in.readString());
+            case VISIBILITY -> object.setVisible(in.readBoolean());
+            case PARENT_CHANGED -> setParent(scene, object, in.readString());
+            case OBJECT_REMOVED -> scene.removeObject(object);
+            case VERTICES_REMOVED -> {
+                boolean clearUnused = in.readBoolean();
+                new VertexRemoverImpl().removeVertices(object.getModel(), readIndices(in), clearUnused);
+            }
+            case POLYGONS_REMOVED -> RemovalUtils.removePolygonsFromModel(object.getModel(), readIndices(in));
+            case GEOMETRY_RESTORED -> restoreGeometry(in, object.getModel());
+            default -> LOG.warn("Запись журнала {} не поддерживается", type);
+        }
+    }
+
+    private static void addObject(BlockReader in, Scene scene, String objectId, short version) throws IOException {
+        String parentId = null;
+        int position = -1;
+        if (version >= 2) {
+            parentId = in.readString();
+            position = in.readInt();
+        }
+
+        SceneObject object = readObject(in, objectId, version, null);
+        place(scene, object, parentId, position);
+    }
+
+    /**
+     * Копия объекта разделяет геометрию с исходным объектом, который к этому моменту
+     * уже восстановлен из снимка или предыдущих записей журнала. Нормали исходной
+     * модели пересчитываются до копирования, чтобы копия не пересчитывала их отдельно.
+     */
+    private static void duplicateObject(BlockReader in, Scene scene, String objectId, short version)
+        throws IOException {
+        String sourceId = in.readString();
+        String parentId = in.readString();
+        int position = in.readInt();
+
+        Optional<SceneObject> source = scene.findObjectById(sourceId);
+        if (source.isEmpty()) {
+            LOG.warn("Исходный объект {} копии {} из журнала отсутствует, копия пропущена", sourceId, objectId);
+            return;
+        }
+
+        Model sourceModel = source.get().getModel();
+        sourceModel.ensureNormals();
+        SceneObject object = readObject(in, objectId, version, sourceModel);
+        place(scene, object, parentId, position);
+    }
+
+    private static void place(Scene scene, SceneObject object, String parentId, int position) {
+        scene.addObject(object, position);
+        if (parentId != null) {
+            setParent(scene, object, parentId);
+        }
+    }
+
+    private static void setParent(Scene scene, SceneObject object, String parentId) {
+        SceneObject parent = parentId != null ? scene.findObjectById(parentId).orElse(null) : null;
+        if (parentId != null && parent == null) {
+            LOG.warn("Родитель {} объекта {} из журнала отсутствует, объект оставлен корневым", parentId, object.getId());
+        }
+        scene.setParent(object, parent);
+    }
+
+    /**
+     * Читает свойства объекта. Геометрия читается из записи, если не задана исходная модель,
+     * иначе разделяется с ней.
+     */
+    private static SceneObject readObject(BlockReader in, String objectId, short version, Model source)
+        throws IOException {
+        String name = in.readString();
+        boolean visible = in.readBoolean();
+        Transform transform = SceneRecordCodec.readTransform(in);
+        Material material = SceneRecordCodec.readMaterial(in);
+        RasterizerSettings settings = SceneRecordCodec.readRenderSettings(in, version >= 3);
+
+        Model model = source != null ? source.copy() : new Model();
+        SceneRecordCodec.readModelAttributes(in, model);
+        if (source == null) {
+            GeometryBlocks.read(in.buffer(), model);
+        }
+
+        return new SceneObject(objectId, name, model, transform, material, visible, settings);
+    }
+
+    private static void restoreGeometry(BlockReader in, Model model) throws IOException {
+        ByteBuffer payload = ByteBuffer.wrap(in.readBytes(in.readInt())).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            RemovedGeometry.readFrom(payload).restore(model);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new IOException("Некорректная запись восстановления геометрии в журнале: " + e.getMessage(), e);
+        }
+    }
+
+    private static IndexSet readIndices(BlockReader in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Некорректное количество индексов в журнале: " + count);
+        }
+
+        IndexSet indices = new IndexSet();
+        for (int i = 0; i < count; i++) {
+            int index = in.readInt();
+            if (index < 0) {
+                throw new IOException("Некорректный индекс в журнале: " + index);
+            }
+            indices.add(index);
+        }
+        return indices;
+    }
+}
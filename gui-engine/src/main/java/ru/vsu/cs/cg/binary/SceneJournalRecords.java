@@ -0,0 +1,153 @@
+package ru.vsu.cs.cg.binary;
+
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.RemovedGeometry;
+import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Кодирование операций редактирования сцены в записи журнала автосохранения.
+ * Записи кодируются в момент операции, поэтому фиксируют состояние объекта
+ * на этот момент и могут быть дописаны в журнал в фоновом потоке. Геометрия
+ * добавленного объекта кодируется отложенно, по неизменяемому снимку модели.
+ */
+public final class SceneJournalRecords {
+    private static final int RECORD_BUFFER_SIZE = 4096;
+
+    private SceneJournalRecords() {
+    }
+
+    public static byte[] transform(SceneObject object) {
+        return encode(JournalRecordType.TRANSFORM, object.getId(), out ->
+            SceneRecordCodec.writeTransform(out, object.getTransform()));
+    }
+
+    public static byte[] material(SceneObject object) {
+        return encode(JournalRecordType.MATERIAL, object.getId(), out -> {
+            SceneRecordCodec.writeMaterial(out, object.getMaterial());
+            SceneRecordCodec.writeRenderSettings(out, object.getRenderSettings());
+        });
+    }
+
+    public static byte[] rename(SceneObject object) {
+        return encode(JournalRecordType.RENAME, object.getId(), out -> out.writeString(object.getName()));
+    }
+
+    public static byte[] visibility(SceneObject object) {
+        return encode(JournalRecordType.VISIBILITY, object.getId(), out -> out.writeBoolean(object.isVisible()));
+    }
+
+    /**
+     * Добавление объекта вместе с идентификатором родителя и позицией в порядке объектов сцены.
+     * Свойства объекта кодируются сразу, а геометрия — возвращаемым кодировщиком:
+     * он пишет снимок модели ({@link Model#copy()}), который разделяет с объектом
+     * списки геометрии и не видит последующих правок, поэтому его можно вызвать
+     * в фоновом потоке.
+     */
+    public static Supplier<byte[]> objectAdded(SceneObject object) {
+        Model geometry = object.getModel().copy();
+        byte[] head = encode(JournalRecordType.OBJECT_ADDED, object.getId(), out -> writeObject(out, object));
+        return () -> encode(head, out -> GeometryBlocks.write(out, geometry));
+    }
+
+    /**
+     * Копия объекта, геометрия которой совпадает с геометрией исходного объекта сцены.
+     * Геометрия в запись не попадает: при восстановлении она берется у исходного объекта.
+     */
+    public static byte[] objectDuplicated(SceneObject source, SceneObject copy) {
+        return encode(JournalRecordType.OBJECT_DUPLICATED, copy.getId(), out -> {
+            out.writeString(source.getId());
+            writeObject(out, copy);
+        });
+    }
+
+    public static byte[] parentChanged(SceneObject object) {
+        return encode(JournalRecordType.PARENT_CHANGED, object.getId(), out -> out.writeString(object.getParentId()));
+    }
+
+    public static byte[] objectRemoved(String objectId) {
+        return encode(JournalRecordType.OBJECT_REMOVED, objectId, out -> {
+        });
+    }
+
+    public static byte[] verticesRemoved(String objectId, Collection<Integer> vertexIndices, boolean clearUnused) {
+        return encode(JournalRecordType.VERTICES_REMOVED, objectId, out -> {
+            out.writeBoolean(clearUnused);
+            writeIndices(out, vertexIndices);
+        });
+    }
+
+    public static byte[] polygonsRemoved(String objectId, Collection<Integer> polygonIndices) {
+        return encode(JournalRecordType.POLYGONS_REMOVED, objectId, out -> writeIndices(out, polygonIndices));
+    }
+
+    /**
+     * Отмена удаления: в запись попадают только возвращаемые элементы,
+     * а не вся геометрия объекта.
+     */
+    public static byte[] geometryRestored(String objectId, RemovedGeometry restored) {
+        return encode(JournalRecordType.GEOMETRY_RESTORED, objectId, out -> {
+            ByteBuffer payload = ByteBuffer.allocate(restored.serializedSize()).order(ByteOrder.LITTLE_ENDIAN);
+            restored.writeTo(payload);
+            out.writeInt(payload.capacity());
+            out.writeBytes(payload.array());
+        });
+    }
+
+    private static void writeIndices(ChannelBlockWriter out, Collection<Integer> indices) throws IOException {
+        out.writeInt(indices.size());
+        for (Integer index : indices) {
+            out.writeInt(index);
+        }
+    }
+
+    private static void writeObject(ChannelBlockWriter out, SceneObject object) throws IOException {
+        Scene owner = object.getOwner();
+        out.writeString(object.getParentId());
+        out.writeInt(owner != null ? owner.indexOf(object) : -1);
+        out.writeString(object.getName());
+        out.writeBoolean(object.isVisible());
+        SceneRecordCodec.writeTransform(out, object.getTransform());
+        SceneRecordCodec.writeMaterial(out, object.getMaterial());
+        SceneRecordCodec.writeRenderSettings(out, object.getRenderSettings());
+        SceneRecordCodec.writeModelAttributes(out, object.getModel());
+    }
+
+    private static byte[] encode(JournalRecordType type, String objectId, RecordBody body) {
+        return encode(new byte[0], out -> {
+            out.writeByte(type.getCode());
+            out.writeString(objectId);
+            body.write(out);
+        });
+    }
+
+    /**
+     * Дописывает к уже закодированному началу записи остальные поля.
+     */
+    private static byte[] encode(byte[] head, RecordBody body) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            bytes.writeBytes(head);
+            ChannelBlockWriter out = new ChannelBlockWriter(Channels.newChannel(bytes), head.length, RECORD_BUFFER_SIZE);
+            body.write(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка кодирования записи журнала", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordBody {
+        void write(ChannelBlockWriter out) throws IOException;
+    }
+}
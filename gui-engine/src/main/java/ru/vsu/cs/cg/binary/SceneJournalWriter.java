@@ -0,0 +1,79 @@
+package ru.vsu.cs.cg.binary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Дозапись в журнал автосохранения.
+ * <p>
+ * Журнал начинается с заголовка (magic "3DSJ", версия, поколение журнала),
+ * за которым следуют записи вида [длина (int), CRC32 (int), данные].
+ * Контрольная сумма позволяет при восстановлении отбросить запись,
+ * оборванную аварийным завершением программы. Версия 4 добавляет запись
+ * копии объекта без геометрии. Журналы версии 1 (запись добавления объекта
+ * без родителя и позиции), версии 2 (настройки отрисовки без способа освещения)
+ * и версии 3 также читаются.
+ */
+public final class SceneJournalWriter implements Closeable {
+    static final byte[] MAGIC = {'3', 'D', 'S', 'J'};
+    static final short VERSION = 4;
+    static final short MIN_READABLE_VERSION = 1;
+    static final int HEADER_SIZE = MAGIC.length + Short.BYTES + Short.BYTES + Long.BYTES;
+    static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final long generation;
+
+    private SceneJournalWriter(FileChannel channel, long generation) {
+        this.channel = channel;
+        this.generation = generation;
+    }
+
+    /**
+     * Создает новый пустой журнал указанного поколения. Существующий файл перезаписывается.
+     */
+    public static SceneJournalWriter create(Path path, long generation) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putShort(VERSION).putShort((short) 0).putLong(generation).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(false);
+
+        return new SceneJournalWriter(channel, generation);
+    }
+
+    public void append(byte[] record) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        ByteBuffer frame = ByteBuffer.allocate(RECORD_HEADER_SIZE + record.length).order(ByteOrder.LITTLE_ENDIAN);
+        frame.putInt(record.length).putInt((int) crc.getValue()).put(record).flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+        channel.force(false);
+    }
+
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
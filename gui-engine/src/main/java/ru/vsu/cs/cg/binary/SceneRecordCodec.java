@@ -0,0 +1,186 @@
+package ru.vsu.cs.cg.binary;
+
+import javafx.scene.paint.Color;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.rasterization.RasterizerSettings;
+import ru.vsu.cs.cg.rasterization.ShadingMode;
+import ru.vsu.cs.cg.scene.Material;
+import ru.vsu.cs.cg.scene.Transform;
+
+import java.io.IOException;
+
+/**
+ * Кодирование свойств объекта сцены (трансформации, материала, настроек отрисовки
+ * и атрибутов модели). Используется бинарной сценой и журналом автосохранения.
+ */
+final class SceneRecordCodec {
+
+    private SceneRecordCodec() {
+    }
+
+    static void writeTransform(ChannelBlockWriter out, Transform transform) throws IOException {
+        out.writeDouble(transform.getPositionX());
+        out.writeDouble(transform.getPositionY());
+        out.writeDouble(transform.getPositionZ());
+        out.writeDouble(transform.getRotationX());
+        out.writeDouble(transform.getRotationY());
+        out.writeDouble(transform.getRotationZ());
+        out.writeDouble(transform.getScaleX());
+        out.writeDouble(transform.getScaleY());
+        out.writeDouble(transform.getScaleZ());
+    }
+
+    static void writeMaterial(ChannelBlockWriter out, Material material) throws IOException {
+        out.writeDouble(material.getRed());
+        out.writeDouble(material.getGreen());
+        out.writeDouble(material.getBlue());
+        out.writeDouble(material.getAlpha());
+        out.writeString(material.getTexturePath());
+        out.writeDouble(material.getLightIntensity());
+        out.writeDouble(material.getDiffusion());
+        out.writeDouble(material.getAmbient());
+    }
+
+    static void writeRenderSettings(ChannelBlockWriter out, RasterizerSettings settings) throws IOException {
+        out.writeBoolean(settings.isUseTexture());
+        out.writeBoolean(settings.isUseLighting());
+        out.writeBoolean(settings.isDrawPolygonalGrid());
+        out.writeBoolean(settings.isDrawAxisLines());
+        out.writeBoolean(settings.isDrawGrid());
+        out.writeFloat(settings.getAmbientStrength());
+        out.writeFloat(settings.getDiffuseStrength());
+        out.writeFloat(settings.getLightIntensity());
+        writeColor(out, settings.getDefaultColor());
+        writeColor(out, settings.getGridColor());
+        writeColor(out, settings.getLightColor());
+        out.writeString(settings.getShadingMode().name());
+    }
+
+    static void writeModelAttributes(ChannelBlockWriter out, Model model) throws IOException {
+        out.writeBoolean(model.isUseLighting());
+        out.writeBoolean(model.isUseTexture());
+        out.writeBoolean(model.isDrawPolygonalGrid());
+        out.writeString(model.getMaterialName());
+        out.writeString(model.getTexturePath());
+
+        float[] color = model.getMaterialColor();
+        out.writeInt(color != null ? color.length : -1);
+        if (color != null) {
+            for (float component : color) {
+                out.writeFloat(component);
+            }
+        }
+
+        out.writeNullableFloat(model.getMaterialShininess());
+        out.writeNullableFloat(model.getMaterialTransparency());
+        out.writeNullableFloat(model.getMaterialReflectivity());
+    }
+
+    private static void writeColor(ChannelBlockWriter out, Color color) throws IOException {
+        out.writeBoolean(color != null);
+        if (color != null) {
+            out.writeDouble(color.getRed());
+            out.writeDouble(color.getGreen());
+            out.writeDouble(color.getBlue());
+            out.writeDouble(color.getOpacity());
+        }
+    }
+
+    static Transform readTransform(BlockReader in) throws IOException {
+        return new Transform(
+            in.readDouble(), in.readDouble(), in.readDouble(),
+            in.readDouble(), in.readDouble(), in.readDouble(),
+            in.readDouble(), in.readDouble(), in.readDouble()
+        );
+    }
+
+    static Material readMaterial(BlockReader in) throws IOException {
+        double red = in.readDouble();
+        double green = in.readDouble();
+        double blue = in.readDouble();
+        double alpha = in.readDouble();
+        String texturePath = in.readString();
+        double lightIntensity = in.readDouble();
+        double diffusion = in.readDouble();
+        double ambient = in.readDouble();
+        return new Material(red, green, blue, alpha, texturePath, lightIntensity, diffusion, ambient);
+    }
+
+    /**
+     * Читает настройки отрисовки.
+     *
+     * @param withShadingMode записан ли способ освещения; в старых версиях форматов
+     *                        его нет, и остается способ по умолчанию
+     */
+    static RasterizerSettings readRenderSettings(BlockReader in, boolean withShadingMode) throws IOException {
+        boolean useTexture = in.readBoolean();
+        boolean useLighting = in.readBoolean();
+        boolean drawPolygonalGrid = in.readBoolean();
+        boolean drawAxisLines = in.readBoolean();
+        boolean drawGrid = in.readBoolean();
+        float ambientStrength = in.readFloat();
+        float diffuseStrength = in.readFloat();
+        float lightIntensity = in.readFloat();
+        Color defaultColor = readColor(in);
+        Color gridColor = readColor(in);
+        Color lightColor = readColor(in);
+        RasterizerSettings settings = new RasterizerSettings(useTexture, useLighting, drawPolygonalGrid,
+            drawAxisLines, drawGrid, ambientStrength, diffuseStrength, lightIntensity,
+            defaultColor, gridColor, lightColor);
+        if (withShadingMode) {
+            settings.setShadingMode(readShadingMode(in));
+        }
+        return settings;
+    }
+
+    private static ShadingMode readShadingMode(BlockReader in) throws IOException {
+        String name = in.readString();
+        try {
+            return ShadingMode.valueOf(name);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IOException("Неизвестный способ освещения: " + name, e);
+        }
+    }
+
+    static void readModelAttributes(BlockReader in, Model model) throws IOException {
+        model.setUseLighting(in.readBoolean());
+        model.setUseTexture(in.readBoolean());
+        model.setDrawPolygonalGrid(in.readBoolean());
+        model.setMaterialName(in.readString());
+        model.setTexturePath(in.readString());
+
+        int colorLength = in.readInt();
+        if (colorLength >= 0) {
+            float[] color = new float[colorLength];
+            for (int i = 0; i < colorLength; i++) {
+                color[i] = in.readFloat();
+            }
+            model.setMaterialColor(color);
+        } else {
+            model.setMaterialColor(null);
+        }
+
+        model.setMaterialShininess(in.readNullableFloat());
+        model.setMaterialTransparency(in.readNullableFloat());
+        model.setMaterialReflectivity(in.readNullableFloat());
+    }
+
+    static void copyModelAttributes(Model source, Model target) {
+        target.setUseLighting(source.isUseLighting());
+        target.setUseTexture(source.isUseTexture());
+        target.setDrawPolygonalGrid(source.isDrawPolygonalGrid());
+        target.setMaterialName(source.getMaterialName());
+        target.setTexturePath(source.getTexturePath());
+        target.setMaterialColor(source.getMaterialColor());
+        target.setMaterialShininess(source.getMaterialShininess());
+        target.setMaterialTransparency(source.getMaterialTransparency());
+        target.setMaterialReflectivity(source.getMaterialReflectivity());
+    }
+
+    private static Color readColor(BlockReader in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new Color(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+    }
+}
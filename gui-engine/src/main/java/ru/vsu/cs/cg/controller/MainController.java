@@ -494,6 +494,7 @@ public class MainController {
             }
         }
 
+        sceneController.getAutosaveService().closeSession(true);
         CachePersistenceManager.saveRecentFiles(recentFilesCacheService.getRecentFiles());
         RecentFilesUpdateManager.getInstance().removeListener(this::updateRecentFilesMenu);
         if (hotkeyManager != null) {
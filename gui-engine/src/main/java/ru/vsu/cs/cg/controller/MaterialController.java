@@ -6,6 +6,7 @@ import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.controller.command.history.MaterialEdit;
 import ru.vsu.cs.cg.rasterization.RasterizerSettings;
 import ru.vsu.cs.cg.scene.Material;
 import ru.vsu.cs.cg.scene.SceneObject;
@@ -137,6 +138,7 @@ public class MaterialController extends BaseController {
             try {
                 SceneObject selectedObject = getSelectedObject();
                 Material currentMaterial = selectedObject.getMaterial();
+                MaterialEdit.State before = MaterialEdit.State.capture(selectedObject);
 
                 selectedObject.setMaterial(new Material(
                     currentMaterial.getRed(),
@@ -151,6 +153,8 @@ public class MaterialController extends BaseController {
 
                 selectedObject.getRenderSettings().setUseTexture(true);
                 showTextureCheckbox.setSelected(true);
+                sceneController.getAutosaveService().recordMaterial(selectedObject);
+                sceneController.recordEdit(MaterialEdit.of(selectedObject, before));
                 sceneController.markModelModified();
 
                 LOG.info("Текстура успешно загружена: {}", selectedFile.getAbsolutePath());
@@ -169,6 +173,7 @@ public class MaterialController extends BaseController {
 
         SceneObject selectedObject = getSelectedObject();
         Material currentMaterial = selectedObject.getMaterial();
+        MaterialEdit.State before = MaterialEdit.State.capture(selectedObject);
 
         selectedObject.setMaterial(new Material(
             currentMaterial.getRed(),
@@ -183,6 +188,8 @@ public class MaterialController extends BaseController {
 
         selectedObject.getRenderSettings().setUseTexture(false);
         showTextureCheckbox.setSelected(false);
+        sceneController.getAutosaveService().recordMaterial(selectedObject);
+        sceneController.recordEdit(MaterialEdit.of(selectedObject, before));
         sceneController.markModelModified();
 
         LOG.info("Текстура удалена для объекта '{}'", selectedObject.getName());
@@ -190,14 +197,20 @@ public class MaterialController extends BaseController {
 
     private void updateMaterial(Consumer<Material> updater) {
         if (hasSelectedObject()) {
+            MaterialEdit.State before = MaterialEdit.State.capture(getSelectedObject());
             updater.accept(getSelectedObject().getMaterial());
+            sceneController.getAutosaveService().recordMaterial(getSelectedObject());
+            sceneController.recordEdit(MaterialEdit.of(getSelectedObject(), before));
             sceneController.markModelModified();
         }
     }
 
     private void updateRenderSettings(Consumer<RasterizerSettings> updater) {
         if (hasSelectedObject()) {
+            MaterialEdit.State before = MaterialEdit.State.capture(getSelectedObject());
             updater.accept(getSelectedObject().getRenderSettings());
+            sceneController.getAutosaveService().recordMaterial(getSelectedObject());
+            sceneController.recordEdit(MaterialEdit.of(getSelectedObject(), before));
             sceneController.markModelModified();
         }
     }
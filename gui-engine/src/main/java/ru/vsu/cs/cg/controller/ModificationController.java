@@ -8,13 +8,13 @@ import org.slf4j.LoggerFactory;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.model.selection.ModelSelection;
 import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.utils.ModelUtils;
+import ru.vsu.cs.cg.utils.constants.MessageConstants;
 import ru.vsu.cs.cg.utils.controller.UiFieldUtils;
 import ru.vsu.cs.cg.utils.dialog.DialogManager;
 import ru.vsu.cs.cg.utils.parser.IndexParser;
 import ru.vsu.cs.cg.utils.modification.ModificationUtils;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Set;
 
 public class ModificationController extends BaseController {
@@ -25,11 +25,13 @@ public class ModificationController extends BaseController {
     @FXML private Button removeVerticesButton;
     @FXML private Button selectVerticesButton;
     @FXML private Button deselectVerticesButton;
+    @FXML private Button growVerticesButton;
 
     @FXML private TextField polygonIndicesField;
     @FXML private Button removePolygonsButton;
     @FXML private Button selectPolygonsButton;
     @FXML private Button deselectPolygonsButton;
+    @FXML private Button growPolygonsButton;
 
     @FXML private Label vertexCountLabel;
     @FXML private Label polygonCountLabel;
@@ -54,6 +56,8 @@ public class ModificationController extends BaseController {
         selectPolygonsButton.setOnAction(event -> handleSelectPolygons());
         deselectVerticesButton.setOnAction(event -> handleDeselectVertices());
         deselectPolygonsButton.setOnAction(event -> handleDeselectPolygons());
+        growVerticesButton.setOnAction(event -> handleGrowSelection(true));
+        growPolygonsButton.setOnAction(event -> handleGrowSelection(false));
     }
 
     private void handleRemoveVertices() {
@@ -69,14 +73,10 @@ public class ModificationController extends BaseController {
         boolean clearUnused = cleanUnusedCheckbox.isSelected();
 
         try {
-            Set<Integer> vertexIndices = IndexParser.parseIndices(indicesInput);
-
-            if (vertexIndices.isEmpty()) {
-                DialogManager.showError("Не указаны индексы вершин для удаления");
-                return;
-            }
-
-            if (!IndexParser.validateIndices(vertexIndices, model.getVertices().size())) {
+            Set<Integer> vertexIndices;
+            try {
+                vertexIndices = IndexParser.parseIndices(indicesInput, model.getVertices().size());
+            } catch (IndexOutOfBoundsException e) {
                 DialogManager.showError(
                     String.format("Один или несколько индексов вершин выходят за пределы допустимого диапазона (0-%d)",
                         model.getVertices().size() - 1)
@@ -84,6 +84,11 @@ public class ModificationController extends BaseController {
                 return;
             }
 
+            if (vertexIndices.isEmpty()) {
+                DialogManager.showError("Не указаны индексы вершин для удаления");
+                return;
+            }
+
             ru.vsu.cs.cg.controller.command.Command command =
                 new ru.vsu.cs.cg.controller.command.impl.modification.RemoveVerticesCommand(
                     sceneController, indicesInput, clearUnused);
@@ -113,14 +118,10 @@ public class ModificationController extends BaseController {
         String indicesInput = polygonIndicesField.getText();
 
         try {
-            Set<Integer> polygonIndices = IndexParser.parseIndices(indicesInput);
-
-            if (polygonIndices.isEmpty()) {
-                DialogManager.showError("Не указаны индексы полигонов для удаления");
-                return;
-            }
-
-            if (!IndexParser.validateIndices(polygonIndices, model.getPolygons().size())) {
+            Set<Integer> polygonIndices;
+            try {
+                polygonIndices = IndexParser.parseIndices(indicesInput, model.getPolygons().size());
+            } catch (IndexOutOfBoundsException e) {
                 DialogManager.showError(
                     String.format("Один или несколько индексов выходят за пределы допустимого диапазона (0-%d)",
                         model.getPolygons().size() - 1)
@@ -128,6 +129,11 @@ public class ModificationController extends BaseController {
                 return;
             }
 
+            if (polygonIndices.isEmpty()) {
+                DialogManager.showError("Не указаны индексы полигонов для удаления");
+                return;
+            }
+
             ru.vsu.cs.cg.controller.command.Command command =
                 new ru.vsu.cs.cg.controller.command.impl.modification.RemovePolygonsCommand(
                     sceneController, indicesInput);
@@ -159,9 +165,10 @@ public class ModificationController extends BaseController {
         String indicesInput = vertexIndicesField.getText();
 
         try {
-            Set<Integer> vertexIndices = IndexParser.parseIndices(indicesInput);
-
-            if (!vertexIndices.isEmpty() && !IndexParser.validateIndices(vertexIndices, model.getVertices().size())) {
+            Set<Integer> vertexIndices;
+            try {
+                vertexIndices = IndexParser.parseIndices(indicesInput, model.getVertices().size());
+            } catch (IndexOutOfBoundsException e) {
                 DialogManager.showError(
                     String.format("Один или несколько индексов вершин выходят за пределы допустимого диапазона (0-%d)",
                         model.getVertices().size() - 1)
@@ -195,9 +202,10 @@ public class ModificationController extends BaseController {
         String indicesInput = polygonIndicesField.getText();
 
         try {
-            Set<Integer> polygonIndices = IndexParser.parseIndices(indicesInput);
-
-            if (!polygonIndices.isEmpty() && !IndexParser.validateIndices(polygonIndices, model.getPolygons().size())) {
+            Set<Integer> polygonIndices;
+            try {
+                polygonIndices = IndexParser.parseIndices(indicesInput, model.getPolygons().size());
+            } catch (IndexOutOfBoundsException e) {
                 DialogManager.showError(
                     String.format("Один или несколько индексов полигонов выходят за пределы допустимого диапазона (0-%d)",
                         model.getPolygons().size() - 1)
@@ -231,9 +239,10 @@ public class ModificationController extends BaseController {
         String indicesInput = vertexIndicesField.getText();
 
         try {
-            Set<Integer> vertexIndices = IndexParser.parseIndices(indicesInput);
-
-            if (!vertexIndices.isEmpty() && !IndexParser.validateIndices(vertexIndices, model.getVertices().size())) {
+            Set<Integer> vertexIndices;
+            try {
+                vertexIndices = IndexParser.parseIndices(indicesInput, model.getVertices().size());
+            } catch (IndexOutOfBoundsException e) {
                 DialogManager.showError(
                     String.format("Один или несколько индексов вершин выходят за пределы допустимого диапазона (0-%d)",
                         model.getVertices().size() - 1)
@@ -267,9 +276,10 @@ public class ModificationController extends BaseController {
         String indicesInput = polygonIndicesField.getText();
 
         try {
-            Set<Integer> polygonIndices = IndexParser.parseIndices(indicesInput);
-
-            if (!polygonIndices.isEmpty() && !IndexParser.validateIndices(polygonIndices, model.getPolygons().size())) {
+            Set<Integer> polygonIndices;
+            try {
+                polygonIndices = IndexParser.parseIndices(indicesInput, model.getPolygons().size());
+            } catch (IndexOutOfBoundsException e) {
                 DialogManager.showError(
                     String.format("Один или несколько индексов полигонов выходят за пределы допустимого диапазона (0-%d)",
                         model.getPolygons().size() - 1)
@@ -291,6 +301,28 @@ public class ModificationController extends BaseController {
         }
     }
 
+    private void handleGrowSelection(boolean vertices) {
+        if (!hasSelectedObject()) {
+            LOG.warn("Попытка расширить выделение без выбранного объекта");
+            DialogManager.showError("Для расширения выделения необходимо выбрать объект");
+            return;
+        }
+
+        SceneObject selectedObject = getSelectedObject();
+        if (selectedObject.isLoading()) {
+            DialogManager.showError(MessageConstants.OBJECT_STILL_LOADING);
+            return;
+        }
+
+        Model model = selectedObject.getModel();
+        int added = vertices ? ModelUtils.growVertexSelection(model) : ModelUtils.growPolygonSelection(model);
+        LOG.debug("Выделение расширено на {} {}", added, vertices ? "вершин" : "полигонов");
+
+        updateSelectionFields();
+        sceneController.markModelModified();
+        sceneController.markSceneModified();
+    }
+
     @Override
     protected void clearFields() {
         Platform.runLater(() -> {
@@ -315,13 +347,11 @@ public class ModificationController extends BaseController {
 
         Platform.runLater(() -> {
             if (selection.hasSelectedVertices()) {
-                List<Integer> vertices = new ArrayList<>(selection.getSelectedVertices());
-                vertexIndicesField.setText(IndexParser.formatIndices(vertices));
+                vertexIndicesField.setText(IndexParser.formatIndices(selection.getSelectedVertices()));
             }
 
             if (selection.hasSelectedPolygons()) {
-                List<Integer> polygons = new ArrayList<>(selection.getSelectedPolygons());
-                polygonIndicesField.setText(IndexParser.formatIndices(polygons));
+                polygonIndicesField.setText(IndexParser.formatIndices(selection.getSelectedPolygons()));
             }
         });
     }
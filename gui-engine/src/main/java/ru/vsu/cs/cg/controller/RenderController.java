@@ -3,20 +3,29 @@ package ru.vsu.cs.cg.controller;
 import javafx.animation.AnimationTimer;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.paint.Color;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.controller.enums.PickMode;
+import ru.vsu.cs.cg.controller.enums.RegionSelectionMode;
+import ru.vsu.cs.cg.controller.enums.SelectionOperation;
 import ru.vsu.cs.cg.controller.enums.TransformationMode;
 import ru.vsu.cs.cg.controller.handlers.InputHandler;
 import ru.vsu.cs.cg.controller.handlers.MouseTransformationHandler;
+import ru.vsu.cs.cg.rasterization.ColorBuffer;
+import ru.vsu.cs.cg.renderEngine.DirtyRegion;
+import ru.vsu.cs.cg.renderEngine.ScreenRegion;
 import ru.vsu.cs.cg.renderEngine.camera.Camera;
 import ru.vsu.cs.cg.scene.Scene;
 import ru.vsu.cs.cg.scene.SceneManager;
-import ru.vsu.cs.cg.utils.adapter.JavaFXPixelWriterAdapter;
+
+import java.util.Arrays;
 
 public class RenderController {
     private static final Logger LOG = LoggerFactory.getLogger(RenderController.class);
@@ -30,9 +39,18 @@ public class RenderController {
     private CameraController cameraController;
     private InputHandler inputHandler;
 
+    private static final double LASSO_STEP = 3.0;
+    private static final double MIN_REGION_SIZE = 3.0;
+
     private double lastMouseX;
     private double lastMouseY;
 
+    private RegionSelectionMode regionMode = RegionSelectionMode.NONE;
+    private double[] regionXs = new double[64];
+    private double[] regionYs = new double[64];
+    private int regionPointCount;
+    private boolean overlayDrawn;
+
     public RenderController(AnchorPane canvasContainer) {
         this.canvasContainer = canvasContainer;
         this.sceneManager = new SceneManager();
@@ -94,13 +112,123 @@ public class RenderController {
         };
     }
 
+    /**
+     * Выводит на холст только перерисованную область кадра. Рамка выделения
+     * рисуется прямо на холсте, поэтому пока она видна или только что исчезла,
+     * кадр выводится целиком.
+     */
     private void render() {
         if (canvas == null) return;
         GraphicsContext gc = canvas.getGraphicsContext2D();
-        gc.setFill(Color.rgb(30, 30, 30));
-        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-        JavaFXPixelWriterAdapter pixelWriter = new JavaFXPixelWriterAdapter(gc.getPixelWriter());
-        sceneManager.render(pixelWriter);
+        ColorBuffer frame = sceneManager.render();
+        DirtyRegion dirty = sceneManager.getDirtyRegion();
+        boolean overlay = regionMode != RegionSelectionMode.NONE && regionPointCount >= 2;
+
+        if (overlay || overlayDrawn || dirty.coversFrame(frame.getWidth(), frame.getHeight())) {
+            gc.setFill(Color.rgb(30, 30, 30));
+            gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            presentFrame(gc, frame, 0, 0, frame.getWidth(), frame.getHeight());
+        } else if (!dirty.isEmpty()) {
+            presentFrame(gc, frame, dirty.getMinX(), dirty.getMinY(), dirty.getMaxX(), dirty.getMaxY());
+        }
+        renderRegionOverlay(gc);
+        overlayDrawn = overlay;
+    }
+
+    /**
+     * Копирует прямоугольник буфера кадра на холст.
+     */
+    private void presentFrame(GraphicsContext gc, ColorBuffer frame, int minX, int minY, int maxX, int maxY) {
+        int width = Math.min(maxX, (int) canvas.getWidth()) - minX;
+        int height = Math.min(maxY, (int) canvas.getHeight()) - minY;
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        gc.getPixelWriter().setPixels(minX, minY, width, height,
+            PixelFormat.getIntArgbInstance(), frame.getPixels(),
+            minY * frame.getWidth() + minX, frame.getWidth());
+    }
+
+    /**
+     * Рисует поверх кадра рамку или контур лассо, пока идет выделение областью.
+     */
+    private void renderRegionOverlay(GraphicsContext gc) {
+        if (regionMode == RegionSelectionMode.NONE || regionPointCount < 2) {
+            return;
+        }
+
+        gc.setStroke(Color.ORANGE);
+        gc.setLineWidth(1.0);
+        gc.setLineDashes(4.0);
+        if (regionMode == RegionSelectionMode.BOX) {
+            double x = Math.min(regionXs[0], regionXs[1]);
+            double y = Math.min(regionYs[0], regionYs[1]);
+            gc.strokeRect(x, y, Math.abs(regionXs[1] - regionXs[0]), Math.abs(regionYs[1] - regionYs[0]));
+        } else {
+            gc.strokePolygon(regionXs, regionYs, regionPointCount);
+        }
+        gc.setLineDashes(null);
+    }
+
+    private void beginRegion(RegionSelectionMode mode, double x, double y) {
+        regionMode = mode;
+        regionPointCount = 0;
+        appendRegionPoint(x, y);
+        if (mode == RegionSelectionMode.BOX) {
+            appendRegionPoint(x, y);
+        }
+    }
+
+    private void updateRegion(double x, double y) {
+        if (regionMode == RegionSelectionMode.BOX) {
+            regionXs[1] = x;
+            regionYs[1] = y;
+        } else if (Math.hypot(x - regionXs[regionPointCount - 1], y - regionYs[regionPointCount - 1]) >= LASSO_STEP) {
+            appendRegionPoint(x, y);
+        }
+    }
+
+    private void appendRegionPoint(double x, double y) {
+        if (regionPointCount == regionXs.length) {
+            regionXs = Arrays.copyOf(regionXs, regionPointCount * 2);
+            regionYs = Arrays.copyOf(regionYs, regionPointCount * 2);
+        }
+        regionXs[regionPointCount] = x;
+        regionYs[regionPointCount] = y;
+        regionPointCount++;
+    }
+
+    /**
+     * Завершает выделение областью и передает область контроллеру сцены.
+     * Слишком маленькие области игнорируются: такой жест обрабатывается как щелчок.
+     */
+    private void finishRegion(MouseEvent event) {
+        RegionSelectionMode mode = regionMode;
+        regionMode = RegionSelectionMode.NONE;
+
+        ScreenRegion region;
+        if (mode == RegionSelectionMode.BOX) {
+            if (Math.abs(regionXs[1] - regionXs[0]) < MIN_REGION_SIZE
+                || Math.abs(regionYs[1] - regionYs[0]) < MIN_REGION_SIZE) {
+                return;
+            }
+            region = ScreenRegion.box((float) regionXs[0], (float) regionYs[0], (float) regionXs[1], (float) regionYs[1]);
+        } else {
+            if (regionPointCount < 3) {
+                return;
+            }
+            float[] xs = new float[regionPointCount];
+            float[] ys = new float[regionPointCount];
+            for (int i = 0; i < regionPointCount; i++) {
+                xs[i] = (float) regionXs[i];
+                ys[i] = (float) regionYs[i];
+            }
+            region = ScreenRegion.lasso(xs, ys);
+        }
+
+        SelectionOperation operation = event.isControlDown() ? SelectionOperation.ADD
+            : event.isAltDown() ? SelectionOperation.SUBTRACT : SelectionOperation.REPLACE;
+        sceneController.handleRegionSelection(region, operation);
     }
 
     public void start() { animationTimer.start(); LOG.info("Рендеринг запущен"); }
@@ -130,6 +258,13 @@ public class RenderController {
 
             if (inputHandler != null) inputHandler.onMousePressed(event);
 
+            if (sceneController != null && event.isPrimaryButtonDown()
+                && sceneController.getRegionSelectionMode() != RegionSelectionMode.NONE) {
+                beginRegion(sceneController.getRegionSelectionMode(), event.getX(), event.getY());
+                event.consume();
+                return;
+            }
+
             if (sceneController != null && sceneController.hasSelectedObject()) {
                 MouseTransformationHandler handler = sceneController.getMouseTransformationHandler();
                 if (handler != null && handler.getCurrentMode() != TransformationMode.NONE && event.isPrimaryButtonDown()) {
@@ -142,6 +277,12 @@ public class RenderController {
         canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, event -> {
             if (inputHandler != null) inputHandler.onMouseDragged(event);
 
+            if (regionMode != RegionSelectionMode.NONE && event.isPrimaryButtonDown()) {
+                updateRegion(event.getX(), event.getY());
+                event.consume();
+                return;
+            }
+
             if (sceneController != null && sceneController.hasSelectedObject()) {
                 MouseTransformationHandler handler = sceneController.getMouseTransformationHandler();
                 if (handler != null && handler.isDragging() && event.isPrimaryButtonDown()) {
@@ -154,6 +295,12 @@ public class RenderController {
         canvas.addEventHandler(MouseEvent.MOUSE_RELEASED, event -> {
             if (inputHandler != null) inputHandler.onMouseReleased(event);
 
+            if (regionMode != RegionSelectionMode.NONE && event.getButton() == MouseButton.PRIMARY) {
+                finishRegion(event);
+                event.consume();
+                return;
+            }
+
             if (sceneController != null && sceneController.hasSelectedObject()) {
                 MouseTransformationHandler handler = sceneController.getMouseTransformationHandler();
                 if (handler != null && handler.isDragging()) {
@@ -163,6 +310,20 @@ public class RenderController {
             }
         });
 
+        canvas.addEventHandler(MouseEvent.MOUSE_CLICKED, event -> {
+            if (sceneController == null || event.getButton() != MouseButton.PRIMARY || !event.isStillSincePress()) {
+                return;
+            }
+            MouseTransformationHandler handler = sceneController.getMouseTransformationHandler();
+            if (handler != null && handler.isDragging()) {
+                return;
+            }
+
+            PickMode mode = event.isControlDown() ? PickMode.FACE
+                : event.isShiftDown() || event.isAltDown() ? PickMode.VERTEX : PickMode.OBJECT;
+            sceneController.handleCanvasPick(sceneManager.pick(event.getX(), event.getY()), mode);
+        });
+
         canvas.addEventHandler(ScrollEvent.SCROLL, event -> {
             if (inputHandler != null) inputHandler.onScroll(event);
         });
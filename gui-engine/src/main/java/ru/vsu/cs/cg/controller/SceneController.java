@@ -1,20 +1,37 @@
 package ru.vsu.cs.cg.controller;
 
+import javafx.application.Platform;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.controller.command.history.CommandHistory;
+import ru.vsu.cs.cg.controller.command.history.MaterialEdit;
+import ru.vsu.cs.cg.controller.command.history.TransformEdit;
+import ru.vsu.cs.cg.controller.command.history.UndoableEdit;
+import ru.vsu.cs.cg.controller.enums.PickMode;
+import ru.vsu.cs.cg.controller.enums.RegionSelectionMode;
+import ru.vsu.cs.cg.controller.enums.SelectionOperation;
 import ru.vsu.cs.cg.controller.enums.TransformationMode;
 import ru.vsu.cs.cg.controller.handlers.MouseTransformationHandler;
 import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.IndexSet;
 import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.selection.ModelSelection;
 import ru.vsu.cs.cg.rasterization.RasterizerSettings;
+import ru.vsu.cs.cg.renderEngine.ScreenRegion;
 import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneLoad;
 import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.scene.ScenePicker;
 import ru.vsu.cs.cg.scene.Transform;
+import ru.vsu.cs.cg.service.AutosaveService;
 import ru.vsu.cs.cg.service.ModelService;
 import ru.vsu.cs.cg.service.SceneService;
+import ru.vsu.cs.cg.service.impl.AutosaveServiceImpl;
 import ru.vsu.cs.cg.service.impl.ModelServiceImpl;
 import ru.vsu.cs.cg.service.impl.SceneServiceImpl;
 import ru.vsu.cs.cg.utils.model.DefaultModelLoader;
+import ru.vsu.cs.cg.utils.constants.MessageConstants;
+import ru.vsu.cs.cg.utils.dialog.DialogManager;
 import ru.vsu.cs.cg.utils.scene.SceneUtils;
 import ru.vsu.cs.cg.renderEngine.camera.Camera;
 import java.io.IOException;
@@ -25,6 +42,8 @@ public class SceneController {
 
     private final SceneService sceneService;
     private final ModelService modelService;
+    private final AutosaveService autosaveService;
+    private final CommandHistory commandHistory = new CommandHistory(CommandHistory.DEFAULT_BUDGET_BYTES);
     private TransformController transformController;
     private MaterialController materialController;
     private ModificationController modificationController;
@@ -33,16 +52,20 @@ public class SceneController {
     private CameraController cameraController;
     private final MouseTransformationHandler mouseTransformationHandler;
     private Scene currentScene;
+    private SceneLoad currentSceneLoad;
     private SceneObject clipboardObject;
+    private String clipboardSourceId;
     private boolean sceneModified = false;
     private boolean modelModified = false;
     private String currentSceneFilePath = null;
     private boolean uiUpdateInProgress = false;
     private TransformationMode currentTransformationMode = TransformationMode.NONE;
+    private RegionSelectionMode currentRegionSelectionMode = RegionSelectionMode.NONE;
 
     public SceneController() {
         this.modelService = new ModelServiceImpl();
         this.sceneService = new SceneServiceImpl(modelService);
+        this.autosaveService = new AutosaveServiceImpl(sceneService);
         this.currentScene = sceneService.createNewScene();
         this.mouseTransformationHandler = new MouseTransformationHandler(this);
     }
@@ -76,6 +99,9 @@ public class SceneController {
         }
 
         this.currentTransformationMode = mode;
+        if (mode != TransformationMode.NONE) {
+            currentRegionSelectionMode = RegionSelectionMode.NONE;
+        }
         if (mouseTransformationHandler != null) {
             mouseTransformationHandler.setTransformationMode(mode);
         }
@@ -91,6 +117,68 @@ public class SceneController {
         return currentTransformationMode;
     }
 
+    /**
+     * Включает выделение областью; повторный выбор того же режима выключает его.
+     * Режим трансформации при этом сбрасывается, чтобы перетаскивание рисовало область.
+     */
+    public void setRegionSelectionMode(RegionSelectionMode mode) {
+        if (this.currentRegionSelectionMode == mode && mode != RegionSelectionMode.NONE) {
+            mode = RegionSelectionMode.NONE;
+        }
+
+        if (mode != RegionSelectionMode.NONE && currentTransformationMode != TransformationMode.NONE) {
+            setTransformationMode(TransformationMode.NONE);
+        }
+        this.currentRegionSelectionMode = mode;
+        LOG.info("Установлен режим выделения областью: {}", mode);
+    }
+
+    public RegionSelectionMode getRegionSelectionMode() {
+        return currentRegionSelectionMode;
+    }
+
+    /**
+     * Выделяет видимые вершины выбранного объекта внутри области экрана
+     * и полигоны, все вершины которых попали в область.
+     *
+     * @param region    область выделения
+     * @param operation заменить выделение, добавить к нему или исключить из него
+     */
+    public void handleRegionSelection(ScreenRegion region, SelectionOperation operation) {
+        SceneObject selectedObject = currentScene.getSelectedObject();
+        if (selectedObject == null || selectedObject.getModel() == null || renderController == null) {
+            return;
+        }
+
+        Model model = selectedObject.getModel();
+        IndexSet vertices = IndexSet.fromBitSet(renderController.getSceneManager()
+            .selectRegion(selectedObject, region)
+            .toBitSet(model.getVertices().size()));
+        IndexSet polygons = IndexSet.fromBitSet(
+            model.getAdjacency().markFacesWithinVertices(vertices.toBitSet(model.getVertices().size())));
+
+        ModelSelection selection = model.getSelection();
+        switch (operation) {
+            case REPLACE -> {
+                selection.clearAll();
+                selection.selectVertices(vertices);
+                selection.selectPolygons(polygons);
+            }
+            case ADD -> {
+                selection.selectVertices(vertices);
+                selection.selectPolygons(polygons);
+            }
+            case SUBTRACT -> {
+                selection.deselectVertices(vertices);
+                selection.deselectPolygons(polygons);
+            }
+        }
+
+        updateUI();
+        LOG.debug("Выделение областью: объект '{}', вершин {}, полигонов {}", selectedObject.getName(),
+            vertices.size(), polygons.size());
+    }
+
     public MouseTransformationHandler getMouseTransformationHandler() {
         return mouseTransformationHandler;
     }
@@ -100,6 +188,7 @@ public class SceneController {
             SceneObject newObject = sceneService.addModelToScene(currentScene, filePath);
             newObject.getRenderSettings().setDrawAxisLines(true);
             currentScene.selectObject(newObject);
+            autosaveService.recordObjectAdded(newObject);
             markSceneModified();
             markModelModified();
             updateUI();
@@ -115,6 +204,7 @@ public class SceneController {
             SceneObject newObject = sceneService.addDefaultModelToScene(currentScene, modelType.name());
             newObject.getRenderSettings().setDrawAxisLines(true);
             currentScene.selectObject(newObject);
+            autosaveService.recordObjectAdded(newObject);
             markSceneModified();
             markModelModified();
             updateUI();
@@ -130,26 +220,34 @@ public class SceneController {
             return;
         }
 
+        SceneObject removedObject = currentScene.getSelectedObject();
         sceneService.removeSelectedObject(currentScene);
+        autosaveService.recordObjectRemoved(removedObject);
+        commandHistory.forget(removedObject);
         markSceneModified();
         updateUI();
     }
 
     public void duplicateSelectedObject() {
-        if (!hasSelectedObject()) {
+        if (!hasSelectedObject() || isSelectedObjectLoading()) {
             return;
         }
 
+        SceneObject source = currentScene.getSelectedObject();
         sceneService.duplicateSelectedObject(currentScene);
+        if (hasSelectedObject()) {
+            autosaveService.recordObjectCopied(source, getSelectedObject());
+        }
         markSceneModified();
         updateUI();
     }
 
     public void copySelectedObject() {
-        if (!hasSelectedObject()) {
+        if (!hasSelectedObject() || isSelectedObjectLoading()) {
             return;
         }
 
+        clipboardSourceId = currentScene.getSelectedObject().getId();
         clipboardObject = currentScene.getSelectedObject().copy();
         LOG.debug("Объект '{}' скопирован в буфер обмена", clipboardObject.getName());
     }
@@ -159,11 +257,13 @@ public class SceneController {
             return;
         }
 
+        SceneObject source = currentScene.findObjectById(clipboardSourceId).orElse(null);
         SceneObject pastedObject = clipboardObject.copy();
         pastedObject.setName(SceneUtils.generateUniqueCopyName(clipboardObject.getName(), currentScene));
         pastedObject.getRenderSettings().setDrawAxisLines(true);
         currentScene.addObject(pastedObject);
         currentScene.selectObject(pastedObject);
+        autosaveService.recordObjectCopied(source, pastedObject);
         markSceneModified();
         markModelModified();
         updateUI();
@@ -177,13 +277,38 @@ public class SceneController {
         }
 
         SceneUtils.validateAndRenameObject(getSelectedObject(), newName, currentScene);
+        autosaveService.recordRename(getSelectedObject());
+        markSceneModified();
+        updateUI();
+    }
+
+    /**
+     * Делает выбранный объект потомком другого объекта сцены.
+     *
+     * @param parent новый родитель или {@code null}, чтобы сделать объект корневым
+     */
+    public void setSelectedObjectParent(SceneObject parent) {
+        if (!hasSelectedObject()) {
+            LOG.warn("Попытка изменить родителя без выбранного объекта");
+            return;
+        }
+
+        SceneObject child = getSelectedObject();
+        if (child.getParent() == parent || !currentScene.setParent(child, parent)) {
+            return;
+        }
+        autosaveService.recordParentChanged(child);
         markSceneModified();
         updateUI();
     }
 
     public void createNewScene() {
+        autosaveService.closeSession(true);
+        commandHistory.clear();
         currentScene = sceneService.createNewScene();
+        currentSceneLoad = null;
         clipboardObject = null;
+        clipboardSourceId = null;
         sceneModified = false;
         modelModified = false;
         currentSceneFilePath = null;
@@ -202,30 +327,21 @@ public class SceneController {
     }
 
     public void saveScene(String filePath) throws IOException {
+        if (isSceneLoading()) {
+            throw new IllegalStateException(MessageConstants.SCENE_STILL_LOADING);
+        }
         sceneService.saveScene(currentScene, filePath);
         sceneModified = false;
         currentSceneFilePath = filePath;
+        autosaveService.startSession(currentScene, filePath, true);
         LOG.info("Сцена сохранена в файл: {}", filePath);
     }
 
     public void loadScene(String filePath) {
         try {
-            currentScene = sceneService.loadScene(filePath);
-            clipboardObject = null;
-            sceneModified = false;
-            modelModified = false;
-            currentSceneFilePath = filePath;
-            currentTransformationMode = TransformationMode.NONE;
-
-            if (mouseTransformationHandler != null) {
-                mouseTransformationHandler.setTransformationMode(TransformationMode.NONE);
-            }
-
-            if (renderController != null) {
-                renderController.setScene(currentScene);
-            }
-
-            updateUI();
+            SceneLoad load = sceneService.loadSceneProgressively(filePath, Platform::runLater);
+            applyLoadedScene(load.getScene(), filePath, false);
+            trackSceneLoad(load);
             LOG.info("Сцена загружена из файла: {}", filePath);
         } catch (Exception e) {
             LOG.error("Ошибка загрузки сцены из файла {}: {}", filePath, e.getMessage());
@@ -233,6 +349,83 @@ public class SceneController {
         }
     }
 
+    /**
+     * Проверяет, остались ли для файла сцены несохраненные правки
+     * из предыдущего сеанса, завершившегося аварийно.
+     */
+    public boolean hasRecoverableChanges(String filePath) {
+        return autosaveService.hasRecoverableChanges(filePath);
+    }
+
+    /**
+     * Загружает сцену с примененными правками из журнала автосохранения.
+     * Восстановленная сцена считается несохраненной.
+     */
+    public void recoverScene(String filePath) {
+        try {
+            applyLoadedScene(autosaveService.recover(filePath), filePath, true);
+            LOG.info("Сцена восстановлена из автосохранения: {}", filePath);
+        } catch (Exception e) {
+            LOG.error("Ошибка восстановления сцены {}: {}", filePath, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Проверяет, декодируется ли еще геометрия объектов текущей сцены.
+     */
+    public boolean isSceneLoading() {
+        return currentSceneLoad != null && !currentSceneLoad.isDone();
+    }
+
+    public boolean isSelectedObjectLoading() {
+        return hasSelectedObject() && getSelectedObject().isLoading();
+    }
+
+    private void trackSceneLoad(SceneLoad load) {
+        currentSceneLoad = load;
+        load.getCompletion().whenCompleteAsync((ignored, error) -> {
+            if (currentSceneLoad != load) {
+                return;
+            }
+
+            if (error != null) {
+                LOG.error("Не удалось загрузить геометрию сцены: {}", error.getMessage());
+                DialogManager.showError("Ошибка загрузки геометрии сцены: " + error.getMessage());
+            } else {
+                LOG.info("Геометрия всех объектов сцены '{}' загружена", load.getScene().getName());
+            }
+            updateUI();
+        }, Platform::runLater);
+    }
+
+    public void discardRecoverableChanges(String filePath) {
+        autosaveService.discard(filePath);
+    }
+
+    private void applyLoadedScene(Scene scene, String filePath, boolean recovered) {
+        commandHistory.clear();
+        currentScene = scene;
+        currentSceneLoad = null;
+        clipboardObject = null;
+        clipboardSourceId = null;
+        sceneModified = recovered;
+        modelModified = recovered;
+        currentSceneFilePath = filePath;
+        currentTransformationMode = TransformationMode.NONE;
+
+        if (mouseTransformationHandler != null) {
+            mouseTransformationHandler.setTransformationMode(TransformationMode.NONE);
+        }
+
+        if (renderController != null) {
+            renderController.setScene(currentScene);
+        }
+
+        autosaveService.startSession(currentScene, filePath, !recovered);
+        updateUI();
+    }
+
     public boolean hasUnsavedChanges() {
         return sceneModified;
     }
@@ -266,11 +459,55 @@ public class SceneController {
         }
     }
 
+    /**
+     * Обрабатывает выбор щелчком по холсту. Щелчок мимо объектов снимает выделение объекта;
+     * выбор полигона или вершины переключает элемент в выделении модели попавшего объекта.
+     *
+     * @param pick результат выбора лучом
+     * @param mode что выбирается: объект, полигон или ближайшая вершина
+     */
+    public void handleCanvasPick(Optional<ScenePicker.Pick> pick, PickMode mode) {
+        if (pick.isEmpty()) {
+            if (mode == PickMode.OBJECT && currentScene.getSelectedObject() != null) {
+                currentScene.selectObject(null);
+                updateUI();
+            }
+            return;
+        }
+
+        SceneObject object = pick.get().object();
+        if (currentScene.getSelectedObject() != object) {
+            currentScene.selectObject(object);
+        }
+
+        ModelSelection selection = object.getModel().getSelection();
+        if (mode == PickMode.FACE) {
+            int face = pick.get().faceIndex();
+            if (selection.isPolygonSelected(face)) {
+                selection.deselectPolygon(face);
+            } else {
+                selection.selectPolygon(face);
+            }
+        } else if (mode == PickMode.VERTEX) {
+            int vertex = pick.get().vertexIndex();
+            if (selection.isVertexSelected(vertex)) {
+                selection.deselectVertex(vertex);
+            } else {
+                selection.selectVertex(vertex);
+            }
+        }
+
+        updateUI();
+        LOG.debug("Выбор на холсте: объект '{}', полигон {}, вершина {}", object.getName(),
+            pick.get().faceIndex(), pick.get().vertexIndex());
+    }
+
     public void toggleObjectVisibility(SceneObject object) {
         if (object == null) return;
 
         boolean newVisibility = !object.isVisible();
         object.setVisible(newVisibility);
+        autosaveService.recordVisibility(object);
         markSceneModified();
         updateUI();
         LOG.info("Видимость объекта '{}' переключена: {}", object.getName(), newVisibility);
@@ -281,7 +518,10 @@ public class SceneController {
             return;
         }
 
+        double[] before = TransformEdit.snapshot(getSelectedObject().getTransform());
         currentScene.getSelectedObject().getTransform().reset();
+        autosaveService.recordTransform(getSelectedObject());
+        recordEdit(TransformEdit.of(getSelectedObject(), before));
         markSceneModified();
         markModelModified();
         updateUI();
@@ -296,6 +536,7 @@ public class SceneController {
         }
 
         Transform transform = currentScene.getSelectedObject().getTransform();
+        double[] before = TransformEdit.snapshot(transform);
         transform.setPositionX(posX);
         transform.setPositionY(posY);
         transform.setPositionZ(posZ);
@@ -305,6 +546,8 @@ public class SceneController {
         transform.setScaleX(scaleX);
         transform.setScaleY(scaleY);
         transform.setScaleZ(scaleZ);
+        autosaveService.recordTransform(getSelectedObject());
+        recordEdit(TransformEdit.of(getSelectedObject(), before));
 
         markSceneModified();
         markModelModified();
@@ -321,13 +564,55 @@ public class SceneController {
         if (hasSelectedObject()) {
             SceneObject selected = getSelectedObject();
             RasterizerSettings settings = selected.getRenderSettings();
+            MaterialEdit.State before = MaterialEdit.State.capture(selected);
             boolean newState = !settings.isDrawAxisLines();
             settings.setDrawAxisLines(newState);
+            autosaveService.recordMaterial(selected);
+            recordEdit(MaterialEdit.of(selected, before));
             LOG.info("Оси XYZ для объекта '{}' переключены: {}", selected.getName(), newState);
             markSceneModified();
         }
     }
 
+    public AutosaveService getAutosaveService() {
+        return autosaveService;
+    }
+
+    public CommandHistory getCommandHistory() {
+        return commandHistory;
+    }
+
+    /**
+     * Добавляет выполненную правку в историю отмены; пустые правки пропускаются.
+     */
+    public void recordEdit(UndoableEdit edit) {
+        commandHistory.record(edit);
+    }
+
+    public boolean undo() {
+        if (isSceneLoading()) {
+            throw new IllegalStateException(MessageConstants.SCENE_STILL_LOADING);
+        }
+        return applyHistoryStep(commandHistory.undo(autosaveService));
+    }
+
+    public boolean redo() {
+        if (isSceneLoading()) {
+            throw new IllegalStateException(MessageConstants.SCENE_STILL_LOADING);
+        }
+        return applyHistoryStep(commandHistory.redo(autosaveService));
+    }
+
+    private boolean applyHistoryStep(UndoableEdit edit) {
+        if (edit == null) {
+            return false;
+        }
+
+        markModelModified();
+        updateUI();
+        return true;
+    }
+
     public Scene getCurrentScene() {
         return currentScene;
     }
@@ -350,10 +635,12 @@ public class SceneController {
             return;
         }
 
-        SceneObject selectedObject = getSelectedObject();
-        Model transformedModel = selectedObject.getTransformedModel();
+        if (isSelectedObjectLoading()) {
+            throw new IllegalStateException(MessageConstants.OBJECT_STILL_LOADING);
+        }
 
-        ModelServiceImpl modelServiceImpl = (ModelServiceImpl) modelService;
+        SceneObject selectedObject = getSelectedObject();
+        Model exportModel = selectedObject.getExportModel();
         ru.vsu.cs.cg.scene.Material material = selectedObject.getMaterial();
         RasterizerSettings renderSettings = selectedObject.getRenderSettings();
 
@@ -372,8 +659,9 @@ public class SceneController {
         Float transparency = (float) material.getAmbient();
         Float reflectivity = (float) material.getDiffusion();
 
-        modelServiceImpl.saveModelWithMaterial(
-                transformedModel,
+        modelService.saveModelWithMaterial(
+                exportModel,
+                selectedObject.getModelMatrix(),
                 filePath,
                 materialName,
                 texturePath,
@@ -422,6 +710,18 @@ public class SceneController {
         return currentScene;
     }
 
+    /**
+     * Сообщает рендереру, какой объект сейчас перетаскивается, чтобы остальная
+     * сцена бралась из кэшированного слоя.
+     *
+     * @param object перетаскиваемый объект или {@code null} по окончании перетаскивания
+     */
+    public void setInteractiveObject(SceneObject object) {
+        if (renderController != null) {
+            renderController.getSceneManager().setInteractiveObject(object);
+        }
+    }
+
     public Camera getActiveCamera() {
         if (renderController != null && renderController.getSceneManager() != null) {
             return renderController.getSceneManager().getActiveCamera();
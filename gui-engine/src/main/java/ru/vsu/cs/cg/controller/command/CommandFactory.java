@@ -5,12 +5,15 @@ import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.vsu.cs.cg.controller.command.impl.camera.MenuCreateCameraCommand;
+import ru.vsu.cs.cg.controller.command.impl.edit.RedoCommand;
+import ru.vsu.cs.cg.controller.command.impl.edit.UndoCommand;
 import ru.vsu.cs.cg.controller.command.impl.file.FileOpenCommand;
 import ru.vsu.cs.cg.controller.command.impl.info.AboutShowCommand;
 import ru.vsu.cs.cg.controller.command.impl.info.HotkeysShowCommand;
 import ru.vsu.cs.cg.controller.command.impl.info.UrlOpenCommand;
 import ru.vsu.cs.cg.controller.command.impl.model.DefaultModelAddCommand;
 import ru.vsu.cs.cg.controller.command.impl.model.ModelSaveCommand;
+import ru.vsu.cs.cg.controller.command.impl.modification.RegionSelectionModeCommand;
 import ru.vsu.cs.cg.controller.command.impl.object.*;
 import ru.vsu.cs.cg.controller.command.impl.scene.JsonSceneCommand;
 import ru.vsu.cs.cg.controller.command.impl.transform.TransformationModeCommand;
@@ -22,6 +25,7 @@ import ru.vsu.cs.cg.controller.command.impl.screen.FullscreenToggleCommand;
 import ru.vsu.cs.cg.controller.command.impl.screen.ScreenshotCommand;
 import ru.vsu.cs.cg.controller.command.impl.theme.ThemeCommand;
 import ru.vsu.cs.cg.controller.SceneController;
+import ru.vsu.cs.cg.controller.enums.RegionSelectionMode;
 import ru.vsu.cs.cg.controller.enums.TransformationMode;
 import ru.vsu.cs.cg.math.Vector3f;
 import ru.vsu.cs.cg.service.RecentFilesCacheService;
@@ -61,6 +65,9 @@ public class CommandFactory {
         registerCommand(new ObjectPasteCommand(sceneController));
         registerCommand(new ObjectDuplicateCommand(sceneController));
 
+        registerCommand(new UndoCommand(sceneController));
+        registerCommand(new RedoCommand(sceneController));
+
         for (DefaultModelLoader.ModelType modelType : DefaultModelLoader.ModelType.values()) {
             registerCommand(new DefaultModelAddCommand(sceneController, modelType));
         }
@@ -73,6 +80,9 @@ public class CommandFactory {
         registerCommand(new TransformationModeCommand(sceneController, TransformationMode.ROTATE));
         registerCommand(new TransformationModeCommand(sceneController, TransformationMode.SCALE));
 
+        registerCommand(new RegionSelectionModeCommand(sceneController, RegionSelectionMode.BOX));
+        registerCommand(new RegionSelectionModeCommand(sceneController, RegionSelectionMode.LASSO));
+
         registerCommand(new ScreenshotCommand(stage));
         registerCommand(new FullscreenToggleCommand(stage));
 
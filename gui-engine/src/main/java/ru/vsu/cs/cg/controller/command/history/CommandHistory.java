@@ -0,0 +1,162 @@
+package ru.vsu.cs.cg.controller.command.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.service.AutosaveService;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * История отмены и повтора правок с ограничением по памяти.
+ * При превышении бюджета вытесняются самые старые правки: сначала из стека отмены,
+ * затем самые дальние из стека повтора.
+ */
+public class CommandHistory {
+    private static final Logger LOG = LoggerFactory.getLogger(CommandHistory.class);
+
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private final Deque<UndoableEdit> undoStack = new ArrayDeque<>();
+    private final Deque<UndoableEdit> redoStack = new ArrayDeque<>();
+    private long budgetBytes;
+    private long usedBytes;
+
+    public CommandHistory(long budgetBytes) {
+        setBudgetBytes(budgetBytes);
+    }
+
+    public void setBudgetBytes(long budgetBytes) {
+        if (budgetBytes <= 0) {
+            throw new IllegalArgumentException("Бюджет истории должен быть положительным: " + budgetBytes);
+        }
+        this.budgetBytes = budgetBytes;
+        evict();
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Добавляет выполненную правку. Стек повтора очищается.
+     */
+    public void record(UndoableEdit edit) {
+        if (edit == null) {
+            return;
+        }
+
+        redoStack.forEach(dropped -> usedBytes -= dropped.estimatedBytes());
+        redoStack.clear();
+
+        undoStack.addLast(edit);
+        usedBytes += edit.estimatedBytes();
+        evict();
+        LOG.debug("Правка записана в историю: {}, занято {} из {} байт",
+            edit.getDescription(), usedBytes, budgetBytes);
+    }
+
+    /**
+     * Отменяет последнюю правку. Правка, которую не удалось отменить, удаляется из истории.
+     *
+     * @return отмененная правка или null, если отменять нечего
+     */
+    public UndoableEdit undo(AutosaveService autosaveService) {
+        UndoableEdit edit = undoStack.pollLast();
+        if (edit == null) {
+            return null;
+        }
+
+        long before = edit.estimatedBytes();
+        try {
+            edit.undo(autosaveService);
+        } catch (RuntimeException e) {
+            usedBytes -= before;
+            throw e;
+        }
+        usedBytes += edit.estimatedBytes() - before;
+        redoStack.addLast(edit);
+        evict();
+        LOG.info("Отменено: {}", edit.getDescription());
+        return edit;
+    }
+
+    /**
+     * Повторяет последнюю отмененную правку.
+     *
+     * @return повторенная правка или null, если повторять нечего
+     */
+    public UndoableEdit redo(AutosaveService autosaveService) {
+        UndoableEdit edit = redoStack.pollLast();
+        if (edit == null) {
+            return null;
+        }
+
+        long before = edit.estimatedBytes();
+        try {
+            edit.redo(autosaveService);
+        } catch (RuntimeException e) {
+            usedBytes -= before;
+            throw e;
+        }
+        usedBytes += edit.estimatedBytes() - before;
+        undoStack.addLast(edit);
+        evict();
+        LOG.info("Повторено: {}", edit.getDescription());
+        return edit;
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    public int size() {
+        return undoStack.size() + redoStack.size();
+    }
+
+    /**
+     * Удаляет правки объекта, например после его удаления со сцены.
+     */
+    public void forget(SceneObject target) {
+        removeTarget(undoStack, target);
+        removeTarget(redoStack, target);
+    }
+
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        usedBytes = 0;
+    }
+
+    private void removeTarget(Deque<UndoableEdit> stack, SceneObject target) {
+        Iterator<UndoableEdit> iterator = stack.iterator();
+        while (iterator.hasNext()) {
+            UndoableEdit edit = iterator.next();
+            if (edit.getTarget() == target) {
+                usedBytes -= edit.estimatedBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evict() {
+        while (usedBytes > budgetBytes && !undoStack.isEmpty()) {
+            UndoableEdit evicted = undoStack.pollFirst();
+            usedBytes -= evicted.estimatedBytes();
+            LOG.debug("Правка вытеснена из истории: {}", evicted.getDescription());
+        }
+        while (usedBytes > budgetBytes && !redoStack.isEmpty()) {
+            usedBytes -= redoStack.pollFirst().estimatedBytes();
+        }
+    }
+}
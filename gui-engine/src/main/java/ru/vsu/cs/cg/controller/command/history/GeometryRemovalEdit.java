@@ -0,0 +1,93 @@
+package ru.vsu.cs.cg.controller.command.history;
+
+import ru.vsu.cs.cg.exceptions.VertexRemoverException;
+import ru.vsu.cs.cg.model.IndexSet;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.RemovedGeometry;
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.service.AutosaveService;
+import ru.vsu.cs.cg.utils.RemovalUtils;
+import ru.vsu.cs.cg.vertexremover.VertexRemoverImpl;
+
+import java.util.Collection;
+
+/**
+ * Удаление вершин или полигонов. Для отмены хранится только удаленная часть
+ * модели ({@link RemovedGeometry}); после отмены она освобождается, а повтор
+ * заново выполняет удаление по сохраненным индексам.
+ */
+public final class GeometryRemovalEdit implements UndoableEdit {
+    private final SceneObject target;
+    private final IndexSet requestedIndices;
+    private final boolean vertices;
+    private final boolean clearUnused;
+    private RemovedGeometry removedGeometry;
+
+    private GeometryRemovalEdit(SceneObject target, Collection<Integer> indices, boolean vertices,
+                                boolean clearUnused, RemovedGeometry removedGeometry) {
+        this.target = target;
+        this.requestedIndices = IndexSet.from(indices).copy();
+        this.vertices = vertices;
+        this.clearUnused = clearUnused;
+        this.removedGeometry = removedGeometry;
+    }
+
+    public static GeometryRemovalEdit vertices(SceneObject target, Collection<Integer> indices,
+                                               boolean clearUnused, RemovedGeometry removedGeometry) {
+        return removedGeometry == null ? null
+            : new GeometryRemovalEdit(target, indices, true, clearUnused, removedGeometry);
+    }
+
+    public static GeometryRemovalEdit polygons(SceneObject target, Collection<Integer> indices,
+                                               RemovedGeometry removedGeometry) {
+        return removedGeometry == null ? null
+            : new GeometryRemovalEdit(target, indices, false, false, removedGeometry);
+    }
+
+    @Override
+    public void undo(AutosaveService autosaveService) {
+        Model model = target.getModel();
+        RemovedGeometry restored = removedGeometry;
+        restored.restore(model);
+        removedGeometry = null;
+        model.getSelection().clearAll();
+
+        autosaveService.recordGeometryRestored(target, restored);
+    }
+
+    @Override
+    public void redo(AutosaveService autosaveService) {
+        Model model = target.getModel();
+        IndexSet indices = requestedIndices.copy();
+
+        if (vertices) {
+            try {
+                removedGeometry = new VertexRemoverImpl().removeVertices(model, indices, clearUnused)
+                    .getRemovedGeometry();
+            } catch (VertexRemoverException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            autosaveService.recordVerticesRemoved(target, indices, clearUnused);
+        } else {
+            removedGeometry = RemovalUtils.removePolygonsFromModel(model, indices);
+            autosaveService.recordPolygonsRemoved(target, indices);
+        }
+        model.getSelection().clearAll();
+    }
+
+    @Override
+    public SceneObject getTarget() {
+        return target;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        long payload = removedGeometry == null ? 0 : removedGeometry.estimatedBytes();
+        return 64 + requestedIndices.estimatedBytes() + payload;
+    }
+
+    @Override
+    public String getDescription() {
+        return (vertices ? "Удаление вершин" : "Удаление полигонов") + " объекта '" + target.getName() + "'";
+    }
+}
@@ -0,0 +1,94 @@
+package ru.vsu.cs.cg.controller.command.history;
+
+import ru.vsu.cs.cg.rasterization.RasterizerSettings;
+import ru.vsu.cs.cg.scene.Material;
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.service.AutosaveService;
+
+/**
+ * Изменение материала и настроек отрисовки объекта.
+ */
+public final class MaterialEdit implements UndoableEdit {
+    private final SceneObject target;
+    private final State before;
+    private final State after;
+
+    private MaterialEdit(SceneObject target, State before, State after) {
+        this.target = target;
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Создает правку по состоянию до изменения и текущему материалу объекта.
+     *
+     * @return правка или null, если материал не изменился
+     */
+    public static MaterialEdit of(SceneObject target, State before) {
+        State after = State.capture(target);
+        return before.equals(after) ? null : new MaterialEdit(target, before, after);
+    }
+
+    @Override
+    public void undo(AutosaveService autosaveService) {
+        before.applyTo(target);
+        autosaveService.recordMaterial(target);
+    }
+
+    @Override
+    public void redo(AutosaveService autosaveService) {
+        after.applyTo(target);
+        autosaveService.recordMaterial(target);
+    }
+
+    @Override
+    public SceneObject getTarget() {
+        return target;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return 2L * (16 + 7 * Double.BYTES + 4 + 8) + 32;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Материал объекта '" + target.getName() + "'";
+    }
+
+    /**
+     * Значения материала и флаги отрисовки, которые меняются в панели материала.
+     */
+    public record State(double red, double green, double blue, double alpha,
+                        double lightIntensity, double diffusion, double ambient, String texturePath,
+                        boolean useTexture, boolean useLighting, boolean drawPolygonalGrid,
+                        boolean drawAxisLines) {
+
+        public static State capture(SceneObject object) {
+            Material material = object.getMaterial();
+            RasterizerSettings settings = object.getRenderSettings();
+            return new State(material.getRed(), material.getGreen(), material.getBlue(), material.getAlpha(),
+                material.getLightIntensity(), material.getDiffusion(), material.getAmbient(),
+                material.getTexturePath(), settings.isUseTexture(), settings.isUseLighting(),
+                settings.isDrawPolygonalGrid(), settings.isDrawAxisLines());
+        }
+
+        void applyTo(SceneObject object) {
+            Material material = object.getMaterial();
+            material.setRed(red);
+            material.setGreen(green);
+            material.setBlue(blue);
+            material.setAlpha(alpha);
+            material.setLightIntensity(lightIntensity);
+            material.setDiffusion(diffusion);
+            material.setAmbient(ambient);
+            material.setTexturePath(texturePath);
+
+            RasterizerSettings settings = object.getRenderSettings();
+            settings.setUseTexture(useTexture);
+            settings.setUseLighting(useLighting);
+            settings.setDrawPolygonalGrid(drawPolygonalGrid);
+            settings.setDrawAxisLines(drawAxisLines);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.vsu.cs.cg.controller.command.history;
+
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.scene.Transform;
+import ru.vsu.cs.cg.service.AutosaveService;
+
+import java.util.Arrays;
+
+/**
+ * Изменение трансформации объекта: девять чисел до и после правки.
+ */
+public final class TransformEdit implements UndoableEdit {
+    private final SceneObject target;
+    private final double[] before;
+    private final double[] after;
+
+    private TransformEdit(SceneObject target, double[] before, double[] after) {
+        this.target = target;
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Создает правку по состоянию до изменения и текущей трансформации объекта.
+     *
+     * @return правка или null, если трансформация не изменилась
+     */
+    public static TransformEdit of(SceneObject target, double[] before) {
+        double[] after = snapshot(target.getTransform());
+        return Arrays.equals(before, after) ? null : new TransformEdit(target, before, after);
+    }
+
+    public static double[] snapshot(Transform transform) {
+        return new double[]{
+            transform.getPositionX(), transform.getPositionY(), transform.getPositionZ(),
+            transform.getRotationX(), transform.getRotationY(), transform.getRotationZ(),
+            transform.getScaleX(), transform.getScaleY(), transform.getScaleZ()
+        };
+    }
+
+    @Override
+    public void undo(AutosaveService autosaveService) {
+        apply(before);
+        autosaveService.recordTransform(target);
+    }
+
+    @Override
+    public void redo(AutosaveService autosaveService) {
+        apply(after);
+        autosaveService.recordTransform(target);
+    }
+
+    private void apply(double[] values) {
+        Transform transform = target.getTransform();
+        transform.setPositionX(values[0]);
+        transform.setPositionY(values[1]);
+        transform.setPositionZ(values[2]);
+        transform.setRotationX(values[3]);
+        transform.setRotationY(values[4]);
+        transform.setRotationZ(values[5]);
+        transform.setScaleX(values[6]);
+        transform.setScaleY(values[7]);
+        transform.setScaleZ(values[8]);
+    }
+
+    @Override
+    public SceneObject getTarget() {
+        return target;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return 2L * (16 + 9 * Double.BYTES) + 32;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Трансформация объекта '" + target.getName() + "'";
+    }
+}
@@ -0,0 +1,21 @@
+package ru.vsu.cs.cg.controller.command.history;
+
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.service.AutosaveService;
+
+/**
+ * Правка, которую можно отменить и повторить. Хранит разницу состояний,
+ * а не снимок объекта, и сама записывает результат в журнал автосохранения.
+ */
+public interface UndoableEdit {
+    void undo(AutosaveService autosaveService);
+    void redo(AutosaveService autosaveService);
+    SceneObject getTarget();
+
+    /**
+     * Оценка занимаемой правкой памяти в байтах; может меняться после отмены и повтора.
+     */
+    long estimatedBytes();
+
+    String getDescription();
+}
@@ -0,0 +1,37 @@
+package ru.vsu.cs.cg.controller.command.impl.edit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.controller.SceneController;
+import ru.vsu.cs.cg.controller.command.Command;
+import ru.vsu.cs.cg.utils.dialog.DialogManager;
+
+public class RedoCommand implements Command {
+    private static final Logger LOG = LoggerFactory.getLogger(RedoCommand.class);
+
+    private final SceneController sceneController;
+
+    public RedoCommand(SceneController sceneController) {
+        this.sceneController = sceneController;
+    }
+
+    @Override
+    public void execute() {
+        try {
+            sceneController.redo();
+        } catch (Exception e) {
+            LOG.error("Ошибка повтора правки: {}", e.getMessage());
+            DialogManager.showError("Ошибка повтора правки: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "edit_redo";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Повтор отмененной правки";
+    }
+}
@@ -0,0 +1,37 @@
+package ru.vsu.cs.cg.controller.command.impl.edit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.controller.SceneController;
+import ru.vsu.cs.cg.controller.command.Command;
+import ru.vsu.cs.cg.utils.dialog.DialogManager;
+
+public class UndoCommand implements Command {
+    private static final Logger LOG = LoggerFactory.getLogger(UndoCommand.class);
+
+    private final SceneController sceneController;
+
+    public UndoCommand(SceneController sceneController) {
+        this.sceneController = sceneController;
+    }
+
+    @Override
+    public void execute() {
+        try {
+            sceneController.undo();
+        } catch (Exception e) {
+            LOG.error("Ошибка отмены правки: {}", e.getMessage());
+            DialogManager.showError("Ошибка отмены правки: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "edit_undo";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Отмена последней правки";
+    }
+}
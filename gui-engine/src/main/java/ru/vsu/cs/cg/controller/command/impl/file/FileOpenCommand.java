@@ -1,5 +1,6 @@
 package ru.vsu.cs.cg.controller.command.impl.file;
 
+import javafx.scene.control.ButtonType;
 import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,6 +12,8 @@ import ru.vsu.cs.cg.utils.dialog.DialogManager;
 import ru.vsu.cs.cg.utils.events.RecentFilesUpdateManager;
 import ru.vsu.cs.cg.utils.file.PathManager;
 
+import java.util.Optional;
+
 public class FileOpenCommand implements Command {
     private static final Logger LOG = LoggerFactory.getLogger(FileOpenCommand.class);
 
@@ -60,7 +63,11 @@ public class FileOpenCommand implements Command {
             }
 
             PathManager.validatePathForRead(filePath);
-            sceneController.loadScene(filePath);
+            if (sceneController.hasRecoverableChanges(filePath)) {
+                openWithRecovery(filePath);
+            } else {
+                sceneController.loadScene(filePath);
+            }
 
             recentFilesService.addFile(filePath);
             CachePersistenceManager.saveRecentFiles(recentFilesService.getRecentFiles());
@@ -74,6 +81,20 @@ public class FileOpenCommand implements Command {
         }
     }
 
+    private void openWithRecovery(String filePath) {
+        Optional<ButtonType> result = DialogManager.showConfirmation(
+            "Восстановление сцены",
+            "Найдены несохраненные изменения этой сцены после аварийного завершения. Восстановить их?"
+        );
+
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            sceneController.recoverScene(filePath);
+        } else {
+            sceneController.discardRecoverableChanges(filePath);
+            sceneController.loadScene(filePath);
+        }
+    }
+
     public void openModelFile(String filePath) {
         try {
             sceneController.addModelToScene(filePath);
@@ -0,0 +1,35 @@
+package ru.vsu.cs.cg.controller.command.impl.modification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.controller.SceneController;
+import ru.vsu.cs.cg.controller.command.Command;
+import ru.vsu.cs.cg.controller.enums.RegionSelectionMode;
+
+public class RegionSelectionModeCommand implements Command {
+    private static final Logger LOG = LoggerFactory.getLogger(RegionSelectionModeCommand.class);
+
+    private final SceneController sceneController;
+    private final RegionSelectionMode mode;
+
+    public RegionSelectionModeCommand(SceneController sceneController, RegionSelectionMode mode) {
+        this.sceneController = sceneController;
+        this.mode = mode;
+    }
+
+    @Override
+    public void execute() {
+        sceneController.setRegionSelectionMode(mode);
+        LOG.info("Режим выделения областью изменен: {}", sceneController.getRegionSelectionMode());
+    }
+
+    @Override
+    public String getName() {
+        return "selection_mode_" + mode.name().toLowerCase();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Установить режим выделения областью: " + mode;
+    }
+}
@@ -4,9 +4,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.vsu.cs.cg.controller.SceneController;
 import ru.vsu.cs.cg.controller.command.Command;
+import ru.vsu.cs.cg.controller.command.history.GeometryRemovalEdit;
 import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.RemovedGeometry;
 import ru.vsu.cs.cg.model.selection.ModelSelection;
 import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.utils.RemovalUtils;
 import ru.vsu.cs.cg.utils.constants.MessageConstants;
 import ru.vsu.cs.cg.utils.dialog.DialogManager;
 import ru.vsu.cs.cg.utils.parser.IndexParser;
@@ -34,25 +37,33 @@ public class RemovePolygonsCommand implements Command {
                 return;
             }
 
+            if (sceneController.isSelectedObjectLoading()) {
+                DialogManager.showError(MessageConstants.OBJECT_STILL_LOADING);
+                return;
+            }
+
             SceneObject selectedObject = sceneController.getSelectedObject();
             Model model = selectedObject.getModel();
             ModelSelection selection = model.getSelection();
 
-            Set<Integer> polygonIndices = IndexParser.parseIndices(polygonIndicesInput);
-
-            if (polygonIndices.isEmpty()) {
+            Set<Integer> polygonIndices;
+            try {
+                polygonIndices = IndexParser.parseIndices(polygonIndicesInput, model.getPolygons().size());
+            } catch (IndexOutOfBoundsException e) {
                 DialogManager.showError(MessageConstants.POLYGONS_INDICES_INVALID);
                 return;
             }
 
-            if (!IndexParser.validateIndices(polygonIndices, model.getPolygons().size())) {
+            if (polygonIndices.isEmpty()) {
                 DialogManager.showError(MessageConstants.POLYGONS_INDICES_INVALID);
                 return;
             }
 
-            polygonIndices.forEach(selection::deselectPolygon);
+            selection.deselectPolygons(polygonIndices);
 
-            ru.vsu.cs.cg.utils.RemovalUtils.removePolygonsFromModel(model, polygonIndices);
+            RemovedGeometry removedGeometry = RemovalUtils.removePolygonsFromModel(model, polygonIndices);
+            sceneController.getAutosaveService().recordPolygonsRemoved(selectedObject, polygonIndices);
+            sceneController.recordEdit(GeometryRemovalEdit.polygons(selectedObject, polygonIndices, removedGeometry));
 
             selection.adjustSelectionAfterPolygonRemoval(polygonIndices);
 
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.vsu.cs.cg.controller.SceneController;
 import ru.vsu.cs.cg.controller.command.Command;
+import ru.vsu.cs.cg.controller.command.history.GeometryRemovalEdit;
 import ru.vsu.cs.cg.exceptions.VertexRemoverException;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.model.selection.ModelSelection;
@@ -45,23 +46,32 @@ public class RemoveVerticesCommand implements Command {
                 return;
             }
 
+            if (sceneController.isSelectedObjectLoading()) {
+                DialogManager.showError(MessageConstants.OBJECT_STILL_LOADING);
+                return;
+            }
+
             SceneObject selectedObject = sceneController.getSelectedObject();
             Model model = selectedObject.getModel();
             ModelSelection selection = model.getSelection();
 
-            Set<Integer> vertexIndices = IndexParser.parseIndices(vertexIndicesInput);
-
-            if (vertexIndices.isEmpty()) {
+            Set<Integer> vertexIndices;
+            try {
+                vertexIndices = IndexParser.parseIndices(vertexIndicesInput, model.getVertices().size());
+            } catch (IndexOutOfBoundsException e) {
                 DialogManager.showError(MessageConstants.VERTICES_INDICES_INVALID);
                 return;
             }
 
-            if (!IndexParser.validateIndices(vertexIndices, model.getVertices().size())) {
+            if (vertexIndices.isEmpty()) {
                 DialogManager.showError(MessageConstants.VERTICES_INDICES_INVALID);
                 return;
             }
 
             VertexRemovalResult result = vertexRemover.removeVertices(model, vertexIndices, clearUnused);
+            sceneController.getAutosaveService().recordVerticesRemoved(selectedObject, vertexIndices, clearUnused);
+            sceneController.recordEdit(GeometryRemovalEdit.vertices(
+                selectedObject, vertexIndices, clearUnused, result.getRemovedGeometry()));
 
             selection.adjustSelectionAfterVertexRemoval(vertexIndices);
 
@@ -0,0 +1,7 @@
+package ru.vsu.cs.cg.controller.enums;
+
+public enum SelectionOperation {
+    REPLACE,
+    ADD,
+    SUBTRACT
+}
@@ -4,6 +4,7 @@ import javafx.scene.Cursor;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import ru.vsu.cs.cg.controller.SceneController;
+import ru.vsu.cs.cg.controller.command.history.TransformEdit;
 import ru.vsu.cs.cg.controller.enums.TransformationMode;
 import ru.vsu.cs.cg.scene.Transform;
 import ru.vsu.cs.cg.scene.SceneObject;
@@ -15,6 +16,8 @@ public class MouseTransformationHandler {
     private double lastMouseX;
     private double lastMouseY;
     private boolean isDragging = false;
+    private SceneObject dragTarget;
+    private double[] dragStartTransform;
 
     private static final double MOVE_SENSITIVITY = 0.02;
     private static final double ROTATE_SENSITIVITY = 0.1;
@@ -41,6 +44,9 @@ public class MouseTransformationHandler {
             lastMouseX = event.getX();
             lastMouseY = event.getY();
             isDragging = true;
+            dragTarget = sceneController.getSelectedObject();
+            dragStartTransform = TransformEdit.snapshot(dragTarget.getTransform());
+            sceneController.setInteractiveObject(dragTarget);
 
             Cursor cursorType = getCursorForMode(currentMode);
             if (event.getSource() instanceof javafx.scene.Node node) {
@@ -82,6 +88,14 @@ public class MouseTransformationHandler {
     public void handleMouseReleased(MouseEvent event) {
         if (isDragging) {
             isDragging = false;
+            sceneController.setInteractiveObject(null);
+            if (sceneController.hasSelectedObject()) {
+                sceneController.getAutosaveService().recordTransform(sceneController.getSelectedObject());
+            }
+            if (dragTarget != null) {
+                sceneController.recordEdit(TransformEdit.of(dragTarget, dragStartTransform));
+                dragTarget = null;
+            }
             if (event.getSource() instanceof javafx.scene.Node node) {
                 node.getScene().setCursor(Cursor.DEFAULT);
             }
@@ -36,6 +36,9 @@ public class HotkeyManager {
         registerCommand("Ctrl+C", "object_copy");
         registerCommand("Ctrl+V", "object_paste");
         registerCommand("Ctrl+D", "object_duplicate");
+        registerCommand("Ctrl+Z", "edit_undo");
+        registerCommand("Ctrl+Y", "edit_redo");
+        registerCommand("Ctrl+Shift+Z", "edit_redo");
 
         KeyCombination deleteKey = new KeyCodeCombination(KeyCode.DELETE);
         hotkeyActions.put(deleteKey, () -> execute("object_delete"));
@@ -45,6 +48,8 @@ public class HotkeyManager {
         registerCommand("U", "transform_mode_move");
         registerCommand("I", "transform_mode_rotate");
         registerCommand("O", "transform_mode_scale");
+        registerCommand("B", "selection_mode_box");
+        registerCommand("L", "selection_mode_lasso");
 
         registerCommand("G", "grid_toggle");
         registerCommand("X", "axis_toggle");
@@ -115,10 +120,15 @@ public class HotkeyManager {
         descriptions.put("Ctrl+V", "Вставить объект");
         descriptions.put("Ctrl+D", "Дублировать объект");
         descriptions.put("Delete", "Удалить объект");
+        descriptions.put("Ctrl+Z", "Отменить правку");
+        descriptions.put("Ctrl+Y", "Повторить правку");
 
         descriptions.put("U", "Инструмент: Перемещение");
         descriptions.put("I", "Инструмент: Вращение");
         descriptions.put("O", "Инструмент: Масштабирование");
+        descriptions.put("B", "Выделение рамкой");
+        descriptions.put("L", "Выделение лассо");
+        descriptions.put("Ctrl/Alt+LMB", "Добавить к выделению / исключить из выделения областью");
         descriptions.put("X", "Вкл/Выкл Оси координат");
         descriptions.put("LMB", "Применение трансформаций");
 
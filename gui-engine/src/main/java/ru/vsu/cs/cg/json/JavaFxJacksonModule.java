@@ -3,15 +3,18 @@ package ru.vsu.cs.cg.json;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import javafx.scene.paint.Color;
 import ru.vsu.cs.cg.json.deserializers.ColorDeserializer;
+import ru.vsu.cs.cg.json.deserializers.ModelDeserializer;
 import ru.vsu.cs.cg.json.deserializers.PolygonDeserializer;
 import ru.vsu.cs.cg.json.deserializers.Vector2fDeserializer;
 import ru.vsu.cs.cg.json.deserializers.Vector3fDeserializer;
 import ru.vsu.cs.cg.json.serializers.ColorSerializer;
+import ru.vsu.cs.cg.json.serializers.ModelSerializer;
 import ru.vsu.cs.cg.json.serializers.PolygonSerializer;
 import ru.vsu.cs.cg.json.serializers.Vector2fSerializer;
 import ru.vsu.cs.cg.json.serializers.Vector3fSerializer;
 import ru.vsu.cs.cg.math.Vector2f;
 import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.model.Polygon;
 
 public class JavaFxJacksonModule extends SimpleModule {
@@ -24,5 +27,7 @@ public class JavaFxJacksonModule extends SimpleModule {
         addDeserializer(Polygon.class, new PolygonDeserializer());
         addSerializer(Color.class, new ColorSerializer());
         addDeserializer(Color.class, new ColorDeserializer());
+        addSerializer(Model.class, new ModelSerializer());
+        addDeserializer(Model.class, new ModelDeserializer());
     }
 }
@@ -0,0 +1,179 @@
+package ru.vsu.cs.cg.json.deserializers;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import ru.vsu.cs.cg.math.Vector2f;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Потоковая десериализация модели, записанной {@code ModelSerializer}.
+ * Поддерживает и прежний формат, в котором каждая вершина и каждый полигон
+ * были отдельными JSON-объектами. Производные поля старого формата
+ * (кэш триангуляции, изменяемые представления списков) пропускаются.
+ */
+public class ModelDeserializer extends JsonDeserializer<Model> {
+    @Override
+    public Model deserialize(JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException {
+        Model model = new Model();
+
+        if (jsonParser.currentToken() == JsonToken.START_OBJECT) {
+            jsonParser.nextToken();
+        }
+
+        for (; jsonParser.currentToken() == JsonToken.FIELD_NAME; jsonParser.nextToken()) {
+            String fieldName = jsonParser.currentName();
+            JsonToken valueToken = jsonParser.nextToken();
+
+            if (valueToken == JsonToken.VALUE_NULL) {
+                continue;
+            }
+
+            switch (fieldName) {
+                case "vertices" -> model.setVertices(readVector3List(jsonParser, deserializationContext));
+                case "normals" -> model.setNormals(readVector3List(jsonParser, deserializationContext));
+                case "textureVertices" -> model.setTextureVertices(readVector2List(jsonParser, deserializationContext));
+                case "polygons" -> model.setPolygons(readPolygons(jsonParser, deserializationContext));
+                case "useLighting" -> model.setUseLighting(jsonParser.getBooleanValue());
+                case "useTexture" -> model.setUseTexture(jsonParser.getBooleanValue());
+                case "drawPolygonalGrid" -> model.setDrawPolygonalGrid(jsonParser.getBooleanValue());
+                case "materialName" -> model.setMaterialName(jsonParser.getValueAsString());
+                case "texturePath" -> model.setTexturePath(jsonParser.getValueAsString());
+                case "materialColor" -> model.setMaterialColor(readFloats(jsonParser));
+                case "materialShininess" -> model.setMaterialShininess(jsonParser.getFloatValue());
+                case "materialTransparency" -> model.setMaterialTransparency(jsonParser.getFloatValue());
+                case "materialReflectivity" -> model.setMaterialReflectivity(jsonParser.getFloatValue());
+                default -> jsonParser.skipChildren();
+            }
+        }
+
+        return model;
+    }
+
+    private List<Vector3f> readVector3List(JsonParser jsonParser, DeserializationContext context) throws IOException {
+        List<Vector3f> vectors = new ArrayList<>();
+        if (jsonParser.nextToken() == JsonToken.START_OBJECT) {
+            do {
+                vectors.add(context.readValue(jsonParser, Vector3f.class));
+            } while (jsonParser.nextToken() == JsonToken.START_OBJECT);
+            return vectors;
+        }
+
+        float[] values = readRemainingFloats(jsonParser);
+        for (int i = 0; i + 2 < values.length; i += 3) {
+            vectors.add(new Vector3f(values[i], values[i + 1], values[i + 2]));
+        }
+        return vectors;
+    }
+
+    private List<Vector2f> readVector2List(JsonParser jsonParser, DeserializationContext context) throws IOException {
+        List<Vector2f> vectors = new ArrayList<>();
+        if (jsonParser.nextToken() == JsonToken.START_OBJECT) {
+            do {
+                vectors.add(context.readValue(jsonParser, Vector2f.class));
+            } while (jsonParser.nextToken() == JsonToken.START_OBJECT);
+            return vectors;
+        }
+
+        float[] values = readRemainingFloats(jsonParser);
+        for (int i = 0; i + 1 < values.length; i += 2) {
+            vectors.add(new Vector2f(values[i], values[i + 1]));
+        }
+        return vectors;
+    }
+
+    private List<Polygon> readPolygons(JsonParser jsonParser, DeserializationContext context) throws IOException {
+        List<Polygon> polygons = new ArrayList<>();
+
+        if (jsonParser.currentToken() == JsonToken.START_ARRAY) {
+            while (jsonParser.nextToken() == JsonToken.START_OBJECT) {
+                polygons.add(context.readValue(jsonParser, Polygon.class));
+            }
+            return polygons;
+        }
+
+        int[] sizes = new int[0];
+        int[] vertexIndices = new int[0];
+        int[] textureIndices = new int[0];
+        int[] normalIndices = new int[0];
+
+        for (jsonParser.nextToken(); jsonParser.currentToken() == JsonToken.FIELD_NAME; jsonParser.nextToken()) {
+            String fieldName = jsonParser.currentName();
+            jsonParser.nextToken();
+            switch (fieldName) {
+                case "sizes" -> sizes = readInts(jsonParser);
+                case "vertexIndices" -> vertexIndices = readInts(jsonParser);
+                case "textureVertexIndices" -> textureIndices = readInts(jsonParser);
+                case "normalIndices" -> normalIndices = readInts(jsonParser);
+                default -> jsonParser.skipChildren();
+            }
+        }
+
+        int vertexOffset = 0;
+        int textureOffset = 0;
+        int normalOffset = 0;
+        for (int i = 0; i + 2 < sizes.length; i += 3) {
+            Polygon polygon = new Polygon(
+                slice(vertexIndices, vertexOffset, sizes[i]),
+                slice(textureIndices, textureOffset, sizes[i + 1]),
+                slice(normalIndices, normalOffset, sizes[i + 2]));
+            vertexOffset += sizes[i];
+            textureOffset += sizes[i + 1];
+            normalOffset += sizes[i + 2];
+            polygons.add(polygon);
+        }
+        return polygons;
+    }
+
+    private List<Integer> slice(int[] source, int offset, int count) throws IOException {
+        if (count < 0 || offset + count > source.length) {
+            throw new IOException("Количество индексов полигонов не совпадает с размерами полигонов");
+        }
+
+        List<Integer> indices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            indices.add(source[offset + i]);
+        }
+        return indices;
+    }
+
+    private float[] readFloats(JsonParser jsonParser) throws IOException {
+        jsonParser.nextToken();
+        return readRemainingFloats(jsonParser);
+    }
+
+    /**
+     * Читает числа массива начиная с текущего токена до конца массива.
+     */
+    private float[] readRemainingFloats(JsonParser jsonParser) throws IOException {
+        float[] values = new float[64];
+        int size = 0;
+        for (; jsonParser.currentToken() != JsonToken.END_ARRAY; jsonParser.nextToken()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = jsonParser.getFloatValue();
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    private int[] readInts(JsonParser jsonParser) throws IOException {
+        int[] values = new int[64];
+        int size = 0;
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = jsonParser.getIntValue();
+        }
+        return Arrays.copyOf(values, size);
+    }
+}
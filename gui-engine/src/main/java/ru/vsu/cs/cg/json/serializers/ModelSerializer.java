@@ -0,0 +1,113 @@
+package ru.vsu.cs.cg.json.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import ru.vsu.cs.cg.math.Vector2f;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Сериализует модель в компактном виде: координаты записываются плоскими
+ * массивами чисел, а полигоны - массивом размеров и тремя плоскими массивами индексов.
+ * Производные данные модели (кэш триангуляции, выделение) не сохраняются.
+ */
+public class ModelSerializer extends JsonSerializer<Model> {
+    @Override
+    public void serialize(Model model, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeStartObject();
+
+        jsonGenerator.writeArrayFieldStart("vertices");
+        for (Vector3f vertex : model.getVertices()) {
+            jsonGenerator.writeNumber(vertex.getX());
+            jsonGenerator.writeNumber(vertex.getY());
+            jsonGenerator.writeNumber(vertex.getZ());
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeArrayFieldStart("textureVertices");
+        for (Vector2f textureVertex : model.getTextureVertices()) {
+            jsonGenerator.writeNumber(textureVertex.getX());
+            jsonGenerator.writeNumber(textureVertex.getY());
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeArrayFieldStart("normals");
+        for (Vector3f normal : model.getNormals()) {
+            jsonGenerator.writeNumber(normal.getX());
+            jsonGenerator.writeNumber(normal.getY());
+            jsonGenerator.writeNumber(normal.getZ());
+        }
+        jsonGenerator.writeEndArray();
+
+        writePolygons(jsonGenerator, model.getPolygons());
+
+        jsonGenerator.writeBooleanField("useLighting", model.isUseLighting());
+        jsonGenerator.writeBooleanField("useTexture", model.isUseTexture());
+        jsonGenerator.writeBooleanField("drawPolygonalGrid", model.isDrawPolygonalGrid());
+        jsonGenerator.writeStringField("materialName", model.getMaterialName());
+        jsonGenerator.writeStringField("texturePath", model.getTexturePath());
+
+        if (model.getMaterialColor() != null) {
+            jsonGenerator.writeArrayFieldStart("materialColor");
+            for (float component : model.getMaterialColor()) {
+                jsonGenerator.writeNumber(component);
+            }
+            jsonGenerator.writeEndArray();
+        }
+
+        writeNullableFloat(jsonGenerator, "materialShininess", model.getMaterialShininess());
+        writeNullableFloat(jsonGenerator, "materialTransparency", model.getMaterialTransparency());
+        writeNullableFloat(jsonGenerator, "materialReflectivity", model.getMaterialReflectivity());
+
+        jsonGenerator.writeEndObject();
+    }
+
+    private void writePolygons(JsonGenerator jsonGenerator, List<Polygon> polygons) throws IOException {
+        jsonGenerator.writeObjectFieldStart("polygons");
+
+        jsonGenerator.writeArrayFieldStart("sizes");
+        for (Polygon polygon : polygons) {
+            jsonGenerator.writeNumber(polygon.getVertexIndices().size());
+            jsonGenerator.writeNumber(polygon.getTextureVertexIndices().size());
+            jsonGenerator.writeNumber(polygon.getNormalIndices().size());
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeArrayFieldStart("vertexIndices");
+        for (Polygon polygon : polygons) {
+            writeIndices(jsonGenerator, polygon.getVertexIndices());
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeArrayFieldStart("textureVertexIndices");
+        for (Polygon polygon : polygons) {
+            writeIndices(jsonGenerator, polygon.getTextureVertexIndices());
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeArrayFieldStart("normalIndices");
+        for (Polygon polygon : polygons) {
+            writeIndices(jsonGenerator, polygon.getNormalIndices());
+        }
+        jsonGenerator.writeEndArray();
+
+        jsonGenerator.writeEndObject();
+    }
+
+    private void writeIndices(JsonGenerator jsonGenerator, List<Integer> indices) throws IOException {
+        for (Integer index : indices) {
+            jsonGenerator.writeNumber(index);
+        }
+    }
+
+    private void writeNullableFloat(JsonGenerator jsonGenerator, String fieldName, Float value) throws IOException {
+        if (value != null) {
+            jsonGenerator.writeNumberField(fieldName, value);
+        }
+    }
+}
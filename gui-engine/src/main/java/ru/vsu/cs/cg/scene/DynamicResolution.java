@@ -0,0 +1,94 @@
+package ru.vsu.cs.cg.scene;
+
+/**
+ * Управление масштабом внутреннего буфера кадра во время движения камеры.
+ * <p>
+ * Пока камера движется, масштаб подбирается по измеренному времени кадра:
+ * стоимость растеризации пропорциональна числу пикселей, то есть квадрату
+ * масштаба, поэтому при превышении бюджета масштаб уменьшается в
+ * {@code sqrt(бюджет / время)} раз, а при большом запасе плавно растет.
+ * Масштаб округляется до шага {@link #SCALE_STEP}, чтобы буферы не
+ * пересоздавались каждый кадр. После паузы без движения масштаб сразу
+ * возвращается к полному разрешению.
+ */
+final class DynamicResolution {
+    static final float MIN_SCALE = 0.35f;
+    static final float SCALE_STEP = 0.05f;
+    private static final float GROWTH = 1.1f;
+    private static final float HEADROOM = 0.7f;
+
+    private final long frameBudgetNanos;
+    private final long idleNanos;
+    private boolean enabled = true;
+    private boolean moving;
+    private long lastMotionNanos;
+    private float scale = 1.0f;
+
+    DynamicResolution(long frameBudgetNanos, long idleNanos) {
+        this.frameBudgetNanos = frameBudgetNanos;
+        this.idleNanos = idleNanos;
+    }
+
+    /**
+     * Начинает кадр и возвращает масштаб, с которым его нужно отрисовать.
+     *
+     * @param cameraMoved камера изменилась с прошлого кадра
+     * @param now         текущее время в наносекундах
+     */
+    float beginFrame(boolean cameraMoved, long now) {
+        if (cameraMoved) {
+            moving = true;
+            lastMotionNanos = now;
+        } else if (moving && now - lastMotionNanos > idleNanos) {
+            moving = false;
+        }
+        if (!enabled || !moving) {
+            scale = 1.0f;
+        }
+        return scale;
+    }
+
+    /**
+     * Учитывает время отрисовки кадра и подбирает масштаб следующего.
+     *
+     * @param frameNanos время отрисовки кадра в наносекундах
+     */
+    void endFrame(long frameNanos) {
+        if (!enabled || !moving || frameNanos <= 0) {
+            return;
+        }
+        float target = scale * (float) Math.sqrt((double) frameBudgetNanos / frameNanos);
+        if (frameNanos > frameBudgetNanos) {
+            scale = quantize(Math.max(MIN_SCALE, target));
+        } else if (frameNanos < frameBudgetNanos * HEADROOM) {
+            scale = quantize(Math.min(1.0f, Math.min(target, scale * GROWTH)));
+        }
+    }
+
+    /**
+     * Камера двигалась в пределах паузы с прошлого движения.
+     */
+    boolean isMoving() {
+        return moving;
+    }
+
+    float getScale() {
+        return scale;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            scale = 1.0f;
+        }
+    }
+
+    private static float quantize(float value) {
+        float steps = Math.round(value / SCALE_STEP);
+        return Math.max(MIN_SCALE, Math.min(1.0f, steps * SCALE_STEP));
+    }
+}
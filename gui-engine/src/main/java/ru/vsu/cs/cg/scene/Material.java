@@ -1,6 +1,7 @@
 package ru.vsu.cs.cg.scene;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -23,6 +24,7 @@ public class Material {
     private double lightIntensity;
     private double diffusion;
     private double ambient;
+    private long version;
 
     @JsonCreator
     public Material(
@@ -61,31 +63,38 @@ public class Material {
         this.green = color.getGreen();
         this.blue = color.getBlue();
         this.alpha = color.getOpacity();
+        version++;
     }
 
     public double getRed() { return red; }
-    public void setRed(double red) { this.red = Math.max(0, Math.min(1, red)); }
+    public void setRed(double red) { this.red = Math.max(0, Math.min(1, red)); version++; }
 
     public double getGreen() { return green; }
-    public void setGreen(double green) { this.green = Math.max(0, Math.min(1, green)); }
+    public void setGreen(double green) { this.green = Math.max(0, Math.min(1, green)); version++; }
 
     public double getBlue() { return blue; }
-    public void setBlue(double blue) { this.blue = Math.max(0, Math.min(1, blue)); }
+    public void setBlue(double blue) { this.blue = Math.max(0, Math.min(1, blue)); version++; }
 
     public double getAlpha() { return alpha; }
-    public void setAlpha(double alpha) { this.alpha = Math.max(0, Math.min(1, alpha)); }
+    public void setAlpha(double alpha) { this.alpha = Math.max(0, Math.min(1, alpha)); version++; }
 
     public String getTexturePath() { return texturePath; }
-    public void setTexturePath(String texturePath) { this.texturePath = texturePath; }
+    public void setTexturePath(String texturePath) { this.texturePath = texturePath; version++; }
 
     public double getLightIntensity() { return lightIntensity; }
-    public void setLightIntensity(double lightIntensity) { this.lightIntensity = Math.max(0, Math.min(1, lightIntensity)); }
+    public void setLightIntensity(double lightIntensity) { this.lightIntensity = Math.max(0, Math.min(1, lightIntensity)); version++; }
 
     public double getDiffusion() { return diffusion; }
-    public void setDiffusion(double diffusion) { this.diffusion = Math.max(0, Math.min(1, diffusion)); }
+    public void setDiffusion(double diffusion) { this.diffusion = Math.max(0, Math.min(1, diffusion)); version++; }
 
     public double getAmbient() { return ambient; }
-    public void setAmbient(double ambient) { this.ambient = Math.max(0, Math.min(1, ambient)); }
+    public void setAmbient(double ambient) { this.ambient = Math.max(0, Math.min(1, ambient)); version++; }
+
+    /**
+     * Версия материала: увеличивается при каждом изменении.
+     */
+    @JsonIgnore
+    public long getVersion() { return version; }
 
     public void reset() {
         red = green = blue = 0.8;
@@ -94,6 +103,7 @@ public class Material {
         lightIntensity = 0.5;
         diffusion = 0.2;
         ambient = 0.0;
+        version++;
         LOG.debug("Material сброшен к значениям по умолчанию");
     }
 }
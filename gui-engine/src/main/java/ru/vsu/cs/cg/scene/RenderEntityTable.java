@@ -0,0 +1,122 @@
+package ru.vsu.cs.cg.scene;
+
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.rasterization.RasterizerSettings;
+import ru.vsu.cs.cg.rasterization.Texture;
+import ru.vsu.cs.cg.renderEngine.dto.RenderEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Постоянная таблица сущностей отрисовки, по одной на объект сцены.
+ * <p>
+ * Запись хранит готовую {@link RenderEntity} (кэшированные матрицы объекта и
+ * настройки отрисовки, уже совмещенные с материалом) и источники, из которых
+ * она собрана. Запись пересобирается, только если у объекта сменилась мировая
+ * матрица, модель, материал, настройки или загрузилась текстура; изменения
+ * определяются по версиям и ссылкам, без копирования. Записи удаленных объектов
+ * отбрасываются, когда сцена публикует новый снимок объектов. Список кадра
+ * переиспользуется, поэтому в установившемся режиме кадр не создает объектов.
+ */
+final class RenderEntityTable {
+    private final Map<SceneObject, Entry> entries = new IdentityHashMap<>();
+    private final List<RenderEntity> frameEntities = new ArrayList<>();
+    private final List<RenderEntity> dynamicEntities = new ArrayList<>();
+    private List<SceneObject> syncedObjects;
+
+    /**
+     * Начинает кадр: сверяет таблицу со снимком объектов сцены и очищает списки кадра.
+     *
+     * @param objects текущий снимок объектов сцены
+     * @return список статических сущностей кадра, который заполняется через
+     * {@link #add(SceneObject, Texture, boolean)}
+     */
+    List<RenderEntity> beginFrame(List<SceneObject> objects) {
+        if (objects != syncedObjects) {
+            Set<SceneObject> present = Collections.newSetFromMap(new IdentityHashMap<>(objects.size()));
+            present.addAll(objects);
+            entries.keySet().retainAll(present);
+            syncedObjects = objects;
+        }
+        frameEntities.clear();
+        dynamicEntities.clear();
+        return frameEntities;
+    }
+
+    /**
+     * Добавляет объект в список кадра, при необходимости пересобирая его запись.
+     *
+     * @param dynamic объект изменяется во время взаимодействия и рисуется поверх статического слоя
+     */
+    void add(SceneObject object, Texture texture, boolean dynamic) {
+        Entry entry = entries.get(object);
+        if (entry == null || entry.isStale(object, texture)) {
+            entry = new Entry(object, texture);
+            entries.put(object, entry);
+        }
+        (dynamic ? dynamicEntities : frameEntities).add(entry.entity);
+    }
+
+    /**
+     * Динамические сущности текущего кадра.
+     */
+    List<RenderEntity> getDynamicEntities() {
+        return dynamicEntities;
+    }
+
+    void clear() {
+        entries.clear();
+        frameEntities.clear();
+        dynamicEntities.clear();
+        syncedObjects = null;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final Matrix4x4 modelMatrix;
+        private final Model model;
+        private final Material material;
+        private final long materialVersion;
+        private final RasterizerSettings settingsSource;
+        private final RasterizerSettings settingsValues;
+        private final Texture texture;
+        private final RenderEntity entity;
+
+        Entry(SceneObject object, Texture texture) {
+            this.modelMatrix = object.getModelMatrix();
+            this.model = object.getModel();
+            this.material = object.getMaterial();
+            this.materialVersion = material.getVersion();
+            this.settingsSource = object.getRenderSettings();
+            this.settingsValues = settingsSource.copy();
+            this.texture = texture;
+
+            RasterizerSettings shading = settingsSource.copy();
+            shading.setDefaultColor(material.getColor());
+            shading.setLightIntensity((float) material.getLightIntensity());
+            shading.setAmbientStrength((float) material.getDiffusion());
+            shading.setDiffuseStrength((float) material.getAmbient());
+
+            this.entity = new RenderEntity(object.getModel(), modelMatrix, object.getNormalMatrix(), texture, shading);
+        }
+
+        boolean isStale(SceneObject object, Texture currentTexture) {
+            return object.getModelMatrix() != modelMatrix
+                || object.getModel() != model
+                || object.getMaterial() != material
+                || material.getVersion() != materialVersion
+                || object.getRenderSettings() != settingsSource
+                || !settingsSource.hasSameValues(settingsValues)
+                || currentTexture != texture;
+        }
+    }
+}
@@ -1,21 +1,46 @@
 package ru.vsu.cs.cg.scene;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Сцена: упорядоченный набор объектов с индексами по идентификатору и имени.
+ * <p>
+ * Поиск по идентификатору и имени выполняется за O(1). Порядок объектов
+ * хранится отдельным списком, поэтому вставка на позицию не перестраивает
+ * индексы. Позиции объектов ({@link #indexOf(SceneObject)}) вычисляются
+ * лениво и пересчитываются только после вставки в середину или удаления.
+ * Список объектов для отрисовки и обхода ({@link #getObjects()}) — неизменяемый снимок, который
+ * пересобирается только после добавления или удаления объекта, поэтому его
+ * можно запрашивать каждый кадр без копирования. Переименование объекта
+ * сцены обновляет индекс имен автоматически.
+ * <p>
+ * Объекты образуют иерархию ({@link #setParent(SceneObject, SceneObject)}):
+ * трансформация потомка задается относительно родителя. При удалении
+ * родителя его мировая трансформация переносится в трансформации потомков,
+ * и они остаются на месте уже корневыми объектами.
+ */
 public class Scene {
     private static final Logger LOG = LoggerFactory.getLogger(Scene.class);
 
     private final String id;
     private String name;
-    private final List<SceneObject> objects;
+    private final Map<String, SceneObject> objectsById = new HashMap<>();
+    private final Map<String, List<SceneObject>> objectsByName = new HashMap<>();
+    private final List<SceneObject> ordered = new ArrayList<>();
+    private Map<SceneObject, Integer> positions;
+    private volatile List<SceneObject> snapshot = List.of();
     private SceneObject selectedObject;
     private boolean gridVisible = true;
 
@@ -28,7 +53,15 @@ public class Scene {
         @JsonProperty("gridVisible") Boolean gridVisible) {
         this.id = id != null ? id : UUID.randomUUID().toString();
         this.name = name != null ? name : "Новая сцена";
-        this.objects = objects != null ? new ArrayList<>(objects) : new ArrayList<>();
+        if (objects != null) {
+            for (SceneObject object : objects) {
+                index(object, ordered.size());
+            }
+            for (SceneObject object : ordered) {
+                linkPendingParent(object);
+            }
+            publishSnapshot();
+        }
         this.selectedObject = null;
         this.gridVisible = gridVisible != null ? gridVisible : true;
 
@@ -37,7 +70,7 @@ public class Scene {
         }
 
         LOG.debug("Создана сцена: id={}, name={}, объектов={}, gridVisible={}",
-            this.id, this.name, this.objects.size(), this.gridVisible);
+            this.id, this.name, objectsById.size(), this.gridVisible);
     }
 
     public Scene() {
@@ -53,10 +86,20 @@ public class Scene {
         LOG.debug("Имя сцены изменено: '{}' -> '{}'", oldName, this.name);
     }
 
-    public List<SceneObject> getObjects() { return new ArrayList<>(objects); }
+    /**
+     * Неизменяемый снимок объектов сцены в порядке добавления.
+     * Снимок не меняется при последующих правках сцены.
+     */
+    public List<SceneObject> getObjects() { return snapshot; }
 
+    @JsonIgnore
     public SceneObject getSelectedObject() { return selectedObject; }
 
+    @JsonProperty("selectedObjectId")
+    public String getSelectedObjectId() {
+        return selectedObject != null ? selectedObject.getId() : null;
+    }
+
     public boolean isGridVisible() { return gridVisible; }
     public void setGridVisible(boolean gridVisible) {
         this.gridVisible = gridVisible;
@@ -65,36 +108,64 @@ public class Scene {
 
     public Optional<SceneObject> findObjectById(String id) {
         if (id == null) return Optional.empty();
-        return objects.stream()
-            .filter(obj -> id.equals(obj.getId()))
-            .findFirst();
+        return Optional.ofNullable(objectsById.get(id));
     }
 
+    /**
+     * Ищет объект по имени; если имя носят несколько объектов, возвращается добавленный раньше.
+     */
     public Optional<SceneObject> findObjectByName(String name) {
         if (name == null) return Optional.empty();
-        return objects.stream()
-            .filter(obj -> name.equals(obj.getName()))
-            .findFirst();
+        List<SceneObject> named = objectsByName.get(name);
+        return named == null ? Optional.empty() : Optional.of(named.get(0));
     }
 
     public void addObject(SceneObject object) {
+        addObject(object, ordered.size());
+    }
+
+    /**
+     * Добавляет объект на указанную позицию в порядке объектов сцены.
+     * Позиция за пределами списка означает добавление в конец.
+     *
+     * @param object объект
+     * @param position позиция в {@link #getObjects()}
+     */
+    public void addObject(SceneObject object, int position) {
         if (object == null) {
             LOG.warn("Попытка добавить null объект в сцену");
             return;
         }
-        object.getModel().recomputeNormals();
-        objects.add(object);
+        if (objectsById.containsKey(object.getId())) {
+            LOG.warn("Объект с id={} уже есть в сцене '{}'", object.getId(), name);
+            return;
+        }
+        object.getModel().ensureNormals();
+        index(object, position >= 0 && position < ordered.size() ? position : ordered.size());
+        linkPendingParent(object);
+        publishSnapshot();
         LOG.info("Объект '{}' добавлен в сцену '{}'. Всего объектов: {}",
-            object.getName(), name, objects.size());
+            object.getName(), name, objectsById.size());
     }
 
     public boolean removeObject(SceneObject object) {
         if (object == null) return false;
 
-        boolean removed = objects.remove(object);
+        boolean removed = contains(object);
         if (removed) {
+            ordered.remove(indexOf(object));
+            positions = null;
+            objectsById.remove(object.getId());
+            unindexName(object, object.getName());
+            for (SceneObject child : List.copyOf(object.getChildren())) {
+                child.getTransform().setFromMatrix(child.getModelMatrix());
+                child.setParent(null);
+            }
+            object.setParent(null);
+            object.setOwner(null);
+            publishSnapshot();
             LOG.info("Объект '{}' удален из сцены '{}'. Осталось объектов: {}",
-                object.getName(), name, objects.size());
+                object.getName(), name, objectsById.size());
 
             if (object.equals(selectedObject)) {
                 selectedObject = null;
@@ -104,8 +175,24 @@ public class Scene {
         return removed;
     }
 
+    /**
+     * Позиция объекта в {@link #getObjects()} или -1, если объекта нет в сцене.
+     */
+    public int indexOf(SceneObject object) {
+        if (!contains(object)) {
+            return -1;
+        }
+        if (positions == null) {
+            positions = new IdentityHashMap<>(ordered.size() * 2);
+            for (int i = 0; i < ordered.size(); i++) {
+                positions.put(ordered.get(i), i);
+            }
+        }
+        return positions.get(object);
+    }
+
     public void selectObject(SceneObject object) {
-        if (object != null && !objects.contains(object)) {
+        if (object != null && !contains(object)) {
             LOG.warn("Попытка выбрать объект '{}', которого нет в сцене", object.getName());
             return;
         }
@@ -119,24 +206,114 @@ public class Scene {
     }
 
     public void clear() {
-        int size = objects.size();
-        objects.clear();
+        int size = objectsById.size();
+        for (SceneObject object : ordered) {
+            object.setParent(null);
+            object.setOwner(null);
+        }
+        objectsById.clear();
+        objectsByName.clear();
+        ordered.clear();
+        positions = null;
+        publishSnapshot();
         selectedObject = null;
         LOG.info("Сцена '{}' очищена. Удалено объектов: {}", name, size);
     }
 
+    @JsonIgnore
     public boolean isEmpty() {
-        return objects.isEmpty();
+        return objectsById.isEmpty();
     }
 
+    @JsonIgnore
     public int getObjectCount() {
-        return objects.size();
+        return objectsById.size();
+    }
+
+    /**
+     * Проверяет, принадлежит ли сцене именно этот экземпляр объекта.
+     */
+    public boolean contains(SceneObject object) {
+        return object != null && objectsById.get(object.getId()) == object;
+    }
+
+    /**
+     * Делает объект потомком другого объекта сцены. Локальная трансформация
+     * потомка сохраняется и начинает отсчитываться от родителя.
+     *
+     * @param child  объект сцены
+     * @param parent новый родитель или {@code null}, чтобы сделать объект корневым
+     * @return {@code false}, если объекты не принадлежат сцене или связь образовала бы цикл
+     */
+    public boolean setParent(SceneObject child, SceneObject parent) {
+        if (!contains(child) || (parent != null && !contains(parent))) {
+            LOG.warn("Попытка связать объекты, которых нет в сцене '{}'", name);
+            return false;
+        }
+        if (parent != null && child.isSelfOrAncestorOf(parent)) {
+            LOG.warn("Объект '{}' не может стать потомком '{}': образуется цикл", child.getName(), parent.getName());
+            return false;
+        }
+        if (child.getParent() != parent) {
+            child.setParent(parent);
+            LOG.debug("Родитель объекта '{}' изменен на {}", child.getName(),
+                parent != null ? "'" + parent.getName() + "'" : "корень сцены");
+        }
+        return true;
+    }
+
+    /**
+     * Обновляет индекс имен после переименования объекта сцены.
+     */
+    void onObjectRenamed(SceneObject object, String oldName) {
+        if (!contains(object)) {
+            return;
+        }
+        unindexName(object, oldName);
+        objectsByName.computeIfAbsent(object.getName(), key -> new ArrayList<>(1)).add(object);
+    }
+
+    private void index(SceneObject object, int position) {
+        if (object == null || objectsById.putIfAbsent(object.getId(), object) != null) {
+            return;
+        }
+        if (positions != null && position == ordered.size()) {
+            positions.put(object, position);
+        } else {
+            positions = null;
+        }
+        ordered.add(position, object);
+        objectsByName.computeIfAbsent(object.getName(), key -> new ArrayList<>(1)).add(object);
+        object.setOwner(this);
+    }
+
+    private void linkPendingParent(SceneObject object) {
+        String parentId = object.takePendingParentId();
+        SceneObject parent = parentId != null ? objectsById.get(parentId) : null;
+        if (parent != null && !object.isSelfOrAncestorOf(parent)) {
+            object.setParent(parent);
+        }
+    }
+
+    private void unindexName(SceneObject object, String objectName) {
+        List<SceneObject> named = objectsByName.get(objectName);
+        if (named == null) {
+            return;
+        }
+        named.remove(object);
+        if (named.isEmpty()) {
+            objectsByName.remove(objectName);
+        }
+    }
+
+    private void publishSnapshot() {
+        snapshot = List.copyOf(ordered);
     }
 
     @Override
     public String toString() {
         return String.format("Scene{id='%s', name='%s', objects=%d, gridVisible=%s, selected=%s}",
-            id, name, objects.size(), gridVisible,
+            id, name, objectsById.size(), gridVisible,
             selectedObject != null ? selectedObject.getName() : "null");
     }
 }
@@ -0,0 +1,45 @@
+package ru.vsu.cs.cg.scene;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Результат постепенной загрузки сцены.
+ * <p>
+ * Сцена доступна сразу: объекты уже имеют имена, трансформации и материалы,
+ * а вместо геометрии, которая еще декодируется, содержат заглушки
+ * ({@link SceneObject#isLoading()}). Завершение {@link #getCompletion()} означает,
+ * что все объекты получили свою геометрию.
+ */
+public final class SceneLoad {
+    private final Scene scene;
+    private final CompletableFuture<Void> completion;
+
+    public SceneLoad(Scene scene, CompletableFuture<Void> completion) {
+        this.scene = scene;
+        this.completion = completion;
+    }
+
+    public static SceneLoad completed(Scene scene) {
+        return new SceneLoad(scene, CompletableFuture.completedFuture(null));
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Блокирует вызывающий поток до окончания загрузки геометрии.
+     */
+    public Scene await() {
+        completion.join();
+        return scene;
+    }
+}
@@ -8,17 +8,28 @@ import ru.vsu.cs.cg.renderEngine.camera.Camera;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.rasterization.ColorBuffer;
 import ru.vsu.cs.cg.rasterization.Rasterizer;
 import ru.vsu.cs.cg.rasterization.RasterizerSettings;
 import ru.vsu.cs.cg.rasterization.Texture;
 import ru.vsu.cs.cg.rasterization.ZBuffer;
-import ru.vsu.cs.cg.renderEngine.PixelWriter;
+import ru.vsu.cs.cg.model.IndexSet;
+import ru.vsu.cs.cg.renderEngine.DirtyRegion;
+import ru.vsu.cs.cg.renderEngine.PickingRay;
+import ru.vsu.cs.cg.renderEngine.ProjectedVertices;
 import ru.vsu.cs.cg.renderEngine.RenderEngine;
+import ru.vsu.cs.cg.renderEngine.RenderQuality;
+import ru.vsu.cs.cg.renderEngine.ScreenRegion;
+import ru.vsu.cs.cg.renderEngine.StaticLayer;
+import ru.vsu.cs.cg.renderEngine.ViewFrustum;
 import ru.vsu.cs.cg.renderEngine.dto.RenderEntity;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Менеджер сцены, отвечающий за управление 3D сценой, камерами и процессом рендеринга.
@@ -27,6 +38,10 @@ import java.util.Map;
  */
 public class SceneManager {
     private static final Logger LOG = LoggerFactory.getLogger(SceneManager.class);
+    private static final float DEPTH_TOLERANCE = 0.01f;
+    private static final int BACKGROUND_COLOR = 0xFF1E1E1E;
+    private static final long FRAME_BUDGET_NANOS = 1_000_000_000L / 60;
+    private static final long RESOLUTION_IDLE_NANOS = 300_000_000L;
 
     private Scene scene;
     private final List<Camera> cameras = new ArrayList<>();
@@ -35,12 +50,24 @@ public class SceneManager {
     private final RenderEngine renderEngine;
     private Rasterizer rasterizer;
     private ZBuffer zBuffer;
+    private ColorBuffer frameBuffer;
+    private ColorBuffer presentBuffer;
     private RasterizerSettings renderSettings;
 
     private int width = 800;
     private int height = 600;
-
-    private final Map<String, Texture> textureCache = new HashMap<>();
+    private int bufferWidth;
+    private int bufferHeight;
+    private final DynamicResolution dynamicResolution =
+        new DynamicResolution(FRAME_BUDGET_NANOS, RESOLUTION_IDLE_NANOS);
+    private final float[] lastViewProjection = new float[16];
+    private final DirtyRegion scaledDirtyRegion = new DirtyRegion();
+
+    private final Map<String, Texture> textureCache = new ConcurrentHashMap<>();
+    private final RenderEntityTable renderEntityTable = new RenderEntityTable();
+    private final StaticLayer staticLayer = new StaticLayer();
+    private SceneObject interactiveObject;
+    private final Set<String> requestedTextures = ConcurrentHashMap.newKeySet();
 
     public SceneManager() {
         this.scene = new Scene();
@@ -52,16 +79,31 @@ public class SceneManager {
     }
 
     /**
-     * Инициализирует буферы глубины и растеризатор для заданного размера.
+     * Инициализирует буферы кадра и глубины и растеризатор для заданного размера.
      *
      * @param width  Ширина буфера
      * @param height Высота буфера
      */
     private void initBuffers(int width, int height) {
+        this.bufferWidth = width;
+        this.bufferHeight = height;
         this.zBuffer = new ZBuffer(width, height);
+        this.frameBuffer = new ColorBuffer(width, height);
         this.rasterizer = new Rasterizer(zBuffer);
     }
 
+    /**
+     * Пересоздает внутренние буферы, если масштаб дает другой размер.
+     */
+    private void applyRenderScale(float scale) {
+        int scaledWidth = Math.max(1, Math.round(width * scale));
+        int scaledHeight = Math.max(1, Math.round(height * scale));
+        if (scaledWidth != bufferWidth || scaledHeight != bufferHeight) {
+            LOG.debug("Масштаб внутреннего буфера кадра: {} ({}x{})", scale, scaledWidth, scaledHeight);
+            initBuffers(scaledWidth, scaledHeight);
+        }
+    }
+
     /**
      * Изменяет размер области рендеринга и обновляет соответствующие буферы и камеры.
      *
@@ -75,7 +117,8 @@ public class SceneManager {
 
         LOG.debug("SceneManager получил запрос на изменение размера: {}x{}", width, height);
 
-        initBuffers(width, height);
+        float scale = dynamicResolution.getScale();
+        initBuffers(Math.max(1, Math.round(width * scale)), Math.max(1, Math.round(height * scale)));
 
         float aspectRatio = (float) width / height;
         for (Camera camera : cameras) {
@@ -84,94 +127,242 @@ public class SceneManager {
     }
 
     /**
-     * Выполняет рендеринг всей сцены в буфер пикселей.
-     * Преобразует объекты сцены в RenderEntity, применяет материалы и текстуры,
-     * и делегирует рендеринг движку.
+     * Выполняет рендеринг всей сцены в буфер кадра.
+     * Сверяет постоянную таблицу RenderEntity с объектами сцены, пересобирая
+     * только записи изменившихся объектов, и делегирует рендеринг движку.
+     * Во время взаимодействия с объектом остальная сцена берется из
+     * кэшированного статического слоя, а растеризуется только поддерево
+     * этого объекта. Иначе при неподвижной камере перерисовывается только
+     * область, занятая изменившимися объектами.
+     * <p>
+     * Пока камера движется, кадр может рисоваться в уменьшенный буфер, масштаб
+     * которого подбирается по времени кадра, и растягиваться до размера
+     * области рендеринга билинейной интерполяцией. Во время движения камеры и
+     * перетаскивания объекта модели сверх бюджета треугольников рисуются
+     * упрощенно, а первый кадр после остановки — в полном качестве.
      *
-     * @param pixelWriter Писатель пикселей, в который записывается результат рендеринга
+     * @return буфер кадра размером с область рендеринга; действителен до следующего вызова
      */
-    public void render(PixelWriter pixelWriter) {
+    public ColorBuffer render() {
+        long frameStart = System.nanoTime();
         if (activeCamera == null && !cameras.isEmpty()) {
             setActiveCamera(cameras.get(0));
         }
 
         if (activeCamera == null) {
             LOG.warn("Нет активной камеры для рендеринга");
-            return;
+            frameBuffer.fill(BACKGROUND_COLOR);
+            return present();
+        }
+
+        List<SceneObject> objects = scene.getObjects();
+        List<RenderEntity> renderEntities = renderEntityTable.beginFrame(objects);
+        Matrix4x4 viewProjection = activeCamera.getProjectionMatrix().multiply(activeCamera.getViewMatrix());
+        applyRenderScale(dynamicResolution.beginFrame(updateViewProjection(viewProjection), frameStart));
+        applyRenderQuality(interactiveObject != null || dynamicResolution.isMoving()
+            ? RenderQuality.INTERACTIVE
+            : RenderQuality.FULL);
+
+        for (int i = 0; i < objects.size(); i++) {
+            SceneObject object = objects.get(i);
+            if (object.getParent() == null) {
+                collectRenderEntities(object, viewProjection, false);
+            }
         }
 
-        zBuffer.clear();
+        renderSettings.setDrawGrid(scene.isGridVisible());
+        if (interactiveObject != null) {
+            renderEngine.renderLayered(
+                frameBuffer,
+                zBuffer,
+                bufferWidth,
+                bufferHeight,
+                renderEntities,
+                renderEntityTable.getDynamicEntities(),
+                cameras,
+                activeCamera,
+                rasterizer,
+                renderSettings,
+                staticLayer,
+                BACKGROUND_COLOR
+            );
+        } else {
+            renderEngine.renderIncremental(
+                frameBuffer,
+                zBuffer,
+                bufferWidth,
+                bufferHeight,
+                renderEntities,
+                cameras,
+                activeCamera,
+                rasterizer,
+                renderSettings,
+                BACKGROUND_COLOR
+            );
+        }
 
-        List<RenderEntity> renderEntities = new ArrayList<>();
+        ColorBuffer presented = present();
+        dynamicResolution.endFrame(System.nanoTime() - frameStart);
+        return presented;
+    }
 
-        for (SceneObject object : scene.getObjects()) {
-            if (!object.isVisible()) continue;
+    /**
+     * Переключает качество отрисовки. Статический слой, собранный с другим
+     * качеством, сбрасывается, а кадр после смены перерисовывается целиком.
+     */
+    private void applyRenderQuality(RenderQuality quality) {
+        if (renderEngine.getQuality() != quality) {
+            renderEngine.setQuality(quality);
+            staticLayer.invalidate();
+            LOG.debug("Качество отрисовки переключено: {}", quality);
+        }
+    }
 
-            Transform t = object.getTransform();
-            Vector3f translation = new Vector3f((float) t.getPositionX(), (float) t.getPositionY(), (float) t.getPositionZ());
-            Vector3f rotation = new Vector3f((float) t.getRotationX(), (float) t.getRotationY(), (float) t.getRotationZ());
-            Vector3f scale = new Vector3f((float) t.getScaleX(), (float) t.getScaleY(), (float) t.getScaleZ());
+    /**
+     * Возвращает кадр в размере области рендеринга, растягивая уменьшенный буфер.
+     */
+    private ColorBuffer present() {
+        if (!isFrameScaled()) {
+            return frameBuffer;
+        }
+        if (presentBuffer == null || presentBuffer.getWidth() != width || presentBuffer.getHeight() != height) {
+            presentBuffer = new ColorBuffer(width, height);
+        }
+        presentBuffer.resampleFrom(frameBuffer);
+        return presentBuffer;
+    }
 
-            Material m = object.getMaterial();
-            Texture texture = null;
+    private boolean isFrameScaled() {
+        return bufferWidth != width || bufferHeight != height;
+    }
 
-            if (m.getTexturePath() != null && !m.getTexturePath().isEmpty()) {
-                texture = getOrLoadTexture(m.getTexturePath());
+    /**
+     * Запоминает матрицу вида-проекции кадра.
+     *
+     * @return true, если камера изменилась с прошлого кадра
+     */
+    private boolean updateViewProjection(Matrix4x4 viewProjection) {
+        boolean changed = false;
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                float value = viewProjection.get(row, col);
+                if (lastViewProjection[row * 4 + col] != value) {
+                    lastViewProjection[row * 4 + col] = value;
+                    changed = true;
+                }
             }
+        }
+        return changed;
+    }
 
-            RasterizerSettings objectRenderSettings = object.getRenderSettings();
-            objectRenderSettings.setDefaultColor(m.getColor());
-            objectRenderSettings.setLightIntensity((float) m.getLightIntensity());
-            objectRenderSettings.setAmbientStrength((float) m.getDiffusion());
-            objectRenderSettings.setDiffuseStrength((float) m.getAmbient());
-
-            RenderEntity entity = new RenderEntity(
-                object.getModel(),
-                translation,
-                rotation,
-                scale,
-                texture,
-                objectRenderSettings
-            );
+    /**
+     * Область буфера кадра, изменившаяся при последнем вызове {@link #render()}.
+     * Растянутый кадр всегда изменяется целиком.
+     */
+    public DirtyRegion getDirtyRegion() {
+        if (isFrameScaled()) {
+            scaledDirtyRegion.setFrame(width, height);
+            return scaledDirtyRegion;
+        }
+        return renderEngine.getLastDirtyRegion();
+    }
+
+    /**
+     * Включает или выключает снижение разрешения во время движения камеры.
+     */
+    public void setDynamicResolutionEnabled(boolean enabled) {
+        dynamicResolution.setEnabled(enabled);
+    }
+
+    public boolean isDynamicResolutionEnabled() {
+        return dynamicResolution.isEnabled();
+    }
+
+    /**
+     * Текущий масштаб внутреннего буфера кадра относительно области рендеринга.
+     */
+    public float getRenderScale() {
+        return dynamicResolution.getScale();
+    }
+
+    /**
+     * Задает бюджет треугольников модели, сверх которого во время движения
+     * камеры или перетаскивания объекта модель рисуется упрощенно.
+     */
+    public void setInteractionTriangleBudget(int budget) {
+        renderEngine.setInteractionTriangleBudget(budget);
+    }
+
+    public int getInteractionTriangleBudget() {
+        return renderEngine.getInteractionTriangleBudget();
+    }
+
+    /**
+     * Отмечает объект, который сейчас перетаскивается. Пока объект задан,
+     * сетка и прочие объекты рисуются один раз в статический слой, а каждый
+     * кадр растеризует только этот объект с потомками.
+     *
+     * @param object перетаскиваемый объект или {@code null}, чтобы завершить взаимодействие
+     */
+    public void setInteractiveObject(SceneObject object) {
+        interactiveObject = object;
+        staticLayer.invalidate();
+    }
 
-            renderEntities.add(entity);
+    /**
+     * Обходит поддерево объекта. Скрытое поддерево и поддерево, границы которого
+     * целиком вне пирамиды видимости, пропускаются без обхода потомков.
+     */
+    private void collectRenderEntities(SceneObject object, Matrix4x4 viewProjection, boolean dynamic) {
+        if (!object.isVisible() || ViewFrustum.isOutside(viewProjection, object.getWorldBounds())) {
+            return;
         }
 
-        renderSettings.setDrawGrid(scene.isGridVisible());
-        renderEngine.render(
-            pixelWriter,
-            width,
-            height,
-            renderEntities,
-            cameras,
-            activeCamera,
-            rasterizer,
-            renderSettings
-        );
+        boolean dynamicSubtree = dynamic || object == interactiveObject;
+        String texturePath = object.getMaterial().getTexturePath();
+        Texture texture = texturePath != null && !texturePath.isEmpty() ? getOrLoadTexture(texturePath) : null;
+        renderEntityTable.add(object, texture, dynamicSubtree);
+
+        for (int i = 0; i < object.getChildCount(); i++) {
+            collectRenderEntities(object.getChild(i), viewProjection, dynamicSubtree);
+        }
     }
 
     /**
-     * Получает текстуру из кэша или загружает ее из файла.
-     * Использует кэширование для избежания повторной загрузки одних и тех же текстур.
+     * Получает текстуру из кэша или запускает ее загрузку в фоне.
+     * Пока текстура загружается, объект отрисовывается без нее, поэтому
+     * открытие сцены с крупными текстурами не задерживает первый кадр.
      *
      * @param path Путь к файлу текстуры
-     * @return Загруженная текстура или null, если загрузка не удалась
+     * @return Загруженная текстура или null, если она еще не готова или загрузка не удалась
      */
     private Texture getOrLoadTexture(String path) {
         if (path == null || path.isEmpty()) {
             return null;
         }
 
-        if (textureCache.containsKey(path)) {
-            return textureCache.get(path);
+        Texture cached = textureCache.get(path);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (requestedTextures.add(path)) {
+            CompletableFuture.runAsync(() -> loadTexture(path));
         }
+        return null;
+    }
 
+    /**
+     * Загружает текстуру из файла в кэш. Неудачная загрузка не повторяется
+     * до очистки сцены.
+     */
+    private void loadTexture(String path) {
         try {
             File file = new File(path);
 
             if (!file.exists()) {
                 LOG.warn("Файл текстуры не найден: {}", path);
-                return null;
+                return;
             }
 
             String url = file.toURI().toString();
@@ -179,18 +370,14 @@ public class SceneManager {
 
             if (image.isError()) {
                 LOG.error("Ошибка загрузки текстуры: {}", path);
-                return null;
+                return;
             }
 
-            Texture texture = new Texture(image);
-            textureCache.put(path, texture);
-
+            textureCache.put(path, new Texture(image));
             LOG.debug("Текстура загружена в кэш: {}", path);
-            return texture;
 
         } catch (Exception e) {
             LOG.error("Не удалось загрузить текстуру: {}", path, e);
-            return null;
         }
     }
 
@@ -254,6 +441,46 @@ public class SceneManager {
         return activeCamera;
     }
 
+    /**
+     * Находит видимые вершины объекта внутри области экрана по проекциям
+     * и буферу глубины последнего отрисованного кадра.
+     *
+     * @param object объект сцены
+     * @param region область выделения
+     * @return индексы вершин; пустой набор, если объект не отрисовывался
+     */
+    public IndexSet selectRegion(SceneObject object, ScreenRegion region) {
+        ProjectedVertices projected = renderEngine.getProjectedVertices(object.getModel());
+        if (projected == null || !object.isVisible()) {
+            return new IndexSet();
+        }
+        return projected.select(region.scaled((float) bufferWidth / width, (float) bufferHeight / height),
+            zBuffer, DEPTH_TOLERANCE);
+    }
+
+    /**
+     * Выбирает объект сцены под точкой области рендеринга лучом из активной камеры.
+     *
+     * @param x координата X в пикселях
+     * @param y координата Y в пикселях
+     * @return ближайшее попадание или пустой результат
+     */
+    public Optional<ScenePicker.Pick> pick(double x, double y) {
+        if (activeCamera == null) {
+            return Optional.empty();
+        }
+
+        PickingRay ray;
+        try {
+            ray = PickingRay.fromScreen(activeCamera, (float) x, (float) y, width, height);
+        } catch (ArithmeticException e) {
+            LOG.warn("Не удалось построить луч выбора: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        return ScenePicker.pick(scene.getObjects(), ray);
+    }
+
     public List<Camera> getCameras() {
         return new ArrayList<>(cameras);
     }
@@ -268,12 +495,17 @@ public class SceneManager {
 
     public void setScene(Scene scene) {
         this.scene = scene;
+        renderEntityTable.clear();
+        setInteractiveObject(null);
         LOG.info("Сцена установлена в SceneManager: {}", scene.getName());
     }
 
     public void clearScene() {
         scene.clear();
+        renderEntityTable.clear();
+        setInteractiveObject(null);
         textureCache.clear();
+        requestedTextures.clear();
         LOG.info("Сцена очищена через SceneManager");
     }
 
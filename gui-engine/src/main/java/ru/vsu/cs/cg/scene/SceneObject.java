@@ -1,14 +1,27 @@
 package ru.vsu.cs.cg.scene;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import ru.vsu.cs.cg.math.Matrix4x4;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.rasterization.RasterizerSettings;
+import ru.vsu.cs.cg.renderEngine.GraphicConveyor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * Объект сцены и узел ее иерархии. {@link Transform} задает положение
+ * относительно родителя; мировая матрица, матрица нормалей и границы поддерева
+ * кэшируются и пересчитываются, только если изменилась трансформация самого
+ * объекта или одного из предков (проверяется по версиям при обращении),
+ * геометрия модели или состав потомков.
+ */
 public class SceneObject {
     private static final Logger LOG = LoggerFactory.getLogger(SceneObject.class);
 
@@ -19,6 +32,28 @@ public class SceneObject {
     private Material material;
     private boolean visible;
     private RasterizerSettings renderSettings;
+    private volatile boolean loading;
+    private Scene owner;
+    private SceneObject parent;
+    private final List<SceneObject> children = new ArrayList<>();
+    private long childrenVersion;
+    private String pendingParentId;
+
+    private Transform matrixTransform;
+    private long matrixTransformVersion = -1;
+    private SceneObject matrixParent;
+    private long matrixParentStamp = -1;
+    private Matrix4x4 worldMatrix;
+    private Matrix4x4 normalMatrix;
+    private long worldStamp;
+
+    private Model boundsModel;
+    private long boundsGeometryVersion = -1;
+    private long boundsWorldStamp = -1;
+    private long boundsChildrenVersion = -1;
+    private long[] boundsChildStamps = new long[0];
+    private float[] subtreeBounds;
+    private long boundsStamp;
 
     @JsonCreator
     public SceneObject(
@@ -55,14 +90,37 @@ public class SceneObject {
 
     public String getName() { return name; }
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name != null ? name : generateDefaultName();
+        if (owner != null && !this.name.equals(oldName)) {
+            owner.onObjectRenamed(this, oldName);
+        }
     }
 
+    /**
+     * Сцена, индекс имен которой нужно обновлять при переименовании.
+     */
+    void setOwner(Scene owner) { this.owner = owner; }
+
+    /**
+     * Сцена, которой принадлежит объект, или {@code null}, если объект не добавлен в сцену.
+     */
+    @JsonIgnore
+    public Scene getOwner() { return owner; }
+
     public Model getModel() { return model; }
     public void setModel(Model model) {
         this.model = model;
     }
 
+    /**
+     * Признак того, что вместо геометрии объекта пока отображается заглушка,
+     * а сама геометрия еще загружается.
+     */
+    @JsonIgnore
+    public boolean isLoading() { return loading; }
+    public void setLoading(boolean loading) { this.loading = loading; }
+
     public Transform getTransform() { return transform; }
     public void setTransform(Transform transform) { this.transform = transform; }
 
@@ -70,6 +128,14 @@ public class SceneObject {
     public void setMaterial(Material material) { this.material = material; }
 
     public boolean isVisible() { return visible; }
+
+    /**
+     * Видим ли объект с учетом предков: скрытый объект скрывает все свое поддерево.
+     */
+    @JsonIgnore
+    public boolean isVisibleInHierarchy() {
+        return visible && (parent == null || parent.isVisibleInHierarchy());
+    }
     public void setVisible(boolean visible) {
         boolean oldValue = this.visible;
         this.visible = visible;
@@ -100,53 +166,180 @@ public class SceneObject {
             renderSettings.copy()
         );
 
+        copy.pendingParentId = parent != null ? parent.getId() : null;
+
         LOG.debug("Создана копия объекта '{}'", name);
         return copy;
     }
 
-    public Model getTransformedModel() {
-        ru.vsu.cs.cg.math.Vector3f translation = new ru.vsu.cs.cg.math.Vector3f(
-            (float) transform.getPositionX(),
-            (float) transform.getPositionY(),
-            (float) transform.getPositionZ()
-        );
+    @JsonIgnore
+    public SceneObject getParent() { return parent; }
 
-        ru.vsu.cs.cg.math.Vector3f rotation = new ru.vsu.cs.cg.math.Vector3f(
-            (float) transform.getRotationX(),
-            (float) transform.getRotationY(),
-            (float) transform.getRotationZ()
-        );
+    @JsonProperty("parentId")
+    public String getParentId() { return parent != null ? parent.getId() : null; }
 
-        ru.vsu.cs.cg.math.Vector3f scale = new ru.vsu.cs.cg.math.Vector3f(
-            (float) transform.getScaleX(),
-            (float) transform.getScaleY(),
-            (float) transform.getScaleZ()
-        );
+    /**
+     * Идентификатор родителя из файла сцены; связь устанавливает сцена при добавлении объекта.
+     */
+    @JsonProperty("parentId")
+    private void setPendingParentId(String parentId) { this.pendingParentId = parentId; }
+
+    String takePendingParentId() {
+        String parentId = pendingParentId;
+        pendingParentId = null;
+        return parentId;
+    }
+
+    @JsonIgnore
+    public List<SceneObject> getChildren() { return Collections.unmodifiableList(children); }
+
+    int getChildCount() { return children.size(); }
+
+    SceneObject getChild(int index) { return children.get(index); }
+
+    /**
+     * Проверяет, является ли объект этим объектом или его предком.
+     */
+    public boolean isSelfOrAncestorOf(SceneObject object) {
+        for (SceneObject current = object; current != null; current = current.parent) {
+            if (current == this) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void setParent(SceneObject newParent) {
+        if (parent != null) {
+            parent.children.remove(this);
+            parent.childrenVersion++;
+        }
+        parent = newParent;
+        if (newParent != null) {
+            newParent.children.add(this);
+            newParent.childrenVersion++;
+        }
+    }
+
+    /**
+     * Мировая матрица объекта: матрица родителя, умноженная на локальную матрицу {@link Transform}.
+     * Пересчитывается только после изменения трансформации объекта или предка;
+     * возвращаемую матрицу нельзя изменять.
+     */
+    @JsonIgnore
+    public Matrix4x4 getModelMatrix() {
+        Matrix4x4 parentMatrix = parent != null ? parent.getModelMatrix() : null;
+        long parentStamp = parent != null ? parent.worldStamp : 0;
+
+        if (worldMatrix == null || matrixTransform != transform || matrixTransformVersion != transform.getVersion()
+            || matrixParent != parent || matrixParentStamp != parentStamp) {
+            Matrix4x4 local = transform.getLocalMatrix();
+            worldMatrix = parentMatrix != null ? parentMatrix.multiply(local) : local;
+            normalMatrix = null;
+            matrixTransform = transform;
+            matrixTransformVersion = transform.getVersion();
+            matrixParent = parent;
+            matrixParentStamp = parentStamp;
+            worldStamp++;
+        }
+        return worldMatrix;
+    }
+
+    /**
+     * Матрица преобразования нормалей (обратная транспонированная мировая), кэшируется вместе с мировой.
+     */
+    @JsonIgnore
+    public Matrix4x4 getNormalMatrix() {
+        Matrix4x4 world = getModelMatrix();
+        if (normalMatrix == null) {
+            normalMatrix = world.inverse().transpose();
+        }
+        return normalMatrix;
+    }
+
+    /**
+     * Границы поддерева в мировых координатах {@code minX, minY, minZ, maxX, maxY, maxZ}:
+     * объединение границ модели объекта и границ поддеревьев потомков.
+     * Пересчитываются только после изменений внутри поддерева или у предков;
+     * возвращаемый массив нельзя изменять.
+     */
+    @JsonIgnore
+    public float[] getWorldBounds() {
+        Matrix4x4 world = getModelMatrix();
+        boolean stale = subtreeBounds == null || boundsModel != model || boundsWorldStamp != worldStamp
+            || boundsChildrenVersion != childrenVersion
+            || (model != null && boundsGeometryVersion != model.getGeometryVersion());
+
+        for (int i = 0; i < children.size(); i++) {
+            SceneObject child = children.get(i);
+            child.getWorldBounds();
+            if (!stale && boundsChildStamps[i] != child.boundsStamp) {
+                stale = true;
+            }
+        }
+
+        if (stale) {
+            float[] bounds = model != null ? GraphicConveyor.transformBounds(world, model.getBounds()) : null;
+            long[] childStamps = new long[children.size()];
+            for (int i = 0; i < children.size(); i++) {
+                SceneObject child = children.get(i);
+                bounds = union(bounds, child.subtreeBounds);
+                childStamps[i] = child.boundsStamp;
+            }
+
+            subtreeBounds = bounds != null ? bounds : GraphicConveyor.transformBounds(world, new float[6]);
+            boundsModel = model;
+            boundsGeometryVersion = model != null ? model.getGeometryVersion() : -1;
+            boundsWorldStamp = worldStamp;
+            boundsChildrenVersion = childrenVersion;
+            boundsChildStamps = childStamps;
+            boundsStamp++;
+        }
+        return subtreeBounds;
+    }
+
+    private static float[] union(float[] bounds, float[] other) {
+        if (bounds == null) {
+            return other.clone();
+        }
+        for (int k = 0; k < 3; k++) {
+            bounds[k] = Math.min(bounds[k], other[k]);
+            bounds[k + 3] = Math.max(bounds[k + 3], other[k + 3]);
+        }
+        return bounds;
+    }
 
-        Model transformedModel = model.createTransformedCopy(translation, rotation, scale);
+    /**
+     * Возвращает модель для экспорта: геометрия разделяется с исходной моделью
+     * без копирования, материал и настройки отрисовки берутся из объекта.
+     * Трансформация не применяется; ее запекает запись файла по {@link #getModelMatrix()}.
+     */
+    @JsonIgnore
+    public Model getExportModel() {
+        Model exportModel = model.copy();
 
         if (material.getTexturePath() != null) {
-            transformedModel.setTexturePath(material.getTexturePath());
+            exportModel.setTexturePath(material.getTexturePath());
         }
 
         if (renderSettings.isUseLighting()) {
-            transformedModel.setMaterialShininess((float) material.getLightIntensity());
+            exportModel.setMaterialShininess((float) material.getLightIntensity());
         }
 
-        transformedModel.setMaterialColor(new float[]{
+        exportModel.setMaterialColor(new float[]{
             (float) material.getRed(),
             (float) material.getGreen(),
             (float) material.getBlue()
         });
 
-        transformedModel.setMaterialTransparency((float) material.getAmbient());
-        transformedModel.setMaterialReflectivity((float) material.getDiffusion());
+        exportModel.setMaterialTransparency((float) material.getAmbient());
+        exportModel.setMaterialReflectivity((float) material.getDiffusion());
 
-        transformedModel.setUseLighting(renderSettings.isUseLighting());
-        transformedModel.setUseTexture(renderSettings.isUseTexture() || material.getTexturePath() != null);
-        transformedModel.setDrawPolygonalGrid(renderSettings.isDrawPolygonalGrid());
+        exportModel.setUseLighting(renderSettings.isUseLighting());
+        exportModel.setUseTexture(renderSettings.isUseTexture() || material.getTexturePath() != null);
+        exportModel.setDrawPolygonalGrid(renderSettings.isDrawPolygonalGrid());
 
-        return transformedModel;
+        return exportModel;
     }
 
     @Override
@@ -0,0 +1,69 @@
+package ru.vsu.cs.cg.scene;
+
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.TriangleBvh;
+import ru.vsu.cs.cg.renderEngine.PickingRay;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Выбор объектов сцены лучом.
+ * <p>
+ * Луч переводится в локальные координаты каждого объекта обратной матрицей модели
+ * и проверяется по дереву треугольников модели ({@link Model#getBvh()}), поэтому
+ * перемещение объекта не требует перестроения дерева.
+ */
+public final class ScenePicker {
+
+    private ScenePicker() {
+    }
+
+    /**
+     * Результат выбора.
+     *
+     * @param object      объект сцены
+     * @param faceIndex   индекс полигона модели
+     * @param vertexIndex индекс ближайшей к точке попадания вершины полигона
+     * @param distance    параметр луча в точке попадания
+     */
+    public record Pick(SceneObject object, int faceIndex, int vertexIndex, float distance) {
+    }
+
+    /**
+     * Находит ближайшее попадание луча среди видимых загруженных объектов.
+     *
+     * @param objects объекты сцены
+     * @param ray     луч в мировых координатах
+     * @return ближайшее попадание или пустой результат
+     */
+    public static Optional<Pick> pick(Collection<SceneObject> objects, PickingRay ray) {
+        Pick best = null;
+        float bestDistance = Float.POSITIVE_INFINITY;
+
+        for (SceneObject object : objects) {
+            Model model = object.getModel();
+            if (!object.isVisibleInHierarchy() || object.isLoading() || model == null || model.getPolygons().isEmpty()) {
+                continue;
+            }
+
+            Matrix4x4 inverseModel;
+            try {
+                inverseModel = object.getModelMatrix().inverse();
+            } catch (ArithmeticException e) {
+                continue;
+            }
+
+            PickingRay localRay = ray.transform(inverseModel);
+            TriangleBvh bvh = model.getBvh();
+            TriangleBvh.Hit hit = bvh.intersect(localRay.origin(), localRay.direction(), bestDistance);
+            if (hit != null && hit.distance() < bestDistance) {
+                bestDistance = hit.distance();
+                best = new Pick(object, hit.faceIndex(), bvh.nearestVertex(hit), hit.distance());
+            }
+        }
+
+        return Optional.ofNullable(best);
+    }
+}
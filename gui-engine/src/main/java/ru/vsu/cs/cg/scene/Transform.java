@@ -1,10 +1,19 @@
 package ru.vsu.cs.cg.scene;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.renderEngine.GraphicConveyor;
+
+/**
+ * Локальная трансформация объекта относительно родителя.
+ * Каждый сеттер увеличивает версию, по которой объекты сцены
+ * определяют, что кэшированные матрицы устарели.
+ */
 public class Transform {
     private static final Logger LOG = LoggerFactory.getLogger(Transform.class);
 
@@ -17,6 +26,9 @@ public class Transform {
     private double scaleX;
     private double scaleY;
     private double scaleZ;
+    private long version;
+    private long matrixVersion = -1;
+    private Matrix4x4 localMatrix;
 
     @JsonCreator
     public Transform(
@@ -48,38 +60,106 @@ public class Transform {
     }
 
     public double getPositionX() { return positionX; }
-    public void setPositionX(double positionX) { this.positionX = positionX; }
+    public void setPositionX(double positionX) { this.positionX = positionX; version++; }
 
     public double getPositionY() { return positionY; }
-    public void setPositionY(double positionY) { this.positionY = positionY; }
+    public void setPositionY(double positionY) { this.positionY = positionY; version++; }
 
     public double getPositionZ() { return positionZ; }
-    public void setPositionZ(double positionZ) { this.positionZ = positionZ; }
+    public void setPositionZ(double positionZ) { this.positionZ = positionZ; version++; }
 
     public double getRotationX() { return rotationX; }
-    public void setRotationX(double rotationX) { this.rotationX = rotationX; }
+    public void setRotationX(double rotationX) { this.rotationX = rotationX; version++; }
 
     public double getRotationY() { return rotationY; }
-    public void setRotationY(double rotationY) { this.rotationY = rotationY; }
+    public void setRotationY(double rotationY) { this.rotationY = rotationY; version++; }
 
     public double getRotationZ() { return rotationZ; }
-    public void setRotationZ(double rotationZ) { this.rotationZ = rotationZ; }
+    public void setRotationZ(double rotationZ) { this.rotationZ = rotationZ; version++; }
 
     public double getScaleX() { return scaleX; }
-    public void setScaleX(double scaleX) { this.scaleX = scaleX; }
+    public void setScaleX(double scaleX) { this.scaleX = scaleX; version++; }
 
     public double getScaleY() { return scaleY; }
-    public void setScaleY(double scaleY) { this.scaleY = scaleY; }
+    public void setScaleY(double scaleY) { this.scaleY = scaleY; version++; }
 
     public double getScaleZ() { return scaleZ; }
-    public void setScaleZ(double scaleZ) { this.scaleZ = scaleZ; }
+    public void setScaleZ(double scaleZ) { this.scaleZ = scaleZ; version++; }
 
     public void reset() {
         positionX = positionY = positionZ = rotationX = rotationY = rotationZ = 0;
         scaleX = scaleY = scaleZ = 1;
+        version++;
         LOG.debug("Transform сброшен к значениям по умолчанию");
     }
 
+    /**
+     * Раскладывает аффинную матрицу M = Translation * Rotation * Scale на смещение,
+     * углы поворота и масштаб. Сдвиг, который дает неравномерный масштаб
+     * с поворотом, этими параметрами не выражается и теряется.
+     *
+     * @param matrix аффинная матрица трансформации
+     */
+    public void setFromMatrix(Matrix4x4 matrix) {
+        positionX = matrix.get(0, 3);
+        positionY = matrix.get(1, 3);
+        positionZ = matrix.get(2, 3);
+
+        scaleX = columnLength(matrix, 0);
+        scaleY = columnLength(matrix, 1);
+        scaleZ = columnLength(matrix, 2);
+        if (matrix.determinant() < 0) {
+            scaleX = -scaleX;
+        }
+
+        double r00 = scaleX != 0 ? matrix.get(0, 0) / scaleX : 1;
+        double r10 = scaleX != 0 ? matrix.get(1, 0) / scaleX : 0;
+        double r20 = scaleX != 0 ? matrix.get(2, 0) / scaleX : 0;
+        double r11 = scaleY != 0 ? matrix.get(1, 1) / scaleY : 1;
+        double r21 = scaleY != 0 ? matrix.get(2, 1) / scaleY : 0;
+        double r12 = scaleZ != 0 ? matrix.get(1, 2) / scaleZ : 0;
+        double r22 = scaleZ != 0 ? matrix.get(2, 2) / scaleZ : 1;
+
+        rotationY = Math.asin(Math.max(-1, Math.min(1, -r20)));
+        if (Math.abs(Math.cos(rotationY)) > 1e-6) {
+            rotationX = Math.atan2(r21, r22);
+            rotationZ = Math.atan2(r10, r00);
+        } else {
+            rotationX = Math.atan2(-r12, r11);
+            rotationZ = 0;
+        }
+        version++;
+    }
+
+    /**
+     * Версия трансформации: увеличивается при каждом изменении.
+     */
+    @JsonIgnore
+    public long getVersion() { return version; }
+
+    /**
+     * Матрица трансформации: M = Translation * Rotation * Scale. Пересчитывается
+     * только после изменения трансформации; возвращаемую матрицу нельзя изменять.
+     */
+    @JsonIgnore
+    public Matrix4x4 getLocalMatrix() {
+        if (matrixVersion != version || localMatrix == null) {
+            localMatrix = GraphicConveyor.rotateScaleTranslate(
+                new Vector3f((float) positionX, (float) positionY, (float) positionZ),
+                new Vector3f((float) rotationX, (float) rotationY, (float) rotationZ),
+                new Vector3f((float) scaleX, (float) scaleY, (float) scaleZ));
+            matrixVersion = version;
+        }
+        return localMatrix;
+    }
+
+    private static double columnLength(Matrix4x4 matrix, int column) {
+        double x = matrix.get(0, column);
+        double y = matrix.get(1, column);
+        double z = matrix.get(2, column);
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
     @Override
     public String toString() {
         return String.format("Transform[pos=(%.2f, %.2f, %.2f), rot=(%.2f, %.2f, %.2f), scale=(%.2f, %.2f, %.2f)]",
@@ -0,0 +1,26 @@
+package ru.vsu.cs.cg.service;
+
+import ru.vsu.cs.cg.model.RemovedGeometry;
+import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneObject;
+
+import java.util.Collection;
+
+public interface AutosaveService {
+    void startSession(Scene scene, String sceneFilePath, boolean sceneMatchesFile);
+    void closeSession(boolean discardChanges);
+    boolean hasRecoverableChanges(String sceneFilePath);
+    Scene recover(String sceneFilePath);
+    void discard(String sceneFilePath);
+    void recordTransform(SceneObject object);
+    void recordMaterial(SceneObject object);
+    void recordRename(SceneObject object);
+    void recordVisibility(SceneObject object);
+    void recordObjectAdded(SceneObject object);
+    void recordObjectCopied(SceneObject source, SceneObject copy);
+    void recordObjectRemoved(SceneObject object);
+    void recordParentChanged(SceneObject object);
+    void recordVerticesRemoved(SceneObject object, Collection<Integer> vertexIndices, boolean clearUnused);
+    void recordPolygonsRemoved(SceneObject object, Collection<Integer> polygonIndices);
+    void recordGeometryRestored(SceneObject object, RemovedGeometry restored);
+}
@@ -1,5 +1,6 @@
 package ru.vsu.cs.cg.service;
 
+import ru.vsu.cs.cg.math.Matrix4x4;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.utils.model.DefaultModelLoader;
 
@@ -11,4 +12,7 @@ public interface ModelService {
     void saveModelWithMaterial(Model model, String filePath, String materialName,
                                       String texturePath, float[] color, Float shininess,
                                       Float transparency, Float reflectivity);
+    void saveModelWithMaterial(Model model, Matrix4x4 modelMatrix, String filePath, String materialName,
+                               String texturePath, float[] color, Float shininess,
+                               Float transparency, Float reflectivity);
 }
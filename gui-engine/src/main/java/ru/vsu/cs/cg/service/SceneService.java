@@ -1,13 +1,16 @@
 package ru.vsu.cs.cg.service;
 
 import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneLoad;
 import ru.vsu.cs.cg.scene.SceneObject;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 public interface SceneService {
     Scene createNewScene();
     Scene loadScene(String filePath);
+    SceneLoad loadSceneProgressively(String filePath, Executor publisher);
     void saveScene(Scene scene, String filePath) throws IOException;
     SceneObject addModelToScene(Scene scene, String modelFilePath);
     SceneObject addDefaultModelToScene(Scene scene, String modelType);
@@ -0,0 +1,440 @@
+package ru.vsu.cs.cg.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.binary.SceneBinaryReader;
+import ru.vsu.cs.cg.binary.SceneBinaryWriter;
+import ru.vsu.cs.cg.binary.SceneJournalReader;
+import ru.vsu.cs.cg.binary.SceneJournalRecords;
+import ru.vsu.cs.cg.binary.SceneJournalWriter;
+import ru.vsu.cs.cg.exceptions.ModelLoadException;
+import ru.vsu.cs.cg.model.RemovedGeometry;
+import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.service.AutosaveService;
+import ru.vsu.cs.cg.service.SceneService;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Автосохранение через журнал операций.
+ * <p>
+ * Рядом с файлом сцены ведутся журналы {@code <сцена>.journal.<поколение>},
+ * в которые дописываются небольшие записи об отдельных правках. Когда журнал
+ * превышает порог, он закрывается, запись продолжается в журнал следующего
+ * поколения, а в фоне строится снимок {@code <сцена>.autosave.<поколение>},
+ * включающий все журналы до закрытого. После этого старые журналы удаляются.
+ * <p>
+ * Записи кодируются в вызывающем потоке, а дописываются в однопоточном
+ * фоновом исполнителе, поэтому UI не ждет ни диска, ни сериализации сцены.
+ * Геометрия добавленного объекта кодируется уже в фоновом исполнителе,
+ * а копии объектов сцены записываются со ссылкой на исходный объект.
+ */
+public class AutosaveServiceImpl implements AutosaveService {
+    private static final Logger LOG = LoggerFactory.getLogger(AutosaveServiceImpl.class);
+
+    private static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 8L * 1024 * 1024;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final String JOURNAL_SUFFIX = ".journal.";
+    private static final String SNAPSHOT_SUFFIX = ".autosave.";
+    private static final String TEMP_SUFFIX = ".autosave.tmp";
+    private static final long BASE_SNAPSHOT_GENERATION = 0;
+    private static final long FIRST_JOURNAL_GENERATION = 1;
+
+    private final SceneService sceneService;
+    private final long compactionThresholdBytes;
+    private final ExecutorService journalExecutor;
+    private final ExecutorService compactionExecutor;
+    private final AtomicBoolean compactionRunning = new AtomicBoolean(false);
+    private final Object fileLock = new Object();
+
+    private volatile Path activeBase;
+
+    // Доступны только из потока журнала
+    private Path sessionBase;
+    private SceneJournalWriter journal;
+
+    public AutosaveServiceImpl(SceneService sceneService) {
+        this(sceneService, DEFAULT_COMPACTION_THRESHOLD_BYTES);
+    }
+
+    AutosaveServiceImpl(SceneService sceneService, long compactionThresholdBytes) {
+        this.sceneService = sceneService;
+        this.compactionThresholdBytes = compactionThresholdBytes;
+        this.journalExecutor = Executors.newSingleThreadExecutor(daemonThreads("autosave-journal"));
+        this.compactionExecutor = Executors.newSingleThreadExecutor(daemonThreads("autosave-compaction"));
+        LOG.debug("AutosaveServiceImpl инициализирован, порог сжатия журнала: {} байт", compactionThresholdBytes);
+    }
+
+    @Override
+    public void startSession(Scene scene, String sceneFilePath, boolean sceneMatchesFile) {
+        Path base = toBase(sceneFilePath);
+        activeBase = null;
+
+        runAndWait(() -> {
+            closeJournal();
+            sessionBase = null;
+            deleteFiles(base);
+            return null;
+        });
+
+        try {
+            if (!sceneMatchesFile || !Files.exists(base)) {
+                SceneBinaryWriter.write(scene, snapshotPath(base, BASE_SNAPSHOT_GENERATION));
+            }
+        } catch (IOException e) {
+            LOG.error("Не удалось записать исходный снимок автосохранения для '{}': {}", base, e.getMessage(), e);
+            return;
+        }
+
+        runAndWait(() -> {
+            try {
+                journal = SceneJournalWriter.create(journalPath(base, FIRST_JOURNAL_GENERATION), FIRST_JOURNAL_GENERATION);
+                sessionBase = base;
+            } catch (IOException e) {
+                LOG.error("Не удалось создать журнал автосохранения для '{}': {}", base, e.getMessage(), e);
+            }
+            return null;
+        });
+
+        activeBase = base;
+        LOG.info("Начат сеанс автосохранения для сцены: {}", base);
+    }
+
+    @Override
+    public void closeSession(boolean discardChanges) {
+        activeBase = null;
+        runAndWait(() -> {
+            closeJournal();
+            if (discardChanges && sessionBase != null) {
+                deleteFiles(sessionBase);
+            }
+            sessionBase = null;
+            return null;
+        });
+        LOG.debug("Сеанс автосохранения закрыт, изменения удалены: {}", discardChanges);
+    }
+
+    @Override
+    public boolean hasRecoverableChanges(String sceneFilePath) {
+        Path base = toBase(sceneFilePath);
+        try {
+            if (!listGenerations(base, SNAPSHOT_SUFFIX).isEmpty()) {
+                return true;
+            }
+            for (Long generation : listGenerations(base, JOURNAL_SUFFIX)) {
+                if (SceneJournalReader.containsRecords(journalPath(base, generation))) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Не удалось проверить автосохранение для '{}': {}", base, e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public Scene recover(String sceneFilePath) {
+        Path base = toBase(sceneFilePath);
+        LOG.info("Восстановление сцены из автосохранения: {}", base);
+
+        try {
+            Scene scene = restore(base, Long.MAX_VALUE);
+            LOG.info("Сцена '{}' восстановлена из автосохранения. Объектов: {}",
+                scene.getName(), scene.getObjectCount());
+            return scene;
+        } catch (IOException e) {
+            LOG.error("Ошибка восстановления сцены '{}': {}", base, e.getMessage(), e);
+            throw new ModelLoadException("Ошибка восстановления автосохранения: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void discard(String sceneFilePath) {
+        Path base = toBase(sceneFilePath);
+        runAndWait(() -> {
+            deleteFiles(base);
+            return null;
+        });
+        LOG.info("Автосохранение для '{}' удалено", base);
+    }
+
+    @Override
+    public void recordTransform(SceneObject object) {
+        record(() -> SceneJournalRecords.transform(object));
+    }
+
+    @Override
+    public void recordMaterial(SceneObject object) {
+        record(() -> SceneJournalRecords.material(object));
+    }
+
+    @Override
+    public void recordRename(SceneObject object) {
+        record(() -> SceneJournalRecords.rename(object));
+    }
+
+    @Override
+    public void recordVisibility(SceneObject object) {
+        record(() -> SceneJournalRecords.visibility(object));
+    }
+
+    /**
+     * Свойства объекта кодируются в вызывающем потоке, а геометрия — в потоке журнала.
+     */
+    @Override
+    public void recordObjectAdded(SceneObject object) {
+        if (activeBase == null) {
+            return;
+        }
+
+        Supplier<byte[]> geometryEncoder = encode(() -> SceneJournalRecords.objectAdded(object));
+        if (geometryEncoder != null) {
+            journalExecutor.execute(() -> append(encode(geometryEncoder)));
+        }
+    }
+
+    /**
+     * Копия, геометрия которой не менялась после копирования исходного объекта сцены,
+     * записывается без геометрии. Иначе записывается как обычное добавление.
+     */
+    @Override
+    public void recordObjectCopied(SceneObject source, SceneObject copy) {
+        if (source != null && source.getOwner() == copy.getOwner()
+            && copy.getModel().sharesGeometryWith(source.getModel())) {
+            record(() -> SceneJournalRecords.objectDuplicated(source, copy));
+        } else {
+            recordObjectAdded(copy);
+        }
+    }
+
+    @Override
+    public void recordObjectRemoved(SceneObject object) {
+        record(() -> SceneJournalRecords.objectRemoved(object.getId()));
+    }
+
+    @Override
+    public void recordParentChanged(SceneObject object) {
+        record(() -> SceneJournalRecords.parentChanged(object));
+    }
+
+    @Override
+    public void recordVerticesRemoved(SceneObject object, Collection<Integer> vertexIndices, boolean clearUnused) {
+        record(() -> SceneJournalRecords.verticesRemoved(object.getId(), List.copyOf(vertexIndices), clearUnused));
+    }
+
+    @Override
+    public void recordPolygonsRemoved(SceneObject object, Collection<Integer> polygonIndices) {
+        record(() -> SceneJournalRecords.polygonsRemoved(object.getId(), List.copyOf(polygonIndices)));
+    }
+
+    @Override
+    public void recordGeometryRestored(SceneObject object, RemovedGeometry restored) {
+        record(() -> SceneJournalRecords.geometryRestored(object.getId(), restored));
+    }
+
+    private void record(Supplier<byte[]> encoder) {
+        if (activeBase == null) {
+            return;
+        }
+
+        byte[] record = encode(encoder);
+        if (record != null) {
+            journalExecutor.execute(() -> append(record));
+        }
+    }
+
+    private <T> T encode(Supplier<T> encoder) {
+        try {
+            return encoder.get();
+        } catch (RuntimeException e) {
+            LOG.error("Ошибка кодирования записи автосохранения: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void append(byte[] record) {
+        if (journal == null || record == null) {
+            return;
+        }
+
+        try {
+            journal.append(record);
+            if (journal.size() > compactionThresholdBytes && compactionRunning.compareAndSet(false, true)) {
+                sealJournal();
+            }
+        } catch (IOException e) {
+            LOG.error("Ошибка записи в журнал автосохранения '{}': {}", sessionBase, e.getMessage(), e);
+        }
+    }
+
+    private void sealJournal() throws IOException {
+        Path base = sessionBase;
+        long sealedGeneration = journal.getGeneration();
+        journal.close();
+        journal = SceneJournalWriter.create(journalPath(base, sealedGeneration + 1), sealedGeneration + 1);
+
+        LOG.debug("Журнал поколения {} закрыт, запущено сжатие", sealedGeneration);
+        compactionExecutor.execute(() -> compact(base, sealedGeneration));
+    }
+
+    private void compact(Path base, long sealedGeneration) {
+        Path temp = base.resolveSibling(base.getFileName() + TEMP_SUFFIX);
+        try {
+            Scene scene = restore(base, sealedGeneration);
+            SceneBinaryWriter.write(scene, temp);
+
+            synchronized (fileLock) {
+                if (!base.equals(activeBase)) {
+                    Files.deleteIfExists(temp);
+                    return;
+                }
+
+                moveReplacing(temp, snapshotPath(base, sealedGeneration));
+                for (Long generation : listGenerations(base, SNAPSHOT_SUFFIX)) {
+                    if (generation < sealedGeneration) {
+                        Files.deleteIfExists(snapshotPath(base, generation));
+                    }
+                }
+                for (Long generation : listGenerations(base, JOURNAL_SUFFIX)) {
+                    if (generation <= sealedGeneration) {
+                        Files.deleteIfExists(journalPath(base, generation));
+                    }
+                }
+            }
+
+            LOG.info("Журнал автосохранения '{}' сжат до поколения {}", base, sealedGeneration);
+        } catch (Exception e) {
+            LOG.error("Ошибка сжатия журнала автосохранения '{}': {}", base, e.getMessage(), e);
+        } finally {
+            compactionRunning.set(false);
+        }
+    }
+
+    private Scene restore(Path base, long upToGeneration) throws IOException {
+        long snapshotGeneration = -1;
+        for (Long generation : listGenerations(base, SNAPSHOT_SUFFIX)) {
+            if (generation <= upToGeneration) {
+                snapshotGeneration = generation;
+            }
+        }
+
+        Scene scene = snapshotGeneration >= 0
+            ? SceneBinaryReader.read(snapshotPath(base, snapshotGeneration))
+            : sceneService.loadScene(base.toString());
+
+        for (Long generation : listGenerations(base, JOURNAL_SUFFIX)) {
+            if (generation > snapshotGeneration && generation <= upToGeneration) {
+                SceneJournalReader.replay(journalPath(base, generation), scene);
+            }
+        }
+        return scene;
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOG.warn("Ошибка закрытия журнала автосохранения: {}", e.getMessage());
+        }
+        journal = null;
+    }
+
+    private void deleteFiles(Path base) {
+        synchronized (fileLock) {
+            try {
+                for (Long generation : listGenerations(base, SNAPSHOT_SUFFIX)) {
+                    Files.deleteIfExists(snapshotPath(base, generation));
+                }
+                for (Long generation : listGenerations(base, JOURNAL_SUFFIX)) {
+                    Files.deleteIfExists(journalPath(base, generation));
+                }
+                Files.deleteIfExists(base.resolveSibling(base.getFileName() + TEMP_SUFFIX));
+            } catch (IOException e) {
+                LOG.warn("Не удалось удалить файлы автосохранения для '{}': {}", base, e.getMessage());
+            }
+        }
+    }
+
+    private <T> T runAndWait(Callable<T> task) {
+        try {
+            return journalExecutor.submit(task).get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Ожидание журнала автосохранения прервано");
+        } catch (ExecutionException | TimeoutException e) {
+            LOG.error("Ошибка выполнения операции автосохранения: {}", e.getMessage(), e);
+        }
+        return null;
+    }
+
+    private static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static List<Long> listGenerations(Path base, String suffix) throws IOException {
+        Path directory = base.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+
+        String prefix = base.getFileName() + suffix;
+        List<Long> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : files) {
+                String tail = file.getFileName().toString().substring(prefix.length());
+                if (!tail.isEmpty() && tail.chars().allMatch(Character::isDigit)) {
+                    generations.add(Long.parseLong(tail));
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    private static Path toBase(String sceneFilePath) {
+        return Paths.get(sceneFilePath).toAbsolutePath().normalize();
+    }
+
+    private static Path journalPath(Path base, long generation) {
+        return base.resolveSibling(base.getFileName() + JOURNAL_SUFFIX + generation);
+    }
+
+    private static Path snapshotPath(Path base, long generation) {
+        return base.resolveSibling(base.getFileName() + SNAPSHOT_SUFFIX + generation);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -3,6 +3,7 @@ package ru.vsu.cs.cg.service.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.vsu.cs.cg.exceptions.ModelLoadException;
+import ru.vsu.cs.cg.math.Matrix4x4;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.objreader.ObjReader;
 import ru.vsu.cs.cg.objwriter.ObjWriter;
@@ -92,6 +93,14 @@ public class ModelServiceImpl implements ModelService {
     public void saveModelWithMaterial(Model model, String filePath, String materialName,
                                       String texturePath, float[] color, Float shininess,
                                       Float transparency, Float reflectivity) {
+        saveModelWithMaterial(model, null, filePath, materialName, texturePath,
+            color, shininess, transparency, reflectivity);
+    }
+
+    @Override
+    public void saveModelWithMaterial(Model model, Matrix4x4 modelMatrix, String filePath, String materialName,
+                                      String texturePath, float[] color, Float shininess,
+                                      Float transparency, Float reflectivity) {
         LOG.info("Сохранение модели с материалом '{}' в файл: {}", materialName, filePath);
 
         try {
@@ -104,7 +113,7 @@ public class ModelServiceImpl implements ModelService {
 
             PathManager.validatePathForSave(normalizedPath);
 
-            ObjWriter.write(normalizedPath, model, materialName, texturePath,
+            ObjWriter.write(normalizedPath, model, modelMatrix, materialName, texturePath,
                 color, shininess, transparency, reflectivity);
 
             LOG.info("Модель с материалом '{}' успешно сохранена в файл: {}", materialName, normalizedPath);
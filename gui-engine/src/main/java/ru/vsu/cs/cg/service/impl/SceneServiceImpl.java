@@ -6,11 +6,15 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.binary.SceneBinaryFormat;
+import ru.vsu.cs.cg.binary.SceneBinaryReader;
+import ru.vsu.cs.cg.binary.SceneBinaryWriter;
 import ru.vsu.cs.cg.exceptions.ModelLoadException;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.rasterization.RasterizerSettings;
 import ru.vsu.cs.cg.scene.Material;
 import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneLoad;
 import ru.vsu.cs.cg.scene.SceneObject;
 import ru.vsu.cs.cg.json.JavaFxJacksonModule;
 import ru.vsu.cs.cg.scene.Transform;
@@ -21,17 +25,26 @@ import ru.vsu.cs.cg.utils.validation.InputValidator;
 import ru.vsu.cs.cg.utils.constants.MessageConstants;
 import ru.vsu.cs.cg.utils.file.PathManager;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class SceneServiceImpl implements SceneService {
     private static final Logger LOG = LoggerFactory.getLogger(SceneServiceImpl.class);
 
     private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+    private static final String BINARY_SCENE_EXTENSION = ".3dscene";
 
     private final ModelService modelService;
 
@@ -62,6 +75,25 @@ public class SceneServiceImpl implements SceneService {
 
     @Override
     public Scene loadScene(String filePath) {
+        SceneLoad load = loadSceneProgressively(filePath, Runnable::run);
+        try {
+            return load.await();
+        } catch (CompletionException e) {
+            throw new ModelLoadException("Ошибка загрузки сцены: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Загружает сцену так, чтобы ее можно было показать до окончания декодирования геометрии.
+     * Для бинарных сцен сначала читается таблица объектов, а геометрия мешей
+     * декодируется параллельно в общем пуле потоков. Сцены в формате JSON
+     * читаются целиком и возвращаются уже загруженными.
+     *
+     * @param filePath  путь к файлу сцены
+     * @param publisher исполнитель, в котором объекты получают готовую геометрию
+     */
+    @Override
+    public SceneLoad loadSceneProgressively(String filePath, Executor publisher) {
         LOG.info("Загрузка сцены из файла: {}", filePath);
 
         try {
@@ -72,12 +104,25 @@ public class SceneServiceImpl implements SceneService {
                 LOG.warn("Файл сцены имеет нестандартное расширение: {}", filePath);
             }
 
-            String content = new String(Files.readAllBytes(Paths.get(filePath)));
-            Scene scene = OBJECT_MAPPER.readValue(content, Scene.class);
+            Path path = Paths.get(filePath);
+            SceneLoad load;
+            if (SceneBinaryFormat.isBinaryScene(path)) {
+                load = SceneBinaryReader.readProgressively(path, ForkJoinPool.commonPool(), publisher);
+            } else {
+                try (InputStream input = new BufferedInputStream(Files.newInputStream(path))) {
+                    load = SceneLoad.completed(OBJECT_MAPPER.readValue(input, Scene.class));
+                }
+            }
 
+            Scene scene = load.getScene();
             LOG.info("Сцена '{}' успешно загружена. Объектов: {}",
                 scene.getName(), scene.getObjectCount());
-            return scene;
+            load.getCompletion().whenComplete((ignored, error) -> {
+                if (error != null) {
+                    LOG.error("Ошибка загрузки геометрии сцены '{}': {}", scene.getName(), error.getMessage(), error);
+                }
+            });
+            return load;
 
         } catch (IOException e) {
             LOG.error("Ошибка загрузки сцены из файла '{}': {}", filePath, e.getMessage(), e);
@@ -99,14 +144,19 @@ public class SceneServiceImpl implements SceneService {
             String normalizedPath = PathManager.normalizePath(filePath);
 
             if (!normalizedPath.toLowerCase().endsWith(".json") &&
-                !normalizedPath.toLowerCase().endsWith(".3dscene")) {
+                !normalizedPath.toLowerCase().endsWith(BINARY_SCENE_EXTENSION)) {
                 normalizedPath = PathManager.ensureExtension(normalizedPath, ".json");
             }
 
             PathManager.validatePathForSave(normalizedPath);
 
-            String json = OBJECT_MAPPER.writeValueAsString(scene);
-            Files.write(Paths.get(normalizedPath), json.getBytes());
+            if (normalizedPath.toLowerCase().endsWith(BINARY_SCENE_EXTENSION)) {
+                SceneBinaryWriter.write(scene, Paths.get(normalizedPath));
+            } else {
+                try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(Paths.get(normalizedPath)))) {
+                    OBJECT_MAPPER.writeValue(output, scene);
+                }
+            }
 
             LOG.info("Сцена '{}' успешно сохранена в файл: {}. Объектов: {}",
                 scene.getName(), normalizedPath, scene.getObjectCount());
@@ -13,9 +13,11 @@ public final class MessageConstants {
     public static final String POLYGONS_REMOVE_ERROR = "Ошибка удаления полигонов";
     public static final String POLYGONS_INDICES_INVALID = "Некорректные индексы полигонов";
     public static final String NO_SELECTED_OBJECT = "Нет выбранного объекта";
+    public static final String OBJECT_STILL_LOADING = "Геометрия объекта еще загружается";
 
     public static final String SCENE_LOAD_SUCCESS = "Сцена успешно загружена";
     public static final String SCENE_SAVE_SUCCESS = "Сцена успешно сохранена";
+    public static final String SCENE_STILL_LOADING = "Сцена еще загружается, дождитесь окончания загрузки";
 
     private MessageConstants() {
     }
@@ -2,12 +2,11 @@ package ru.vsu.cs.cg.utils.modification;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.model.IndexSet;
 import ru.vsu.cs.cg.model.Model;
 import ru.vsu.cs.cg.model.selection.ModelSelection;
 import ru.vsu.cs.cg.utils.parser.IndexParser;
 
-import java.util.Set;
-
 public final class ModificationUtils {
     private static final Logger LOG = LoggerFactory.getLogger(ModificationUtils.class);
 
@@ -17,7 +16,7 @@ public final class ModificationUtils {
     public static void updateSelection(String indicesInput, Model model, boolean isVertices, boolean select) {
         try {
             int maxIndex = isVertices ? model.getVertices().size() : model.getPolygons().size();
-            Set<Integer> indices = IndexParser.parseAndValidateIndices(indicesInput, maxIndex);
+            IndexSet indices = IndexParser.parseAndValidateIndices(indicesInput, maxIndex);
             ModelSelection selection = model.getSelection();
 
             if (isVertices) {
@@ -36,36 +35,28 @@ public final class ModificationUtils {
         }
     }
 
-    private static void handleVertexSelection(ModelSelection selection, Set<Integer> indices, boolean select) {
+    private static void handleVertexSelection(ModelSelection selection, IndexSet indices, boolean select) {
         if (select) {
             selection.clearVertexSelection();
-            indices.forEach(selection::selectVertex);
+            selection.selectVertices(indices);
         } else {
             if (indices.isEmpty()) {
                 selection.clearVertexSelection();
             } else {
-                indices.forEach(index -> {
-                    if (selection.isVertexSelected(index)) {
-                        selection.deselectVertex(index);
-                    }
-                });
+                selection.deselectVertices(indices);
             }
         }
     }
 
-    private static void handlePolygonSelection(ModelSelection selection, Set<Integer> indices, boolean select) {
+    private static void handlePolygonSelection(ModelSelection selection, IndexSet indices, boolean select) {
         if (select) {
             selection.clearPolygonSelection();
-            indices.forEach(selection::selectPolygon);
+            selection.selectPolygons(indices);
         } else {
             if (indices.isEmpty()) {
                 selection.clearPolygonSelection();
             } else {
-                indices.forEach(index -> {
-                    if (selection.isPolygonSelected(index)) {
-                        selection.deselectPolygon(index);
-                    }
-                });
+                selection.deselectPolygons(indices);
             }
         }
     }
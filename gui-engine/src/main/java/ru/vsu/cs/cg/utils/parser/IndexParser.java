@@ -2,10 +2,9 @@ package ru.vsu.cs.cg.utils.parser;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.vsu.cs.cg.model.IndexSet;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 public final class IndexParser {
     private static final Logger LOG = LoggerFactory.getLogger(IndexParser.class);
@@ -13,8 +12,17 @@ public final class IndexParser {
     private IndexParser() {
     }
 
-    public static Set<Integer> parseIndices(String input) {
-        Set<Integer> indices = new HashSet<>();
+    /**
+     * Разбирает список индексов и диапазонов вида {@code "0-5, 8, 10-12"}.
+     * Диапазоны добавляются целиком, без перебора индексов. Границы проверяются
+     * до добавления, поэтому диапазон за пределами модели не занимает память.
+     *
+     * @param maxIndex количество элементов модели; допустимы индексы от 0 до {@code maxIndex - 1}
+     * @return набор индексов; пустой, если строка пуста или некорректна
+     * @throws IndexOutOfBoundsException если индекс или граница диапазона выходит за пределы модели
+     */
+    public static IndexSet parseIndices(String input, int maxIndex) {
+        IndexSet indices = new IndexSet();
 
         if (input == null || input.trim().isEmpty()) {
             return indices;
@@ -26,13 +34,16 @@ public final class IndexParser {
             for (String part : parts) {
                 String trimmed = part.trim();
                 if (trimmed.contains("-")) {
-                    parseRange(trimmed, indices);
+                    parseRange(trimmed, indices, maxIndex);
                 } else {
-                    parseSingleIndex(trimmed, indices);
+                    parseSingleIndex(trimmed, indices, maxIndex);
                 }
             }
 
-            LOG.debug("Успешно распарсены индексы: {}", indices);
+            LOG.debug("Успешно распарсены индексы: {} шт.", indices.size());
+        } catch (IndexOutOfBoundsException e) {
+            LOG.warn(e.getMessage());
+            throw e;
         } catch (Exception e) {
             LOG.error("Ошибка парсинга индексов '{}': {}", input, e.getMessage());
             indices.clear();
@@ -41,7 +52,7 @@ public final class IndexParser {
         return indices;
     }
 
-    private static void parseRange(String range, Set<Integer> indices) {
+    private static void parseRange(String range, IndexSet indices, int maxIndex) {
         String[] bounds = range.split("-");
         if (bounds.length != 2) {
             throw new IllegalArgumentException("Некорректный формат диапазона: " + range);
@@ -54,81 +65,46 @@ public final class IndexParser {
             throw new IllegalArgumentException("Начало диапазона больше конца: " + range);
         }
 
-        for (int i = start; i <= end; i++) {
-            indices.add(i);
-        }
+        checkBounds(start, maxIndex);
+        checkBounds(end, maxIndex);
+        indices.addRange(start, end + 1);
     }
 
-    private static void parseSingleIndex(String indexStr, Set<Integer> indices) {
+    private static void parseSingleIndex(String indexStr, IndexSet indices, int maxIndex) {
         int index = Integer.parseInt(indexStr.trim());
+        checkBounds(index, maxIndex);
         indices.add(index);
     }
 
-    public static boolean validateIndices(Set<Integer> indices, int maxIndex) {
-        if (indices == null) {
-            return false;
+    private static void checkBounds(int index, int maxIndex) {
+        if (index < 0 || index >= maxIndex) {
+            throw new IndexOutOfBoundsException(
+                String.format("Индекс %d выходит за пределы допустимого диапазона 0-%d", index, maxIndex - 1));
         }
-
-        for (Integer index : indices) {
-            if (index < 0 || index >= maxIndex) {
-                LOG.warn("Индекс {} выходит за пределы допустимого диапазона 0-{}", index, maxIndex - 1);
-                return false;
-            }
-        }
-
-        return true;
     }
 
-    public static Set<Integer> parseAndValidateIndices(String input, int maxIndex) {
-        Set<Integer> indices = parseIndices(input);
-        if (!validateIndices(indices, maxIndex)) {
-            throw new IllegalArgumentException("Один или несколько индексов выходят за пределы допустимого диапазона");
+    public static IndexSet parseAndValidateIndices(String input, int maxIndex) {
+        try {
+            return parseIndices(input, maxIndex);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Один или несколько индексов выходят за пределы допустимого диапазона", e);
         }
-        return indices;
     }
 
     public static String formatIndices(List<Integer> indices) {
         if (indices == null || indices.isEmpty()) {
             return "";
         }
+        return formatIndices(IndexSet.from(indices));
+    }
 
-        List<Integer> sorted = indices.stream()
-            .distinct()
-            .sorted()
-            .toList();
-
-        StringBuilder result = new StringBuilder();
-        Integer rangeStart = null;
-        Integer rangeEnd = null;
-
-        for (int i = 0; i < sorted.size(); i++) {
-            int current = sorted.get(i);
-
-            if (rangeStart == null) {
-                rangeStart = current;
-                rangeEnd = current;
-            } else if (current == rangeEnd + 1) {
-                rangeEnd = current;
-            } else {
-                if (rangeStart.equals(rangeEnd)) {
-                    result.append(rangeStart);
-                } else {
-                    result.append(rangeStart).append("-").append(rangeEnd);
-                }
-                result.append(", ");
-                rangeStart = current;
-                rangeEnd = current;
-            }
-        }
-
-        if (rangeStart != null) {
-            if (rangeStart.equals(rangeEnd)) {
-                result.append(rangeStart);
-            } else {
-                result.append(rangeStart).append("-").append(rangeEnd);
-            }
+    /**
+     * Записывает набор индексов диапазонами: {@code "0-5, 8, 10-12"}.
+     */
+    public static String formatIndices(IndexSet indices) {
+        if (indices == null || indices.isEmpty()) {
+            return "";
         }
-
-        return result.toString();
+        return indices.toString();
     }
 }
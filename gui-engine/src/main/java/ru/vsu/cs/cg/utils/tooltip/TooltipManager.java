@@ -33,6 +33,8 @@ public final class TooltipManager {
         HOTKEY_TOOLTIPS.put("transform_mode_move", "Инструмент перемещения (U)");
         HOTKEY_TOOLTIPS.put("transform_mode_rotate", "Инструмент вращения (I)");
         HOTKEY_TOOLTIPS.put("transform_mode_scale", "Инструмент масштабирования (O)");
+        HOTKEY_TOOLTIPS.put("selection_mode_box", "Выделение рамкой (B)");
+        HOTKEY_TOOLTIPS.put("selection_mode_lasso", "Выделение лассо (L)");
     }
 
     public static void addHotkeyTooltip(Control control, String buttonId) {
@@ -0,0 +1,126 @@
+package ru.vsu.cs.cg.controller.command.history;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.model.RemovedGeometry;
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.service.AutosaveService;
+import ru.vsu.cs.cg.utils.RemovalUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CommandHistoryTest {
+
+    @Mock
+    private AutosaveService autosaveService;
+
+    @Test
+    @DisplayName("Отмена и повтор трансформации восстанавливают значения")
+    void undoRedo_TransformEdit_ShouldRestoreValues() {
+        SceneObject object = new SceneObject("Куб", createQuadModel());
+        CommandHistory history = new CommandHistory(CommandHistory.DEFAULT_BUDGET_BYTES);
+
+        double[] before = TransformEdit.snapshot(object.getTransform());
+        object.getTransform().setPositionX(5.0);
+        history.record(TransformEdit.of(object, before));
+
+        history.undo(autosaveService);
+        assertEquals(0.0, object.getTransform().getPositionX());
+        assertTrue(history.canRedo());
+
+        history.redo(autosaveService);
+        assertEquals(5.0, object.getTransform().getPositionX());
+        verify(autosaveService, times(2)).recordTransform(object);
+    }
+
+    @Test
+    @DisplayName("Неизменившаяся трансформация не создает правку")
+    void of_UnchangedTransform_ShouldReturnNull() {
+        SceneObject object = new SceneObject("Куб", createQuadModel());
+
+        assertNull(TransformEdit.of(object, TransformEdit.snapshot(object.getTransform())));
+    }
+
+    @Test
+    @DisplayName("При превышении бюджета вытесняются самые старые правки")
+    void record_OverBudget_ShouldEvictOldest() {
+        SceneObject object = new SceneObject("Куб", createQuadModel());
+        CommandHistory history = new CommandHistory(1000);
+
+        for (int i = 1; i <= 20; i++) {
+            double[] before = TransformEdit.snapshot(object.getTransform());
+            object.getTransform().setPositionX(i);
+            history.record(TransformEdit.of(object, before));
+        }
+
+        assertTrue(history.getUsedBytes() <= 1000);
+        assertTrue(history.size() < 20);
+        while (history.canUndo()) {
+            history.undo(autosaveService);
+        }
+        assertTrue(object.getTransform().getPositionX() > 0);
+    }
+
+    @Test
+    @DisplayName("Отмена удаления полигонов возвращает геометрию и освобождает запись")
+    void undo_PolygonRemoval_ShouldRestoreGeometry() {
+        Model model = createQuadModel();
+        SceneObject object = new SceneObject("Плоскость", model);
+        CommandHistory history = new CommandHistory(CommandHistory.DEFAULT_BUDGET_BYTES);
+
+        RemovedGeometry removed = RemovalUtils.removePolygonsFromModel(model, Set.of(0));
+        history.record(GeometryRemovalEdit.polygons(object, Set.of(0), removed));
+        long recorded = history.getUsedBytes();
+        assertEquals(1, model.getPolygons().size());
+
+        history.undo(autosaveService);
+        assertEquals(2, model.getPolygons().size());
+        assertEquals(List.of(0, 1, 2), model.getPolygons().get(0).getVertexIndices());
+        assertTrue(history.getUsedBytes() < recorded);
+        verify(autosaveService).recordGeometryRestored(object, removed);
+        verify(autosaveService, never()).recordObjectAdded(object);
+
+        history.redo(autosaveService);
+        assertEquals(1, model.getPolygons().size());
+        verify(autosaveService).recordPolygonsRemoved(object, Set.of(0));
+    }
+
+    @Test
+    @DisplayName("Правки удаленного объекта забываются")
+    void forget_Target_ShouldDropItsEdits() {
+        SceneObject object = new SceneObject("Куб", createQuadModel());
+        CommandHistory history = new CommandHistory(CommandHistory.DEFAULT_BUDGET_BYTES);
+        double[] before = TransformEdit.snapshot(object.getTransform());
+        object.getTransform().setScaleY(2.0);
+        history.record(TransformEdit.of(object, before));
+
+        history.forget(object);
+
+        assertFalse(history.canUndo());
+        assertEquals(0, history.getUsedBytes());
+    }
+
+    private Model createQuadModel() {
+        Model model = new Model();
+        model.addVertex(new Vector3f(0, 0, 0));
+        model.addVertex(new Vector3f(1, 0, 0));
+        model.addVertex(new Vector3f(1, 1, 0));
+        model.addVertex(new Vector3f(0, 1, 0));
+        model.addPolygon(new Polygon(List.of(0, 1, 2), List.of(), List.of()));
+        model.addPolygon(new Polygon(List.of(0, 2, 3), List.of(), List.of()));
+        return model;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.vsu.cs.cg.scene;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicResolutionTest {
+    private static final long BUDGET = 16_000_000L;
+    private static final long IDLE = 300_000_000L;
+
+    @Test
+    @DisplayName("Медленные кадры при движении камеры должны снижать масштаб, но не ниже минимального")
+    void endFrame_SlowFramesWhileMoving_ShouldReduceScale() {
+        DynamicResolution resolution = new DynamicResolution(BUDGET, IDLE);
+
+        resolution.beginFrame(true, 0);
+        resolution.endFrame(BUDGET * 4);
+        assertEquals(0.5f, resolution.getScale(), 1e-6f);
+
+        for (int frame = 1; frame < 10; frame++) {
+            resolution.beginFrame(true, frame * BUDGET);
+            resolution.endFrame(BUDGET * 4);
+        }
+        assertEquals(DynamicResolution.MIN_SCALE, resolution.getScale(), 1e-6f);
+    }
+
+    @Test
+    @DisplayName("Быстрые кадры должны постепенно возвращать масштаб к полному")
+    void endFrame_FastFramesWhileMoving_ShouldGrowScaleGradually() {
+        DynamicResolution resolution = new DynamicResolution(BUDGET, IDLE);
+        resolution.beginFrame(true, 0);
+        resolution.endFrame(BUDGET * 4);
+
+        resolution.beginFrame(true, BUDGET);
+        resolution.endFrame(BUDGET / 10);
+        assertEquals(0.55f, resolution.getScale(), 1e-6f);
+
+        for (int frame = 2; frame < 20; frame++) {
+            resolution.beginFrame(true, frame * BUDGET);
+            resolution.endFrame(BUDGET / 10);
+        }
+        assertEquals(1.0f, resolution.getScale(), 1e-6f);
+    }
+
+    @Test
+    @DisplayName("После паузы без движения и при выключенном режиме масштаб должен быть полным")
+    void beginFrame_AfterIdle_ShouldSnapToFullResolution() {
+        DynamicResolution resolution = new DynamicResolution(BUDGET, IDLE);
+        resolution.beginFrame(true, 0);
+        resolution.endFrame(BUDGET * 4);
+
+        assertEquals(0.5f, resolution.beginFrame(false, IDLE / 2), 1e-6f);
+        assertEquals(1.0f, resolution.beginFrame(false, IDLE * 2), 1e-6f);
+
+        resolution.setEnabled(false);
+        resolution.beginFrame(true, IDLE * 3);
+        resolution.endFrame(BUDGET * 4);
+        assertEquals(1.0f, resolution.getScale(), 1e-6f);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.vsu.cs.cg.scene;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.renderEngine.dto.RenderEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderEntityTableTest {
+
+    private Scene scene;
+    private SceneObject object;
+    private RenderEntityTable table;
+
+    @BeforeEach
+    void setUp() {
+        scene = new Scene();
+        object = new SceneObject("Object", new Model());
+        scene.addObject(object);
+        table = new RenderEntityTable();
+    }
+
+    @Test
+    @DisplayName("Неизменный объект должен отдавать одну и ту же сущность отрисовки в каждом кадре")
+    void add_UnchangedObject_ShouldReuseEntity() {
+        RenderEntity first = renderFrame().get(0);
+        List<RenderEntity> frame = renderFrame();
+
+        assertEquals(1, frame.size());
+        assertSame(first, frame.get(0));
+        assertSame(object.getModelMatrix(), first.getModelMatrix());
+    }
+
+    @Test
+    @DisplayName("Изменение трансформации, материала или настроек должно пересобирать запись")
+    void add_ChangedSources_ShouldRebuildEntity() {
+        RenderEntity initial = renderFrame().get(0);
+
+        object.getTransform().setPositionX(5);
+        RenderEntity moved = renderFrame().get(0);
+        assertNotSame(initial, moved);
+        assertEquals(5, moved.getModelMatrix().get(0, 3), 1e-6f);
+
+        object.getMaterial().setRed(0.25);
+        RenderEntity recolored = renderFrame().get(0);
+        assertNotSame(moved, recolored);
+        assertEquals(0.25, recolored.getSettings().getDefaultColor().getRed(), 1e-6);
+
+        object.getRenderSettings().setDrawPolygonalGrid(!object.getRenderSettings().isDrawPolygonalGrid());
+        assertNotSame(recolored, renderFrame().get(0));
+    }
+
+    @Test
+    @DisplayName("Запись удаленного объекта должна отбрасываться при смене снимка сцены")
+    void beginFrame_ObjectRemoved_ShouldPruneEntry() {
+        SceneObject other = new SceneObject("Other", new Model());
+        scene.addObject(other);
+        renderFrame();
+        assertEquals(2, table.size());
+
+        scene.removeObject(other);
+        List<RenderEntity> frame = renderFrame();
+
+        assertEquals(1, frame.size());
+        assertEquals(1, table.size());
+    }
+
+    private List<RenderEntity> renderFrame() {
+        List<SceneObject> objects = scene.getObjects();
+        List<RenderEntity> frame = table.beginFrame(objects);
+        for (SceneObject sceneObject : objects) {
+            table.add(sceneObject, null, false);
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,213 @@
+package ru.vsu.cs.cg.scene;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.math.Matrix4x4;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SceneTest {
+
+    private Scene scene;
+
+    @BeforeEach
+    void setUp() {
+        scene = new Scene();
+    }
+
+    @Test
+    @DisplayName("Снимок объектов должен переиспользоваться между кадрами и обновляться после добавления")
+    void getObjects_ShouldReuseSnapshotUntilStructuralChange() {
+        SceneObject first = new SceneObject("First", new Model());
+        scene.addObject(first);
+
+        List<SceneObject> snapshot = scene.getObjects();
+        assertSame(snapshot, scene.getObjects());
+
+        SceneObject second = new SceneObject("Second", new Model());
+        scene.addObject(second);
+
+        assertEquals(List.of(first), snapshot);
+        assertEquals(List.of(first, second), scene.getObjects());
+        assertThrows(UnsupportedOperationException.class, () -> scene.getObjects().add(first));
+    }
+
+    @Test
+    @DisplayName("Добавление на позицию должно вставлять объект в порядок сцены")
+    void addObject_AtPosition_ShouldInsertIntoOrder() {
+        SceneObject first = new SceneObject("First", new Model());
+        SceneObject second = new SceneObject("Second", new Model());
+        SceneObject inserted = new SceneObject("Inserted", new Model());
+        scene.addObject(first);
+        scene.addObject(second);
+
+        scene.addObject(inserted, 1);
+
+        assertEquals(List.of(first, inserted, second), scene.getObjects());
+        assertEquals(1, scene.indexOf(inserted));
+        assertSame(inserted, scene.findObjectByName("Inserted").orElseThrow());
+        assertSame(scene, inserted.getOwner());
+    }
+
+    @Test
+    @DisplayName("Позиции объектов должны оставаться верными после добавлений, вставок и удалений")
+    void indexOf_AfterMixedChanges_ShouldMatchObjectOrder() {
+        SceneObject first = new SceneObject("First", new Model());
+        SceneObject second = new SceneObject("Second", new Model());
+        SceneObject third = new SceneObject("Third", new Model());
+        SceneObject inserted = new SceneObject("Inserted", new Model());
+        scene.addObject(first);
+        scene.addObject(second);
+        assertEquals(1, scene.indexOf(second));
+
+        scene.addObject(third);
+        assertEquals(2, scene.indexOf(third));
+        scene.addObject(inserted, 0);
+        assertEquals(3, scene.indexOf(third));
+        scene.removeObject(first);
+
+        List<SceneObject> objects = scene.getObjects();
+        assertEquals(List.of(inserted, second, third), objects);
+        for (int i = 0; i < objects.size(); i++) {
+            assertEquals(i, scene.indexOf(objects.get(i)));
+        }
+        assertEquals(-1, scene.indexOf(first));
+    }
+
+    @Test
+    @DisplayName("Переименование объекта должно обновлять индекс имен")
+    void findObjectByName_AfterRename_ShouldUseNewName() {
+        SceneObject object = new SceneObject("Old", new Model());
+        scene.addObject(object);
+
+        object.setName("New");
+
+        assertTrue(scene.findObjectByName("Old").isEmpty());
+        assertSame(object, scene.findObjectByName("New").orElseThrow());
+        assertSame(object, scene.findObjectById(object.getId()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Удаление объекта должно убирать его из индексов, оставляя одноименный объект")
+    void removeObject_WithDuplicateName_ShouldKeepOtherObjectIndexed() {
+        SceneObject first = new SceneObject("Same", new Model());
+        SceneObject second = new SceneObject("Same", new Model());
+        scene.addObject(first);
+        scene.addObject(second);
+        scene.selectObject(first);
+
+        assertSame(first, scene.findObjectByName("Same").orElseThrow());
+        assertTrue(scene.removeObject(first));
+
+        assertSame(second, scene.findObjectByName("Same").orElseThrow());
+        assertTrue(scene.findObjectById(first.getId()).isEmpty());
+        assertNull(scene.getSelectedObject());
+        assertFalse(scene.removeObject(first));
+
+        first.setName("Detached");
+        assertTrue(scene.findObjectByName("Detached").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Мировая матрица потомка должна кэшироваться и пересчитываться после сдвига родителя")
+    void getModelMatrix_ParentMoved_ShouldRecomputeChildOnly() {
+        SceneObject parent = new SceneObject("Parent", new Model());
+        SceneObject child = new SceneObject("Child", new Model());
+        scene.addObject(parent);
+        scene.addObject(child);
+        assertTrue(scene.setParent(child, parent));
+        child.getTransform().setPositionX(1);
+
+        Matrix4x4 cached = child.getModelMatrix();
+        assertSame(cached, child.getModelMatrix());
+        assertSame(child.getNormalMatrix(), child.getNormalMatrix());
+
+        parent.getTransform().setPositionX(10);
+        Matrix4x4 moved = child.getModelMatrix();
+
+        assertNotSame(cached, moved);
+        assertEquals(11, moved.get(0, 3), 1e-6f);
+        assertSame(moved, child.getModelMatrix());
+    }
+
+    @Test
+    @DisplayName("Границы поддерева должны объединять границы потомков в мировых координатах")
+    void getWorldBounds_WithChild_ShouldAggregateSubtree() {
+        SceneObject parent = new SceneObject("Parent", pointModel(0, 0, 0));
+        SceneObject child = new SceneObject("Child", pointModel(1, 1, 1));
+        scene.addObject(parent);
+        scene.addObject(child);
+        scene.setParent(child, parent);
+        parent.getTransform().setScaleX(2);
+
+        float[] bounds = parent.getWorldBounds();
+        assertArrayEquals(new float[]{0, 0, 0, 2, 1, 1}, bounds, 1e-6f);
+        assertSame(bounds, parent.getWorldBounds());
+
+        child.getModel().getVerticesMutable().set(0, new Vector3f(-1, 3, 1));
+        assertArrayEquals(new float[]{-2, 0, 0, 0, 3, 1}, parent.getWorldBounds(), 1e-6f);
+    }
+
+    @Test
+    @DisplayName("Связь, образующая цикл, должна отклоняться, а удаление родителя — делать потомков корневыми")
+    void setParent_Cycle_ShouldBeRejected() {
+        SceneObject root = new SceneObject("Root", new Model());
+        SceneObject middle = new SceneObject("Middle", new Model());
+        SceneObject leaf = new SceneObject("Leaf", new Model());
+        scene.addObject(root);
+        scene.addObject(middle);
+        scene.addObject(leaf);
+        scene.setParent(middle, root);
+        scene.setParent(leaf, middle);
+
+        assertFalse(scene.setParent(root, leaf));
+        assertFalse(scene.setParent(root, root));
+        assertNull(root.getParent());
+
+        scene.removeObject(middle);
+        assertNull(leaf.getParent());
+        assertTrue(root.getChildren().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Удаление родителя не должно сдвигать потомка в мировых координатах")
+    void removeObject_Parent_ShouldKeepChildWorldTransform() {
+        SceneObject parent = new SceneObject("Parent", new Model());
+        SceneObject child = new SceneObject("Child", new Model());
+        scene.addObject(parent);
+        scene.addObject(child);
+        scene.setParent(child, parent);
+        parent.getTransform().setPositionX(10);
+        parent.getTransform().setRotationZ(Math.PI / 2);
+        parent.getTransform().setScaleX(2);
+        parent.getTransform().setScaleY(2);
+        parent.getTransform().setScaleZ(2);
+        child.getTransform().setPositionX(1);
+        child.getTransform().setRotationX(0.3);
+        child.getTransform().setScaleZ(3);
+        Matrix4x4 before = child.getModelMatrix();
+
+        scene.removeObject(parent);
+
+        assertNull(child.getParent());
+        Matrix4x4 after = child.getModelMatrix();
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 4; column++) {
+                assertEquals(before.get(row, column), after.get(row, column), 1e-4f);
+            }
+        }
+        assertEquals(10, child.getTransform().getPositionX(), 1e-5);
+        assertEquals(2, child.getTransform().getPositionY(), 1e-5);
+    }
+
+    private static Model pointModel(float x, float y, float z) {
+        Model model = new Model();
+        model.addVertex(new Vector3f(x, y, z));
+        return model;
+    }
+}
@@ -0,0 +1,327 @@
+package ru.vsu.cs.cg.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.vsu.cs.cg.math.Vector3f;
+import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.model.RemovedGeometry;
+import ru.vsu.cs.cg.rasterization.ShadingMode;
+import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneObject;
+import ru.vsu.cs.cg.service.ModelService;
+import ru.vsu.cs.cg.utils.RemovalUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutosaveServiceImplTest {
+
+    @Mock
+    private ModelService modelService;
+
+    private SceneServiceImpl sceneService;
+    private AutosaveServiceImpl autosaveService;
+    private Path sceneFile;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        sceneService = new SceneServiceImpl(modelService);
+        autosaveService = new AutosaveServiceImpl(sceneService);
+        sceneFile = tempDir.resolve("scene.3dscene");
+    }
+
+    @AfterEach
+    void tearDown() {
+        autosaveService.closeSession(false);
+    }
+
+    @Test
+    @DisplayName("Восстановление должно применять записанные правки к сохраненной сцене")
+    void recover_AfterRecordedChanges_ShouldReplayJournal() throws IOException {
+        Scene scene = createSavedScene();
+        SceneObject first = scene.getObjects().get(0);
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        first.getTransform().setPositionX(5.0);
+        autosaveService.recordTransform(first);
+        first.setName("Переименованный");
+        autosaveService.recordRename(first);
+        SceneObject added = new SceneObject("Добавленный", createStripModel(6));
+        scene.addObject(added);
+        autosaveService.recordObjectAdded(added);
+        autosaveService.closeSession(false);
+
+        assertTrue(autosaveService.hasRecoverableChanges(sceneFile.toString()));
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+
+        assertEquals(2, recovered.getObjectCount());
+        SceneObject recoveredFirst = recovered.findObjectById(first.getId()).orElseThrow();
+        assertEquals("Переименованный", recoveredFirst.getName());
+        assertEquals(5.0, recoveredFirst.getTransform().getPositionX(), 1e-6);
+        SceneObject recoveredAdded = recovered.findObjectById(added.getId()).orElseThrow();
+        assertEquals(6, recoveredAdded.getModel().getVertices().size());
+        assertEquals(4, recoveredAdded.getModel().getPolygons().size());
+    }
+
+    @Test
+    @DisplayName("Восстановление должно сохранять родителя и позицию добавленного объекта")
+    void recover_AfterAddAndReparent_ShouldKeepHierarchyAndOrder() throws IOException {
+        Scene scene = createSavedScene();
+        SceneObject first = scene.getObjects().get(0);
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        SceneObject inserted = new SceneObject("Вставленный", createStripModel(3));
+        scene.addObject(inserted, 0);
+        scene.setParent(inserted, first);
+        autosaveService.recordObjectAdded(inserted);
+        SceneObject last = new SceneObject("Последний", createStripModel(3));
+        scene.addObject(last);
+        autosaveService.recordObjectAdded(last);
+        scene.setParent(first, last);
+        autosaveService.recordParentChanged(first);
+        autosaveService.closeSession(false);
+
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+
+        List<String> order = recovered.getObjects().stream().map(SceneObject::getId).toList();
+        assertEquals(List.of(inserted.getId(), first.getId(), last.getId()), order);
+        SceneObject recoveredFirst = recovered.findObjectById(first.getId()).orElseThrow();
+        assertEquals(first.getId(), recovered.findObjectById(inserted.getId()).orElseThrow().getParentId());
+        assertEquals(last.getId(), recoveredFirst.getParentId());
+    }
+
+    @Test
+    @DisplayName("Способ освещения должен восстанавливаться из записей материала и добавления объекта")
+    void recover_AfterShadingChange_ShouldRestoreShadingMode() throws IOException {
+        Scene scene = createSavedScene();
+        SceneObject first = scene.getObjects().get(0);
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        first.getRenderSettings().setShadingMode(ShadingMode.FLAT);
+        autosaveService.recordMaterial(first);
+        SceneObject added = new SceneObject("Добавленный", createStripModel(3));
+        added.getRenderSettings().setShadingMode(ShadingMode.GOURAUD);
+        scene.addObject(added);
+        autosaveService.recordObjectAdded(added);
+        autosaveService.closeSession(false);
+
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+
+        assertEquals(ShadingMode.FLAT,
+            recovered.findObjectById(first.getId()).orElseThrow().getRenderSettings().getShadingMode());
+        assertEquals(ShadingMode.GOURAUD,
+            recovered.findObjectById(added.getId()).orElseThrow().getRenderSettings().getShadingMode());
+    }
+
+    @Test
+    @DisplayName("Геометрия добавленного объекта должна записываться на момент добавления")
+    void recover_AfterEditFollowingAdd_ShouldKeepGeometryAtAddTime() throws IOException {
+        Scene scene = createSavedScene();
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        SceneObject added = new SceneObject("Добавленный", createStripModel(6));
+        scene.addObject(added);
+        autosaveService.recordObjectAdded(added);
+        RemovalUtils.removePolygonsFromModel(added.getModel(), Set.of(0, 1, 2));
+        autosaveService.closeSession(false);
+
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+
+        assertEquals(4, recovered.findObjectById(added.getId()).orElseThrow().getModel().getPolygons().size());
+    }
+
+    @Test
+    @DisplayName("Дубликат должен восстанавливаться с геометрией исходного объекта без ее записи в журнал")
+    void recover_AfterDuplicate_ShouldShareSourceGeometry() throws IOException {
+        Scene scene = createSavedScene();
+        SceneObject first = scene.getObjects().get(0);
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        SceneObject duplicate = first.copy();
+        duplicate.getTransform().setPositionX(3.0);
+        scene.addObject(duplicate);
+        autosaveService.recordObjectCopied(first, duplicate);
+        autosaveService.closeSession(false);
+
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+
+        SceneObject recoveredDuplicate = recovered.findObjectById(duplicate.getId()).orElseThrow();
+        assertEquals(duplicate.getName(), recoveredDuplicate.getName());
+        assertEquals(3.0, recoveredDuplicate.getTransform().getPositionX(), 1e-6);
+        assertEquals(4, recoveredDuplicate.getModel().getPolygons().size());
+        assertTrue(recoveredDuplicate.getModel().sharesGeometryWith(
+            recovered.findObjectById(first.getId()).orElseThrow().getModel()));
+        assertEquals(List.of(first.getId(), duplicate.getId()),
+            recovered.getObjects().stream().map(SceneObject::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Копия измененного после копирования объекта должна записываться вместе с геометрией")
+    void recordObjectCopied_SourceChangedAfterCopy_ShouldRecordGeometry() throws IOException {
+        Scene scene = createSavedScene();
+        SceneObject first = scene.getObjects().get(0);
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        SceneObject clipboard = first.copy();
+        RemovalUtils.removePolygonsFromModel(first.getModel(), Set.of(0));
+        autosaveService.recordPolygonsRemoved(first, Set.of(0));
+        SceneObject pasted = clipboard.copy();
+        scene.addObject(pasted);
+        autosaveService.recordObjectCopied(first, pasted);
+        autosaveService.closeSession(false);
+
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+
+        SceneObject recoveredPasted = recovered.findObjectById(pasted.getId()).orElseThrow();
+        assertEquals(4, recoveredPasted.getModel().getPolygons().size());
+        assertFalse(recoveredPasted.getModel().sharesGeometryWith(
+            recovered.findObjectById(first.getId()).orElseThrow().getModel()));
+    }
+
+    @Test
+    @DisplayName("Оборванная последняя запись журнала должна отбрасываться при восстановлении")
+    void recover_WithTornJournalTail_ShouldIgnoreIncompleteRecord() throws IOException {
+        Scene scene = createSavedScene();
+        SceneObject object = scene.getObjects().get(0);
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        object.setVisible(false);
+        autosaveService.recordVisibility(object);
+        autosaveService.closeSession(false);
+
+        Path journal = tempDir.resolve("scene.3dscene.journal.1");
+        Files.write(journal, new byte[]{100, 0, 0, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+
+        assertFalse(recovered.findObjectById(object.getId()).orElseThrow().isVisible());
+    }
+
+    @Test
+    @DisplayName("Удаление полигонов должно воспроизводиться из журнала")
+    void recover_AfterPolygonRemoval_ShouldRemovePolygons() throws IOException {
+        Scene scene = createSavedScene();
+        SceneObject object = scene.getObjects().get(0);
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        autosaveService.recordPolygonsRemoved(object, Set.of(0, 2));
+        autosaveService.closeSession(false);
+
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+
+        assertEquals(2, recovered.findObjectById(object.getId()).orElseThrow().getModel().getPolygons().size());
+    }
+
+    @Test
+    @DisplayName("Отмена удаления должна воспроизводиться из журнала по удаленной части геометрии")
+    void recover_AfterRemovalUndo_ShouldRestoreGeometry() throws IOException {
+        Scene scene = createSavedScene();
+        SceneObject object = scene.getObjects().get(0);
+        Model model = object.getModel();
+        List<List<Integer>> original = model.getPolygons().stream().map(Polygon::getVertexIndices).toList();
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        RemovedGeometry removed = RemovalUtils.removePolygonsFromModel(model, Set.of(0, 2));
+        autosaveService.recordPolygonsRemoved(object, Set.of(0, 2));
+        removed.restore(model);
+        autosaveService.recordGeometryRestored(object, removed);
+        autosaveService.closeSession(false);
+
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+
+        List<Polygon> polygons = recovered.findObjectById(object.getId()).orElseThrow().getModel().getPolygons();
+        assertEquals(original, polygons.stream().map(Polygon::getVertexIndices).toList());
+    }
+
+    @Test
+    @DisplayName("Переполнение журнала должно приводить к фоновому снимку и удалению старого журнала")
+    void record_OverCompactionThreshold_ShouldWriteSnapshot() throws Exception {
+        autosaveService = new AutosaveServiceImpl(sceneService, 256);
+        Scene scene = createSavedScene();
+        SceneObject object = scene.getObjects().get(0);
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+
+        for (int i = 1; i <= 20; i++) {
+            object.getTransform().setPositionY(i);
+            autosaveService.recordTransform(object);
+        }
+
+        Path sealedJournal = tempDir.resolve("scene.3dscene.journal.1");
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((!hasSnapshot() || Files.exists(sealedJournal)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        autosaveService.closeSession(false);
+
+        assertTrue(hasSnapshot());
+        assertFalse(Files.exists(sealedJournal));
+        Scene recovered = autosaveService.recover(sceneFile.toString());
+        assertEquals(20.0, recovered.findObjectById(object.getId()).orElseThrow().getTransform().getPositionY(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Закрытие сеанса с отменой изменений должно удалять файлы автосохранения")
+    void closeSession_WithDiscard_ShouldRemoveRecoverableChanges() throws IOException {
+        Scene scene = createSavedScene();
+        SceneObject object = scene.getObjects().get(0);
+        autosaveService.startSession(scene, sceneFile.toString(), true);
+        autosaveService.recordVisibility(object);
+
+        autosaveService.closeSession(true);
+
+        assertFalse(autosaveService.hasRecoverableChanges(sceneFile.toString()));
+        assertFalse(Files.exists(tempDir.resolve("scene.3dscene.journal.1")));
+    }
+
+    @Test
+    @DisplayName("Правки вне сеанса не должны записываться")
+    void record_WithoutSession_ShouldBeIgnored() {
+        SceneObject object = new SceneObject("Объект", createStripModel(3));
+
+        autosaveService.recordTransform(object);
+
+        assertFalse(autosaveService.hasRecoverableChanges(sceneFile.toString()));
+    }
+
+    private Scene createSavedScene() throws IOException {
+        Scene scene = new Scene();
+        scene.addObject(new SceneObject("Лента", createStripModel(6)));
+        sceneService.saveScene(scene, sceneFile.toString());
+        return scene;
+    }
+
+    private Model createStripModel(int vertexCount) {
+        Model model = new Model();
+        for (int i = 0; i < vertexCount; i++) {
+            model.addVertex(new Vector3f(i / 2, i % 2, 0));
+        }
+        for (int i = 0; i + 2 < vertexCount; i++) {
+            model.addPolygon(new Polygon(List.of(i, i + 1, i + 2), List.of(), List.of()));
+        }
+        return model;
+    }
+
+    private boolean hasSnapshot() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.anyMatch(file -> file.getFileName().toString().startsWith("scene.3dscene.autosave."));
+        }
+    }
+}
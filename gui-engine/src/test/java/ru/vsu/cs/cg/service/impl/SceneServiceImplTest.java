@@ -7,9 +7,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.vsu.cs.cg.binary.SceneBinaryFormat;
 import ru.vsu.cs.cg.exceptions.ModelLoadException;
+import ru.vsu.cs.cg.math.Vector2f;
+import ru.vsu.cs.cg.math.Vector3f;
 import ru.vsu.cs.cg.model.Model;
+import ru.vsu.cs.cg.model.Polygon;
+import ru.vsu.cs.cg.rasterization.ShadingMode;
 import ru.vsu.cs.cg.scene.Scene;
+import ru.vsu.cs.cg.scene.SceneLoad;
 import ru.vsu.cs.cg.scene.SceneObject;
 import ru.vsu.cs.cg.service.ModelService;
 import ru.vsu.cs.cg.utils.model.DefaultModelLoader;
@@ -18,6 +24,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -139,6 +148,216 @@ class SceneServiceImplTest {
         assertEquals(originalScene.getObjectCount(), loadedScene.getObjectCount());
     }
 
+    @Test
+    @DisplayName("Сохранение в .3dscene должно записывать бинарный файл и восстанавливать геометрию")
+    void saveAndLoadScene_WithBinaryFormat_ShouldPreserveGeometry() throws IOException {
+        Scene originalScene = new Scene();
+        originalScene.setName("BinaryScene");
+        SceneObject object = new SceneObject("Triangle", createTriangleModel());
+        object.getTransform().setPositionX(1.5);
+        object.getTransform().setScaleZ(2.0);
+        object.getMaterial().setRed(0.25);
+        originalScene.addObject(object);
+        originalScene.selectObject(object);
+
+        Path saveFile = tempDir.resolve("binary-scene.3dscene");
+        sceneService.saveScene(originalScene, saveFile.toString());
+
+        assertTrue(SceneBinaryFormat.isBinaryScene(saveFile));
+
+        Scene loadedScene = sceneService.loadScene(saveFile.toString());
+        SceneObject loadedObject = loadedScene.getObjects().get(0);
+        Model loadedModel = loadedObject.getModel();
+
+        assertEquals("BinaryScene", loadedScene.getName());
+        assertEquals(object.getId(), loadedScene.getSelectedObject().getId());
+        assertEquals("Triangle", loadedObject.getName());
+        assertEquals(1.5, loadedObject.getTransform().getPositionX());
+        assertEquals(2.0, loadedObject.getTransform().getScaleZ());
+        assertEquals(0.25, loadedObject.getMaterial().getRed());
+        assertEquals(object.getModel().getVertices(), loadedModel.getVertices());
+        assertEquals(3, loadedModel.getTextureVertices().size());
+        assertEquals(1.0f, loadedModel.getTextureVertices().get(1).getX());
+        assertEquals(object.getModel().getNormals(), loadedModel.getNormals());
+        assertEquals(1, loadedModel.getPolygons().size());
+        assertEquals(List.of(0, 1, 2), loadedModel.getPolygons().get(0).getVertexIndices());
+        assertEquals(List.of(0, 1, 2), loadedModel.getPolygons().get(0).getTextureVertexIndices());
+    }
+
+    @Test
+    @DisplayName("Сохранение в .3dscene должно восстанавливать иерархию объектов")
+    void saveAndLoadScene_WithHierarchy_ShouldPreserveParents() throws IOException {
+        Scene originalScene = new Scene();
+        SceneObject group = new SceneObject("Group", createTriangleModel());
+        SceneObject child = new SceneObject("Child", createTriangleModel());
+        originalScene.addObject(child);
+        originalScene.addObject(group);
+        assertTrue(originalScene.setParent(child, group));
+
+        Path saveFile = tempDir.resolve("hierarchy.3dscene");
+        sceneService.saveScene(originalScene, saveFile.toString());
+
+        Scene loadedScene = sceneService.loadScene(saveFile.toString());
+        SceneObject loadedChild = loadedScene.findObjectById(child.getId()).orElseThrow();
+        SceneObject loadedGroup = loadedScene.findObjectById(group.getId()).orElseThrow();
+
+        assertSame(loadedGroup, loadedChild.getParent());
+        assertEquals(List.of(loadedChild), loadedGroup.getChildren());
+        assertNull(loadedGroup.getParent());
+    }
+
+    @Test
+    @DisplayName("Сохранение в .3dscene должно сохранять способ освещения объекта")
+    void saveAndLoadScene_WithShadingMode_ShouldPreserveShadingMode() throws IOException {
+        Scene originalScene = new Scene();
+        SceneObject gouraud = new SceneObject("Gouraud", createTriangleModel());
+        gouraud.getRenderSettings().setShadingMode(ShadingMode.GOURAUD);
+        SceneObject flat = new SceneObject("Flat", createTriangleModel());
+        flat.getRenderSettings().setShadingMode(ShadingMode.FLAT);
+        originalScene.addObject(gouraud);
+        originalScene.addObject(flat);
+
+        Path saveFile = tempDir.resolve("shading.3dscene");
+        sceneService.saveScene(originalScene, saveFile.toString());
+
+        Scene loadedScene = sceneService.loadScene(saveFile.toString());
+        assertEquals(ShadingMode.GOURAUD,
+            loadedScene.findObjectById(gouraud.getId()).orElseThrow().getRenderSettings().getShadingMode());
+        assertEquals(ShadingMode.FLAT,
+            loadedScene.findObjectById(flat.getId()).orElseThrow().getRenderSettings().getShadingMode());
+    }
+
+    @Test
+    @DisplayName("Одинаковая геометрия нескольких объектов должна сохраняться в .3dscene один раз")
+    void saveScene_WithIdenticalMeshes_ShouldWriteGeometryOnce() throws IOException {
+        Scene singleScene = new Scene();
+        singleScene.addObject(new SceneObject("Strip", createStripModel(2000)));
+
+        Scene instancedScene = new Scene();
+        for (int i = 0; i < 10; i++) {
+            SceneObject instance = new SceneObject("Strip" + i, createStripModel(2000));
+            instance.getTransform().setPositionX(i);
+            instancedScene.addObject(instance);
+        }
+
+        Path singleFile = tempDir.resolve("single.3dscene");
+        Path instancedFile = tempDir.resolve("instanced.3dscene");
+        sceneService.saveScene(singleScene, singleFile.toString());
+        sceneService.saveScene(instancedScene, instancedFile.toString());
+
+        assertTrue(Files.size(instancedFile) < Files.size(singleFile) * 2);
+
+        Scene loadedScene = sceneService.loadScene(instancedFile.toString());
+        assertEquals(10, loadedScene.getObjectCount());
+        for (SceneObject object : loadedScene.getObjects()) {
+            assertEquals(2000, object.getModel().getVertices().size());
+            assertEquals(1998, object.getModel().getPolygons().size());
+        }
+        assertEquals(9.0, loadedScene.getObjects().get(9).getTransform().getPositionX());
+    }
+
+    @Test
+    @DisplayName("Постепенная загрузка .3dscene должна показывать заглушки до публикации геометрии")
+    void loadSceneProgressively_FromBinaryScene_ShouldPublishPlaceholdersFirst() throws Exception {
+        Scene scene = new Scene();
+        scene.addObject(new SceneObject("Strip", createStripModel(500)));
+        scene.addObject(new SceneObject("Triangle", createTriangleModel()));
+        Path file = tempDir.resolve("progressive.3dscene");
+        sceneService.saveScene(scene, file.toString());
+
+        Queue<Runnable> publications = new ConcurrentLinkedQueue<>();
+        SceneLoad load = sceneService.loadSceneProgressively(file.toString(), publications::add);
+
+        Scene loaded = load.getScene();
+        assertEquals(2, loaded.getObjectCount());
+        for (SceneObject object : loaded.getObjects()) {
+            assertTrue(object.isLoading());
+            assertEquals(8, object.getModel().getVertices().size());
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (publications.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(load.isDone());
+        publications.forEach(Runnable::run);
+
+        assertTrue(load.isDone());
+        SceneObject strip = loaded.findObjectByName("Strip").orElseThrow();
+        assertFalse(strip.isLoading());
+        assertEquals(500, strip.getModel().getVertices().size());
+        assertEquals(3, loaded.findObjectByName("Triangle").orElseThrow().getModel().getVertices().size());
+    }
+
+    @Test
+    @DisplayName("Постепенная загрузка JSON сцены должна возвращать уже загруженную сцену")
+    void loadSceneProgressively_FromJsonScene_ShouldCompleteImmediately() throws IOException {
+        Scene scene = new Scene();
+        scene.addObject(new SceneObject("Triangle", createTriangleModel()));
+        Path file = tempDir.resolve("progressive.json");
+        sceneService.saveScene(scene, file.toString());
+
+        SceneLoad load = sceneService.loadSceneProgressively(file.toString(), Runnable::run);
+
+        assertTrue(load.isDone());
+        assertFalse(load.getScene().getObjects().get(0).isLoading());
+        assertEquals(3, load.getScene().getObjects().get(0).getModel().getVertices().size());
+    }
+
+    @Test
+    @DisplayName("Загрузка JSON файла с расширением .3dscene должна поддерживаться")
+    void loadScene_FromJsonWith3dsceneExtension_ShouldReturnScene() throws IOException {
+        Path testFile = tempDir.resolve("legacy.3dscene");
+        Files.writeString(testFile, """
+            {
+              "name": "LegacyScene",
+              "objects": []
+            }
+            """);
+
+        Scene scene = sceneService.loadScene(testFile.toString());
+
+        assertEquals("LegacyScene", scene.getName());
+    }
+
+    @Test
+    @DisplayName("Сохранение в JSON должно записывать геометрию плоскими массивами и восстанавливать её")
+    void saveAndLoadScene_WithJsonFormat_ShouldPreserveGeometry() throws IOException {
+        Scene originalScene = new Scene();
+        SceneObject object = new SceneObject("Triangle", createTriangleModel());
+        originalScene.addObject(object);
+        originalScene.selectObject(object);
+
+        Path saveFile = tempDir.resolve("packed-scene.json");
+        sceneService.saveScene(originalScene, saveFile.toString());
+
+        String json = Files.readString(saveFile);
+        assertFalse(json.contains("transformedModel"));
+        assertFalse(json.contains("triangulatedPolygonsCache"));
+
+        Scene loadedScene = sceneService.loadScene(saveFile.toString());
+        Model loadedModel = loadedScene.getObjects().get(0).getModel();
+
+        assertEquals(object.getId(), loadedScene.getSelectedObject().getId());
+        assertEquals(object.getModel().getVertices(), loadedModel.getVertices());
+        assertEquals(object.getModel().getNormals(), loadedModel.getNormals());
+        assertEquals(3, loadedModel.getTextureVertices().size());
+        assertEquals(List.of(0, 1, 2), loadedModel.getPolygons().get(0).getVertexIndices());
+        assertEquals(List.of(0, 1, 2), loadedModel.getPolygons().get(0).getTextureVertexIndices());
+    }
+
+    @Test
+    @DisplayName("Загрузка сцены в прежнем JSON формате не должна дублировать геометрию")
+    void loadScene_FromLegacyJsonFormat_ShouldReadGeometryOnce() throws Exception {
+        Path legacyFile = Path.of(getClass().getResource("/textures/123.3dscene").toURI());
+
+        Scene scene = sceneService.loadScene(legacyFile.toString());
+        Model model = scene.getObjects().get(0).getModel();
+
+        assertEquals(1568, model.getVertices().size());
+        assertEquals(1024, model.getPolygons().size());
+    }
+
     @Test
     @DisplayName("Добавление стандартной модели должно создавать объект сцены")
     void addDefaultModelToScene_ShouldCreateSceneObject() {
@@ -215,4 +434,27 @@ class SceneServiceImplTest {
 
         assertEquals(1, scene.getObjectCount());
     }
+
+    private Model createTriangleModel() {
+        Model model = new Model();
+        model.addVertex(new Vector3f(0, 0, 0));
+        model.addVertex(new Vector3f(1, 0, 0));
+        model.addVertex(new Vector3f(0, 1, 0));
+        model.addTextureVertex(new Vector2f(0, 0));
+        model.addTextureVertex(new Vector2f(1, 0));
+        model.addTextureVertex(new Vector2f(0, 1));
+        model.addPolygon(new Polygon(List.of(0, 1, 2), List.of(0, 1, 2), List.of()));
+        return model;
+    }
+
+    private Model createStripModel(int vertexCount) {
+        Model model = new Model();
+        for (int i = 0; i < vertexCount; i++) {
+            model.addVertex(new Vector3f(i / 2, i % 2, 0));
+        }
+        for (int i = 0; i + 2 < vertexCount; i++) {
+            model.addPolygon(new Polygon(List.of(i, i + 1, i + 2), List.of(), List.of()));
+        }
+        return model;
+    }
 }
@@ -0,0 +1,34 @@
+package ru.vsu.cs.cg.utils.parser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.vsu.cs.cg.model.IndexSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexParserTest {
+
+    @Test
+    @DisplayName("Индексы и диапазоны в пределах модели должны разбираться")
+    void parseIndices_WithinBounds_ShouldParseRangesAndIndices() {
+        IndexSet indices = IndexParser.parseIndices("0-2, 5, 7-8", 10);
+
+        assertEquals(6, indices.size());
+        assertEquals("0-2, 5, 7-8", IndexParser.formatIndices(indices));
+    }
+
+    @Test
+    @DisplayName("Диапазон за пределами модели должен отклоняться до добавления")
+    void parseIndices_RangeOutOfBounds_ShouldThrow() {
+        assertThrows(IndexOutOfBoundsException.class, () -> IndexParser.parseIndices("0-2000000000", 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> IndexParser.parseIndices("10", 10));
+        assertThrows(IllegalArgumentException.class, () -> IndexParser.parseAndValidateIndices("3, 9-12", 10));
+    }
+
+    @Test
+    @DisplayName("Некорректная строка должна давать пустой набор")
+    void parseIndices_InvalidFormat_ShouldReturnEmpty() {
+        assertTrue(IndexParser.parseIndices("1-2-3", 10).isEmpty());
+        assertTrue(IndexParser.parseIndices("abc", 10).isEmpty());
+    }
+}